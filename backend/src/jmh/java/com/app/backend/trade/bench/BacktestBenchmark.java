@@ -0,0 +1,67 @@
+package com.app.backend.trade.bench;
+
+import com.app.backend.trade.model.RiskResult;
+import com.app.backend.trade.strategy.*;
+import org.openjdk.jmh.annotations.*;
+import org.ta4j.core.BarSeries;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backtest d'une stratégie : chemin ta4j complet (règles réévaluées) et moteur colonnaire sur signaux en cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BacktestBenchmark {
+
+    @Param({"1000", "5000", "20000"})
+    public int bars;
+
+    @Param({BenchmarkSeries.SYNTHETIC})
+    public String source;
+
+    @Param({"SmaCrossover", "Rsi", "Macd", "ImprovedTrendFollowing"})
+    public String strategyName;
+
+    private final StrategieBackTest backTest = new StrategieBackTest();
+    private BarSeries series;
+    private TradeStrategy strategy;
+    private SignalCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        series = BenchmarkSeries.of(source, bars);
+        backTest.setResultCacheSize(0);
+        strategy = switch (strategyName) {
+            case "SmaCrossover" -> new SmaCrossoverStrategy(10, 30);
+            case "Rsi" -> new RsiStrategy(14, 30, 70);
+            case "Macd" -> new MacdStrategy(12, 26, 9);
+            case "ImprovedTrendFollowing" -> new ImprovedTrendFollowingStrategy(20, 10, 30, 0.01, true, 14);
+            default -> throw new IllegalArgumentException(strategyName);
+        };
+        cache = new SignalCache(series);
+        cache.get(strategy);
+    }
+
+    /** Backtest historique : règles ta4j évaluées bougie par bougie */
+    @Benchmark
+    public RiskResult backtestStrategyRisk() {
+        return backTest.backtestStrategyRisk(strategy, series);
+    }
+
+    /** Backtest froid : indicateurs + signaux + moteur colonnaire (cache neuf) */
+    @Benchmark
+    public RiskResult backtestStrategyColdCache() {
+        return backTest.backtestStrategy(strategy, new SignalCache(series));
+    }
+
+    /** Moteur colonnaire seul, signaux déjà en cache (cas des balayages d'optimisation) */
+    @Benchmark
+    public RiskResult backtestStrategyWarmCache() {
+        return backTest.backtestStrategy(strategy, cache);
+    }
+}
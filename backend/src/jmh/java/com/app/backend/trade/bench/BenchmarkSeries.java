@@ -0,0 +1,109 @@
+package com.app.backend.trade.bench;
+
+import com.app.backend.trade.model.DailyValue;
+import com.app.backend.trade.util.TradeUtils;
+import org.ta4j.core.BarSeries;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Séries de bougies figées pour les benchmarks JMH.
+ *
+ * - synthetic : marche aléatoire log-normale à graine fixe (mêmes bougies d'un run à l'autre)
+ * - recorded : bougies réelles lues depuis un CSV (date,open,high,low,close,volume), chemin passé par
+ *   -Dbench.series=... (ex: export de la table daily_value). Si le fichier est plus court que la taille
+ *   demandée, les bougies enregistrées sont rejouées en boucle pour atteindre le nombre de bougies.
+ *
+ * Exemple : mvn -Pjmh,cpu test-compile exec:exec -Djmh.args="-p source=recorded -jvmArgsAppend -Dbench.series=/data/AAPL.csv"
+ */
+public final class BenchmarkSeries {
+
+    public static final String SYNTHETIC = "synthetic";
+    public static final String RECORDED = "recorded";
+    public static final long SEED = 42L;
+
+    private BenchmarkSeries() {
+    }
+
+    public static BarSeries of(String source, int bars) {
+        if (RECORDED.equals(source)) {
+            String path = System.getProperty("bench.series");
+            if (path == null || path.isBlank()) {
+                throw new IllegalStateException("source=recorded : préciser le fichier CSV via -Dbench.series=...");
+            }
+            return recorded(Path.of(path), bars);
+        }
+        return synthetic(bars, SEED);
+    }
+
+    public static BarSeries synthetic(int bars, long seed) {
+        Random rnd = new Random(seed);
+        List<DailyValue> values = new ArrayList<>(bars);
+        LocalDate date = LocalDate.of(2000, 1, 3);
+        double price = 100.0;
+        for (int i = 0; i < bars; i++) {
+            double open = price;
+            price = Math.max(1.0, price * Math.exp(rnd.nextGaussian() * 0.02 + 0.0002));
+            double high = Math.max(open, price) * (1.0 + Math.abs(rnd.nextGaussian()) * 0.005);
+            double low = Math.min(open, price) * (1.0 - Math.abs(rnd.nextGaussian()) * 0.005);
+            values.add(dailyValue(date.plusDays(i), open, high, low, price, 1_000_000 + rnd.nextInt(500_000)));
+        }
+        return TradeUtils.mapping(values);
+    }
+
+    public static BarSeries recorded(Path csv, int bars) {
+        List<double[]> rows = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(csv)) {
+                String[] cols = line.split("[,;]");
+                if (cols.length < 6) continue;
+                try {
+                    rows.add(new double[]{
+                        Double.parseDouble(cols[1].trim()), Double.parseDouble(cols[2].trim()),
+                        Double.parseDouble(cols[3].trim()), Double.parseDouble(cols[4].trim()),
+                        Double.parseDouble(cols[5].trim())
+                    });
+                } catch (NumberFormatException e) {
+                    // en-tête ou ligne invalide
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (rows.size() < 2) {
+            throw new IllegalStateException("Fichier de bougies trop court : " + csv);
+        }
+        // Rejeu en boucle : chaque bougie est remise à l'échelle de la clôture précédente (prix continus au rebouclage)
+        List<DailyValue> values = new ArrayList<>(bars);
+        LocalDate date = LocalDate.of(2000, 1, 3);
+        double previousClose = rows.get(0)[0];
+        for (int i = 0; i < bars; i++) {
+            int k = i % rows.size();
+            double[] row = rows.get(k);
+            double reference = k == 0 ? row[0] : rows.get(k - 1)[3];
+            double scale = previousClose / reference;
+            double close = row[3] * scale;
+            values.add(dailyValue(date.plusDays(i), row[0] * scale, row[1] * scale, row[2] * scale, close, row[4]));
+            previousClose = close;
+        }
+        return TradeUtils.mapping(values);
+    }
+
+    private static DailyValue dailyValue(LocalDate date, double open, double high, double low, double close, double volume) {
+        return DailyValue.builder()
+            .date(date.toString())
+            .open(String.valueOf(open))
+            .high(String.valueOf(high))
+            .low(String.valueOf(low))
+            .close(String.valueOf(close))
+            .volume(String.valueOf((long) volume))
+            .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.app.backend.trade.bench;
+
+import com.app.backend.trade.controller.SwingTradeOptimParams;
+import com.app.backend.trade.strategy.OptimResultCache;
+import com.app.backend.trade.strategy.StrategieBackTest;
+import org.openjdk.jmh.annotations.*;
+import org.ta4j.core.BarSeries;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Méthodes optimise*Parameters de StrategieBackTest, avec les bornes utilisées par StrategieHelper.optimseStrategy
+ * (SwingTradeOptimParams par défaut). Chaque appel part d'un cache neuf (indicateurs compris) et le cache de
+ * résultats est désactivé ; optimiseSmaCrossoverResultCacheHit mesure seul le cas mémorisé.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OptimiserBenchmark {
+
+    @Param({"1000", "5000", "20000"})
+    public int bars;
+
+    @Param({BenchmarkSeries.SYNTHETIC})
+    public String source;
+
+    /** Threads des balayages (0 = nombre de coeurs, 1 = séquentiel) */
+    @Param({"1", "0"})
+    public int parallelism;
+
+    private final StrategieBackTest backTest = new StrategieBackTest();
+    private final StrategieBackTest cachedBackTest = new StrategieBackTest();
+    private final SwingTradeOptimParams p = new SwingTradeOptimParams();
+    private BarSeries series;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        series = BenchmarkSeries.of(source, bars);
+        backTest.setSweepParallelism(parallelism);
+        cachedBackTest.setSweepParallelism(parallelism);
+        backTest.setResultCacheSize(0);
+        cachedBackTest.setResultCacheSize(OptimResultCache.DEFAULT_MAX_ENTRIES);
+        optimiseSmaCrossover(cachedBackTest);
+    }
+
+    @Benchmark
+    public StrategieBackTest.ImprovedTrendFollowingParams optimiseImprovedTrendFollowing() {
+        return backTest.optimiseImprovedTrendFollowingParameters(series,
+            p.trendMaMin, p.trendMaMax, p.trendShortMaMin, p.trendShortMaMax, p.trendLongMaMin, p.trendLongMaMax,
+            p.trendBreakoutMin, p.trendBreakoutMax, p.trendBreakoutStep);
+    }
+
+    @Benchmark
+    public StrategieBackTest.SmaCrossoverParams optimiseSmaCrossover() {
+        return optimiseSmaCrossover(backTest);
+    }
+
+    /** Même balayage servi par le cache de résultats (clé déjà présente) */
+    @Benchmark
+    public StrategieBackTest.SmaCrossoverParams optimiseSmaCrossoverResultCacheHit() {
+        return optimiseSmaCrossover(cachedBackTest);
+    }
+
+    @Benchmark
+    public StrategieBackTest.RsiParams optimiseRsi() {
+        return backTest.optimiseRsiParameters(series, p.rsiPeriodMin, p.rsiPeriodMax,
+            p.rsiOversoldMin, p.rsiOversoldMax, p.rsiStep, p.rsiOverboughtMin, p.rsiOverboughtMax, p.rsiStep);
+    }
+
+    @Benchmark
+    public StrategieBackTest.BreakoutParams optimiseBreakout() {
+        return backTest.optimiseBreakoutParameters(series, p.breakoutLookbackMin, p.breakoutLookbackMax);
+    }
+
+    @Benchmark
+    public StrategieBackTest.MacdParams optimiseMacd() {
+        return backTest.optimiseMacdParameters(series, p.macdShortMin, p.macdShortMax, p.macdLongMin, p.macdLongMax,
+            p.macdSignalMin, p.macdSignalMax);
+    }
+
+    @Benchmark
+    public StrategieBackTest.MeanReversionParams optimiseMeanReversion() {
+        return backTest.optimiseMeanReversionParameters(series, p.meanRevSmaMin, p.meanRevSmaMax,
+            p.meanRevThresholdMin, p.meanRevThresholdMax, p.meanRevThresholdStep);
+    }
+
+    @Benchmark
+    public StrategieBackTest.TrendFollowingParams optimiseTrendFollowing() {
+        return backTest.optimiseTrendFollowingParameters(series, p.trendMaMin, p.trendMaMax);
+    }
+
+    private StrategieBackTest.SmaCrossoverParams optimiseSmaCrossover(StrategieBackTest target) {
+        return target.optimiseSmaCrossoverParameters(series, p.smaShortMin, p.smaShortMax, p.smaLongMin, p.smaLongMax);
+    }
+}
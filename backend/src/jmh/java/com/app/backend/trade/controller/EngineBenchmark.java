@@ -0,0 +1,59 @@
+package com.app.backend.trade.controller;
+
+import com.app.backend.trade.bench.BenchmarkSeries;
+import com.app.backend.trade.model.BestCombinationResult;
+import com.app.backend.trade.model.ComboResult;
+import com.app.backend.trade.strategy.*;
+import com.app.backend.trade.util.BarSeriesFactory;
+import org.openjdk.jmh.annotations.*;
+import org.ta4j.core.BarSeries;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chaînes complètes d'optimisation : StrategieHelper.optimseStrategy (3 folds, 6 balayages, 36 combinaisons)
+ * et BestCombinationStrategyHelper.evaluateCombination (combinaison 2 entrées / 2 sorties).
+ * Les helpers sont construits sans base de données : seules les méthodes de calcul sont appelées.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EngineBenchmark {
+
+    @Param({"1000", "5000", "20000"})
+    public int bars;
+
+    @Param({BenchmarkSeries.SYNTHETIC})
+    public String source;
+
+    private final SwingTradeOptimParams swingParams = new SwingTradeOptimParams();
+    private final List<Class<? extends TradeStrategy>> inCombo = List.of(ImprovedTrendFollowingStrategy.class, SmaCrossoverStrategy.class);
+    private final List<Class<? extends TradeStrategy>> outCombo = List.of(RsiStrategy.class, MacdStrategy.class);
+    private StrategieHelper strategieHelper;
+    private BestCombinationStrategyHelper bestCombinationHelper;
+    private BarSeries series;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        series = BenchmarkSeries.of(source, bars);
+        StrategieBackTest backTest = new StrategieBackTest();
+        // Sans cache de résultats : chaque itération refait les balayages
+        backTest.setResultCacheSize(0);
+        strategieHelper = new StrategieHelper(null, null, null, backTest, null, new BarSeriesFactory("decimal"));
+        bestCombinationHelper = new BestCombinationStrategyHelper(strategieHelper, null, backTest, new BarSeriesFactory("decimal"));
+    }
+
+    @Benchmark
+    public ComboResult optimseStrategy() {
+        return strategieHelper.optimseStrategy(series, swingParams);
+    }
+
+    @Benchmark
+    public BestCombinationResult evaluateCombination() {
+        return bestCombinationHelper.evaluateCombination(List.of(series), inCombo, outCombo);
+    }
+}
@@ -4,6 +4,7 @@ import com.app.backend.trade.model.*;
 import com.app.backend.trade.strategy.ParamsOptim;
 import com.app.backend.trade.strategy.*;
 import com.app.backend.trade.util.TradeConstant;
+import com.app.backend.trade.util.BarSeriesFactory;
 import com.app.backend.trade.util.TradeUtils;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -26,6 +27,7 @@ public class BestCombinationStrategyHelper {
     private final StrategieHelper strategieHelper;
     private final JdbcTemplate jdbcTemplate;
     private final StrategieBackTest strategieBackTest;
+    private final BarSeriesFactory barSeriesFactory;
     private final Gson gson = new Gson();
 
     private static final int NB_IN = 2;
@@ -33,10 +35,12 @@ public class BestCombinationStrategyHelper {
     private static final boolean INSERT_ONLY = true;
 
     @Autowired
-    public BestCombinationStrategyHelper(StrategieHelper strategieHelper, JdbcTemplate jdbcTemplate, StrategieBackTest strategieBackTest) {
+    public BestCombinationStrategyHelper(StrategieHelper strategieHelper, JdbcTemplate jdbcTemplate, StrategieBackTest strategieBackTest,
+                                         BarSeriesFactory barSeriesFactory) {
         this.strategieHelper = strategieHelper;
         this.jdbcTemplate = jdbcTemplate;
         this.strategieBackTest = strategieBackTest;
+        this.barSeriesFactory = barSeriesFactory;
     }
 
 
@@ -65,7 +69,7 @@ public class BestCombinationStrategyHelper {
         }
         strategieHelper.updateDBDailyValu(symbol);
         List<DailyValue> listeValus = strategieHelper.getDailyValuesFromDb(symbol, TradeConstant.NOMBRE_TOTAL_BOUGIES_OPTIM);
-        BarSeries barSeries = TradeUtils.mapping(listeValus);
+        BarSeries barSeries = barSeriesFactory.mapping(listeValus);
         List<ComboMixResult> allComboMixResult = new ArrayList<>();
         for (int in = 1; in <= NB_IN; in++) {
             for (int out = 1; out <= NB_OUT; out++) {
@@ -154,7 +158,8 @@ public class BestCombinationStrategyHelper {
     }
 
 
-    private BestCombinationResult evaluateCombination(List<BarSeries> seriesList, List<Class<? extends TradeStrategy>> inCombo, List<Class<? extends TradeStrategy>> outCombo) {
+    // Visibilité package : benchmarké dans src/jmh (EngineBenchmark)
+    BestCombinationResult evaluateCombination(List<BarSeries> seriesList, List<Class<? extends TradeStrategy>> inCombo, List<Class<? extends TradeStrategy>> outCombo) {
         BestCombinationResult resultObj = new BestCombinationResult();
         if (seriesList == null || seriesList.isEmpty()) {
             resultObj.finalResult.rendement = Double.NEGATIVE_INFINITY;
@@ -535,7 +540,7 @@ public class BestCombinationStrategyHelper {
         }
         this.strategieHelper.updateDBDailyValu(symbol);
         List<DailyValue> listeValus = strategieHelper.getDailyValuesFromDb(symbol, TradeConstant.NOMBRE_TOTAL_BOUGIES_FOR_SIGNAL);
-        BarSeries barSeries = TradeUtils.mapping(listeValus);
+        BarSeries barSeries = barSeriesFactory.mapping(listeValus);
         if (barSeries.getBarCount() == 0) {
             return SignalInfo.builder().symbol(symbol).type(SignalType.NONE)
                     .dateStr(lastTradingDay.format(java.time.format.DateTimeFormatter.ofPattern("dd-MM"))).build();
@@ -756,21 +761,25 @@ public class BestCombinationStrategyHelper {
         };
         int kFolds = 3;
         List<ComboMixResult> foldAllCombos = new ArrayList<>();
+        // Indicateurs / signaux calculés une fois sur la série complète, les fenêtres des folds ne sont que des vues
+        SignalCache fullCache = new SignalCache(fullSeries);
+        // test final sur les derniers 20% de bougies
+        SignalCache finalWindow = fullCache.window(totalCount - (int)Math.round(totalCount*0.2), totalCount);
 
         for (int fold = 0; fold < kFolds; fold++) {
             int optimStart = foldIndices[fold][0];
             int optimEnd = foldIndices[fold][1];
             int testStart = foldIndices[fold][2];
             int testEnd = foldIndices[fold][3];
-            BarSeries optimSeries = fullSeries.getSubSeries(optimStart, optimEnd);
-            BarSeries testSeries = fullSeries.getSubSeries(testStart, testEnd);
+            SignalCache optimWindow = fullCache.window(optimStart, optimEnd);
+            SignalCache testWindow = fullCache.window(testStart, testEnd);
             List<TradeStrategy> inStrategies = new ArrayList<>();
             List<String> inStrategyNames = new ArrayList<>();
             for (Class<? extends TradeStrategy> clazz : inCombo) {
                 inStrategyNames.add(clazz.getSimpleName());
                 if (clazz.equals(ImprovedTrendFollowingStrategy.class)) {
                     StrategieBackTest.ImprovedTrendFollowingParams params = strategieBackTest.optimiseImprovedTrendFollowingParameters(
-                        optimSeries,
+                        optimWindow,
                         swingParams.trendMaMin, swingParams.trendMaMax,
                         swingParams.trendShortMaMin, swingParams.trendShortMaMax,
                         swingParams.trendLongMaMin, swingParams.trendLongMaMax,
@@ -780,7 +789,7 @@ public class BestCombinationStrategyHelper {
                     resultObj.inParams.put("ImprovedTrendFollowing", params);
                 } else if (clazz.equals(SmaCrossoverStrategy.class)) {
                     StrategieBackTest.SmaCrossoverParams params = strategieBackTest.optimiseSmaCrossoverParameters(
-                        optimSeries,
+                        optimWindow,
                         swingParams.smaShortMin, swingParams.smaShortMax,
                         swingParams.smaLongMin, swingParams.smaLongMax
                     );
@@ -788,7 +797,7 @@ public class BestCombinationStrategyHelper {
                     resultObj.inParams.put("SmaCrossover", params);
                 } else if (clazz.equals(RsiStrategy.class)) {
                     StrategieBackTest.RsiParams params = strategieBackTest.optimiseRsiParameters(
-                        optimSeries,
+                        optimWindow,
                         swingParams.rsiPeriodMin, swingParams.rsiPeriodMax,
                         swingParams.rsiOversoldMin, swingParams.rsiOversoldMax,
                         swingParams.rsiStep,
@@ -799,14 +808,14 @@ public class BestCombinationStrategyHelper {
                     resultObj.inParams.put("Rsi", params);
                 } else if (clazz.equals(BreakoutStrategy.class)) {
                     StrategieBackTest.BreakoutParams params = strategieBackTest.optimiseBreakoutParameters(
-                        optimSeries,
+                        optimWindow,
                         swingParams.breakoutLookbackMin, swingParams.breakoutLookbackMax
                     );
                     inStrategies.add(new BreakoutStrategy(params.lookbackPeriod));
                     resultObj.inParams.put("Breakout", params);
                 } else if (clazz.equals(MacdStrategy.class)) {
                     StrategieBackTest.MacdParams params = strategieBackTest.optimiseMacdParameters(
-                        optimSeries,
+                        optimWindow,
                         swingParams.macdShortMin, swingParams.macdShortMax,
                         swingParams.macdLongMin, swingParams.macdLongMax,
                         swingParams.macdSignalMin, swingParams.macdSignalMax
@@ -815,7 +824,7 @@ public class BestCombinationStrategyHelper {
                     resultObj.inParams.put("Macd", params);
                 } else if (clazz.equals(MeanReversionStrategy.class)) {
                     StrategieBackTest.MeanReversionParams params = strategieBackTest.optimiseMeanReversionParameters(
-                            optimSeries,
+                            optimWindow,
                             swingParams.meanRevSmaMin, swingParams.meanRevSmaMax,
                             swingParams.meanRevThresholdMin, swingParams.meanRevThresholdMax,
                             swingParams.meanRevThresholdStep
@@ -830,7 +839,7 @@ public class BestCombinationStrategyHelper {
                 outStrategyNames.add(clazz.getSimpleName());
                 if (clazz.equals(ImprovedTrendFollowingStrategy.class)) {
                     StrategieBackTest.ImprovedTrendFollowingParams params = strategieBackTest.optimiseImprovedTrendFollowingParameters(
-                            optimSeries,
+                            optimWindow,
                             swingParams.trendMaMin, swingParams.trendMaMax,
                             swingParams.trendShortMaMin, swingParams.trendShortMaMax,
                             swingParams.trendLongMaMin, swingParams.trendLongMaMax,
@@ -840,7 +849,7 @@ public class BestCombinationStrategyHelper {
                     resultObj.outParams.put("ImprovedTrendFollowing", params);
                 } else if (clazz.equals(SmaCrossoverStrategy.class)) {
                     StrategieBackTest.SmaCrossoverParams params = strategieBackTest.optimiseSmaCrossoverParameters(
-                            optimSeries,
+                            optimWindow,
                             swingParams.smaShortMin, swingParams.smaShortMax,
                             swingParams.smaLongMin, swingParams.smaLongMax
                     );
@@ -848,7 +857,7 @@ public class BestCombinationStrategyHelper {
                     resultObj.outParams.put("SmaCrossover", params);
                 } else if (clazz.equals(RsiStrategy.class)) {
                     StrategieBackTest.RsiParams params = strategieBackTest.optimiseRsiParameters(
-                            optimSeries,
+                            optimWindow,
                             swingParams.rsiPeriodMin, swingParams.rsiPeriodMax,
                             swingParams.rsiOversoldMin, swingParams.rsiOversoldMax,
                             swingParams.rsiStep,
@@ -859,14 +868,14 @@ public class BestCombinationStrategyHelper {
                     resultObj.outParams.put("Rsi", params);
                 } else if (clazz.equals(BreakoutStrategy.class)) {
                     StrategieBackTest.BreakoutParams params = strategieBackTest.optimiseBreakoutParameters(
-                            optimSeries,
+                            optimWindow,
                             swingParams.breakoutLookbackMin, swingParams.breakoutLookbackMax
                     );
                     outStrategies.add(new BreakoutStrategy(params.lookbackPeriod));
                     resultObj.outParams.put("Breakout", params);
                 } else if (clazz.equals(MacdStrategy.class)) {
                     StrategieBackTest.MacdParams params = strategieBackTest.optimiseMacdParameters(
-                            optimSeries,
+                            optimWindow,
                             swingParams.macdShortMin, swingParams.macdShortMax,
                             swingParams.macdLongMin, swingParams.macdLongMax,
                             swingParams.macdSignalMin, swingParams.macdSignalMax
@@ -875,7 +884,7 @@ public class BestCombinationStrategyHelper {
                     resultObj.outParams.put("Macd", params);
                 } else if (clazz.equals(MeanReversionStrategy.class)) {
                     StrategieBackTest.MeanReversionParams params = strategieBackTest.optimiseMeanReversionParameters(
-                            optimSeries,
+                            optimWindow,
                             swingParams.meanRevSmaMin, swingParams.meanRevSmaMax,
                             swingParams.meanRevThresholdMin, swingParams.meanRevThresholdMax,
                             swingParams.meanRevThresholdStep
@@ -884,71 +893,21 @@ public class BestCombinationStrategyHelper {
                     resultObj.outParams.put("MeanReversion", params);
                 }
             }
-            // Combiner les règles d'entrée et de sortie
-            final Rule finalEntryRuleOptim;
-            final Rule finalExitRuleOptim;
-            {
-                Rule tempEntryRule = null;
-                Rule tempExitRule = null;
-                for (TradeStrategy strat : inStrategies) {
-                    if (tempEntryRule == null) tempEntryRule = strat.getEntryRule(optimSeries);
-                    else tempEntryRule = tempEntryRule.or(strat.getEntryRule(optimSeries));
-                }
-                for (TradeStrategy strat : outStrategies) {
-                    if (tempExitRule == null) tempExitRule = strat.getExitRule(optimSeries);
-                    else tempExitRule = tempExitRule.or(strat.getExitRule(optimSeries));
-                }
-                finalEntryRuleOptim = tempEntryRule;
-                finalExitRuleOptim = tempExitRule;
-            }
-            final Rule finalEntryRuleOTest;
-            final Rule finalExitRuleOpTest;
-            {
-                Rule tempEntryRule = null;
-                Rule tempExitRule = null;
-                for (TradeStrategy strat : inStrategies) {
-                    if (tempEntryRule == null) tempEntryRule = strat.getEntryRule(testSeries);
-                    else tempEntryRule = tempEntryRule.or(strat.getEntryRule(testSeries));
-                }
-                for (TradeStrategy strat : outStrategies) {
-                    if (tempExitRule == null) tempExitRule = strat.getExitRule(testSeries);
-                    else tempExitRule = tempExitRule.or(strat.getExitRule(testSeries));
-                }
-                finalEntryRuleOTest = tempEntryRule;
-                finalExitRuleOpTest = tempExitRule;
-            }
-            TradeStrategy combinedStrategyOptim = new TradeStrategy() {
-                @Override
-                public Rule getEntryRule(BarSeries s) { return finalEntryRuleOptim; }
-                @Override
-                public Rule getExitRule(BarSeries s) { return finalExitRuleOptim; }
-                @Override
-                public String getName() { return "CombinedStrategy"; }
-            };
-            TradeStrategy combinedStrategyTest = new TradeStrategy() {
-                @Override
-                public Rule getEntryRule(BarSeries s) { return finalEntryRuleOTest; }
-                @Override
-                public Rule getExitRule(BarSeries s) { return finalExitRuleOpTest; }
-                @Override
-                public String getName() { return "CombinedStrategy"; }
-            };
+            // Règles combinées (OU) évaluées une seule fois sur la série complète, puis backtestées sur chaque fenêtre
+            TradeSignals comboSignals = combinedSignals(inStrategies, outStrategies, fullCache.getIndicators());
             // Backtest sur la partie optimisation (train)
-            RiskResult trainResult = strategieBackTest.backtestStrategy(combinedStrategyOptim, optimSeries);
+            RiskResult trainResult = strategieBackTest.backtestSignals(comboSignals, optimWindow);
             // Backtest sur la partie test
-            RiskResult testResult = strategieBackTest.backtestStrategy(combinedStrategyTest, testSeries);
+            RiskResult testResult = strategieBackTest.backtestSignals(comboSignals, testWindow);
 
             double overfitRatioCombo = testResult.getRendement() / (trainResult.getRendement() == 0.0 ? 1.0 : trainResult.getRendement());
             boolean isOverfitCombo = (overfitRatioCombo < 0.7 || overfitRatioCombo > 1.3);
 
             if(!isOverfitCombo){
 
-                // test final sur les derniers 20% de bougies
-                BarSeries finalSeries = fullSeries.getSubSeries(totalCount - (int)Math.round(totalCount*0.2), totalCount);
-
                 resultObj.inStrategyNames = inCombo.stream().map(Class::getSimpleName).toList();
                 resultObj.outStrategyNames = outCombo.stream().map(Class::getSimpleName).toList();
-                RiskResult finalResultat = this.getFinalResultat(finalSeries, resultObj);
+                RiskResult finalResultat = this.getFinalResultat(finalWindow, resultObj);
                 finalResultat.setNumFlod(fold);
                 ComboMixResult combo =  ComboMixResult.builder()
                         .inStrategyNames(inStrategyNames)
@@ -1040,6 +999,13 @@ public class BestCombinationStrategyHelper {
 
 
     public RiskResult getFinalResultat(BarSeries finalSeries, BestCombinationResult resultObj){
+        return getFinalResultat(new SignalCache(finalSeries), resultObj);
+    }
+
+    /**
+     * Résultat final d'une combinaison IN/OUT sur une fenêtre (vue sur la série complète).
+     */
+    public RiskResult getFinalResultat(SignalCache finalWindow, BestCombinationResult resultObj){
         List<TradeStrategy> inStrategiesFT = new ArrayList<>();
         for (String name : resultObj.inStrategyNames) {
             Object params = resultObj.inParams.get(name.replace("Strategy", ""));
@@ -1087,28 +1053,25 @@ public class BestCombinationStrategyHelper {
             }
         }
         // Combiner les règles d'entrée et de sortie pour le FT
-        Rule entryRuleFT = null;
-        Rule exitRuleFT = null;
-        for (TradeStrategy strat : inStrategiesFT) {
-            if (entryRuleFT == null) entryRuleFT = strat.getEntryRule(finalSeries);
-            else entryRuleFT = entryRuleFT.or(strat.getEntryRule(finalSeries));
+        TradeSignals signalsFT = combinedSignals(inStrategiesFT, outStrategiesFT, finalWindow.getIndicators());
+        return strategieBackTest.backtestSignals(signalsFT, finalWindow);
+    }
+
+    /**
+     * Signaux des règles combinées : entrée = OU des entrées, sortie = OU des sorties.
+     */
+    private TradeSignals combinedSignals(List<TradeStrategy> inStrategies, List<TradeStrategy> outStrategies, IndicatorRegistry indicators) {
+        Rule entryRule = null;
+        Rule exitRule = null;
+        for (TradeStrategy strat : inStrategies) {
+            if (entryRule == null) entryRule = strat.getEntryRule(indicators);
+            else entryRule = entryRule.or(strat.getEntryRule(indicators));
         }
-        for (TradeStrategy strat : outStrategiesFT) {
-            if (exitRuleFT == null) exitRuleFT = strat.getExitRule(finalSeries);
-            else exitRuleFT = exitRuleFT.or(strat.getExitRule(finalSeries));
+        for (TradeStrategy strat : outStrategies) {
+            if (exitRule == null) exitRule = strat.getExitRule(indicators);
+            else exitRule = exitRule.or(strat.getExitRule(indicators));
         }
-        final Rule finalentryRuleFT = entryRuleFT;
-        final Rule finalexitRuleFT = exitRuleFT;
-        TradeStrategy combinedFTStrategy = new TradeStrategy() {
-            @Override
-            public Rule getEntryRule(BarSeries s) { return finalentryRuleFT; }
-            @Override
-            public Rule getExitRule(BarSeries s) { return finalexitRuleFT; }
-            @Override
-            public String getName() { return "CombinedFTStrategy"; }
-        };
-        StrategieBackTest backTestFT = new StrategieBackTest();
-        return backTestFT.backtestStrategy(combinedFTStrategy, finalSeries);
+        return TradeSignals.of(entryRule, exitRule, indicators.getSeries().getBarCount());
     }
 
 }
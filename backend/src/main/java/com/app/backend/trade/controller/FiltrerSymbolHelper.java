@@ -1,6 +1,7 @@
 package com.app.backend.trade.controller;
 
 import com.app.backend.trade.model.DailyValue;
+import com.app.backend.trade.util.BarSeriesFactory;
 import com.app.backend.trade.util.TradeUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -16,6 +17,9 @@ public class FiltrerSymbolHelper {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private BarSeriesFactory barSeriesFactory;
+
     public List<String> getAllAssetSymbolsEligibleFromDb() {
         String sql = "SELECT symbol FROM trade_ai.alpaca_asset WHERE status = 'active' and eligible = true and filtre_out = false ORDER BY symbol ASC;";
         return jdbcTemplate.queryForList(sql, String.class);
@@ -40,7 +44,7 @@ public class FiltrerSymbolHelper {
                     .build();
         });
 
-        return TradeUtils.mapping(results);
+        return barSeriesFactory.mapping(results);
     }
 
     // Vérifie si le symbole a déjà été calculé et stocké dans la table swing_trade_metrics
@@ -7,6 +7,7 @@ import com.app.backend.trade.lstm.LstmTuningService;
 import com.app.backend.trade.model.*;
 import com.app.backend.trade.strategy.BestInOutStrategy;
 import com.app.backend.trade.strategy.ParamsOptim;
+import com.app.backend.trade.util.BarSeriesFactory;
 import com.app.backend.trade.util.TradeUtils;
 import com.google.gson.Gson;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
@@ -53,6 +54,8 @@ public class LstmHelper {
     private final LstmTuningService lstmTuningService;
     // Service d'audit des données (ajouté)
     private final LstmDataAuditService lstmDataAuditService;
+    // Construction des BarSeries selon le type numérique configuré (trade.series.num)
+    private final BarSeriesFactory barSeriesFactory;
 
     // Logger standard SLF4J
     private static final Logger logger = LoggerFactory.getLogger(LstmHelper.class);
@@ -66,13 +69,16 @@ public class LstmHelper {
      * @param jdbcTemplate accès base
      * @param lstmTradePredictor prédiction LSTM + drift
      * @param lstmTuningService tuning / hyperparamètres
+     * @param barSeriesFactory type numérique des séries
      */
     public LstmHelper(JdbcTemplate jdbcTemplate,
                       LstmTradePredictor lstmTradePredictor,
-                      LstmTuningService lstmTuningService) {
+                      LstmTuningService lstmTuningService,
+                      BarSeriesFactory barSeriesFactory) {
         this.jdbcTemplate = jdbcTemplate;
         this.lstmTradePredictor = lstmTradePredictor;
         this.lstmTuningService = lstmTuningService;
+        this.barSeriesFactory = barSeriesFactory;
         this.lstmDataAuditService = new LstmDataAuditService(this);
     }
 
@@ -82,7 +88,7 @@ public class LstmHelper {
      * Détails :
      * - Si limit == null : on prend tout l'historique ascendant (ORDER BY date ASC)
      * - Si limit > 0 : on prend les N dernières lignes (ORDER BY date DESC LIMIT N), puis on réinverse pour retrouver ordre chronologique
-     * - Mapping des colonnes BD -> objet DailyValue -> transformation en BarSeries via TradeUtils.mapping
+     * - Mapping des colonnes BD -> objet DailyValue -> transformation en BarSeries via BarSeriesFactory#mapping
      *
      * ATTENTION :
      * - NE PAS changer les noms de colonnes SQL
@@ -120,7 +126,7 @@ public class LstmHelper {
         if (limit != null && limit > 0) {
             Collections.reverse(results);
         }
-        return TradeUtils.mapping(results);
+        return barSeriesFactory.mapping(results);
     }
 
 
@@ -202,7 +208,9 @@ public class LstmHelper {
         LstmConfig config = loaded != null ? loaded.config : null;
 
         // 4. Charger les données prix (BarSeries complet)
-        BarSeries series = getBarBySymbol(symbol, 100);
+        // Série ancrée sur la première barre (comme au tuning) : d'un jour à l'autre elle ne fait que s'allonger,
+        // le store de features reprend la matrice de la veille et ne calcule que les nouvelles barres
+        BarSeries series = getBarBySymbol(symbol, null);
 
 
         // 6. Exécution de la prédiction (utilise model/scalers si présents)
@@ -214,9 +222,9 @@ public class LstmHelper {
         }
 
         if(loaded.phase == 0 ){
-            preditLsdm = lstmTradePredictor.getPredit(series, config, model, scalers);
+            preditLsdm = predictWithSharedModel(model, () -> lstmTradePredictor.getPredit(symbol, series, config, model, scalers));
         }else{
-            TradeStylePrediction tradeStylePrediction = lstmTradePredictor.predictTradeStyle(symbol, series, config, model, scalers);
+            TradeStylePrediction tradeStylePrediction = predictWithSharedModel(model, () -> lstmTradePredictor.predictTradeStyle(symbol, series, config, model, scalers));
 
             preditLsdm.setLastClose(tradeStylePrediction.lastClose);
             preditLsdm.setPredictedClose(tradeStylePrediction.predictedClose);
@@ -237,6 +245,19 @@ public class LstmHelper {
         return preditLsdm;
     }
 
+    /**
+     * Le modèle provient du registre de LstmTradePredictor et peut être partagé entre requêtes :
+     * une inférence à la fois par instance (MultiLayerNetwork n'est pas thread-safe).
+     */
+    private <T> T predictWithSharedModel(MultiLayerNetwork model, java.util.function.Supplier<T> prediction) {
+        if (model == null) {
+            return prediction.get();
+        }
+        synchronized (model) {
+            return prediction.get();
+        }
+    }
+
     /**
      * Sauvegarde le signal quotidien en base.
      *
@@ -3,10 +3,12 @@ package com.app.backend.trade.controller;
 import com.app.backend.trade.model.DailyValue;
 import com.app.backend.trade.model.SignalInfo;
 import com.app.backend.trade.strategy.BestInOutStrategy;
+import com.app.backend.trade.util.NumParityChecker;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/stra")
@@ -100,6 +102,35 @@ public class StrategieController {
         }
     }
 
+    /**
+     * Contrôle de parité DecimalNum / DoubleNum (métriques de backtest et features LSTM).
+     * @param symbols symboles à contrôler (optionnel)
+     * @param sample nombre de symboles éligibles contrôlés si symbols est absent
+     */
+    @GetMapping("/strategies/num-parity")
+    public ResponseEntity<NumParityChecker.ParityReport> checkNumParity(
+        @RequestParam(required = false) List<String> symbols,
+        @RequestParam(required = false, defaultValue = "10") Integer sample
+    ) {
+        return ResponseEntity.ok(strategieHelper.checkNumParity(symbols, sample));
+    }
+
+    /**
+     * Compteurs du moteur de backtest (bougies évaluées / économisées par abandon des candidats perdants)
+     */
+    @GetMapping("/strategies/kernel/stats")
+    public ResponseEntity<Map<String, Object>> getBacktestKernelStats() {
+        return ResponseEntity.ok(strategieHelper.getBacktestKernelStats());
+    }
+
+    /**
+     * Métriques du cache de résultats d'optimisation (taille, hits / misses, évictions)
+     */
+    @GetMapping("/strategies/optim-cache/stats")
+    public ResponseEntity<Map<String, Object>> getOptimCacheStats() {
+        return ResponseEntity.ok(strategieHelper.getOptimCacheStats());
+    }
+
     /**
      * Monitoring du calcul croisé des stratégies
      */
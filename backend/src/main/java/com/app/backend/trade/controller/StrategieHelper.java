@@ -4,9 +4,14 @@ import com.app.backend.trade.model.RiskResult;
 import com.app.backend.trade.model.*;
 import com.app.backend.trade.model.alpaca.AlpacaAsset;
 import com.app.backend.trade.service.*;
+import com.app.backend.trade.strategy.BacktestKernel;
 import com.app.backend.trade.strategy.BestInOutStrategy;
+import com.app.backend.trade.strategy.OptimResultCache;
 import com.app.backend.trade.strategy.ParamsOptim;
+import com.app.backend.trade.strategy.SignalCache;
 import com.app.backend.trade.strategy.StrategieBackTest;
+import com.app.backend.trade.util.BarSeriesFactory;
+import com.app.backend.trade.util.NumParityChecker;
 import com.app.backend.trade.util.TradeConstant;
 import com.app.backend.trade.util.TradeUtils;
 import org.slf4j.Logger;
@@ -20,7 +25,9 @@ import org.ta4j.core.Rule;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.app.backend.trade.util.TradeConstant.NOMBRE_TOTAL_BOUGIES_FOR_SIGNAL;
 
@@ -36,6 +43,8 @@ public class StrategieHelper {
     private final StrategyService strategyService;
     private final JdbcTemplate jdbcTemplate;
     private final StrategieBackTest strategieBackTest;
+    private final NumParityChecker numParityChecker;
+    private final BarSeriesFactory barSeriesFactory;
     private static final boolean INSERT_ONLY = true;
     private final SwingTradeOptimParams swingParams = new SwingTradeOptimParams();
     private final double TOLERENCE_OVERFIT_MIN = 0.5;
@@ -46,11 +55,70 @@ public class StrategieHelper {
     public StrategieHelper(AlpacaService alpacaService,
                            StrategyService strategyService,
                            JdbcTemplate jdbcTemplate,
-                           StrategieBackTest strategieBackTest) {
+                           StrategieBackTest strategieBackTest,
+                           NumParityChecker numParityChecker,
+                           BarSeriesFactory barSeriesFactory) {
         this.alpacaService = alpacaService;
         this.strategyService = strategyService;
         this.jdbcTemplate = jdbcTemplate;
         this.strategieBackTest = strategieBackTest;
+        this.numParityChecker = numParityChecker;
+        this.barSeriesFactory = barSeriesFactory;
+    }
+
+    /**
+     * Contrôle de parité DecimalNum / DoubleNum sur un échantillon de symboles
+     * (prérequis avant de passer trade.series.num=double).
+     * @param symbols symboles à contrôler (si vide : les 'sample' premiers symboles éligibles)
+     * @param sample taille de l'échantillon par défaut
+     * @return rapport des écarts max (métriques RiskResult, signaux, features)
+     */
+    public NumParityChecker.ParityReport checkNumParity(List<String> symbols, Integer sample) {
+        List<String> toCheck = symbols;
+        if (toCheck == null || toCheck.isEmpty()) {
+            List<String> eligibles = this.getAllAssetSymbolsEligibleFromDb();
+            int n = Math.min(sample != null && sample > 0 ? sample : 10, eligibles.size());
+            toCheck = eligibles.subList(0, n);
+        }
+        Map<String, List<DailyValue>> values = new LinkedHashMap<>();
+        for (String symbol : toCheck) {
+            values.put(symbol, this.getDailyValuesFromDb(symbol, TradeConstant.NOMBRE_TOTAL_BOUGIES_OPTIM));
+        }
+        return numParityChecker.check(values, NumParityChecker.DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Compteurs du moteur de backtest : bougies évaluées, bougies économisées par abandon
+     * des candidats perdants (PruningBound) et nombre de backtests abandonnés.
+     */
+    public Map<String, Object> getBacktestKernelStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long evaluated = BacktestKernel.getBarsEvaluated();
+        long saved = BacktestKernel.getBarsSaved();
+        stats.put("runs", BacktestKernel.getRuns());
+        stats.put("prunedRuns", BacktestKernel.getPrunedRuns());
+        stats.put("barsEvaluated", evaluated);
+        stats.put("barsSaved", saved);
+        stats.put("savedRatio", evaluated + saved > 0 ? (double) saved / (evaluated + saved) : 0.0);
+        stats.put("pruning", strategieBackTest.getParameterSweep().isPruning());
+        return stats;
+    }
+
+    /**
+     * Métriques du cache de résultats d'optimisation (meilleurs paramètres et RiskResult mémorisés).
+     */
+    public Map<String, Object> getOptimCacheStats() {
+        OptimResultCache cache = strategieBackTest.getResultCache();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        stats.put("size", cache.size());
+        stats.put("maxEntries", cache.getMaxEntries());
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", cache.getEvictions());
+        stats.put("hitRatio", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        return stats;
     }
 
     /**
@@ -813,7 +881,7 @@ public class StrategieHelper {
                 .dateStr(lastTradingDay.format(java.time.format.DateTimeFormatter.ofPattern("dd/MM"))).build();
         updateDBDailyValu(symbol);
         List<DailyValue> listeValus = this.getDailyValuesFromDb(symbol, NOMBRE_TOTAL_BOUGIES_FOR_SIGNAL);
-        BarSeries series = TradeUtils.mapping(listeValus);
+        BarSeries series = barSeriesFactory.mapping(listeValus);
         int lastIndex = series.getEndIndex();
         if(best.entryName == null || best.entryParams == null){
             return SignalInfo.builder().symbol(symbol).type(SignalType.NONE).dateStr("").build();
@@ -890,7 +958,7 @@ public class StrategieHelper {
         if(listeValus.size() < TradeConstant.NOMBRE_TOTAL_BOUGIES_MIN_OPTIM){
             throw new IllegalArgumentException("Pas assez de données pour le symbole " + symbol + " (" + listeValus.size() + " bougies, minimum " + TradeConstant.NOMBRE_TOTAL_BOUGIES_MIN_OPTIM + ")");
         }
-        BarSeries series = TradeUtils.mapping(listeValus);
+        BarSeries series = barSeriesFactory.mapping(listeValus);
         // Utilisation du swingParams de la classe (modifiable si besoin)
         ComboResult comboResult =  this.optimseStrategy(series, swingParams);
         if (comboResult == null) {
@@ -935,28 +1003,35 @@ public class StrategieHelper {
             // Fold 2 : optim 30-65%, test 65-80%
             {(int)Math.round(totalBars*0.3), (int)Math.round(totalBars*0.65), (int)Math.round(totalBars*0.65), (int)Math.round(totalBars*0.8)}
         };
+        // Indicateurs et signaux calculés une seule fois sur la série complète ; chaque fenêtre (optim, test, finale)
+        // n'est qu'une vue [from, to[ : pas de getSubSeries, pas d'indicateurs redémarrés à froid en début de fenêtre
+        SignalCache fullCache = new SignalCache(series);
+        // Fenêtre finale (dernier 20%) commune à tous les folds
+        SignalCache finalCache = fullCache.window(series.getBarCount() - (int)Math.round(totalBars*0.2), series.getBarCount());
         for (int fold = 0; fold < kFolds; fold++) {
             int optimStart = foldIndices[fold][0];
             int optimEnd = foldIndices[fold][1];
             int testStart = foldIndices[fold][2];
             int testEnd = foldIndices[fold][3];
-            BarSeries optimSeries = series.getSubSeries(optimStart, optimEnd);
-            BarSeries testSeries = series.getSubSeries(testStart, testEnd);
+            // Chaque règle (stratégie, paramètres) n'est évaluée qu'une fois sur la série, puis partagée par les 36 combinaisons,
+            // les 6 balayages d'optimisation et tous les folds
+            SignalCache optimCache = fullCache.window(optimStart, optimEnd);
+            SignalCache testCache = fullCache.window(testStart, testEnd);
             // --- Optimisation des paramètres sur le train ---
             StrategieBackTest.ImprovedTrendFollowingParams bestImprovedTrend = strategieBackTest.optimiseImprovedTrendFollowingParameters(
-                optimSeries,
+                optimCache,
                 swingParams.trendMaMin, swingParams.trendMaMax,
                 swingParams.trendShortMaMin, swingParams.trendShortMaMax,
                 swingParams.trendLongMaMin, swingParams.trendLongMaMax,
                 swingParams.trendBreakoutMin, swingParams.trendBreakoutMax, swingParams.trendBreakoutStep
             );
             StrategieBackTest.SmaCrossoverParams bestSmaCrossover = strategieBackTest.optimiseSmaCrossoverParameters(
-                optimSeries,
+                optimCache,
                 swingParams.smaShortMin, swingParams.smaShortMax,
                 swingParams.smaLongMin, swingParams.smaLongMax
             );
             StrategieBackTest.RsiParams bestRsi = strategieBackTest.optimiseRsiParameters(
-                optimSeries,
+                optimCache,
                 swingParams.rsiPeriodMin, swingParams.rsiPeriodMax,
                 swingParams.rsiOversoldMin, swingParams.rsiOversoldMax,
                 swingParams.rsiStep,
@@ -964,17 +1039,17 @@ public class StrategieHelper {
                 swingParams.rsiStep
             );
             StrategieBackTest.BreakoutParams bestBreakout = strategieBackTest.optimiseBreakoutParameters(
-                optimSeries,
+                optimCache,
                 swingParams.breakoutLookbackMin, swingParams.breakoutLookbackMax
             );
             StrategieBackTest.MacdParams bestMacd = strategieBackTest.optimiseMacdParameters(
-                optimSeries,
+                optimCache,
                 swingParams.macdShortMin, swingParams.macdShortMax,
                 swingParams.macdLongMin, swingParams.macdLongMax,
                 swingParams.macdSignalMin, swingParams.macdSignalMax
             );
             StrategieBackTest.MeanReversionParams bestMeanReversion = strategieBackTest.optimiseMeanReversionParameters(
-                optimSeries,
+                optimCache,
                 swingParams.meanRevSmaMin, swingParams.meanRevSmaMax,
                 swingParams.meanRevThresholdMin, swingParams.meanRevThresholdMax,
                 swingParams.meanRevThresholdStep
@@ -997,21 +1072,19 @@ public class StrategieHelper {
                     Object exitParams = exit[1];
                     com.app.backend.trade.strategy.TradeStrategy entryStrategy = createStrategy(entryName, entryParams);
                     com.app.backend.trade.strategy.TradeStrategy exitStrategy = createStrategy(exitName, exitParams);
-                    com.app.backend.trade.strategy.StrategieBackTest.CombinedTradeStrategy combined = new com.app.backend.trade.strategy.StrategieBackTest.CombinedTradeStrategy(entryStrategy, exitStrategy);
                     // Backtest sur train
-                    RiskResult trainResult = strategieBackTest.backtestStrategy(combined, optimSeries);
+                    RiskResult trainResult = strategieBackTest.backtestStrategy(entryStrategy, exitStrategy, optimCache);
                     if (trainResult.getRendement() > bestTrainPerf) {
                         bestTrainPerf = trainResult.getRendement();
                     }
                     // Backtest sur test
-                    RiskResult testResult = strategieBackTest.backtestStrategy(combined, testSeries);
+                    RiskResult testResult = strategieBackTest.backtestStrategy(entryStrategy, exitStrategy, testCache);
                     // Calcul du ratio overfit pour ce combo
                     double overfitRatioCombo = testResult.getRendement() / (trainResult.getRendement() == 0.0 ? 1.0 : trainResult.getRendement());
                     boolean isOverfitCombo = (overfitRatioCombo < TOLERENCE_OVERFIT_MIN || overfitRatioCombo > TOLERENCE_OVERFIT_MAX);
 
                     if(!isOverfitCombo){
-                        BarSeries finalSeries = series.getSubSeries(series.getBarCount() - (int)Math.round(totalBars*0.2), series.getBarCount()); // dernier 20% pour le test
-                        RiskResult finalResult = strategieBackTest.backtestStrategy(combined, finalSeries);
+                        RiskResult finalResult = strategieBackTest.backtestStrategy(entryStrategy, exitStrategy, finalCache);
                         finalResult.setNumFlod(fold);
 
                         foldResults.add(ComboResult.builder()
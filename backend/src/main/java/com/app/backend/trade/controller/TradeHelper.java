@@ -4,6 +4,7 @@ import com.app.backend.trade.exception.DayTradingException;
 import com.app.backend.trade.model.*;
 import com.app.backend.trade.model.alpaca.Order;
 import com.app.backend.trade.service.*;
+import com.app.backend.trade.util.BarSeriesFactory;
 import com.app.backend.trade.util.TradeUtils;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -41,6 +42,7 @@ public class TradeHelper {
     private final CompteService compteService;
     private final JdbcTemplate jdbcTemplate;
     private final DeepseekService deepseekService;
+    private final BarSeriesFactory barSeriesFactory;
 
     @Autowired
     public TradeHelper(AlpacaService alpacaService,
@@ -51,8 +53,10 @@ public class TradeHelper {
                        StrategyService strategyService,
                        CompteService compteService,
                        DeepseekService deepseekService,
-                       JdbcTemplate jdbcTemplate) {
+                       JdbcTemplate jdbcTemplate,
+                       BarSeriesFactory barSeriesFactory) {
         this.deepseekService = deepseekService;
+        this.barSeriesFactory = barSeriesFactory;
         this.alpacaService = alpacaService;
         this.chatGptService = chatGptService;
         this.twelveDataService = twelveDataService;
@@ -288,7 +292,7 @@ public class TradeHelper {
         String atr = twelveDataService.getATR(symbol);
         */
         List<DailyValue> listeValus = this.getDailyValuesFromDb(symbol, 500);
-        BarSeries series = TradeUtils.mapping(listeValus);
+        BarSeries series = barSeriesFactory.mapping(listeValus);
         String ema20 = this.getLastEMA20(series, 100);
         String ema50 = this.getLastEMA50(series, 100);
         String sma200 = this.getLastSMA200(series, 100);
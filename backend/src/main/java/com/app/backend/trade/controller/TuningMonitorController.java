@@ -35,6 +35,18 @@ public class TuningMonitorController {
     }
 
 
+    // Concurrence CPU adaptative (permis, threads par entraînement, débit par niveau, décisions)
+    @GetMapping("/metrics/cpu")
+    public Map<String, Object> getCpuConcurrencyMetrics() {
+        return lstmTuningService.getCpuConcurrencyStats();
+    }
+
+    // Admission mémoire des tâches de tuning (budget, réservations, tâches parquées)
+    @GetMapping("/memory")
+    public Map<String, Object> getMemoryAdmission() {
+        return lstmTuningService.getMemoryAdmissionStats();
+    }
+
     // Endpoint JSON pour la progression en temps réel
     @GetMapping("/progress")
     public List<Map<String, Object>> getTuningProgress(@RequestParam(required = false) String symbol) {
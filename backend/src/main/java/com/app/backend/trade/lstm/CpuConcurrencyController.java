@@ -0,0 +1,354 @@
+package com.app.backend.trade.lstm;
+
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.nativeblas.NativeOpsHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * CpuConcurrencyController
+ *
+ * Rôle:
+ *  - Pendant CPU de GpuConcurrencyController : régule le nombre d'entraînements DL4J concurrents sur backend CPU.
+ *  - Partage les coeurs physiques entre entraînements : les threads ND4J/OpenMP (réglages du processus, pas du
+ *    thread) sont fixés à coeurs / max(concurrence, entraînements actifs) (sans cela chaque entraînement lance un
+ *    pool OpenMP de la taille de la machine et effectiveMaxThreads x symboles parallèles sur-souscrivent les coeurs).
+ *    Le contrôleur est le seul à écrire ces réglages (forLocalMachine : instance unique du processus), sous son verrou
+ *    et seulement quand le budget change : des entraînements concurrents ne s'écrasent pas l'un l'autre.
+ *  - Mesure le débit de chaque entraînement (séquences/s, et travail/s pondéré par le coût d'une séquence) et ajuste
+ *    la concurrence (recherche locale min..max) pour maximiser le débit agrégé = débit moyen par entraînement x
+ *    concurrence.
+ *
+ * Adaptation:
+ *  - Après samplesPerDecision entraînements terminés à un niveau, son débit agrégé est comparé à celui du niveau
+ *    précédent : amélioration (> tolérance) => on continue dans le même sens, sinon demi-tour.
+ *  - Débit par niveau lissé (moyenne exponentielle), historique des mesures et décisions borné (exposé par getStats).
+ *
+ * Thread-safety:
+ *  - La sémaphore gère la limitation ; réduction différée si les permis sont tous pris.
+ *  - Budget de threads recalculé et appliqué sous verrou à chaque acquisition, libération et changement de niveau.
+ */
+public class CpuConcurrencyController {
+    private static final Logger logger = LoggerFactory.getLogger(CpuConcurrencyController.class);
+
+    static final int HISTORY_SIZE = 50;
+    private static final double EWMA_ALPHA = 0.5;
+
+    /** Permis d'entraînement ; recordTraining puis close() (idempotent) */
+    public final class Permit implements AutoCloseable {
+        private final int threads;
+        private final int level;
+        private boolean closed = false;
+
+        private Permit(int threads, int level) {
+            this.threads = threads;
+            this.level = level;
+        }
+
+        /** Budget de threads ND4J/OpenMP du processus à l'admission de cet entraînement */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * Débit mesuré de l'entraînement.
+         * @param samples       séquences passées dans fit (toutes epochs)
+         * @param costPerSample coût relatif d'une séquence (normalise les configs de tailles différentes)
+         * @param elapsedMs     durée de la boucle d'entraînement
+         */
+        public void recordTraining(long samples, double costPerSample, long elapsedMs) {
+            if (samples <= 0 || elapsedMs <= 0) return;
+            record(level, threads, samples, Math.max(1e-9, costPerSample), elapsedMs);
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+            }
+            release();
+        }
+    }
+
+    private final int cores;
+    private final IntConsumer threadApplier;
+    private final Semaphore permits = new Semaphore(0, true);
+    private int minConcurrency;
+    private int maxConcurrency;
+    private int samplesPerDecision;
+    private double tolerance;
+    private volatile int targetConcurrency;
+    private int pendingReduction = 0;
+    private int active = 0;
+    private int direction = 1;
+    private int previousLevel = -1;
+    private int recordsAtLevel = 0;
+    private final Map<Integer, Double> throughputByLevel = new HashMap<>();
+    private final ArrayDeque<Map<String, Object>> history = new ArrayDeque<>();
+    private final ArrayDeque<Map<String, Object>> decisions = new ArrayDeque<>();
+    private long trainings = 0;
+    private int appliedThreads = 0;
+
+    private static volatile CpuConcurrencyController local;
+
+    /**
+     * @param cores         coeurs à partager (detectPhysicalCores en production)
+     * @param threadApplier applique un nombre de threads ND4J/OpenMP au processus
+     */
+    public CpuConcurrencyController(int cores, IntConsumer threadApplier) {
+        this.cores = Math.max(1, cores);
+        this.threadApplier = threadApplier;
+        configure(1, this.cores, 3, 0.05);
+    }
+
+    /**
+     * Contrôleur sur les coeurs physiques de la machine, threads appliqués via ND4J. Instance unique : les réglages
+     * ND4J/OpenMP sont globaux au processus, un seul propriétaire du budget.
+     */
+    public static CpuConcurrencyController forLocalMachine() {
+        CpuConcurrencyController c = local;
+        if (c == null) {
+            synchronized (CpuConcurrencyController.class) {
+                if (local == null) local = new CpuConcurrencyController(detectPhysicalCores(), CpuConcurrencyController::applyNd4jThreads);
+                c = local;
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Configure bornes et critère d'adaptation ; la concurrence courante est ramenée dans [min, max].
+     * Niveau initial (aucun entraînement mesuré) : max (comportement précédent : un entraînement par thread du pool).
+     */
+    public synchronized void configure(int min, int max, int samplesPerDecision, double tolerance) {
+        if (min < 1) min = 1;
+        if (max < min) max = min;
+        this.minConcurrency = min;
+        this.maxConcurrency = max;
+        this.samplesPerDecision = Math.max(1, samplesPerDecision);
+        this.tolerance = Math.max(0.0, tolerance);
+        int current = targetConcurrency;
+        if (current == 0) {
+            targetConcurrency = max;
+            permits.release(max);
+        } else {
+            int level = trainings == 0 ? max : Math.max(min, Math.min(max, current));
+            if (level != current) setLevel(level, "CONF", Double.NaN);
+        }
+        throughputByLevel.clear();
+        previousLevel = -1;
+        recordsAtLevel = 0;
+        if (appliedThreads > 0) applyThreadBudget();
+    }
+
+    /** Acquisition bloquante d'un permis ; le budget de threads ND4J du processus est recalculé */
+    public Permit acquire() throws InterruptedException {
+        permits.acquire();
+        synchronized (this) {
+            active++;
+            return new Permit(applyThreadBudget(), targetConcurrency);
+        }
+    }
+
+    private synchronized void release() {
+        active--;
+        if (pendingReduction > 0) {
+            pendingReduction--;
+        } else {
+            permits.release();
+        }
+        applyThreadBudget();
+    }
+
+    int threadsPerTraining(int level) {
+        return Math.max(1, cores / Math.max(1, level));
+    }
+
+    // Sous verrou : coeurs / max(niveau, actifs) (réduction différée : les entraînements en cours comptent encore),
+    // appliqué au processus seulement s'il change. Rien n'est appliqué avant le premier permis (contrôleur inutilisé,
+    // ex. concurrence adaptative désactivée : réglages ND4J par défaut conservés)
+    private int applyThreadBudget() {
+        int threads = threadsPerTraining(Math.max(targetConcurrency, active));
+        if (threads != appliedThreads) {
+            try {
+                threadApplier.accept(threads);
+                appliedThreads = threads;
+            } catch (Throwable t) {
+                logger.debug("[CPU][THREADS] Application {} threads impossible: {}", threads, t.toString());
+            }
+        }
+        return threads;
+    }
+
+    private synchronized void record(int level, int threads, long samples, double costPerSample, long elapsedMs) {
+        trainings++;
+        double samplesPerSec = samples * 1000.0 / elapsedMs;
+        double workPerSec = samplesPerSec * costPerSample;
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("time", System.currentTimeMillis());
+        entry.put("concurrency", level);
+        entry.put("threadsPerTraining", threads);
+        entry.put("samplesPerSec", samplesPerSec);
+        entry.put("workPerSec", workPerSec);
+        push(history, entry);
+
+        // Mesure d'un niveau déjà quitté : lissée mais sans déclencher de décision
+        Double previous = throughputByLevel.get(level);
+        throughputByLevel.put(level, previous == null ? workPerSec : EWMA_ALPHA * workPerSec + (1 - EWMA_ALPHA) * previous);
+        if (level != targetConcurrency) return;
+        recordsAtLevel++;
+        if (recordsAtLevel < samplesPerDecision) return;
+        decide();
+    }
+
+    // Recherche locale sur la concurrence : débit agrégé = débit par entraînement x niveau
+    private void decide() {
+        int level = targetConcurrency;
+        double aggregate = throughputByLevel.get(level) * level;
+        if (previousLevel > 0 && throughputByLevel.containsKey(previousLevel)) {
+            double previousAggregate = throughputByLevel.get(previousLevel) * previousLevel;
+            if (aggregate < previousAggregate * (1 + tolerance)) {
+                direction = -direction;
+            }
+        }
+        int next = level + direction;
+        if (next < minConcurrency || next > maxConcurrency) {
+            direction = -direction;
+            next = level + direction;
+        }
+        next = Math.max(minConcurrency, Math.min(maxConcurrency, next));
+        previousLevel = level;
+        recordsAtLevel = 0;
+        if (next != level) {
+            setLevel(next, direction > 0 ? "UP" : "DOWN", aggregate);
+        }
+    }
+
+    // Sous verrou : ajuste la capacité de la sémaphore
+    private void setLevel(int level, String reason, double aggregate) {
+        int old = targetConcurrency;
+        if (level > old) {
+            int add = level - old;
+            int absorbed = Math.min(add, pendingReduction);
+            pendingReduction -= absorbed;
+            if (add - absorbed > 0) permits.release(add - absorbed);
+        } else {
+            for (int i = 0; i < old - level; i++) {
+                if (!permits.tryAcquire()) pendingReduction++;
+            }
+        }
+        targetConcurrency = level;
+        if (appliedThreads > 0) applyThreadBudget();
+        Map<String, Object> decision = new LinkedHashMap<>();
+        decision.put("time", System.currentTimeMillis());
+        decision.put("from", old);
+        decision.put("to", level);
+        decision.put("reason", reason);
+        decision.put("aggregateWorkPerSec", Double.isNaN(aggregate) ? null : aggregate);
+        decision.put("threadsPerTraining", threadsPerTraining(level));
+        push(decisions, decision);
+        logger.info("[CPU][ADAPT][{}] concurrence {} -> {} ({} threads/entraînement, débit agrégé={})", reason, old, level,
+            threadsPerTraining(level), Double.isNaN(aggregate) ? "n/a" : String.format(java.util.Locale.US, "%.1f", aggregate));
+    }
+
+    private static void push(ArrayDeque<Map<String, Object>> deque, Map<String, Object> entry) {
+        deque.addLast(entry);
+        while (deque.size() > HISTORY_SIZE) deque.removeFirst();
+    }
+
+    public int getTargetConcurrency() {
+        return targetConcurrency;
+    }
+
+    public synchronized int getActiveTrainings() {
+        return active;
+    }
+
+    public int getCores() {
+        return cores;
+    }
+
+    /** Permis, niveau courant, débit par niveau, historique des mesures et des décisions */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cores", cores);
+        stats.put("minConcurrency", minConcurrency);
+        stats.put("maxConcurrency", maxConcurrency);
+        stats.put("targetConcurrency", targetConcurrency);
+        stats.put("threadsPerTraining", threadsPerTraining(targetConcurrency));
+        stats.put("appliedThreads", appliedThreads);
+        stats.put("activeTrainings", active);
+        stats.put("availablePermits", permits.availablePermits());
+        stats.put("queuedTrainings", permits.getQueueLength());
+        stats.put("trainings", trainings);
+        stats.put("throughputByLevel", new java.util.TreeMap<>(throughputByLevel));
+        stats.put("throughputHistory", new ArrayList<>(history));
+        stats.put("decisions", new ArrayList<>(decisions));
+        return stats;
+    }
+
+    /**
+     * Coût relatif d'une séquence d'entraînement (~ opérations LSTM : window x couches x directions x 4 portes x
+     * neurons x (nIn + neurons)) ; rend comparables les débits de configs de tailles différentes.
+     */
+    public static double costPerSample(LstmConfig config) {
+        int features = config.getFeatures() != null ? Math.max(1, config.getFeatures().size()) : 1;
+        int neurons = Math.max(1, config.getLstmNeurons());
+        int directions = config.isBidirectional() ? 2 : 1;
+        double cost = 0;
+        long nIn = features;
+        for (int l = 0; l < Math.max(1, config.getNumLstmLayers()); l++) {
+            cost += directions * 4.0 * neurons * (nIn + neurons);
+            nIn = (long) neurons * directions;
+        }
+        return cost * Math.max(1, config.getWindowSize()) / 1e6;
+    }
+
+    /** Threads ND4J (pool interne libnd4j) et OpenMP : réglages globaux au processus */
+    static void applyNd4jThreads(int threads) {
+        Nd4j.getEnvironment().setMaxMasterThreads(threads);
+        Nd4j.getEnvironment().setMaxThreads(threads);
+        NativeOpsHolder.getInstance().getDeviceNativeOps().setOmpNumThreads(threads);
+    }
+
+    /**
+     * Coeurs physiques (paires package/core de /sys, hyperthreads exclus), bornés par availableProcessors
+     * (quota conteneur). Repli sur availableProcessors si la topologie est illisible.
+     */
+    public static int detectPhysicalCores() {
+        int logical = Runtime.getRuntime().availableProcessors();
+        Path cpuRoot = Path.of("/sys/devices/system/cpu");
+        Set<String> physical = new HashSet<>();
+        try (Stream<Path> cpus = Files.list(cpuRoot)) {
+            List<Path> dirs = cpus.filter(p -> p.getFileName().toString().matches("cpu\\d+")).toList();
+            for (Path cpu : dirs) {
+                Path topology = cpu.resolve("topology");
+                Path coreId = topology.resolve("core_id");
+                Path packageId = topology.resolve("physical_package_id");
+                if (!Files.isReadable(coreId)) continue;
+                String pkg = Files.isReadable(packageId) ? Files.readString(packageId).trim() : "0";
+                physical.add(pkg + ":" + Files.readString(coreId).trim());
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("[CPU][TOPOLOGY] Lecture /sys impossible: {}", e.toString());
+        }
+        int cores = physical.isEmpty() ? logical : Math.min(physical.size(), logical);
+        return Math.max(1, cores);
+    }
+}
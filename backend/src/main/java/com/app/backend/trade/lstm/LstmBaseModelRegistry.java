@@ -0,0 +1,196 @@
+package com.app.backend.trade.lstm;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modèles de base mutualisés (transfer learning) : un réseau pré-entraîné sur les séquences normalisées de plusieurs
+ * symboles, par architecture, sert de point de départ aux entraînements par symbole (fine-tuning court).
+ *
+ * Architecture (architectureKey) : features, neurons, couches, bidirectionnel, attention, soit tout ce qui fixe la
+ * forme des paramètres de initModel et le sens des entrées. windowSize et horizonBars n'en font pas partie : les
+ * poids LSTM ne dépendent pas de la longueur de séquence et le label est renormalisé par symbole.
+ *
+ * Persistance : table lstm_base_models (id = version, clé SHA-256 de l'architecture), binaire dans le store adressé
+ * par contenu (lstm_model_blobs). La dernière version par architecture est gardée en mémoire (absences comprises)
+ * jusqu'à la prochaine sauvegarde ou invalidate().
+ *
+ * Coupure d'entraînement (train_cutoff) : date de la dernière barre vue par le pré-entraînement, tous symboles du
+ * pool confondus. Un démarrage à chaud n'est permis (usableFor) que si l'entraînement du symbole s'arrête au plus
+ * tôt à cette date : sinon le modèle de base aurait vu des barres de la période d'évaluation du symbole.
+ * Les versions sans coupure (antérieures à V6) ne sont plus utilisées.
+ *
+ * Les réseaux issus d'un démarrage à chaud sont marqués (markWarmStarted) pour que saveModelToDb renseigne
+ * lstm_models.base_model_version sans faire transiter la version dans tous les résultats de tuning.
+ */
+public final class LstmBaseModelRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(LstmBaseModelRegistry.class);
+
+    /** Modèle de base chargé ; le réseau n'est jamais entraîné, seuls ses paramètres sont copiés */
+    public static final class BaseModel {
+        public final long version;
+        public final String architecture;
+        public final MultiLayerNetwork model;
+        public final int numSequences;
+        public final double valLoss;
+        public final Instant trainCutoff;
+
+        BaseModel(long version, String architecture, MultiLayerNetwork model, int numSequences, double valLoss, Instant trainCutoff) {
+            this.version = version;
+            this.architecture = architecture;
+            this.model = model;
+            this.numSequences = numSequences;
+            this.valLoss = valLoss;
+            this.trainCutoff = trainCutoff;
+        }
+    }
+
+    private final Map<String, Optional<BaseModel>> latest = new ConcurrentHashMap<>();
+    // Identité des réseaux (MultiLayerNetwork ne redéfinit pas equals) ; entrées libérées avec les réseaux
+    private final Map<MultiLayerNetwork, Long> warmStarted = Collections.synchronizedMap(new WeakHashMap<>());
+    private final AtomicLong warmStarts = new AtomicLong();
+
+    /** Description lisible de l'architecture (features, neurons, couches, directions, attention) */
+    public static String architecture(LstmConfig config) {
+        List<String> features = config.getFeatures() != null ? config.getFeatures() : List.of();
+        return "features=" + String.join(",", features)
+            + "|neurons=" + config.getLstmNeurons()
+            + "|layers=" + config.getNumLstmLayers()
+            + "|bidirectional=" + config.isBidirectional()
+            + "|attention=" + config.isAttention();
+    }
+
+    /** Clé d'indexation (SHA-256 hex de architecture) */
+    public static String architectureKey(LstmConfig config) {
+        return LstmModelBlobStore.sha256(architecture(config).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Dernière version du modèle de base pour l'architecture de config, ou null.
+     */
+    public BaseModel find(JdbcTemplate jdbcTemplate, LstmConfig config) {
+        String key = architectureKey(config);
+        return latest.computeIfAbsent(key, k -> Optional.ofNullable(load(jdbcTemplate, k))).orElse(null);
+    }
+
+    private BaseModel load(JdbcTemplate jdbcTemplate, String key) {
+        if (jdbcTemplate == null) return null;
+        try {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, architecture, model_sha256, num_sequences, val_loss, train_cutoff FROM lstm_base_models WHERE arch_key = ? ORDER BY id DESC LIMIT 1", key);
+            if (rows.isEmpty()) return null;
+            Map<String, Object> row = rows.get(0);
+            byte[] bytes = LstmModelBlobStore.load(jdbcTemplate, String.valueOf(row.get("model_sha256")));
+            if (bytes == null) return null;
+            MultiLayerNetwork model = ModelSerializer.restoreMultiLayerNetwork(new ByteArrayInputStream(bytes), false);
+            long version = ((Number) row.get("id")).longValue();
+            int numSequences = row.get("num_sequences") instanceof Number ? ((Number) row.get("num_sequences")).intValue() : 0;
+            double valLoss = row.get("val_loss") instanceof Number ? ((Number) row.get("val_loss")).doubleValue() : Double.NaN;
+            Instant trainCutoff = row.get("train_cutoff") instanceof Timestamp ? ((Timestamp) row.get("train_cutoff")).toInstant() : null;
+            logger.info("[TRANSFER][BASE] Modèle de base v{} chargé ({}, coupure {})", version, row.get("architecture"), trainCutoff);
+            return new BaseModel(version, String.valueOf(row.get("architecture")), model, numSequences, valLoss, trainCutoff);
+        } catch (Exception e) {
+            logger.warn("[TRANSFER][BASE] Lecture modèle de base impossible: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Enregistre un nouveau modèle de base (nouvelle version de son architecture) et le rend courant.
+     * @param trainCutoff fin de la dernière barre utilisée par le pré-entraînement
+     * @return version (id lstm_base_models)
+     */
+    public long save(JdbcTemplate jdbcTemplate, LstmConfig config, MultiLayerNetwork model, List<String> symbols,
+                     int numSequences, double valLoss, int epochs, Instant trainCutoff) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        // Sans état d'updater : le fine-tuning repart avec l'optimiseur de sa propre config
+        ModelSerializer.writeModel(model, baos, false);
+        String modelSha256 = LstmModelBlobStore.save(jdbcTemplate, baos.toByteArray());
+        com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
+        String hyperparamsJson = mapper.writeValueAsString(config);
+        String symbolsJson = mapper.writeValueAsString(symbols);
+        String architecture = architecture(config);
+        String key = architectureKey(config);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("INSERT INTO lstm_base_models (arch_key, architecture, hyperparams_json, model_sha256, " +
+                "symbols_json, num_sequences, val_loss, epochs, train_cutoff) VALUES (?,?,?,?,?,?,?,?,?)", Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, key);
+            ps.setString(2, architecture);
+            ps.setString(3, hyperparamsJson);
+            ps.setString(4, modelSha256);
+            ps.setString(5, symbolsJson);
+            ps.setInt(6, numSequences);
+            ps.setDouble(7, Double.isFinite(valLoss) ? valLoss : 0.0);
+            ps.setInt(8, epochs);
+            ps.setTimestamp(9, Timestamp.from(trainCutoff));
+            return ps;
+        }, keyHolder);
+        long version = keyHolder.getKey() != null ? keyHolder.getKey().longValue() : 0L;
+        latest.put(key, Optional.of(new BaseModel(version, architecture, model, numSequences, valLoss, trainCutoff)));
+        logger.info("[TRANSFER][BASE] Modèle de base v{} enregistré ({} symboles, {} séquences, valLoss={}, coupure {})",
+            version, symbols.size(), numSequences, valLoss, trainCutoff);
+        return version;
+    }
+
+    /**
+     * Démarrage à chaud permis pour un entraînement dont la dernière barre se termine à trainEnd : coupure du
+     * modèle de base connue et pas postérieure (aucune barre de la période d'évaluation dans le pré-entraînement).
+     */
+    public static boolean usableFor(BaseModel base, ZonedDateTime trainEnd) {
+        return base != null && base.trainCutoff != null && trainEnd != null && !base.trainCutoff.isAfter(trainEnd.toInstant());
+    }
+
+    /**
+     * Copie les paramètres de base dans target (même nombre de paramètres requis).
+     * @return false si les architectures ne correspondent pas (target inchangé)
+     */
+    public static boolean copyParams(MultiLayerNetwork target, MultiLayerNetwork base) {
+        if (target == null || base == null || target.numParams() != base.numParams()) return false;
+        target.setParams(base.params().castTo(target.params().dataType()).dup());
+        return true;
+    }
+
+    /** Marque un réseau entraîné à partir de la version de base donnée */
+    public void markWarmStarted(MultiLayerNetwork model, long version) {
+        if (model == null) return;
+        warmStarted.put(model, version);
+        warmStarts.incrementAndGet();
+    }
+
+    /** Version de base ayant initialisé model, null si entraîné depuis zéro */
+    public Long versionOf(MultiLayerNetwork model) {
+        return model == null ? null : warmStarted.get(model);
+    }
+
+    public long getWarmStarts() {
+        return warmStarts.get();
+    }
+
+    /** Oublie les versions en mémoire (relecture en base au prochain find) */
+    public void invalidate() {
+        latest.clear();
+    }
+}
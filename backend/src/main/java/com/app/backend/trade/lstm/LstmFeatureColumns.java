@@ -0,0 +1,378 @@
+package com.app.backend.trade.lstm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Construction des colonnes de features de extractFeatureMatrix à partir des séries brutes (LstmIndicatorKernels).
+ *
+ * Les intermédiaires partagés (SMA20 pour sma_20 et Bollinger, EMA12/26 pour ema_12/ema_26 et MACD, RSI14 pour
+ * rsi, rsi_14 et momentum_divergence...) sont calculés une seule fois, comme dépendances, par niveaux :
+ * un intermédiaire ne lit que ceux des niveaux précédents (SD20 après SMA20, signal MACD après MACD).
+ * Chaque colonne demandée est ensuite produite dans un tampon colonne (double[feature][barre]), puis transposée
+ * dans la matrice ligne attendue par les appelants avec nettoyage des valeurs non finies.
+ *
+ * Mode parallèle (parallelism > 1 et matrice assez grande) : chaque intermédiaire d'un niveau, puis chaque colonne,
+ * est une tâche ForkJoin ; la transposition est découpée par blocs de lignes. Les tâches écrivent dans des cases
+ * distinctes : le résultat est identique au mode séquentiel. Séquentiel par défaut : pendant le tuning, les
+ * entraînements concurrents occupent déjà les coeurs.
+ *
+ * Extension (nouvelles barres d'une série déjà calculée) : fill avec Carry recalcule seulement la fin de la série,
+ * à partir de CARRY_WARMUP_BARS barres avant les lignes à produire. Les lissages récurrents (EMA, Wilder) reprennent
+ * depuis leur valeur mémorisée et sont identiques au bit près à un calcul complet ; les fenêtres glissantes ne lisent
+ * que des barres de la tranche (sommes glissantes : écart possible au dernier bit près).
+ */
+public final class LstmFeatureColumns {
+
+    /** En dessous de ce nombre de cellules (barres x features), le coût des tâches dépasse le gain */
+    static final int MIN_PARALLEL_CELLS = 50_000;
+    /** Barres recalculées avant la première ligne d'une extension ; >= plus longue fenêtre finie (SMA 50) */
+    static final int CARRY_WARMUP_BARS = 64;
+    private static final int TRANSPOSE_CHUNK_ROWS = 2048;
+
+    private static volatile int parallelism = 1;
+    private static volatile ForkJoinPool pool;
+
+    /** Intermédiaires partagés entre colonnes ; level = 1 + niveau maximal des dépendances */
+    private enum Shared {
+        AVG_GAIN_14, AVG_LOSS_14, AVG_GAIN_21, AVG_LOSS_21, SMA_14, SMA_20, SMA_50, EMA_14, EMA_12, EMA_26, EMA_50,
+        ATR_14, ATR_21, STOCH_K, RSI_14(AVG_GAIN_14, AVG_LOSS_14), RSI_21(AVG_GAIN_21, AVG_LOSS_21),
+        SD_20(SMA_20), MACD(EMA_12, EMA_26), MACD_SIGNAL(MACD);
+
+        final Shared[] dependencies;
+        final int level;
+
+        Shared(Shared... dependencies) {
+            this.dependencies = dependencies;
+            int l = 0;
+            for (Shared d : dependencies) l = Math.max(l, d.level + 1);
+            this.level = l;
+        }
+
+        /** Lissage récurrent : la valeur i dépend de tout l'historique, repris par Carry lors d'une extension */
+        boolean recurrent() {
+            return switch (this) {
+                case AVG_GAIN_14, AVG_LOSS_14, AVG_GAIN_21, AVG_LOSS_21, EMA_14, EMA_12, EMA_26, EMA_50,
+                     ATR_14, ATR_21, MACD_SIGNAL -> true;
+                default -> false;
+            };
+        }
+    }
+
+    /** Valeurs des lissages récurrents (par ordinal de Shared, NaN si non calculé) à la barre index de la série */
+    static final class Carry {
+        final int index;
+        final double[] values;
+
+        private Carry(int index, double[] values) {
+            this.index = index;
+            this.values = values;
+        }
+    }
+
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] volume;
+    private final double[] realizedVol;
+    private final List<String> features;
+    private final int n;
+    private final double[][] shared = new double[Shared.values().length][];
+    private final boolean[] required = new boolean[Shared.values().length];
+    private double[] zeros;
+    private Carry seed;
+
+    private LstmFeatureColumns(double[] open, double[] high, double[] low, double[] close, double[] volume,
+                               double[] realizedVol, List<String> features) {
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.realizedVol = realizedVol;
+        this.features = features;
+        this.n = close.length;
+    }
+
+    /**
+     * Nombre de threads du pool de features (0 ou négatif = nombre de coeurs). 1 = exécution séquentielle (défaut).
+     * Le nouveau pool est publié avant l'arrêt de l'ancien (shutdown : les extractions en cours se terminent).
+     */
+    public static synchronized void setParallelism(int threads) {
+        int p = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        if (p != parallelism) {
+            ForkJoinPool old = pool;
+            pool = p > 1 ? new ForkJoinPool(p) : null;
+            parallelism = p;
+            if (old != null) old.shutdown();
+        }
+    }
+
+    public static int getParallelism() {
+        return parallelism;
+    }
+
+    private static ForkJoinPool pool() {
+        ForkJoinPool p = pool;
+        if (p == null) {
+            synchronized (LstmFeatureColumns.class) {
+                if (pool == null) pool = new ForkJoinPool(parallelism);
+                p = pool;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Remplit M (n lignes x features.size() colonnes) avec les features demandées.
+     * @param realizedVol colonne realized_vol pré-calculée (null si non demandée)
+     */
+    public static void fill(double[][] M, double[] open, double[] high, double[] low, double[] close, double[] volume,
+                            double[] realizedVol, List<String> features) {
+        new LstmFeatureColumns(open, high, low, close, volume, realizedVol, features).run(M);
+    }
+
+    /**
+     * Remplit M pour la tranche de série [offset, offset + close.length[ (tableaux bruts de la tranche).
+     * Les lignes de M sont justes à partir de CARRY_WARMUP_BARS barres après le début de tranche, ou dès 0 si offset = 0.
+     * @param seed    état des lissages à la barre offset (null = calcul depuis le début de la série, offset = 0)
+     * @param carryAt indice absolu de la barre dont l'état est retourné
+     * @return état des lissages à carryAt, ou null si carryAt est hors de la tranche
+     */
+    static Carry fill(double[][] M, double[] open, double[] high, double[] low, double[] close, double[] volume,
+                      double[] realizedVol, List<String> features, int offset, Carry seed, int carryAt) {
+        if (seed == null ? offset != 0 : seed.index != offset) {
+            throw new IllegalArgumentException("Tranche à l'indice " + offset + " sans état des lissages à cet indice");
+        }
+        LstmFeatureColumns columns = new LstmFeatureColumns(open, high, low, close, volume, realizedVol, features);
+        columns.seed = seed;
+        columns.run(M);
+        int local = carryAt - offset;
+        if (local < 0 || local >= columns.n) return null;
+        double[] values = new double[Shared.values().length];
+        for (Shared s : Shared.values()) {
+            double[] computed = columns.get(s);
+            values[s.ordinal()] = s.recurrent() && computed != null ? computed[local] : Double.NaN;
+        }
+        return new Carry(carryAt, values);
+    }
+
+    private void run(double[][] M) {
+        resolveRequired();
+        boolean parallel = parallelism > 1 && (long) n * features.size() >= MIN_PARALLEL_CELLS;
+        if (parallel) {
+            try {
+                pool().invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        computeParallel(M);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Pool remplacé par setParallelism entre sa lecture et la soumission : rien n'a été calculé
+                computeSequential(M);
+            }
+        } else {
+            computeSequential(M);
+        }
+    }
+
+    // Mêmes conditions de calcul que les anciens indicateurs ta4j (ex: bollinger_position sans bande demandée -> 0.5)
+    private void resolveRequired() {
+        boolean bands = features.contains("bollinger_high") || features.contains("bollinger_low") || features.contains("bollinger_width");
+        boolean macd = features.contains("macd");
+        require(Shared.RSI_14, features.contains("rsi") || features.contains("rsi_14"));
+        require(Shared.RSI_21, features.contains("rsi_21"));
+        require(Shared.SMA_14, features.contains("sma"));
+        require(Shared.SMA_20, features.contains("sma_20") || bands);
+        require(Shared.SMA_50, features.contains("sma_50"));
+        require(Shared.SD_20, bands);
+        require(Shared.EMA_14, features.contains("ema"));
+        require(Shared.EMA_12, features.contains("ema_12") || macd);
+        require(Shared.EMA_26, features.contains("ema_26") || macd);
+        require(Shared.EMA_50, features.contains("ema_50"));
+        require(Shared.MACD, macd);
+        require(Shared.MACD_SIGNAL, macd && features.contains("macd_signal"));
+        require(Shared.ATR_14, features.contains("atr") || features.contains("atr_14"));
+        require(Shared.ATR_21, features.contains("atr_21"));
+        require(Shared.STOCH_K, features.contains("stochastic") || features.contains("stochastic_d"));
+    }
+
+    private void require(Shared s, boolean condition) {
+        if (!condition) return;
+        required[s.ordinal()] = true;
+        for (Shared d : s.dependencies) require(d, true);
+    }
+
+    private void computeSequential(double[][] M) {
+        for (Shared s : Shared.values()) {
+            // Ordre de déclaration compatible avec les niveaux (dépendances déclarées avant)
+            if (required[s.ordinal()]) shared[s.ordinal()] = computeShared(s);
+        }
+        int fCount = features.size();
+        double[][] columns = new double[fCount][];
+        for (int f = 0; f < fCount; f++) columns[f] = column(f);
+        transpose(columns, M, 0, n);
+    }
+
+    // Exécuté dans le pool
+    private void computeParallel(double[][] M) {
+        int maxLevel = 0;
+        for (Shared s : Shared.values()) maxLevel = Math.max(maxLevel, s.level);
+        for (int level = 0; level <= maxLevel; level++) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (Shared s : Shared.values()) {
+                if (s.level == level && required[s.ordinal()]) {
+                    tasks.add(ForkJoinTask.adapt(() -> { shared[s.ordinal()] = computeShared(s); }));
+                }
+            }
+            ForkJoinTask.invokeAll(tasks);
+        }
+        int fCount = features.size();
+        double[][] columns = new double[fCount][];
+        // Colonnes nulles partagées créées avant les tâches
+        zeros = new double[n];
+        List<ForkJoinTask<?>> columnTasks = new ArrayList<>(fCount);
+        for (int f = 0; f < fCount; f++) {
+            final int col = f;
+            columnTasks.add(ForkJoinTask.adapt(() -> { columns[col] = column(col); }));
+        }
+        ForkJoinTask.invokeAll(columnTasks);
+        List<ForkJoinTask<?>> rowTasks = new ArrayList<>();
+        for (int from = 0; from < n; from += TRANSPOSE_CHUNK_ROWS) {
+            final int start = from;
+            final int end = Math.min(n, from + TRANSPOSE_CHUNK_ROWS);
+            rowTasks.add(ForkJoinTask.adapt(() -> transpose(columns, M, start, end)));
+        }
+        ForkJoinTask.invokeAll(rowTasks);
+    }
+
+    private double[] computeShared(Shared s) {
+        return switch (s) {
+            case AVG_GAIN_14 -> LstmIndicatorKernels.wilder(LstmIndicatorKernels.gains(close), 14, seed(s));
+            case AVG_LOSS_14 -> LstmIndicatorKernels.wilder(LstmIndicatorKernels.losses(close), 14, seed(s));
+            case AVG_GAIN_21 -> LstmIndicatorKernels.wilder(LstmIndicatorKernels.gains(close), 21, seed(s));
+            case AVG_LOSS_21 -> LstmIndicatorKernels.wilder(LstmIndicatorKernels.losses(close), 21, seed(s));
+            case RSI_14 -> LstmIndicatorKernels.rsi(get(Shared.AVG_GAIN_14), get(Shared.AVG_LOSS_14));
+            case RSI_21 -> LstmIndicatorKernels.rsi(get(Shared.AVG_GAIN_21), get(Shared.AVG_LOSS_21));
+            case SMA_14 -> LstmIndicatorKernels.sma(close, 14);
+            case SMA_20 -> LstmIndicatorKernels.sma(close, 20);
+            case SMA_50 -> LstmIndicatorKernels.sma(close, 50);
+            case EMA_14 -> LstmIndicatorKernels.ema(close, 14, seed(s));
+            case EMA_12 -> LstmIndicatorKernels.ema(close, 12, seed(s));
+            case EMA_26 -> LstmIndicatorKernels.ema(close, 26, seed(s));
+            case EMA_50 -> LstmIndicatorKernels.ema(close, 50, seed(s));
+            case ATR_14 -> LstmIndicatorKernels.wilder(LstmIndicatorKernels.trueRange(high, low, close), 14, seed(s));
+            case ATR_21 -> LstmIndicatorKernels.wilder(LstmIndicatorKernels.trueRange(high, low, close), 21, seed(s));
+            case STOCH_K -> LstmIndicatorKernels.stochasticK(high, low, close, 14);
+            case SD_20 -> LstmIndicatorKernels.stdDev(close, get(Shared.SMA_20), 20);
+            case MACD -> LstmIndicatorKernels.difference(get(Shared.EMA_12), get(Shared.EMA_26));
+            case MACD_SIGNAL -> LstmIndicatorKernels.ema(get(Shared.MACD), 9, seed(s));
+        };
+    }
+
+    /** Valeur de reprise du lissage s à l'indice 0 de la tranche (NaN = initialisation sur la première barre) */
+    private double seed(Shared s) {
+        return seed != null ? seed.values[s.ordinal()] : Double.NaN;
+    }
+
+    /** Intermédiaire calculé, ou null s'il n'est pas requis par les features demandées */
+    private double[] get(Shared s) {
+        return shared[s.ordinal()];
+    }
+
+    /** Colonne de la feature f (lecture seule : peut être une série brute ou un intermédiaire partagé) */
+    private double[] column(int f) {
+        String feature = features.get(f);
+        double[] col = switch (feature) {
+            case "close" -> close;
+            case "high" -> high;
+            case "low" -> low;
+            case "open" -> open;
+            case "volume" -> {
+                // Étape 5: appliquer log1p(volume) avant normalisation
+                double[] logVolume = new double[n];
+                for (int i = 0; i < n; i++) logVolume[i] = Math.log1p(Math.max(0.0, volume[i]));
+                yield logVolume;
+            }
+
+            case "rsi", "rsi_14" -> get(Shared.RSI_14);
+            case "rsi_21" -> get(Shared.RSI_21);
+            case "sma" -> get(Shared.SMA_14);
+            case "sma_20" -> get(Shared.SMA_20);
+            case "sma_50" -> get(Shared.SMA_50);
+            case "ema" -> get(Shared.EMA_14);
+            case "ema_12" -> get(Shared.EMA_12);
+            case "ema_26" -> get(Shared.EMA_26);
+            case "ema_50" -> get(Shared.EMA_50);
+
+            case "macd" -> get(Shared.MACD);
+            case "macd_signal" -> get(Shared.MACD_SIGNAL);
+            case "macd_histogram" -> get(Shared.MACD_SIGNAL) != null ? LstmIndicatorKernels.difference(get(Shared.MACD), get(Shared.MACD_SIGNAL)) : null;
+
+            case "atr", "atr_14" -> get(Shared.ATR_14);
+            case "atr_21" -> get(Shared.ATR_21);
+
+            case "bollinger_high", "bollinger_low", "bollinger_width" -> {
+                double[] mid = get(Shared.SMA_20);
+                double[] sd = get(Shared.SD_20);
+                if (sd == null) yield null;
+                double[] out = new double[n];
+                for (int i = 0; i < n; i++) {
+                    out[i] = switch (feature) {
+                        case "bollinger_high" -> mid[i] + 2 * sd[i];
+                        case "bollinger_low" -> mid[i] - 2 * sd[i];
+                        default -> 4 * sd[i]; // Width = Upper - Lower = 4 * stddev
+                    };
+                }
+                yield out;
+            }
+            case "bollinger_position" -> {
+                if (get(Shared.SD_20) != null) yield LstmIndicatorKernels.bollingerPosition(close, get(Shared.SMA_20), get(Shared.SD_20));
+                double[] neutral = new double[n];
+                Arrays.fill(neutral, 0.5);
+                yield neutral;
+            }
+
+            case "stochastic" -> get(Shared.STOCH_K);
+            case "stochastic_d" -> LstmIndicatorKernels.sma(get(Shared.STOCH_K), 3);
+            case "williams_r" -> LstmIndicatorKernels.williamsR(high, low, close, 14);
+            case "cci" -> LstmIndicatorKernels.cci(high, low, close, 20);
+            case "roc" -> LstmIndicatorKernels.roc(close, 12);
+
+            case "momentum" -> LstmIndicatorKernels.momentum(close);
+            case "trend_strength" -> LstmIndicatorKernels.trendStrength(close);
+            case "price_gap" -> LstmIndicatorKernels.priceGap(open, close);
+            case "range_expansion" -> LstmIndicatorKernels.rangeExpansion(high, low, close);
+            case "breakout_momentum" -> LstmIndicatorKernels.breakoutMomentum(high, low, close);
+            case "momentum_acceleration" -> LstmIndicatorKernels.momentumAcceleration(close);
+            case "momentum_volatility" -> LstmIndicatorKernels.momentumVolatility(close);
+            case "cross_momentum" -> get(Shared.SMA_20) != null ? LstmIndicatorKernels.crossMomentum(close, get(Shared.SMA_20)) : null;
+            case "momentum_divergence" -> features.contains("rsi_14") ? LstmIndicatorKernels.momentumDivergence(close, get(Shared.RSI_14)) : null;
+            case "realized_vol" -> realizedVol;
+            // adx, di_plus, di_minus, obv et features inconnues : colonne nulle
+            default -> null;
+        };
+        if (col != null) return col;
+        if (zeros == null) zeros = new double[n];
+        return zeros;
+    }
+
+    /** Copie les lignes [from, to[ du tampon colonne dans M, valeurs non finies remplacées par 0 */
+    private static void transpose(double[][] columns, double[][] M, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double[] row = M[i];
+            for (int f = 0; f < columns.length; f++) {
+                double val = columns[f][i];
+                // Nettoyage valeurs invalides
+                row[f] = Double.isFinite(val) ? val : 0.0;
+            }
+        }
+    }
+}
@@ -1,19 +1,74 @@
 package com.app.backend.trade.lstm;
 
-import java.io.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
 import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
 
+/**
+ * Cache disque des matrices de features (second niveau après LstmFeatureStore).
+ *
+ * Format binaire versionné, little-endian :
+ *  - en-tête 24 octets : magic "LFMC", version, lignes, colonnes, CRC32C des données
+ *  - données : lignes x colonnes doubles, rangées par ligne
+ * Lecture par FileChannel.map puis copie en bloc de chaque ligne ; un fichier d'un autre format, tronqué
+ * ou dont le checksum diffère est supprimé et compté comme miss.
+ *
+ * Écriture atomique : fichier temporaire unique puis rename, un lecteur concurrent voit l'ancien fichier
+ * ou le nouveau, jamais un fichier partiel.
+ *
+ * Chaque hit met à jour la date de modification du fichier (date d'accès LRU, indépendante de noatime).
+ * Le janitor (tâche de fond) supprime les fichiers plus vieux que maxAge puis les moins récemment utilisés
+ * jusqu'à respecter le budget disque.
+ */
 public class LstmFeatureMatrixCache {
-    private static final String CACHE_DIR = "cache";
+    private static final Logger logger = LoggerFactory.getLogger(LstmFeatureMatrixCache.class);
+
+    private static final String EXTENSION = ".bin";
+    private static final String TMP_EXTENSION = ".tmp";
+    private static final int MAGIC = 0x4C464D43; // "LFMC"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = 24;
+    // Un fichier temporaire plus vieux est un reste d'écriture interrompue
+    private static final long STALE_TMP_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    public static final long DEFAULT_MAX_DISK_BYTES = 2L * 1024 * 1024 * 1024;
+    public static final long DEFAULT_MAX_AGE_HOURS = 7 * 24;
+
+    private static volatile Path cacheDir = Paths.get("cache");
+    private static volatile long maxDiskBytes = DEFAULT_MAX_DISK_BYTES;
+    private static volatile long maxAgeHours = DEFAULT_MAX_AGE_HOURS;
+
     // Compteurs globaux hits/misses pour tests
     private static final AtomicLong hits = new AtomicLong();
     private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong diskEvictions = new AtomicLong();
+
+    private static ScheduledExecutorService janitorExecutor;
+    private static ScheduledFuture<?> janitorTask;
 
     static {
-        File dir = new File(CACHE_DIR);
-        if (!dir.exists()) dir.mkdirs();
+        try {
+            Files.createDirectories(cacheDir);
+        } catch (IOException e) {
+            logger.warn("[FEATURE-CACHE] Création répertoire {} impossible: {}", cacheDir, e.getMessage());
+        }
     }
 
     public static String computeKey(String symbol, String interval, int barCount, long lastBarEndTime, String featureSetVersion, List<String> features) {
@@ -30,50 +85,195 @@ public class LstmFeatureMatrixCache {
     }
 
     public static double[][] load(String key) {
-        File f = new File(CACHE_DIR, key + ".bin");
-        if (!f.exists()) {
+        Path file = cacheDir.resolve(key + EXTENSION);
+        if (!Files.exists(file)) {
             misses.incrementAndGet();
             return null;
         }
-        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
-            int n = in.readInt();
-            int m = in.readInt();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IOException("fichier tronqué (" + size + " octets)");
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            int magic = mapped.getInt(0);
+            int version = mapped.getInt(4);
+            int n = mapped.getInt(8);
+            int m = mapped.getInt(12);
+            long checksum = mapped.getLong(16);
+            if (magic != MAGIC || version != FORMAT_VERSION) throw new IOException("format inconnu (version " + version + ")");
+            if (n < 0 || m < 0 || size != HEADER_BYTES + (long) n * m * Double.BYTES) throw new IOException("taille incohérente " + n + "x" + m);
+            ByteBuffer data = mapped.slice(HEADER_BYTES, (int) (size - HEADER_BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+            CRC32C crc = new CRC32C();
+            crc.update(data.duplicate());
+            if (crc.getValue() != checksum) throw new IOException("checksum invalide");
+            DoubleBuffer doubles = data.asDoubleBuffer();
             double[][] matrix = new double[n][m];
-            for (int i = 0; i < n; i++)
-                for (int j = 0; j < m; j++)
-                    matrix[i][j] = in.readDouble();
+            for (int i = 0; i < n; i++) doubles.get(matrix[i]);
+            touch(file);
             hits.incrementAndGet();
             return matrix;
         } catch (Exception e) {
-            // corruption => considérer comme miss (on supprime le fichier pour éviter répétition)
+            // corruption / ancien format => considérer comme miss (on supprime le fichier pour éviter répétition)
+            logger.debug("[FEATURE-CACHE] Fichier {} ignoré: {}", file.getFileName(), e.getMessage());
             misses.incrementAndGet();
-            try { f.delete(); } catch (Exception ignore) {}
+            try { Files.deleteIfExists(file); } catch (Exception ignore) {}
             return null;
         }
     }
 
     public static void save(String key, double[][] matrix) {
-        File f = new File(CACHE_DIR, key + ".bin");
-        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)))) {
-            int n = matrix.length;
-            int m = n > 0 ? matrix[0].length : 0;
-            out.writeInt(n);
-            out.writeInt(m);
-            for (int i = 0; i < n; i++)
-                for (int j = 0; j < m; j++)
-                    out.writeDouble(matrix[i][j]);
+        int n = matrix.length;
+        int m = n > 0 ? matrix[0].length : 0;
+        long dataBytes = (long) n * m * Double.BYTES;
+        if (HEADER_BYTES + dataBytes > Integer.MAX_VALUE || HEADER_BYTES + dataBytes > maxDiskBytes) return;
+        ByteBuffer buffer = ByteBuffer.allocate((int) (HEADER_BYTES + dataBytes)).order(ByteOrder.LITTLE_ENDIAN);
+        DoubleBuffer doubles = buffer.position(HEADER_BYTES).slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        for (int i = 0; i < n; i++) doubles.put(matrix[i], 0, m);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(HEADER_BYTES));
+        buffer.putInt(0, MAGIC).putInt(4, FORMAT_VERSION).putInt(8, n).putInt(12, m).putLong(16, crc.getValue());
+        buffer.position(0);
+
+        Path file = cacheDir.resolve(key + EXTENSION);
+        Path tmp = cacheDir.resolve(key + "." + Thread.currentThread().getId() + "." + System.nanoTime() + TMP_EXTENSION);
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) channel.write(buffer);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (Exception e) {
-            // ignore
+            logger.debug("[FEATURE-CACHE] Écriture {} impossible: {}", file.getFileName(), e.getMessage());
+            try { Files.deleteIfExists(tmp); } catch (Exception ignore) {}
+        }
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (Exception ignore) {
+            // lecture seule possible : l'ordre LRU reste celui de l'écriture
+        }
+    }
+
+    // --- Budget disque / janitor ---
+
+    /**
+     * Passe de nettoyage : temporaires abandonnés, fichiers plus vieux que maxAge, puis LRU jusqu'au budget.
+     * @return nombre de fichiers de cache supprimés
+     */
+    public static synchronized int enforceBudget() {
+        long now = System.currentTimeMillis();
+        long maxAgeMillis = maxAgeHours > 0 ? TimeUnit.HOURS.toMillis(maxAgeHours) : Long.MAX_VALUE;
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(cacheDir)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            logger.warn("[FEATURE-CACHE][JANITOR] Lecture {} impossible: {}", cacheDir, e.getMessage());
+            return 0;
+        }
+        List<CachedFile> live = new ArrayList<>();
+        long total = 0;
+        int removed = 0;
+        for (Path p : files) {
+            String name = p.getFileName().toString();
+            try {
+                long modified = Files.getLastModifiedTime(p).toMillis();
+                if (name.endsWith(TMP_EXTENSION)) {
+                    if (now - modified > STALE_TMP_MILLIS) Files.deleteIfExists(p);
+                    continue;
+                }
+                if (!name.endsWith(EXTENSION)) continue;
+                if (now - modified > maxAgeMillis) {
+                    if (Files.deleteIfExists(p)) removed++;
+                    continue;
+                }
+                long size = Files.size(p);
+                live.add(new CachedFile(p, modified, size));
+                total += size;
+            } catch (IOException ignore) {
+                // fichier supprimé entre-temps
+            }
+        }
+        if (total > maxDiskBytes) {
+            live.sort(Comparator.comparingLong(CachedFile::lastModified));
+            for (CachedFile f : live) {
+                if (total <= maxDiskBytes) break;
+                try {
+                    if (Files.deleteIfExists(f.path())) removed++;
+                    total -= f.size();
+                } catch (IOException ignore) {
+                }
+            }
+        }
+        if (removed > 0) {
+            diskEvictions.addAndGet(removed);
+            logger.info("[FEATURE-CACHE][JANITOR] {} fichiers supprimés, {} octets restants (budget {})", removed, total, maxDiskBytes);
+        }
+        return removed;
+    }
+
+    private record CachedFile(Path path, long lastModified, long size) {}
+
+    /**
+     * Démarre (ou replanifie) le janitor en tâche de fond ; intervalMinutes <= 0 l'arrête.
+     */
+    public static synchronized void startJanitor(long intervalMinutes) {
+        if (janitorTask != null) {
+            janitorTask.cancel(false);
+            janitorTask = null;
+        }
+        if (intervalMinutes <= 0) return;
+        if (janitorExecutor == null) {
+            janitorExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "feature-cache-janitor");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        janitorTask = janitorExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                enforceBudget();
+            } catch (Exception e) {
+                logger.warn("[FEATURE-CACHE][JANITOR] {}", e.toString());
+            }
+        }, 0, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    public static void setMaxDiskBytes(long maxDiskBytes) { LstmFeatureMatrixCache.maxDiskBytes = maxDiskBytes; }
+    public static long getMaxDiskBytes() { return maxDiskBytes; }
+    public static void setMaxAgeHours(long maxAgeHours) { LstmFeatureMatrixCache.maxAgeHours = maxAgeHours; }
+    public static long getMaxAgeHours() { return maxAgeHours; }
+
+    public static void setCacheDir(Path dir) {
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            logger.warn("[FEATURE-CACHE] Création répertoire {} impossible: {}", dir, e.getMessage());
         }
+        cacheDir = dir;
     }
+    public static Path getCacheDir() { return cacheDir; }
 
     // --- Instrumentation API ---
-    public static void resetStats() { hits.set(0); misses.set(0); }
-    public static CacheStats getStats() { return new CacheStats(hits.get(), misses.get()); }
+    public static void resetStats() { hits.set(0); misses.set(0); diskEvictions.set(0); LstmFeatureStore.resetStats(); }
+    // hits = servis par le store mémoire (LstmFeatureStore) ou le disque ; misses = matrices recalculées ;
+    // memoryExtensions = séries prolongées dont seules les nouvelles barres ont été calculées
+    public static CacheStats getStats() {
+        long memoryHits = LstmFeatureStore.getHits();
+        return new CacheStats(memoryHits + hits.get(), misses.get(), memoryHits, hits.get(),
+                LstmFeatureStore.getBytes(), LstmFeatureStore.size(), LstmFeatureStore.getEvictions(), diskEvictions.get(), LstmFeatureStore.getExtensions());
+    }
 
-    public record CacheStats(long hits, long misses) {
+    public record CacheStats(long hits, long misses, long memoryHits, long diskHits, long memoryBytes, int memoryEntries, long memoryEvictions, long diskEvictions, long memoryExtensions) {
+        public CacheStats(long hits, long misses) { this(hits, misses, 0, hits, 0, 0, 0, 0, 0); }
         public long total() { return hits + misses; }
         public double hitRatio() { long t = total(); return t==0? 0.0 : (double) hits / t; }
-        public String toString(){ return "CacheStats{hits="+hits+", misses="+misses+", hitRatio="+String.format(Locale.US, "%.2f", hitRatio()*100)+"%}"; }
+        public String toString(){ return "CacheStats{hits="+hits+", misses="+misses+", hitRatio="+String.format(Locale.US, "%.2f", hitRatio()*100)+"%"
+                +", memoryHits="+memoryHits+", diskHits="+diskHits+", memoryBytes="+memoryBytes+", memoryEntries="+memoryEntries+", memoryEvictions="+memoryEvictions
+                +", diskEvictions="+diskEvictions+", memoryExtensions="+memoryExtensions+"}"; }
     }
 }
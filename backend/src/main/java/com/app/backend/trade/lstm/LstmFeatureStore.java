@@ -0,0 +1,268 @@
+package com.app.backend.trade.lstm;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Store mémoire des matrices de features, une entrée par (symbole, intervalle, version du jeu de features, features).
+ *
+ * Toutes les features de extractFeatureMatrix sont causales : la ligne i ne dépend que des barres [0, i].
+ * La matrice calculée sur la série la plus longue sert donc tout préfixe (sous-séries [0, n[ du walk-forward)
+ * et toute fenêtre [from, to[ sous forme de vue : tableau de lignes partagées avec l'entrée, sans copie des valeurs.
+ * Les vues sont en lecture seule.
+ *
+ * Version des données : une entrée conserve l'empreinte cumulée de chaque préfixe (hash 64 bits des dates de fin,
+ * clôtures et volumes des barres [0, i]) ; un préfixe de n barres n'est servi que si l'empreinte de la série demandée
+ * est égale à celle des n premières barres de l'entrée, ce qui détecte aussi une barre corrigée au milieu de la
+ * série. Une série plus longue (nouvelle bougie) remplace l'entrée.
+ *
+ * Extension : quand la série demandée prolonge une entrée (mêmes n0 premières barres, n > n0), lookup renvoie les
+ * lignes [0, n0[ et l'état des lissages mémorisé avec l'entrée (LstmFeatureColumns.Carry) ; l'appelant ne calcule
+ * que la fin de la série. C'est le cas de la prédiction quotidienne sur une série ancrée (même première barre).
+ *
+ * Tier heap borné en octets (maxBytes, 0 = désactivé), éviction LRU. Le cache disque LstmFeatureMatrixCache
+ * reste le second niveau ; les compteurs des deux tiers sont exposés par LstmFeatureMatrixCache.getStats().
+ */
+public final class LstmFeatureStore {
+
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+    // En-tête d'un tableau double[] par ligne (estimation JVM 64 bits)
+    private static final long ROW_OVERHEAD_BYTES = 16;
+
+    private static final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private static long maxBytes = DEFAULT_MAX_BYTES;
+    private static long bytes = 0;
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong extensions = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    private LstmFeatureStore() {
+    }
+
+    private static final class Entry {
+        final double[][] rows;
+        // prefixFingerprints[i] = empreinte des barres [0, i]
+        final long[] prefixFingerprints;
+        // État des lissages pour prolonger la matrice (null si inconnu : matrice relue du disque, série trop courte)
+        final LstmFeatureColumns.Carry carry;
+        final long bytes;
+
+        Entry(double[][] rows, long[] prefixFingerprints, LstmFeatureColumns.Carry carry) {
+            this.rows = rows;
+            this.prefixFingerprints = prefixFingerprints;
+            this.carry = carry;
+            int columns = rows.length > 0 ? rows[0].length : 0;
+            this.bytes = (long) rows.length * (columns * 8L + ROW_OVERHEAD_BYTES + 8L);
+        }
+
+        /** Vrai si une série de n barres d'empreinte fingerprint correspond aux n premières barres de l'entrée */
+        boolean covers(int n, long fingerprint) {
+            return n > 0 && n <= rows.length && prefixFingerprints[n - 1] == fingerprint;
+        }
+    }
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static long mix(long hash, Bar bar) {
+        hash = (hash ^ bar.getEndTime().toEpochSecond()) * FNV_PRIME;
+        hash = (hash ^ Double.doubleToLongBits(bar.getClosePrice().doubleValue())) * FNV_PRIME;
+        return (hash ^ Double.doubleToLongBits(bar.getVolume().doubleValue())) * FNV_PRIME;
+    }
+
+    /** Empreintes cumulées des barres de series : résultat[i] = empreinte des barres [0, i] */
+    static long[] prefixFingerprints(BarSeries series) {
+        int n = series.getBarCount();
+        long[] out = new long[n];
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < n; i++) {
+            hash = mix(hash, series.getBar(i));
+            out[i] = hash;
+        }
+        return out;
+    }
+
+    /** Empreinte des barres [0, n[ de series (date de fin, clôture, volume) */
+    static long fingerprint(BarSeries series, int n) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < n; i++) {
+            hash = mix(hash, series.getBar(i));
+        }
+        return hash;
+    }
+
+    public static String computeKey(String symbol, String interval, String featureSetVersion, List<String> features) {
+        return symbol + "|" + interval + "|" + featureSetVersion + "|" + String.join(",", features);
+    }
+
+    /**
+     * Vue sur les lignes [0, series.getBarCount()[ si une entrée couvre la série.
+     * @return lignes partagées (lecture seule) ou null
+     */
+    public static double[][] prefix(String key, BarSeries series) {
+        return window(key, series, 0, series.getBarCount());
+    }
+
+    /**
+     * Vue sur les lignes [from, to[ de la matrice de series si une entrée couvre la série.
+     * @return lignes partagées (lecture seule) ou null
+     */
+    public static double[][] window(String key, BarSeries series, int from, int to) {
+        if (from < 0 || to > series.getBarCount() || from > to) {
+            throw new IllegalArgumentException("Fenêtre [" + from + "," + to + "[ hors de la série (" + series.getBarCount() + " barres)");
+        }
+        int n = series.getBarCount();
+        long fingerprint = fingerprint(series, n);
+        double[][] view = null;
+        synchronized (LstmFeatureStore.class) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.covers(n, fingerprint)) {
+                view = Arrays.copyOfRange(entry.rows, from, to);
+            }
+        }
+        (view != null ? hits : misses).incrementAndGet();
+        return view;
+    }
+
+    /** Résultat de lookup : matrice complète (hit) ou début réutilisable d'une série prolongée (extension) */
+    static final class Lookup {
+        /** Hit : lignes [0, n[ ; extension : lignes [0, n0[ reprises de l'entrée */
+        final double[][] rows;
+        /** Extension : état des lissages à carry.index < n0 ; null pour un hit */
+        final LstmFeatureColumns.Carry carry;
+        /** Extension : empreintes cumulées des n barres de la série demandée (à repasser à put) */
+        final long[] prefixFingerprints;
+
+        private Lookup(double[][] rows, LstmFeatureColumns.Carry carry, long[] prefixFingerprints) {
+            this.rows = rows;
+            this.carry = carry;
+            this.prefixFingerprints = prefixFingerprints;
+        }
+
+        boolean isHit() {
+            return carry == null;
+        }
+    }
+
+    /**
+     * Matrice de series si une entrée la couvre (hit), sinon début de matrice et état des lissages si series prolonge
+     * une entrée (extension). Compte un hit, une extension ou un miss.
+     * @return lignes partagées (lecture seule) ou null (miss)
+     */
+    static Lookup lookup(String key, BarSeries series) {
+        int n = series.getBarCount();
+        long[] fingerprints = prefixFingerprints(series);
+        Lookup result = null;
+        synchronized (LstmFeatureStore.class) {
+            Entry entry = entries.get(key);
+            if (entry != null && n > 0) {
+                int n0 = entry.rows.length;
+                if (entry.covers(n, fingerprints[n - 1])) {
+                    result = new Lookup(Arrays.copyOf(entry.rows, n), null, null);
+                } else if (entry.carry != null && n > n0 && entry.prefixFingerprints[n0 - 1] == fingerprints[n0 - 1]) {
+                    result = new Lookup(entry.rows.clone(), entry.carry, fingerprints);
+                }
+            }
+        }
+        (result == null ? misses : result.isHit() ? hits : extensions).incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Enregistre la matrice calculée sur series (remplace l'entrée de même clé, sauf si celle-ci couvre déjà la série).
+     * Une matrice plus grande que le budget n'est pas conservée.
+     */
+    public static void put(String key, BarSeries series, double[][] matrix) {
+        put(key, series, matrix, null, null);
+    }
+
+    /**
+     * put avec l'état des lissages (extension ultérieure) et, si déjà calculées par lookup, les empreintes cumulées.
+     */
+    static void put(String key, BarSeries series, double[][] matrix, LstmFeatureColumns.Carry carry, long[] prefixFingerprints) {
+        int n = matrix.length;
+        if (n == 0 || n != series.getBarCount()) return;
+        synchronized (LstmFeatureStore.class) {
+            if (maxBytes <= 0) return;
+        }
+        if (prefixFingerprints == null || prefixFingerprints.length != n) prefixFingerprints = prefixFingerprints(series);
+        long hash = prefixFingerprints[n - 1];
+        synchronized (LstmFeatureStore.class) {
+            Entry existing = entries.get(key);
+            if (existing != null && existing.covers(n, hash) && (existing.carry != null || carry == null)) return;
+        }
+        Entry entry = new Entry(matrix, prefixFingerprints, carry);
+        synchronized (LstmFeatureStore.class) {
+            if (entry.bytes > maxBytes) return;
+            Entry previous = entries.put(key, entry);
+            if (previous != null) bytes -= previous.bytes;
+            bytes += entry.bytes;
+            evictToBudget();
+        }
+    }
+
+    // Appelé sous verrou : retire les entrées les moins récemment utilisées jusqu'à respecter le budget
+    private static void evictToBudget() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().getValue().bytes;
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /** Budget mémoire en octets (0 ou négatif = store désactivé et vidé) */
+    public static synchronized void setMaxBytes(long maxBytes) {
+        LstmFeatureStore.maxBytes = maxBytes;
+        evictToBudget();
+    }
+
+    public static synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public static synchronized long getBytes() {
+        return bytes;
+    }
+
+    public static synchronized int size() {
+        return entries.size();
+    }
+
+    public static synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    /** Séries prolongées : seules les nouvelles barres ont été calculées */
+    public static long getExtensions() {
+        return extensions.get();
+    }
+
+    public static long getEvictions() {
+        return evictions.get();
+    }
+
+    public static void resetStats() {
+        hits.set(0);
+        misses.set(0);
+        extensions.set(0);
+        evictions.set(0);
+    }
+}
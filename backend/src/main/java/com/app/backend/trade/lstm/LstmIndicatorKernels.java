@@ -0,0 +1,386 @@
+package com.app.backend.trade.lstm;
+
+/**
+ * Noyaux d'indicateurs primitifs sur double[] pour extractFeatureMatrix.
+ *
+ * Chaque noyau calcule la colonne complète en une passe O(n) (sommes glissantes, EMA, lissage de Wilder,
+ * extrema glissants par file monotone) au lieu de passer par les indicateurs ta4j (objets Num, cache
+ * d'indicateur, récursion). Les sémantiques reproduisent celles de ta4j 0.15 :
+ * - fenêtre partielle en début de série (SMA, variance, extrema, écart moyen) ;
+ * - EMA / MMA initialisées sur la première valeur ;
+ * - True Range sans clôture précédente sur la première barre ;
+ * - mêmes cas limites (RSI sans perte, CCI sans écart moyen).
+ * L'écart avec ta4j se limite à l'arrondi double (golden test LstmIndicatorKernelsTest).
+ *
+ * Les features composites (momentum, breakout, divergence...) sont des boucles sur les prix bruts.
+ * Toutes les colonnes sont causales : la valeur i ne dépend que des indices [0, i].
+ *
+ * Lissages récurrents (EMA, Wilder) : les variantes à seed reprennent la récurrence depuis la valeur connue à
+ * l'indice 0 (extension d'une matrice déjà calculée sur les seules nouvelles barres, LstmFeatureColumns.Carry).
+ */
+public final class LstmIndicatorKernels {
+
+    private LstmIndicatorKernels() {
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Moyennes et lissages
+    // ---------------------------------------------------------------------------------------------
+
+    /** Moyenne mobile simple (somme glissante, fenêtre partielle au début) */
+    public static double[] sma(double[] x, int period) {
+        int n = x.length;
+        double[] out = new double[n];
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += x[i];
+            if (i >= period) sum -= x[i - period];
+            out[i] = sum / Math.min(period, i + 1);
+        }
+        return out;
+    }
+
+    /** Moyenne mobile exponentielle (multiplicateur 2/(period+1)) */
+    public static double[] ema(double[] x, int period) {
+        return ema(x, period, Double.NaN);
+    }
+
+    /** EMA reprise depuis seed, valeur à l'indice 0 (NaN = initialisation sur x[0]) */
+    public static double[] ema(double[] x, int period, double seed) {
+        return exponential(x, 2.0 / (period + 1), seed);
+    }
+
+    /** Lissage de Wilder / MMA (multiplicateur 1/period) */
+    public static double[] wilder(double[] x, int period) {
+        return wilder(x, period, Double.NaN);
+    }
+
+    /** Lissage de Wilder repris depuis seed, valeur à l'indice 0 (NaN = initialisation sur x[0]) */
+    public static double[] wilder(double[] x, int period, double seed) {
+        return exponential(x, 1.0 / period, seed);
+    }
+
+    private static double[] exponential(double[] x, double multiplier, double seed) {
+        int n = x.length;
+        double[] out = new double[n];
+        if (n == 0) return out;
+        double prev = Double.isNaN(seed) ? x[0] : seed;
+        out[0] = prev;
+        for (int i = 1; i < n; i++) {
+            prev = (x[i] - prev) * multiplier + prev;
+            out[i] = prev;
+        }
+        return out;
+    }
+
+    /** Différence terme à terme a - b (MACD, histogramme) */
+    public static double[] difference(double[] a, double[] b) {
+        double[] out = new double[a.length];
+        for (int i = 0; i < a.length; i++) out[i] = a[i] - b[i];
+        return out;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Dispersion et extrema
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Écart-type population sur la fenêtre [i-period+1, i] autour de la SMA de la même fenêtre.
+     * Deux passes par fenêtre (period petit) : évite l'annulation catastrophique de E[x²] - E[x]².
+     */
+    public static double[] stdDev(double[] x, double[] sma, int period) {
+        int n = x.length;
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) {
+            int start = Math.max(0, i - period + 1);
+            double mean = sma[i];
+            double variance = 0.0;
+            for (int j = start; j <= i; j++) {
+                double d = x[j] - mean;
+                variance += d * d;
+            }
+            out[i] = Math.sqrt(variance / (i - start + 1));
+        }
+        return out;
+    }
+
+    /** Plus haut glissant sur period barres (file monotone, O(n)) */
+    public static double[] highest(double[] x, int period) {
+        return rollingExtremum(x, period, true);
+    }
+
+    /** Plus bas glissant sur period barres (file monotone, O(n)) */
+    public static double[] lowest(double[] x, int period) {
+        return rollingExtremum(x, period, false);
+    }
+
+    private static double[] rollingExtremum(double[] x, int period, boolean max) {
+        int n = x.length;
+        double[] out = new double[n];
+        int[] deque = new int[n];
+        int head = 0, tail = 0;
+        for (int i = 0; i < n; i++) {
+            while (tail > head && (max ? x[deque[tail - 1]] <= x[i] : x[deque[tail - 1]] >= x[i])) tail--;
+            deque[tail++] = i;
+            if (deque[head] <= i - period) head++;
+            out[i] = x[deque[head]];
+        }
+        return out;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Indicateurs
+    // ---------------------------------------------------------------------------------------------
+
+    /** RSI : gains / pertes lissés par Wilder ; 0 sans mouvement, 100 sans perte */
+    public static double[] rsi(double[] close, int period) {
+        return rsi(wilder(gains(close), period), wilder(losses(close), period));
+    }
+
+    /** Hausses de clôture d'une barre à l'autre (0 sur la première barre et en baisse) */
+    public static double[] gains(double[] close) {
+        double[] out = new double[close.length];
+        for (int i = 1; i < close.length; i++) {
+            double delta = close[i] - close[i - 1];
+            if (delta > 0) out[i] = delta;
+        }
+        return out;
+    }
+
+    /** Baisses de clôture d'une barre à l'autre, en valeur absolue (0 sur la première barre et en hausse) */
+    public static double[] losses(double[] close) {
+        double[] out = new double[close.length];
+        for (int i = 1; i < close.length; i++) {
+            double delta = close[i] - close[i - 1];
+            if (delta < 0) out[i] = -delta;
+        }
+        return out;
+    }
+
+    /** RSI à partir des gains / pertes moyens déjà lissés */
+    public static double[] rsi(double[] avgGain, double[] avgLoss) {
+        int n = avgGain.length;
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) {
+            if (avgLoss[i] == 0.0) {
+                out[i] = avgGain[i] == 0.0 ? 0.0 : 100.0;
+            } else {
+                out[i] = 100.0 - 100.0 / (1.0 + avgGain[i] / avgLoss[i]);
+            }
+        }
+        return out;
+    }
+
+    /** True Range : max(|h-l|, |h-clôture précédente|, |clôture précédente-l|) */
+    public static double[] trueRange(double[] high, double[] low, double[] close) {
+        int n = close.length;
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) {
+            double tr = Math.abs(high[i] - low[i]);
+            if (i > 0) {
+                tr = Math.max(tr, Math.abs(high[i] - close[i - 1]));
+                tr = Math.max(tr, Math.abs(close[i - 1] - low[i]));
+            }
+            out[i] = tr;
+        }
+        return out;
+    }
+
+    /** ATR : True Range lissé par Wilder */
+    public static double[] atr(double[] high, double[] low, double[] close, int period) {
+        return wilder(trueRange(high, low, close), period);
+    }
+
+    /** Stochastique %K : (c - plus bas) * 100 / (plus haut - plus bas) sur period barres */
+    public static double[] stochasticK(double[] high, double[] low, double[] close, int period) {
+        double[] hh = highest(high, period);
+        double[] ll = lowest(low, period);
+        double[] out = new double[close.length];
+        for (int i = 0; i < close.length; i++) out[i] = (close[i] - ll[i]) * 100.0 / (hh[i] - ll[i]);
+        return out;
+    }
+
+    /** Williams %R : (plus haut - c) / (plus haut - plus bas) * -100 sur period barres */
+    public static double[] williamsR(double[] high, double[] low, double[] close, int period) {
+        double[] hh = highest(high, period);
+        double[] ll = lowest(low, period);
+        double[] out = new double[close.length];
+        for (int i = 0; i < close.length; i++) out[i] = (hh[i] - close[i]) / (hh[i] - ll[i]) * -100.0;
+        return out;
+    }
+
+    /** CCI sur le prix typique (h+l+c)/3 ; 0 si l'écart moyen est nul */
+    public static double[] cci(double[] high, double[] low, double[] close, int period) {
+        int n = close.length;
+        double[] tp = new double[n];
+        for (int i = 0; i < n; i++) tp[i] = (high[i] + low[i] + close[i]) / 3.0;
+        double[] mean = sma(tp, period);
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) {
+            int start = Math.max(0, i - period + 1);
+            double deviation = 0.0;
+            for (int j = start; j <= i; j++) deviation += Math.abs(tp[j] - mean[i]);
+            deviation /= (i - start + 1);
+            out[i] = deviation == 0.0 ? 0.0 : (tp[i] - mean[i]) / (deviation * 0.015);
+        }
+        return out;
+    }
+
+    /** Rate of change en pourcentage par rapport à la valeur period barres plus tôt (indice 0 au début) */
+    public static double[] roc(double[] x, int period) {
+        int n = x.length;
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) {
+            double past = x[Math.max(i - period, 0)];
+            out[i] = (x[i] - past) / past * 100.0;
+        }
+        return out;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Features composites (prix bruts)
+    // ---------------------------------------------------------------------------------------------
+
+    /** Momentum multi-période : moyenne des rendements sur 3 et 10 barres */
+    public static double[] momentum(double[] close) {
+        double[] out = new double[close.length];
+        for (int i = 10; i < close.length; i++) {
+            double mom3 = (close[i] - close[i - 3]) / close[i - 3];
+            double mom10 = (close[i] - close[i - 10]) / close[i - 10];
+            out[i] = (mom3 + mom10) / 2;
+        }
+        return out;
+    }
+
+    /** Force de la tendance : rendements 5/10/20 barres pondérés 0.5/0.3/0.2 */
+    public static double[] trendStrength(double[] close) {
+        double[] out = new double[close.length];
+        for (int i = 20; i < close.length; i++) {
+            double roc5 = (close[i] - close[i - 5]) / close[i - 5];
+            double roc10 = (close[i] - close[i - 10]) / close[i - 10];
+            double roc20 = (close[i] - close[i - 20]) / close[i - 20];
+            out[i] = roc5 * 0.5 + roc10 * 0.3 + roc20 * 0.2;
+        }
+        return out;
+    }
+
+    /** Gap d'ouverture par rapport à la clôture précédente */
+    public static double[] priceGap(double[] open, double[] close) {
+        double[] out = new double[close.length];
+        for (int i = 1; i < close.length; i++) out[i] = (open[i] - close[i - 1]) / close[i - 1];
+        return out;
+    }
+
+    /** Expansion du range relatif (h-l)/c par rapport à sa moyenne des 10 barres précédentes */
+    public static double[] rangeExpansion(double[] high, double[] low, double[] close) {
+        int n = close.length;
+        double[] relRange = new double[n];
+        for (int i = 0; i < n; i++) relRange[i] = (high[i] - low[i]) / close[i];
+        double[] out = new double[n];
+        for (int i = 10; i < n; i++) {
+            double avgRange = 0.0;
+            for (int j = 1; j <= 10; j++) avgRange += relRange[i - j];
+            avgRange /= 10;
+            out[i] = avgRange > 0 ? (relRange[i] / avgRange - 1) : 0;
+        }
+        return out;
+    }
+
+    /** Cassure : distance de la clôture au plus haut / plus bas des 20 barres précédentes */
+    public static double[] breakoutMomentum(double[] high, double[] low, double[] close) {
+        int n = close.length;
+        double[] prevHigh = highest(high, 20);
+        double[] prevLow = lowest(low, 20);
+        double[] out = new double[n];
+        for (int i = 20; i < n; i++) {
+            double highestHigh = Math.max(close[i], prevHigh[i - 1]);
+            double lowestLow = Math.min(close[i], prevLow[i - 1]);
+            double up = close[i] > highestHigh ? (close[i] - highestHigh) / highestHigh : 0;
+            double down = close[i] < lowestLow ? (lowestLow - close[i]) / lowestLow : 0;
+            out[i] = up - down;
+        }
+        return out;
+    }
+
+    /** Accélération du momentum sur trois blocs de 5 barres */
+    public static double[] momentumAcceleration(double[] close) {
+        double[] out = new double[close.length];
+        for (int i = 15; i < close.length; i++) {
+            double mom1 = (close[i] - close[i - 5]) / close[i - 5];
+            double mom2 = (close[i - 5] - close[i - 10]) / close[i - 10];
+            double mom3 = (close[i - 10] - close[i - 15]) / close[i - 15];
+            out[i] = (mom1 - mom2) + (mom2 - mom3);
+        }
+        return out;
+    }
+
+    /** Écart-type (x100) des 10 derniers rendements simples */
+    public static double[] momentumVolatility(double[] close) {
+        int n = close.length;
+        double[] returns = new double[n];
+        for (int i = 1; i < n; i++) returns[i] = (close[i] - close[i - 1]) / close[i - 1];
+        double[] out = new double[n];
+        for (int i = 15; i < n; i++) {
+            double mean = 0.0;
+            for (int j = i - 9; j <= i; j++) mean += returns[j];
+            mean /= 10;
+            double variance = 0.0;
+            for (int j = i - 9; j <= i; j++) {
+                double d = returns[j] - mean;
+                variance += d * d;
+            }
+            out[i] = Math.sqrt(variance / 10) * 100;
+        }
+        return out;
+    }
+
+    /** Position dans les bandes de Bollinger (2 écarts-types), extrêmes amplifiés */
+    public static double[] bollingerPosition(double[] close, double[] mid, double[] sd) {
+        double[] out = new double[close.length];
+        for (int i = 0; i < close.length; i++) {
+            double upper = mid[i] + 2 * sd[i];
+            double lower = mid[i] - 2 * sd[i];
+            double val = (upper > lower) ? (close[i] - lower) / (upper - lower) : 0.5;
+            if (val > 0.8) val = 0.8 + (val - 0.8) * 2;
+            if (val < 0.2) val = 0.2 - (0.2 - val) * 2;
+            out[i] = val;
+        }
+        return out;
+    }
+
+    /** Momentum 5 barres signé par la position de la clôture vis-à-vis de la SMA */
+    public static double[] crossMomentum(double[] close, double[] sma) {
+        double[] out = new double[close.length];
+        for (int i = 5; i < close.length; i++) {
+            double currentMom = (close[i] - close[i - 5]) / close[i - 5];
+            double priceVsSma = (close[i] - sma[i]) / sma[i];
+            out[i] = currentMom * Math.signum(priceVsSma) * 2;
+        }
+        return out;
+    }
+
+    /** Divergence prix / RSI : (1 - |corrélation sur 10 barres|) * 2 */
+    public static double[] momentumDivergence(double[] close, double[] rsi) {
+        double[] out = new double[close.length];
+        for (int i = 20; i < close.length; i++) {
+            double meanPrice = 0.0, meanRsi = 0.0;
+            for (int j = i - 9; j <= i; j++) {
+                meanPrice += close[j];
+                meanRsi += rsi[j];
+            }
+            meanPrice /= 10;
+            meanRsi /= 10;
+            double numerator = 0, denomPrice = 0, denomRsi = 0;
+            for (int j = i - 9; j <= i; j++) {
+                double priceDiff = close[j] - meanPrice;
+                double rsiDiff = rsi[j] - meanRsi;
+                numerator += priceDiff * rsiDiff;
+                denomPrice += priceDiff * priceDiff;
+                denomRsi += rsiDiff * rsiDiff;
+            }
+            double correlation = (denomPrice * denomRsi > 0) ? numerator / Math.sqrt(denomPrice * denomRsi) : 0.0;
+            out[i] = (1.0 - Math.abs(correlation)) * 2;
+        }
+        return out;
+    }
+}
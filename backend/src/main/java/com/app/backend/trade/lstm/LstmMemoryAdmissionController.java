@@ -0,0 +1,279 @@
+package com.app.backend.trade.lstm;
+
+import org.bytedeco.javacpp.Pointer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Contrôle d'admission mémoire des tâches de tuning (entraînement / walk-forward d'une configuration).
+ *
+ * Remplace waitForMemory (attente active sur le seul heap JVM) : les tenseurs ND4J sont hors heap, la pression
+ * réelle se lit sur la mémoire physique du processus (JavaCPP Pointer.physicalBytes) comparée à maxPhysicalBytes.
+ *
+ * Chaque tâche réserve son empreinte estimée (estimateConfigBytes : paramètres + gradients + état Adam,
+ * activations batch x window x neurons x couches, séquences préparées). Une réservation est accordée si
+ * max(mesure, mesure au repos + réservations en cours) + empreinte tient dans le budget ; sinon la tâche est parquée
+ * (file FIFO, réveil à chaque libération et au plus tard toutes les pollMs pour relire la mesure).
+ *
+ * Progrès garanti : sans réservation active une tâche est toujours admise (comptée en overcommit si elle dépasse).
+ * Une réservation imbriquée sur le même thread est accordée sans attente (pas d'interblocage) : les réservations
+ * se ferment sur le thread qui les a ouvertes (try-with-resources).
+ */
+public final class LstmMemoryAdmissionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(LstmMemoryAdmissionController.class);
+
+    public static final double DEFAULT_HEADROOM = 0.85;
+    public static final long DEFAULT_POLL_MS = 1000;
+
+    // Paramètres en float32 : poids + gradients + deux moments de l'updater (Adam)
+    static final int PARAM_COPIES = 4;
+    static final long PARAM_BYTES = 4;
+    // Valeurs gardées par pas de temps et par neurone pour la rétropropagation LSTM (portes, cellule, sortie, epsilons)
+    static final int LSTM_ACTIVATION_FACTOR = 12;
+    // Séquences préparées (double) : tenseur partagé + copies des splits train/val
+    static final long DATASET_VALUE_BYTES = 8;
+    static final int DATASET_COPIES = 2;
+    // Structures DL4J, minibatchs en vol, workspaces
+    static final long TASK_OVERHEAD_BYTES = 32L * 1024 * 1024;
+
+    /** Réservation accordée ; close() la libère (idempotent) */
+    public final class Reservation implements AutoCloseable {
+        private final long bytes;
+        private final boolean counted;
+        private boolean closed = false;
+
+        private Reservation(long bytes, boolean counted) {
+            this.bytes = bytes;
+            this.counted = counted;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public void close() {
+            if (!counted) return;
+            synchronized (LstmMemoryAdmissionController.this) {
+                if (closed) return;
+                closed = true;
+                reservedBytes -= bytes;
+                activeReservations--;
+                LstmMemoryAdmissionController.this.notifyAll();
+            }
+            held.get()[0]--;
+        }
+    }
+
+    private final LongSupplier usedBytes;
+    private volatile long budgetBytes;
+    private volatile long pollMs;
+    private final ArrayDeque<Object> queue = new ArrayDeque<>();
+    private final ThreadLocal<int[]> held = ThreadLocal.withInitial(() -> new int[1]);
+    private long reservedBytes = 0;
+    private int activeReservations = 0;
+    private int parkedTasks = 0;
+    private long idleBaselineBytes = 0;
+    private long lastMeasuredBytes = 0;
+    private long grants = 0;
+    private long parkedTotal = 0;
+    private long overcommits = 0;
+    private long totalWaitMs = 0;
+
+    /**
+     * @param usedBytes   mémoire utilisée mesurée (octets)
+     * @param budgetBytes plafond des réservations (0 = contrôle désactivé)
+     */
+    public LstmMemoryAdmissionController(LongSupplier usedBytes, long budgetBytes, long pollMs) {
+        this.usedBytes = usedBytes;
+        this.budgetBytes = budgetBytes;
+        this.pollMs = Math.max(10, pollMs);
+    }
+
+    /** Contrôleur sur la mémoire physique du processus (JavaCPP), budget = limite x headroom */
+    public static LstmMemoryAdmissionController physical(long maxBytes, double headroom, long pollMs) {
+        return new LstmMemoryAdmissionController(LstmMemoryAdmissionController::physicalUsedBytes, physicalBudget(maxBytes, headroom), pollMs);
+    }
+
+    /**
+     * Budget : maxBytes configuré, sinon Pointer.maxPhysicalBytes (-Dorg.bytedeco.javacpp.maxPhysicalBytes),
+     * sinon plafond off-heap JavaCPP + heap max ; multiplié par headroom.
+     */
+    public static long physicalBudget(long maxBytes, double headroom) {
+        long limit = maxBytes > 0 ? maxBytes : Pointer.maxPhysicalBytes();
+        if (limit <= 0) limit = Pointer.maxBytes() + Runtime.getRuntime().maxMemory();
+        double h = headroom > 0 && headroom <= 1 ? headroom : DEFAULT_HEADROOM;
+        return (long) (limit * h);
+    }
+
+    /** Mémoire physique du processus (heap + off-heap ND4J), repli sur off-heap JavaCPP + heap utilisé */
+    public static long physicalUsedBytes() {
+        long physical = Pointer.physicalBytes();
+        if (physical > 0) return physical;
+        Runtime runtime = Runtime.getRuntime();
+        return Pointer.totalBytes() + runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Empreinte estimée d'une configuration entraînée sur numBars barres (architecture de initModel).
+     */
+    public static long estimateConfigBytes(LstmConfig config, int numBars) {
+        int features = config.getFeatures() != null ? Math.max(1, config.getFeatures().size()) : 1;
+        int window = Math.max(1, config.getWindowSize());
+        int neurons = Math.max(1, config.getLstmNeurons());
+        int layers = Math.max(1, config.getNumLstmLayers());
+        int directions = config.isBidirectional() ? 2 : 1;
+        int batch = Math.max(1, config.getBatchSize());
+
+        // LSTM : 4 portes x n x (nIn + n + biais) par direction ; puis attention éventuelle et têtes denses
+        long params = 0;
+        long nIn = features;
+        for (int l = 0; l < layers; l++) {
+            params += directions * 4L * neurons * (nIn + neurons + 1);
+            nIn = (long) neurons * directions;
+        }
+        if (config.isAttention()) params += nIn * nIn + nIn;
+        long denseOut = Math.max(32, neurons / 2);
+        long dense2 = Math.max(16, denseOut / 2);
+        params += nIn * denseOut + denseOut + denseOut * dense2 + dense2 + dense2 + 1;
+
+        long paramBytes = params * PARAM_BYTES * PARAM_COPIES;
+        long activationBytes = (long) batch * window * neurons * layers * directions * LSTM_ACTIVATION_FACTOR * PARAM_BYTES;
+        long sequences = Math.max(0, numBars - window);
+        long datasetBytes = sequences * ((long) features * window + 1) * DATASET_VALUE_BYTES * DATASET_COPIES;
+        return paramBytes + activationBytes + datasetBytes + TASK_OVERHEAD_BYTES;
+    }
+
+    /**
+     * Réserve bytes, en parquant le thread tant que la réservation ne tient pas dans le budget.
+     * @param label identification pour les logs (symbole / config)
+     */
+    public Reservation acquire(String label, long bytes) throws InterruptedException {
+        if (budgetBytes <= 0 || bytes <= 0) {
+            return new Reservation(0, false);
+        }
+        int[] depth = held.get();
+        synchronized (this) {
+            if (depth[0] == 0) {
+                awaitTurn(label, bytes);
+            }
+            if (activeReservations == 0) {
+                idleBaselineBytes = measure();
+            }
+            reservedBytes += bytes;
+            activeReservations++;
+            grants++;
+            notifyAll();
+        }
+        depth[0]++;
+        return new Reservation(bytes, true);
+    }
+
+    /**
+     * Attend qu'une tâche de bytes soit admissible, sans garder de réservation (avant de charger un symbole).
+     * @return false si interrompu
+     */
+    public boolean awaitCapacity(String label, long bytes) {
+        try (Reservation ignored = acquire(label, bytes)) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Sous verrou : file FIFO, la tête est admise dès que sa réservation tient
+    private void awaitTurn(String label, long bytes) throws InterruptedException {
+        Object ticket = new Object();
+        queue.addLast(ticket);
+        long start = System.currentTimeMillis();
+        boolean parked = false;
+        try {
+            while (queue.peekFirst() != ticket || !fits(bytes)) {
+                if (!parked) {
+                    parked = true;
+                    parkedTasks++;
+                    parkedTotal++;
+                    logger.info("[TUNING][MEMORY] {} parquée : {} Mo demandés, {} Mo réservés, {} Mo mesurés / budget {} Mo",
+                        label, bytes >> 20, reservedBytes >> 20, lastMeasuredBytes >> 20, budgetBytes >> 20);
+                }
+                wait(pollMs);
+            }
+            if (activeReservations == 0 && projected(bytes) > budgetBytes) {
+                overcommits++;
+                logger.warn("[TUNING][MEMORY] {} admise seule au-delà du budget ({} Mo demandés, {} Mo mesurés / {} Mo)",
+                    label, bytes >> 20, lastMeasuredBytes >> 20, budgetBytes >> 20);
+            }
+        } finally {
+            queue.remove(ticket);
+            if (parked) {
+                parkedTasks--;
+                totalWaitMs += System.currentTimeMillis() - start;
+            }
+            notifyAll();
+        }
+    }
+
+    private boolean fits(long bytes) {
+        if (activeReservations == 0) return true;
+        return projected(bytes) <= budgetBytes;
+    }
+
+    // Usage projeté : la mesure inclut déjà les réservations en cours une fois leurs tenseurs alloués
+    private long projected(long bytes) {
+        long measured = measure();
+        return Math.max(measured, idleBaselineBytes + reservedBytes) + bytes;
+    }
+
+    private long measure() {
+        try {
+            lastMeasuredBytes = usedBytes.getAsLong();
+        } catch (Throwable t) {
+            logger.debug("[TUNING][MEMORY] mesure indisponible: {}", t.toString());
+        }
+        return lastMeasuredBytes;
+    }
+
+    public synchronized void configure(long budgetBytes, long pollMs) {
+        this.budgetBytes = budgetBytes;
+        this.pollMs = Math.max(10, pollMs);
+        notifyAll();
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    public synchronized int getActiveReservations() {
+        return activeReservations;
+    }
+
+    public synchronized int getParkedTasks() {
+        return parkedTasks;
+    }
+
+    /** Métriques d'admission (budget, réservations, tâches parquées, attente cumulée) */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("budgetBytes", budgetBytes);
+        stats.put("reservedBytes", reservedBytes);
+        stats.put("measuredBytes", lastMeasuredBytes);
+        stats.put("activeReservations", activeReservations);
+        stats.put("parkedTasks", parkedTasks);
+        stats.put("grants", grants);
+        stats.put("parkedTotal", parkedTotal);
+        stats.put("overcommits", overcommits);
+        stats.put("totalWaitMs", totalWaitMs);
+        return stats;
+    }
+}
@@ -0,0 +1,156 @@
+package com.app.backend.trade.lstm;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.indexing.INDArrayIndex;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.indexing.SpecifiedIndex;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Itérateur de minibatchs sur un unique tenseur de features [N, features, window] et de labels [N, 1].
+ *
+ * Remplace ListDataSetIterator(trainDs.asList(), batch) : asList() découpe le DataSet en N exemples et chaque
+ * next() les ré-empile (merge). Ici un minibatch est une vue sur les lignes [cursor, cursor + batch[ (aucune copie,
+ * tenseur 'c' contigu), ou en mode shuffle un gather des lignes d'une permutation tirée à chaque reset() (epoch).
+ * Ordre naturel : mêmes minibatchs, dans le même ordre, que ListDataSetIterator.
+ *
+ * Compatible AsyncDataSetIterator / workspaces : les vues référencent le tenseur source (hors workspace), les gathers
+ * sont créés dans le scope courant comme les merges de ListDataSetIterator. Les vues sont en lecture seule : avec
+ * un DataSetPreProcessor le minibatch est copié avant pré-traitement.
+ */
+public final class LstmMinibatchIterator implements DataSetIterator {
+
+    private final INDArray features;
+    private final INDArray labels;
+    private final int batchSize;
+    private final int numExamples;
+    private final Random random;
+    private int[] order;    // null = ordre naturel (vues)
+    private int cursor = 0;
+    private DataSetPreProcessor preProcessor;
+
+    /**
+     * @param shuffle permutation des exemples à chaque epoch (graine seed), sinon ordre chronologique
+     */
+    public LstmMinibatchIterator(INDArray features, INDArray labels, int batchSize, boolean shuffle, long seed) {
+        if (features.size(0) != labels.size(0)) {
+            throw new IllegalArgumentException("features/labels: nombre d'exemples différent " + features.size(0) + " != " + labels.size(0));
+        }
+        this.features = contiguous(features);
+        this.labels = contiguous(labels);
+        this.batchSize = Math.max(1, batchSize);
+        this.numExamples = (int) features.size(0);
+        this.random = shuffle ? new Random(seed) : null;
+        reset();
+    }
+
+    private static INDArray contiguous(INDArray array) {
+        return array.ordering() == 'c' && !array.isView() ? array : array.dup('c');
+    }
+
+    // Indices [first, all, all...] selon le rang du tenseur
+    private static INDArrayIndex[] rows(INDArray array, INDArrayIndex first) {
+        INDArrayIndex[] indexes = new INDArrayIndex[array.rank()];
+        indexes[0] = first;
+        for (int d = 1; d < indexes.length; d++) indexes[d] = NDArrayIndex.all();
+        return indexes;
+    }
+
+    @Override
+    public DataSet next(int num) {
+        if (!hasNext()) throw new NoSuchElementException();
+        int end = Math.min(cursor + Math.max(1, num), numExamples);
+        INDArray f;
+        INDArray l;
+        if (order == null) {
+            INDArrayIndex range = NDArrayIndex.interval(cursor, end);
+            f = features.get(rows(features, range));
+            l = labels.get(rows(labels, range));
+        } else {
+            int[] idx = new int[end - cursor];
+            System.arraycopy(order, cursor, idx, 0, idx.length);
+            f = features.get(rows(features, new SpecifiedIndex(idx)));
+            l = labels.get(rows(labels, new SpecifiedIndex(idx)));
+        }
+        cursor = end;
+        if (preProcessor == null) {
+            return new DataSet(f, l);
+        }
+        DataSet ds = new DataSet(order == null ? f.dup() : f, order == null ? l.dup() : l);
+        preProcessor.preProcess(ds);
+        return ds;
+    }
+
+    @Override
+    public int inputColumns() {
+        return (int) features.size(1);
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return (int) labels.size(1);
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean asyncSupported() {
+        return true;
+    }
+
+    /** Retour au début ; en mode shuffle, nouvelle permutation (Fisher-Yates) */
+    @Override
+    public void reset() {
+        cursor = 0;
+        if (random == null) return;
+        if (order == null) {
+            order = new int[numExamples];
+            for (int i = 0; i < numExamples; i++) order[i] = i;
+        }
+        for (int i = numExamples - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+    }
+
+    @Override
+    public int batch() {
+        return batchSize;
+    }
+
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public DataSetPreProcessor getPreProcessor() {
+        return preProcessor;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor < numExamples;
+    }
+
+    @Override
+    public DataSet next() {
+        return next(batchSize);
+    }
+}
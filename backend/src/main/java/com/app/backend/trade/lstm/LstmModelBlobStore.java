@@ -0,0 +1,102 @@
+package com.app.backend.trade.lstm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Stockage adressé par contenu des binaires de modèles LSTM (table lstm_model_blobs, clé SHA-256 hex).
+ *
+ * lstm_models ne garde que la référence (model_sha256) et les métriques : les requêtes de classement et de
+ * listing ne lisent plus de lignes portant le LONGBLOB. Un même binaire sauvegardé plusieurs fois (même
+ * modèle re-sauvegardé pour un autre symbole ou après un tuning identique) n'est stocké qu'une fois.
+ *
+ * Le binaire n'est lu qu'au moment où un modèle doit être désérialisé (registre manquant), jamais pour
+ * les métadonnées. Lignes antérieures à la migration (model_sha256 NULL) : lecture de lstm_models.model_blob.
+ * Schéma : db/migration/V4__add_lstm_model_blobs.sql ; reprise des binaires : trade/sql/migrate_lstm_model_blobs.sql.
+ *
+ * Orphelins : un binaire n'est plus référencé quand ses lignes lstm_models / lstm_base_models sont supprimées.
+ * deleteUnreferenced les purge (appelé en fin de tuneAllSymbols) au-delà d'un âge minimal ; created_date est
+ * rafraîchi quand une sauvegarde retombe sur un binaire existant, pour qu'une purge concurrente ne retire pas
+ * un binaire sur le point d'être référencé.
+ */
+public final class LstmModelBlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LstmModelBlobStore.class);
+
+    /** Âge minimal (minutes) d'un binaire non référencé avant purge */
+    public static final int ORPHAN_MIN_AGE_MINUTES = 60;
+
+    private LstmModelBlobStore() {
+    }
+
+    /** Empreinte SHA-256 en hex minuscule (même format que SHA2(x, 256) côté MySQL) */
+    public static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Enregistre le binaire s'il n'existe pas déjà et retourne sa clé.
+     */
+    public static String save(JdbcTemplate jdbcTemplate, byte[] bytes) {
+        String sha = sha256(bytes);
+        int inserted = jdbcTemplate.update("INSERT IGNORE INTO lstm_model_blobs (sha256, model_blob, size_bytes) VALUES (?,?,?)",
+                sha, bytes, bytes.length);
+        if (inserted == 0) {
+            jdbcTemplate.update("UPDATE lstm_model_blobs SET created_date = CURRENT_TIMESTAMP WHERE sha256 = ?", sha);
+        }
+        logger.debug("[MODEL_BLOB] {} size={} ({})", sha, bytes.length, inserted > 0 ? "nouveau" : "dédupliqué");
+        return sha;
+    }
+
+    /**
+     * Binaire de clé sha, ou null s'il est absent ou ne correspond pas à son empreinte.
+     */
+    public static byte[] load(JdbcTemplate jdbcTemplate, String sha) {
+        byte[] bytes;
+        try {
+            bytes = jdbcTemplate.queryForObject("SELECT model_blob FROM lstm_model_blobs WHERE sha256 = ?", byte[].class, sha);
+        } catch (EmptyResultDataAccessException e) {
+            logger.warn("[MODEL_BLOB] binaire {} introuvable", sha);
+            return null;
+        }
+        if (bytes != null && !sha.equals(sha256(bytes))) {
+            logger.warn("[MODEL_BLOB] empreinte invalide pour {} (size={})", sha, bytes.length);
+            return null;
+        }
+        return bytes;
+    }
+
+    /**
+     * Binaire d'une ligne lstm_models : store si model_sha256 est renseigné, sinon colonne historique model_blob
+     * (byte[], Blob ou String selon le driver).
+     */
+    public static Object loadForModel(JdbcTemplate jdbcTemplate, Object modelSha256, long modelId) {
+        return modelSha256 != null
+                ? load(jdbcTemplate, modelSha256.toString())
+                : jdbcTemplate.queryForObject("SELECT model_blob FROM lstm_models WHERE id = ?", Object.class, modelId);
+    }
+
+    /**
+     * Supprime les binaires référencés ni par lstm_models ni par lstm_base_models, créés (ou re-sauvegardés)
+     * il y a plus de minAgeMinutes.
+     * @return nombre de binaires supprimés
+     */
+    public static int deleteUnreferenced(JdbcTemplate jdbcTemplate, int minAgeMinutes) {
+        int deleted = jdbcTemplate.update("DELETE FROM lstm_model_blobs WHERE created_date < NOW() - INTERVAL ? MINUTE " +
+                "AND NOT EXISTS (SELECT 1 FROM lstm_models m WHERE m.model_sha256 = lstm_model_blobs.sha256) " +
+                "AND NOT EXISTS (SELECT 1 FROM lstm_base_models b WHERE b.model_sha256 = lstm_model_blobs.sha256)",
+                Math.max(0, minAgeMinutes));
+        if (deleted > 0) logger.info("[MODEL_BLOB] {} binaire(s) orphelin(s) supprimé(s)", deleted);
+        return deleted;
+    }
+}
@@ -0,0 +1,182 @@
+package com.app.backend.trade.lstm;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registre mémoire des modèles LSTM désérialisés (MultiLayerNetwork + ScalerSet + LstmConfig + métriques),
+ * une entrée par (symbole, critère de classement).
+ *
+ * Validité : une entrée porte l'id de la ligne lstm_models retenue et son updated_date. loadModelAndScalersFromDb
+ * relit ces deux colonnes (requête légère, sans model_blob) et ne sert l'entrée que si elles coïncident ;
+ * saveModelToDb invalide en plus toutes les entrées du symbole (ré-écriture dans la même seconde).
+ *
+ * Budget en octets estimé sur les paramètres du réseau (+ état de l'updater), éviction LRU ; 0 = désactivé.
+ * Les appelants reçoivent une copie de LoadedModel (champs modifiables librement) partageant le réseau :
+ * une inférence à la fois par MultiLayerNetwork (non thread-safe).
+ */
+public final class LstmModelRegistry {
+
+    public static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+    // Config, scalers, métriques et structures DL4J hors paramètres (estimation)
+    static final long ENTRY_OVERHEAD_BYTES = 64L * 1024;
+
+    private static final class Entry {
+        final String symbol;
+        final long id;
+        final long version;
+        final LstmTradePredictor.LoadedModel loaded;
+        final long bytes;
+
+        Entry(String symbol, long id, long version, LstmTradePredictor.LoadedModel loaded, long bytes) {
+            this.symbol = symbol;
+            this.id = id;
+            this.version = version;
+            this.loaded = loaded;
+            this.bytes = bytes;
+        }
+    }
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long maxBytes;
+    private long bytes = 0;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public LstmModelRegistry(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    private static String key(String symbol, String index) {
+        return symbol + "|" + index;
+    }
+
+    /**
+     * Copie du modèle enregistré pour (symbol, index) si l'entrée correspond à la ligne (id, version) courante.
+     * @return copie partageant réseau / scalers / config, ou null (absent ou périmé)
+     */
+    public LstmTradePredictor.LoadedModel get(String symbol, String index, long id, long version) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key(symbol, index));
+            if (entry != null && (entry.id != id || entry.version != version)) {
+                entries.remove(key(symbol, index));
+                bytes -= entry.bytes;
+                invalidations.incrementAndGet();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.loaded.copy();
+    }
+
+    /**
+     * Enregistre le modèle chargé depuis la ligne (id, version) et retourne une copie pour l'appelant.
+     * Un modèle plus grand que le budget n'est pas conservé.
+     */
+    public LstmTradePredictor.LoadedModel put(String symbol, String index, long id, long version, LstmTradePredictor.LoadedModel loaded) {
+        Entry entry = new Entry(symbol, id, version, loaded, estimateBytes(loaded.model));
+        synchronized (this) {
+            if (maxBytes > 0 && entry.bytes <= maxBytes) {
+                Entry previous = entries.put(key(symbol, index), entry);
+                if (previous != null) bytes -= previous.bytes;
+                bytes += entry.bytes;
+                evictToBudget();
+            }
+        }
+        return loaded.copy();
+    }
+
+    /** Retire toutes les entrées du symbole (nouveau modèle sauvegardé) */
+    public synchronized void invalidate(String symbol) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.symbol.equals(symbol)) {
+                bytes -= entry.bytes;
+                it.remove();
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    // Appelé sous verrou : retire les entrées les moins récemment utilisées jusqu'à respecter le budget
+    private void evictToBudget() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().getValue().bytes;
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /** Estimation mémoire : paramètres + état de l'updater (Adam : 2x les paramètres) + surcoût fixe */
+    static long estimateBytes(MultiLayerNetwork model) {
+        long total = ENTRY_OVERHEAD_BYTES;
+        if (model == null) return total;
+        INDArray params = model.params();
+        if (params != null) total += params.length() * params.dataType().width();
+        try {
+            INDArray state = model.getUpdater() != null ? model.getUpdater().getStateViewArray() : null;
+            if (state != null) total += state.length() * state.dataType().width();
+        } catch (Exception ignored) {
+            // Updater non initialisé : paramètres seuls
+        }
+        return total;
+    }
+
+    /** Budget mémoire en octets (0 ou négatif = registre désactivé et vidé) */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        if (maxBytes <= 0) {
+            entries.clear();
+            bytes = 0;
+        } else {
+            evictToBudget();
+        }
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+}
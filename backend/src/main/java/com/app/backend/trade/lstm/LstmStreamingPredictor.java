@@ -0,0 +1,251 @@
+package com.app.backend.trade.lstm;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.layers.RecurrentLayer;
+import org.deeplearning4j.nn.conf.InputPreProcessor;
+import org.deeplearning4j.nn.layers.recurrent.BidirectionalLayer;
+import org.deeplearning4j.nn.layers.recurrent.LastTimeStepLayer;
+import org.deeplearning4j.nn.layers.wrapper.BaseWrapperLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.ta4j.core.BarSeries;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prédiction quotidienne en flux : état caché LSTM conservé par symbole, une barre nouvelle = un pas de temps.
+ *
+ * predictNextCloseScalarFast repasse à chaque appel une fenêtre complète [1, features, windowSize] dans model.output.
+ * Ici chaque symbole possède un clone du réseau (état récurrent propre, le modèle partagé du registre n'est pas
+ * touché) : les couches récurrentes avancent par rnnTimeStep sur les seules nouvelles barres, puis le dernier pas
+ * traverse les couches denses. Les scalers étant figés après l'entraînement, seules les nouvelles lignes de features
+ * sont normalisées.
+ *
+ * Dérive : le modèle est entraîné sur des fenêtres de windowSize barres partant d'un état nul, alors que l'état
+ * incrémental accumule tout l'historique depuis la dernière resynchronisation. Tous les resyncBars pas (ou si la série
+ * ne prolonge pas la précédente) l'état est remis à zéro et la fenêtre complète est rejouée : la sortie est alors
+ * identique à model.output. resyncBars = 0 (défaut) : resynchronisation à chaque barre, seule configuration dont les
+ * entrées sont celles validées au tuning tant qu'aucun test de parité ne borne la dérive.
+ *
+ * Réseaux bidirectionnels non supportés (isStreamable = false) : l'appelant garde la fenêtre complète.
+ * Nombre de symboles suivis borné (LRU, un clone de paramètres par symbole).
+ */
+public final class LstmStreamingPredictor {
+
+    public static final int DEFAULT_MAX_SYMBOLS = 64;
+    public static final int DEFAULT_RESYNC_BARS = 0;
+
+    // État récurrent d'un symbole, lié au modèle / scalers / fenêtre avec lesquels il a été construit
+    private static final class State {
+        final MultiLayerNetwork source;
+        final LstmTradePredictor.ScalerSet scalers;
+        final List<String> features;
+        final int windowSize;
+        final MultiLayerNetwork net;
+        long lastEndTime = Long.MIN_VALUE;
+        int stepsSinceResync = 0;
+        double lastOutput = Double.NaN;
+
+        State(MultiLayerNetwork source, LstmTradePredictor.ScalerSet scalers, List<String> features, int windowSize) {
+            this.source = source;
+            this.scalers = scalers;
+            this.features = features;
+            this.windowSize = windowSize;
+            this.net = source.clone();
+        }
+
+        boolean matches(MultiLayerNetwork model, LstmTradePredictor.ScalerSet scalers, List<String> features, int windowSize) {
+            return source == model && this.scalers == scalers && this.windowSize == windowSize && this.features.equals(features);
+        }
+    }
+
+    private final LinkedHashMap<String, State> states = new LinkedHashMap<>(16, 0.75f, true);
+    private int maxSymbols;
+    private volatile int resyncBars;
+    private final AtomicLong steps = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+
+    public LstmStreamingPredictor(int maxSymbols, int resyncBars) {
+        this.maxSymbols = maxSymbols;
+        this.resyncBars = Math.max(0, resyncBars);
+    }
+
+    /** Vrai si toutes les couches récurrentes du réseau acceptent rnnTimeStep (pas de Bidirectional) */
+    public static boolean isStreamable(MultiLayerNetwork model) {
+        if (model == null) return false;
+        for (Layer layer : model.getLayers()) {
+            Layer inner = layer instanceof LastTimeStepLayer ? ((LastTimeStepLayer) layer).getUnderlying() : layer;
+            if (inner instanceof BidirectionalLayer) return false;
+            // Autre enveloppe (FrozenLayer...) autour d'une couche récurrente : activate ignorerait l'état
+            if (inner instanceof BaseWrapperLayer && ((BaseWrapperLayer) inner).getUnderlying() instanceof RecurrentLayer) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Sortie normalisée du modèle (avant inverse du labelScaler) pour la dernière barre de series.
+     *
+     * @param symbol  clé de l'état récurrent
+     * @param matrix  matrice de features brute de series (extractFeatureMatrix), une ligne par barre
+     */
+    public double output(String symbol, BarSeries series, double[][] matrix, LstmConfig config,
+                         MultiLayerNetwork model, LstmTradePredictor.ScalerSet scalers) {
+        int n = series.getBarCount();
+        int windowSize = config.getWindowSize();
+        List<String> features = config.getFeatures();
+        if (n < windowSize || matrix.length != n) {
+            throw new IllegalArgumentException("Pas assez de barres ou matrice incohérente: " + n + " barres, " + matrix.length + " lignes, fenêtre " + windowSize);
+        }
+        long endTime = series.getBar(n - 1).getEndTime().toEpochSecond();
+        State state = acquire(symbol, model, scalers, features, windowSize);
+        synchronized (state) {
+            if (state.lastEndTime == endTime && !Double.isNaN(state.lastOutput)) {
+                return state.lastOutput;
+            }
+            int newBars = newBars(series, state.lastEndTime);
+            INDArray out;
+            try (MemoryWorkspace ignored = Nd4j.getWorkspaceManager().scopeOutOfWorkspaces()) {
+                if (newBars > 0 && newBars < windowSize && state.stepsSinceResync + newBars <= resyncBars) {
+                    out = forward(state.net, normalizedRows(matrix, n - newBars, n, features, scalers));
+                    state.stepsSinceResync += newBars;
+                    steps.addAndGet(newBars);
+                } else {
+                    clearState(state.net);
+                    out = forward(state.net, normalizedRows(matrix, n - windowSize, n, features, scalers));
+                    state.stepsSinceResync = 0;
+                    resyncs.incrementAndGet();
+                }
+                state.lastOutput = out.getDouble(0);
+            } catch (RuntimeException e) {
+                // État incertain : prochaine barre en resynchronisation complète
+                state.lastEndTime = Long.MIN_VALUE;
+                state.lastOutput = Double.NaN;
+                throw e;
+            }
+            state.lastEndTime = endTime;
+            return state.lastOutput;
+        }
+    }
+
+    private synchronized State acquire(String symbol, MultiLayerNetwork model, LstmTradePredictor.ScalerSet scalers,
+                                       List<String> features, int windowSize) {
+        State state = states.get(symbol);
+        if (state == null || !state.matches(model, scalers, features, windowSize)) {
+            state = new State(model, scalers, List.copyOf(features), windowSize);
+            states.put(symbol, state);
+            Iterator<Map.Entry<String, State>> it = states.entrySet().iterator();
+            while (states.size() > Math.max(1, maxSymbols) && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        return state;
+    }
+
+    // Barres ajoutées depuis la barre lastEndTime (-1 si absente : série non prolongeable)
+    private static int newBars(BarSeries series, long lastEndTime) {
+        if (lastEndTime == Long.MIN_VALUE) return -1;
+        for (int i = series.getBarCount() - 1; i >= 0; i--) {
+            long t = series.getBar(i).getEndTime().toEpochSecond();
+            if (t == lastEndTime) return series.getBarCount() - 1 - i;
+            if (t < lastEndTime) return -1;
+        }
+        return -1;
+    }
+
+    // Lignes [from, to[ normalisées, disposition [1, features, to - from] du réseau
+    private static INDArray normalizedRows(double[][] matrix, int from, int to, List<String> features,
+                                           LstmTradePredictor.ScalerSet scalers) {
+        int numFeatures = features.size();
+        int steps = to - from;
+        double[] flat = new double[numFeatures * steps];
+        double[] col = new double[steps];
+        for (int f = 0; f < numFeatures; f++) {
+            for (int t = 0; t < steps; t++) col[t] = matrix[from + t][f];
+            double[] norm = scalers.featureScalers.get(features.get(f)).transform(col);
+            System.arraycopy(norm, 0, flat, f * steps, steps);
+        }
+        return Nd4j.create(flat, new long[]{1, numFeatures, steps}, 'c');
+    }
+
+    /**
+     * Passe avant en mode rnnTimeStep. MultiLayerNetwork.rnnTimeStep ne convient pas : pour LastTimeStep il délègue
+     * à la couche enveloppée et transmet la séquence 3D aux couches denses. Ici LastTimeStep garde le dernier pas.
+     */
+    static INDArray forward(MultiLayerNetwork net, INDArray input) {
+        LayerWorkspaceMgr mgr = LayerWorkspaceMgr.noWorkspaces();
+        INDArray x = input.castTo(net.params().dataType());
+        Layer[] layers = net.getLayers();
+        for (int i = 0; i < layers.length; i++) {
+            InputPreProcessor preProcessor = net.getLayerWiseConfigurations().getInputPreProcess(i);
+            if (preProcessor != null) {
+                x = preProcessor.preProcess(x, (int) x.size(0), mgr);
+            }
+            Layer layer = layers[i];
+            if (layer instanceof LastTimeStepLayer) {
+                INDArray seq = ((RecurrentLayer) ((LastTimeStepLayer) layer).getUnderlying()).rnnTimeStep(x, mgr);
+                x = seq.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.point(seq.size(2) - 1));
+            } else if (layer instanceof RecurrentLayer) {
+                x = ((RecurrentLayer) layer).rnnTimeStep(x, mgr);
+            } else {
+                x = layer.activate(x, false, mgr);
+            }
+        }
+        return x;
+    }
+
+    private static void clearState(MultiLayerNetwork net) {
+        for (Layer layer : net.getLayers()) {
+            Layer inner = layer instanceof LastTimeStepLayer ? ((LastTimeStepLayer) layer).getUnderlying() : layer;
+            if (inner instanceof RecurrentLayer) {
+                ((RecurrentLayer) inner).rnnClearPreviousState();
+            }
+        }
+    }
+
+    /** Oublie l'état d'un symbole (nouveau modèle, reset manuel) */
+    public synchronized void invalidate(String symbol) {
+        states.remove(symbol);
+    }
+
+    public synchronized void clear() {
+        states.clear();
+    }
+
+    public synchronized void setMaxSymbols(int maxSymbols) {
+        this.maxSymbols = maxSymbols;
+        Iterator<Map.Entry<String, State>> it = states.entrySet().iterator();
+        while (states.size() > Math.max(1, maxSymbols) && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    public void setResyncBars(int resyncBars) {
+        this.resyncBars = Math.max(0, resyncBars);
+    }
+
+    public int getResyncBars() {
+        return resyncBars;
+    }
+
+    public synchronized int size() {
+        return states.size();
+    }
+
+    public long getSteps() {
+        return steps.get();
+    }
+
+    public long getResyncs() {
+        return resyncs.get();
+    }
+}
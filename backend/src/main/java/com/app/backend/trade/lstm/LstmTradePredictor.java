@@ -38,7 +38,6 @@ import com.app.backend.trade.model.SignalType;
 import com.app.backend.trade.model.TradeStylePrediction;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
-import org.deeplearning4j.datasets.iterator.utilty.ListDataSetIterator;
 import org.deeplearning4j.datasets.iterator.AsyncDataSetIterator;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
@@ -56,18 +55,15 @@ import org.nd4j.linalg.lossfunctions.impl.LossMCXENT;
 import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.ta4j.core.*;
 import org.ta4j.core.indicators.*;
 import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-import org.ta4j.core.indicators.helpers.HighPriceIndicator;
-import org.ta4j.core.indicators.helpers.LowPriceIndicator;
 import org.ta4j.core.indicators.helpers.VolumeIndicator;
-import org.ta4j.core.indicators.statistics.StandardDeviationIndicator;
 import java.io.*;
-import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.Arrays;
 import org.deeplearning4j.nn.conf.inputs.InputType;
@@ -101,6 +97,67 @@ public class LstmTradePredictor {
         this.jdbcTemplate = jdbcTemplate;
     }
 
+    // Simulation walk-forward : features/indicateurs précalculés par split et prédictions par lots
+    @Value("${lstm.walkforward.precomputed:true}")
+    private boolean walkForwardPrecomputed = true;
+    // Nombre de fenêtres par appel model.output en mode précalculé
+    @Value("${lstm.walkforward.predictBatchSize:256}")
+    private int walkForwardPredictBatchSize = 256;
+    public boolean isWalkForwardPrecomputed(){ return walkForwardPrecomputed; }
+    public void setWalkForwardPrecomputed(boolean walkForwardPrecomputed){ this.walkForwardPrecomputed = walkForwardPrecomputed; }
+    public int getWalkForwardPredictBatchSize(){ return walkForwardPredictBatchSize; }
+    public void setWalkForwardPredictBatchSize(int walkForwardPredictBatchSize){ this.walkForwardPredictBatchSize = walkForwardPredictBatchSize; }
+
+    // Budget mémoire du store de matrices de features (partagé, statique)
+    @Value("${lstm.features.store.maxBytes:268435456}")
+    public void setFeatureStoreMaxBytes(long maxBytes){ LstmFeatureStore.setMaxBytes(maxBytes); }
+    // Cache disque des matrices : budget (octets), âge maximal (heures) et période du janitor (minutes, 0 = arrêté)
+    @Value("${lstm.features.cache.maxDiskBytes:2147483648}")
+    public void setFeatureCacheMaxDiskBytes(long maxDiskBytes){ LstmFeatureMatrixCache.setMaxDiskBytes(maxDiskBytes); }
+    @Value("${lstm.features.cache.maxAgeHours:168}")
+    public void setFeatureCacheMaxAgeHours(long maxAgeHours){ LstmFeatureMatrixCache.setMaxAgeHours(maxAgeHours); }
+    @Value("${lstm.features.cache.janitorIntervalMinutes:10}")
+    public void setFeatureCacheJanitorInterval(long intervalMinutes){ LstmFeatureMatrixCache.startJanitor(intervalMinutes); }
+    // Registre des modèles désérialisés (budget mémoire estimé sur les paramètres, 0 = désactivé)
+    private final LstmModelRegistry modelRegistry = new LstmModelRegistry(LstmModelRegistry.DEFAULT_MAX_BYTES);
+    @Value("${lstm.models.registry.maxBytes:536870912}")
+    public void setModelRegistryMaxBytes(long maxBytes){ modelRegistry.setMaxBytes(maxBytes); }
+    public LstmModelRegistry getModelRegistry(){ return modelRegistry; }
+    // Extraction des colonnes de features en parallèle (ForkJoin) : threads du pool (0 = nombre de coeurs, 1 = séquentiel)
+    @Value("${lstm.features.parallelism:1}")
+    public void setFeatureParallelism(int threads){ LstmFeatureColumns.setParallelism(threads); }
+    // Entraînement : permutation des séquences à chaque epoch (false = ordre chronologique, comportement historique)
+    @Value("${lstm.train.shuffleMinibatches:false}")
+    private boolean shuffleMinibatches = false;
+    public boolean isShuffleMinibatches(){ return shuffleMinibatches; }
+    public void setShuffleMinibatches(boolean shuffleMinibatches){ this.shuffleMinibatches = shuffleMinibatches; }
+    // Prédiction quotidienne en flux (état LSTM par symbole, un pas par nouvelle barre) : activation, pas
+    // incrémentaux max entre deux resynchronisations fenêtre complète (0 = toujours), symboles suivis (LRU)
+    @Value("${lstm.streaming.enabled:false}")
+    private boolean streamingEnabled = false;
+    private final LstmStreamingPredictor streamingPredictor = new LstmStreamingPredictor(LstmStreamingPredictor.DEFAULT_MAX_SYMBOLS, LstmStreamingPredictor.DEFAULT_RESYNC_BARS);
+    public boolean isStreamingEnabled(){ return streamingEnabled; }
+    public void setStreamingEnabled(boolean streamingEnabled){ this.streamingEnabled = streamingEnabled; }
+    @Value("${lstm.streaming.resyncBars:0}")
+    public void setStreamingResyncBars(int resyncBars){ streamingPredictor.setResyncBars(resyncBars); }
+    @Value("${lstm.streaming.maxSymbols:64}")
+    public void setStreamingMaxSymbols(int maxSymbols){ streamingPredictor.setMaxSymbols(maxSymbols); }
+    public LstmStreamingPredictor getStreamingPredictor(){ return streamingPredictor; }
+    // Transfer learning : démarrage à chaud depuis le modèle de base mutualisé de l'architecture (s'il existe),
+    // fine-tuning court (epochs, patience, facteur appliqué au learning rate de la config)
+    private final LstmBaseModelRegistry baseModelRegistry = new LstmBaseModelRegistry();
+    @Value("${lstm.transfer.enabled:false}")
+    private boolean transferEnabled = false;
+    @Value("${lstm.transfer.fineTuneEpochs:30}")
+    private int transferFineTuneEpochs = 30;
+    @Value("${lstm.transfer.fineTunePatience:6}")
+    private int transferFineTunePatience = 6;
+    @Value("${lstm.transfer.fineTuneLrFactor:0.5}")
+    private double transferFineTuneLrFactor = 0.5;
+    public boolean isTransferEnabled(){ return transferEnabled; }
+    public void setTransferEnabled(boolean transferEnabled){ this.transferEnabled = transferEnabled; }
+    public LstmBaseModelRegistry getBaseModelRegistry(){ return baseModelRegistry; }
+
     /* =========================================================
      *               CONSTRUCTION / INITIALISATION MODELE
      * =========================================================
@@ -361,381 +418,48 @@ public class LstmTradePredictor {
         String symbol = series.getName() != null ? series.getName() : "UNKNOWN";
         String interval = "default"; // À adapter si interval stocké ailleurs
         long lastBarEndTime = n > 0 ? series.getBar(n-1).getEndTime().toEpochSecond() : 0L;
-        String featureSetVersion = "v1"; // À incrémenter si features changent
+        // À incrémenter si features changent ; suffixe pour ne pas mélanger DecimalNum / DoubleNum dans le cache
+        String featureSetVersion = series.numOf(0) instanceof org.ta4j.core.num.DoubleNum ? "v2-double" : "v2";
+        // Store mémoire : toute sous-série préfixe d'une série déjà calculée est servie sans recalcul,
+        // une série prolongée (même début, nouvelles bougies) ne calcule que ses dernières barres
+        String storeKey = LstmFeatureStore.computeKey(symbol, interval, featureSetVersion, features);
+        LstmFeatureStore.Lookup stored = LstmFeatureStore.lookup(storeKey, series);
+        if (stored != null) return stored.isHit() ? stored.rows : extendFeatureMatrix(series, features, storeKey, stored);
         String cacheKey = LstmFeatureMatrixCache.computeKey(symbol, interval, n, lastBarEndTime, featureSetVersion, features);
         double[][] cached = LstmFeatureMatrixCache.load(cacheKey);
-        if (cached != null) return cached;
+        if (cached != null) {
+            LstmFeatureStore.put(storeKey, series, cached);
+            return cached;
+        }
         // --- FIN CACHE ---
 
         // Pré-calcul séries primitives pour indicateurs composites
         double[] closesRaw = new double[n];
         double[] highsRaw = new double[n];
         double[] lowsRaw = new double[n];
+        double[] opensRaw = new double[n];
         double[] volumesRaw = new double[n];
         for (int i = 0; i < n; i++) {
-            closesRaw[i] = series.getBar(i).getClosePrice().doubleValue();
-            highsRaw[i] = series.getBar(i).getHighPrice().doubleValue();
-            lowsRaw[i] = series.getBar(i).getLowPrice().doubleValue();
-            volumesRaw[i] = series.getBar(i).getVolume().doubleValue();
+            Bar bar = series.getBar(i);
+            closesRaw[i] = bar.getClosePrice().doubleValue();
+            highsRaw[i] = bar.getHighPrice().doubleValue();
+            lowsRaw[i] = bar.getLowPrice().doubleValue();
+            opensRaw[i] = bar.getOpenPrice().doubleValue();
+            volumesRaw[i] = bar.getVolume().doubleValue();
         }
 
         // Pré-calcul spécifique realized_vol si demandé
         boolean needRealizedVol = features.contains("realized_vol");
-        double[] realizedVol = null;
-        if (needRealizedVol) {
-            final int WIN = 14; // fenêtre log-returns
-            double[] logRet = new double[n];
-            logRet[0] = 0.0;
-            for (int i = 1; i < n; i++) {
-                double prev = closesRaw[i - 1];
-                double cur = closesRaw[i];
-                if (prev > 0 && cur > 0) {
-                    double lr = Math.log(cur / prev);
-                    if (Double.isFinite(lr)) logRet[i] = lr; else logRet[i] = 0.0;
-                } else logRet[i] = 0.0;
-            }
-            realizedVol = new double[n];
-            double sum = 0.0, sum2 = 0.0;
-            // Sliding window
-            for (int i = 0; i < n; i++) {
-                double r = logRet[i];
-                sum += r; sum2 += r * r;
-                if (i >= WIN) { // retirer élément sorti de fenêtre
-                    double old = logRet[i - WIN];
-                    sum -= old;
-                    sum2 -= old * old;
-                }
-                if (i >= WIN) { // fenêtre pleine WIN éléments (indices i-WIN+1 .. i)
-                    double mean = sum / WIN;
-                    double var = (sum2 / WIN) - mean * mean;
-                    if (var < 0) var = 0;
-                    realizedVol[i] = Math.sqrt(var) * Math.sqrt(WIN);
-                } else {
-                    realizedVol[i] = 0.0; // insuffisant historique
-                }
-                if (!Double.isFinite(realizedVol[i])) realizedVol[i] = 0.0;
-            }
-        }
-
-        // Indicateurs de base (utilisent BarSeries, mais pourraient être réécrits pour utiliser les tableaux si besoin)
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        HighPriceIndicator high = new HighPriceIndicator(series);
-        LowPriceIndicator low = new LowPriceIndicator(series);
-        VolumeIndicator vol = new VolumeIndicator(series);
-        org.ta4j.core.indicators.helpers.OpenPriceIndicator open = new org.ta4j.core.indicators.helpers.OpenPriceIndicator(series);
-
-        // RSI variants pour swing trade
-        RSIIndicator rsi = features.contains("rsi") ? new RSIIndicator(close, 14) : null;
-        RSIIndicator rsi14 = features.contains("rsi_14") ? new RSIIndicator(close, 14) : null;
-        RSIIndicator rsi21 = features.contains("rsi_21") ? new RSIIndicator(close, 21) : null;
-
-        // SMA variants pour swing trade
-        SMAIndicator sma = features.contains("sma") ? new SMAIndicator(close, 14) : null;
-        SMAIndicator sma20 = (features.contains("sma_20") || features.contains("bollinger_high") || features.contains("bollinger_low") || features.contains("bollinger_width"))
-            ? new SMAIndicator(close, 20) : null;
-        SMAIndicator sma50 = features.contains("sma_50") ? new SMAIndicator(close, 50) : null;
-
-        // EMA variants pour swing trade
-        EMAIndicator ema = features.contains("ema") ? new EMAIndicator(close, 14) : null;
-        EMAIndicator ema12 = features.contains("ema_12") ? new EMAIndicator(close, 12) : null;
-        EMAIndicator ema26 = features.contains("ema_26") ? new EMAIndicator(close, 26) : null;
-        EMAIndicator ema50 = features.contains("ema_50") ? new EMAIndicator(close, 50) : null;
-
-        // MACD complet pour swing trade
-        MACDIndicator macd = features.contains("macd") ? new MACDIndicator(close, 12, 26) : null;
-        org.ta4j.core.indicators.EMAIndicator macdSignal = features.contains("macd_signal") && macd != null
-            ? new org.ta4j.core.indicators.EMAIndicator(macd, 9) : null;
-
-        // ATR variants pour swing trade
-        ATRIndicator atr = features.contains("atr") ? new ATRIndicator(series, 14) : null;
-        ATRIndicator atr14 = features.contains("atr_14") ? new ATRIndicator(series, 14) : null;
-        ATRIndicator atr21 = features.contains("atr_21") ? new ATRIndicator(series, 21) : null;
-
-        // Bollinger Bands complets
-        StandardDeviationIndicator sd20 = (features.contains("bollinger_high") || features.contains("bollinger_low") || features.contains("bollinger_width"))
-            ? new StandardDeviationIndicator(close, 20) : null;
-
-        // Stochastic complet
-        StochasticOscillatorKIndicator stoch = features.contains("stochastic") ? new StochasticOscillatorKIndicator(series, 14) : null;
-        org.ta4j.core.indicators.StochasticOscillatorDIndicator stochD = features.contains("stochastic_d")
-            ? new org.ta4j.core.indicators.StochasticOscillatorDIndicator(stoch != null ? stoch : new StochasticOscillatorKIndicator(series, 14)) : null;
-
-        // Williams %R pour swing trade
-        org.ta4j.core.indicators.WilliamsRIndicator williamsR = features.contains("williams_r")
-            ? new org.ta4j.core.indicators.WilliamsRIndicator(series, 14) : null;
-
-        // CCI pour swing trade
-        CCIIndicator cci = features.contains("cci") ? new CCIIndicator(series, 20) : null;
-
-        // ROC (Rate of Change) pour swing trade
-        org.ta4j.core.indicators.ROCIndicator roc = features.contains("roc")
-            ? new org.ta4j.core.indicators.ROCIndicator(close, 12) : null;
-
-        // ADX et DI pour trend strength
-        org.ta4j.core.indicators.adx.ADXIndicator adx = features.contains("adx")
-            ? new org.ta4j.core.indicators.adx.ADXIndicator(series, 14) : null;
-        org.ta4j.core.indicators.adx.PlusDIIndicator diPlus = features.contains("di_plus")
-            ? new org.ta4j.core.indicators.adx.PlusDIIndicator(series, 14) : null;
-        org.ta4j.core.indicators.adx.MinusDIIndicator diMinus = features.contains("di_minus")
-            ? new org.ta4j.core.indicators.adx.MinusDIIndicator(series, 14) : null;
-
-        // OBV pour volume analysis
-        org.ta4j.core.indicators.volume.OnBalanceVolumeIndicator obv = features.contains("obv")
-            ? new org.ta4j.core.indicators.volume.OnBalanceVolumeIndicator(series) : null;
-
-        boolean needMomentum = features.contains("momentum");
-        boolean needVolumeRatio = features.contains("volume_ratio");
-        boolean needPricePosition = features.contains("price_position");
-        boolean needVolatilityRegime = features.contains("volatility_regime");
+        double[] realizedVol = needRealizedVol ? realizedVolatility(closesRaw) : null;
+
         // Étape 5: préparation suivi skew volume
         boolean needVolume = features.contains("volume");
-        double[] rawVolumeForSkew = needVolume ? new double[n] : null;
-
-        // Parcours de chaque barre
-        for (int i = 0; i < n; i++) {
-            double closeVal = close.getValue(i).doubleValue();
-            double highVal = high.getValue(i).doubleValue();
-            double lowVal = low.getValue(i).doubleValue();
-            double openVal = open.getValue(i).doubleValue();
-            double volVal = vol.getValue(i).doubleValue();
-            if (needVolume) rawVolumeForSkew[i] = volVal; // stock brut pour skew
-            ZonedDateTime t = series.getBar(i).getEndTime();
-
-            for (int f = 0; f < fCount; f++) {
-                String feat = features.get(f);
-                double val = 0.0;
-
-                // Switch exhaustif pour toutes les features de swing trade
-                switch (feat) {
-                    case "close" -> val = closeVal;
-                    case "high" -> val = highVal;
-                    case "low" -> val = lowVal;
-                    case "open" -> val = openVal;
-                    case "volume" -> {
-                        // Étape 5: appliquer log1p(volume) avant normalisation
-                        double safeVol = volVal;
-                        if (safeVol < 0) safeVol = 0; // sécurité
-                        double logV = Math.log1p(safeVol);
-                        if (!Double.isFinite(logV)) logV = 0.0;
-                        val = logV;
-                    }
-
-                    // RSI variants
-                    case "rsi" -> val = rsi != null ? rsi.getValue(i).doubleValue() : 0.0;
-                    case "rsi_14" -> val = rsi14 != null ? rsi14.getValue(i).doubleValue() : 0.0;
-                    case "rsi_21" -> val = rsi21 != null ? rsi21.getValue(i).doubleValue() : 0.0;
-
-                    // SMA variants
-                    case "sma" -> val = sma != null ? sma.getValue(i).doubleValue() : 0.0;
-                    case "sma_20" -> val = sma20 != null ? sma20.getValue(i).doubleValue() : 0.0;
-                    case "sma_50" -> val = sma50 != null ? sma50.getValue(i).doubleValue() : 0.0;
-
-                    // EMA variants
-                    case "ema" -> val = ema != null ? ema.getValue(i).doubleValue() : 0.0;
-                    case "ema_12" -> val = ema12 != null ? ema12.getValue(i).doubleValue() : 0.0;
-                    case "ema_26" -> val = ema26 != null ? ema26.getValue(i).doubleValue() : 0.0;
-                    case "ema_50" -> val = ema50 != null ? ema50.getValue(i).doubleValue() : 0.0;
-
-                    // MACD complet
-                    case "macd" -> val = macd != null ? macd.getValue(i).doubleValue() : 0.0;
-                    case "macd_signal" -> val = macdSignal != null ? macdSignal.getValue(i).doubleValue() : 0.0;
-                    case "macd_histogram" -> {
-                        if (macd != null && macdSignal != null) {
-                            val = macd.getValue(i).doubleValue() - macdSignal.getValue(i).doubleValue();
-                        } else val = 0.0;
-                    }
-
-                    // ATR variants
-                    case "atr" -> val = atr != null ? atr.getValue(i).doubleValue() : 0.0;
-                    case "atr_14" -> val = atr14 != null ? atr14.getValue(i).doubleValue() : 0.0;
-                    case "atr_21" -> val = atr21 != null ? atr21.getValue(i).doubleValue() : 0.0;
-
-                    // Bollinger Bands
-                    case "bollinger_high" -> {
-                        if (sma20 != null && sd20 != null) {
-                            double mid = sma20.getValue(i).doubleValue();
-                            double sdv = sd20.getValue(i).doubleValue();
-                            val = mid + 2 * sdv;
-                        } else val = 0.0;
-                    }
-                    case "bollinger_low" -> {
-                        if (sma20 != null && sd20 != null) {
-                            double mid = sma20.getValue(i).doubleValue();
-                            double sdv = sd20.getValue(i).doubleValue();
-                            val = mid - 2 * sdv;
-                        } else val = 0.0;
-                    }
-                    case "bollinger_width" -> {
-                        if (sma20 != null && sd20 != null) {
-                            double sdv = sd20.getValue(i).doubleValue();
-                            val = 4 * sdv; // Width = Upper - Lower = 4 * stddev
-                        } else val = 0.0;
-                    }
-
-                    // Stochastic
-                    case "stochastic" -> val = stoch != null ? stoch.getValue(i).doubleValue() : 0.0;
-                    case "stochastic_d" -> val = stochD != null ? stochD.getValue(i).doubleValue() : 0.0;
-                    case "williams_r" -> val = williamsR != null ? williamsR.getValue(i).doubleValue() : 0.0;
-
-                    // Autres oscillateurs
-                    case "cci" -> val = cci != null ? cci.getValue(i).doubleValue() : 0.0;
-                    case "roc" -> val = roc != null ? roc.getValue(i).doubleValue() : 0.0;
-
-                    // Momentum
-                    case "momentum" -> {
-                        if (needMomentum && i >= 10) {
-                            // Momentum multi-période pour capturer différentes vitesses de mouvement
-                            double mom_3 = (close.getValue(i).doubleValue() - close.getValue(i - 3).doubleValue()) / close.getValue(i - 3).doubleValue();
-                            double mom_10 = (close.getValue(i).doubleValue() - close.getValue(i - 10).doubleValue()) / close.getValue(i - 10).doubleValue();
-                            val = (mom_3 + mom_10) / 2; // Moyenne pondérée des momentums
-                        } else {
-                            val = 0.0;
-                        }
-                    }
-
-                    // Nouvelle feature : Force de la tendance (Rate of Change normalisé)
-                    case "trend_strength" -> {
-                        if (i >= 20) {
-                            double roc5 = (closeVal - close.getValue(i - 5).doubleValue()) / close.getValue(i - 5).doubleValue();
-                            double roc10 = (closeVal - close.getValue(i - 10).doubleValue()) / close.getValue(i - 10).doubleValue();
-                            double roc20 = (closeVal - close.getValue(i - 20).doubleValue()) / close.getValue(i - 20).doubleValue();
-                            val = (roc5 * 0.5 + roc10 * 0.3 + roc20 * 0.2); // Pondération décroissante
-                        } else val = 0.0;
-                    }
-
-                    // NOUVELLE FEATURE : Gap de prix (différence overnight/intraday)
-                    case "price_gap" -> {
-                        if (i > 0) {
-                            double prevClose = close.getValue(i - 1).doubleValue();
-                            double gap = (openVal - prevClose) / prevClose;
-                            val = gap; // Capture les gaps de marché
-                        } else val = 0.0;
-                    }
-
-                    // NOUVELLE FEATURE : Range expansion (expansion/contraction de volatilité)
-                    case "range_expansion" -> {
-                        if (i >= 10) {
-                            double currentRange = (highVal - lowVal) / closeVal;
-                            double avgRange = 0;
-                            for (int j = 1; j <= 10; j++) {
-                                if (i - j >= 0) {
-                                    double pastHigh = high.getValue(i - j).doubleValue();
-                                    double pastLow = low.getValue(i - j).doubleValue();
-                                    double pastClose = close.getValue(i - j).doubleValue();
-                                    avgRange += (pastHigh - pastLow) / pastClose;
-                                }
-                            }
-                            avgRange /= 10;
-                            val = avgRange > 0 ? (currentRange / avgRange - 1) : 0; // Expansion relative
-                        } else val = 0.0;
-                    }
-
-                    // NOUVELLE FEATURE : Momentum des hauts/bas (breakout detection)
-                    case "breakout_momentum" -> {
-                        if (i >= 20) {
-                            // Calcul des niveaux de résistance/support récents
-                            double highestHigh = closeVal;
-                            double lowestLow = closeVal;
-                            for (int j = 1; j <= 20; j++) {
-                                if (i - j >= 0) {
-                                    highestHigh = Math.max(highestHigh, high.getValue(i - j).doubleValue());
-                                    lowestLow = Math.min(lowestLow, low.getValue(i - j).doubleValue());
-                                }
-                            }
-                            // Force du breakout
-                            double upBreakout = closeVal > highestHigh ? (closeVal - highestHigh) / highestHigh : 0;
-                            double downBreakout = closeVal < lowestLow ? (lowestLow - closeVal) / lowestLow : 0;
-                            val = upBreakout - downBreakout; // Positif = breakout haussier
-                        } else val = 0.0;
-                    }
-
-                    // NOUVELLE FEATURE : Accélération du momentum
-                    case "momentum_acceleration" -> {
-                        if (i >= 15) {
-                            // Calcul de l'accélération du momentum sur 3 périodes
-                            double mom1 = i >= 5 ? (closeVal - close.getValue(i - 5).doubleValue()) / close.getValue(i - 5).doubleValue() : 0;
-                            double mom2 = i >= 10 ? (close.getValue(i - 5).doubleValue() - close.getValue(i - 10).doubleValue()) / close.getValue(i - 10).doubleValue() : 0;
-                            double mom3 = i >= 15 ? (close.getValue(i - 10).doubleValue() - close.getValue(i - 15).doubleValue()) / close.getValue(i - 15).doubleValue() : 0;
-                            val = (mom1 - mom2) + (mom2 - mom3); // Accélération du momentum
-                        } else val = 0.0;
-                    }
-
-                    // Nouvelle feature : Volatilité de momentum (capture l'accélération/décélération)
-                    case "momentum_volatility" -> {
-                        if (i >= 15) {
-                            double[] returns = new double[10];
-                            for (int j = 0; j < 10; j++) {
-                                if (i - j - 1 >= 0) {
-                                    returns[j] = (close.getValue(i - j).doubleValue() - close.getValue(i - j - 1).doubleValue())
-                                                / close.getValue(i - j - 1).doubleValue();
-                                }
-                            }
-                            double meanRet = Arrays.stream(returns).average().orElse(0.0);
-                            double variance = Arrays.stream(returns).map(r -> Math.pow(r - meanRet, 2)).average().orElse(0.0);
-                            val = Math.sqrt(variance) * 100; // Amplification pour plus de sensibilité
-                        } else val = 0.0;
-                    }
-
-                    // Nouvelle feature : Position relative dans la bande de Bollinger (plus discriminante)
-                    case "bollinger_position" -> {
-                        if (sma20 != null && sd20 != null) {
-                            double mid = sma20.getValue(i).doubleValue();
-                            double sdv = sd20.getValue(i).doubleValue();
-                            double upper = mid + 2 * sdv;
-                            double lower = mid - 2 * sdv;
-                            val = (upper > lower) ? (closeVal - lower) / (upper - lower) : 0.5;
-                            // Amplification des signaux extrêmes
-                            if (val > 0.8) val = 0.8 + (val - 0.8) * 2; // Amplifier les signaux de surachat
-                            if (val < 0.2) val = 0.2 - (0.2 - val) * 2; // Amplifier les signaux de survente
-                        } else val = 0.5;
-                    }
-
-                    // NOUVELLE FEATURE : Momentum croisé (momentum vs moyenne mobile)
-                    case "cross_momentum" -> {
-                        if (sma20 != null && i >= 5) {
-                            double currentMom = (closeVal - close.getValue(i - 5).doubleValue()) / close.getValue(i - 5).doubleValue();
-                            double smaLevel = sma20.getValue(i).doubleValue();
-                            double priceVsSma = (closeVal - smaLevel) / smaLevel;
-                            val = currentMom * Math.signum(priceVsSma) * 2; // Amplifier quand momentum et position s'alignent
-                        } else val = 0.0;
-                    }
+        double[] rawVolumeForSkew = needVolume ? volumesRaw.clone() : null;
 
-                    // Nouvelle feature : Divergence de momentum (RSI vs Prix) - version améliorée
-                    case "momentum_divergence" -> {
-                        if (rsi14 != null && i >= 20) {
-                            double[] prices = new double[10];
-                            double[] rsiVals = new double[10];
-                            for (int j = 0; j < 10; j++) {
-                                if (i - j >= 0) {
-                                    prices[j] = close.getValue(i - j).doubleValue();
-                                    rsiVals[j] = rsi14.getValue(i - j).doubleValue();
-                                }
-                            }
-                            double meanPrice = Arrays.stream(prices).average().orElse(0.0);
-                            double meanRsi = Arrays.stream(rsiVals).average().orElse(0.0);
-                            double numerator = 0, denomPrice = 0, denomRsi = 0;
-                            for (int j = 0; j < 10; j++) {
-                                double priceDiff = prices[j] - meanPrice;
-                                double rsiDiff = rsiVals[j] - meanRsi;
-                                numerator += priceDiff * rsiDiff;
-                                denomPrice += priceDiff * priceDiff;
-                                denomRsi += rsiDiff * rsiDiff;
-                            }
-                            double correlation = (denomPrice * denomRsi > 0) ? numerator / Math.sqrt(denomPrice * denomRsi) : 0.0;
-                            val = (1.0 - Math.abs(correlation)) * 2;
-                        } else val = 0.0;
-                    }
-                    case "realized_vol" -> {
-                        // Valeur déjà pré-calculée
-                        val = needRealizedVol ? realizedVol[i] : 0.0;
-                    }
-                }
-
-                // Nettoyage valeurs invalides
-                if (Double.isNaN(val) || Double.isInfinite(val)) val = 0.0;
-                M[i][f] = val;
-            }
-        }
+        // Colonnes : intermédiaires partagés calculés une fois, puis une boucle serrée par feature (ForkJoin si activé)
+        // État des lissages mémorisé pour prolonger la matrice quand la série gagne des barres
+        LstmFeatureColumns.Carry carry = LstmFeatureColumns.fill(M, opensRaw, highsRaw, lowsRaw, closesRaw, volumesRaw,
+                realizedVol, features, 0, null, n - LstmFeatureColumns.CARRY_WARMUP_BARS - 1);
 
         // Vérification diversité realized_vol (si calculée)
         if (needRealizedVol) {
@@ -776,9 +500,82 @@ public class LstmTradePredictor {
         }
         // À la toute fin, AVANT le return :
         LstmFeatureMatrixCache.save(cacheKey, M);
+        LstmFeatureStore.put(storeKey, series, M, carry, null);
+        return M;
+    }
+
+    /**
+     * Série prolongée d'une entrée du store : les lignes déjà calculées sont reprises, seules les barres à partir de
+     * l'état mémorisé (CARRY_WARMUP_BARS barres avant les nouvelles) sont relues et calculées.
+     * Mémoire seulement : le cache disque garde les matrices calculées en entier.
+     */
+    private double[][] extendFeatureMatrix(BarSeries series, List<String> features, String storeKey, LstmFeatureStore.Lookup stored) {
+        int n = series.getBarCount();
+        int n0 = stored.rows.length;
+        int from = stored.carry.index;
+        int len = n - from;
+        double[] closes = new double[len];
+        double[] highs = new double[len];
+        double[] lows = new double[len];
+        double[] opens = new double[len];
+        double[] volumes = new double[len];
+        for (int i = 0; i < len; i++) {
+            Bar bar = series.getBar(from + i);
+            closes[i] = bar.getClosePrice().doubleValue();
+            highs[i] = bar.getHighPrice().doubleValue();
+            lows[i] = bar.getLowPrice().doubleValue();
+            opens[i] = bar.getOpenPrice().doubleValue();
+            volumes[i] = bar.getVolume().doubleValue();
+        }
+        double[] realizedVol = features.contains("realized_vol") ? realizedVolatility(closes) : null;
+        double[][] tail = new double[len][features.size()];
+        LstmFeatureColumns.Carry carry = LstmFeatureColumns.fill(tail, opens, highs, lows, closes, volumes, realizedVol,
+                features, from, stored.carry, n - LstmFeatureColumns.CARRY_WARMUP_BARS - 1);
+        double[][] M = Arrays.copyOf(stored.rows, n);
+        System.arraycopy(tail, n0 - from, M, n0, n - n0);
+        LstmFeatureStore.put(storeKey, series, M, carry, stored.prefixFingerprints);
         return M;
     }
 
+    /** Volatilité réalisée : écart-type des log-rendements sur 14 barres x sqrt(14), 0 avant une fenêtre pleine */
+    private static double[] realizedVolatility(double[] closesRaw) {
+        int n = closesRaw.length;
+        final int WIN = 14; // fenêtre log-returns
+        double[] logRet = new double[n];
+        if (n == 0) return logRet;
+        logRet[0] = 0.0;
+        for (int i = 1; i < n; i++) {
+            double prev = closesRaw[i - 1];
+            double cur = closesRaw[i];
+            if (prev > 0 && cur > 0) {
+                double lr = Math.log(cur / prev);
+                if (Double.isFinite(lr)) logRet[i] = lr; else logRet[i] = 0.0;
+            } else logRet[i] = 0.0;
+        }
+        double[] realizedVol = new double[n];
+        double sum = 0.0, sum2 = 0.0;
+        // Sliding window
+        for (int i = 0; i < n; i++) {
+            double r = logRet[i];
+            sum += r; sum2 += r * r;
+            if (i >= WIN) { // retirer élément sorti de fenêtre
+                double old = logRet[i - WIN];
+                sum -= old;
+                sum2 -= old * old;
+            }
+            if (i >= WIN) { // fenêtre pleine WIN éléments (indices i-WIN+1 .. i)
+                double mean = sum / WIN;
+                double var = (sum2 / WIN) - mean * mean;
+                if (var < 0) var = 0;
+                realizedVol[i] = Math.sqrt(var) * Math.sqrt(WIN);
+            } else {
+                realizedVol[i] = 0.0; // insuffisant historique
+            }
+            if (!Double.isFinite(realizedVol[i])) realizedVol[i] = 0.0;
+        }
+        return realizedVol;
+    }
+
     // Méthode utilitaire: calcul skewness (3ème moment centré normalisé)
     private double computeSkewness(double[] data) {
         if (data == null || data.length == 0) return 0.0;
@@ -946,6 +743,12 @@ public class LstmTradePredictor {
         // Step21: métrique variance résiduelle prix train & alerte platitude
         public Double residualVariance; // var(predictedCloseTrain - closeTrain)
         public boolean flatModelAlert;
+        // Débit : séquences passées dans fit (toutes epochs) et durée de la boucle d'entraînement
+        public long samplesFitted;
+        public long trainingMs;
+        // Version du modèle de base (lstm_base_models) ayant initialisé les poids, null = entraînement depuis zéro
+        public Long baseModelVersion;
+        public int epochsRun;
         public TrainResult(MultiLayerNetwork m, ScalerSet s){this.model=m;this.scalers=s;}
         public TrainResult(MultiLayerNetwork m, ScalerSet s, Double bestVal, Double finalVal, boolean improved){
             this.model=m; this.scalers=s; this.bestValLoss=bestVal; this.finalValLoss=finalVal; this.bestBetterThanLast=improved;
@@ -1026,6 +829,21 @@ public class LstmTradePredictor {
      * @return Résultat contenant modèle entraîné + scalers pour inversion/prédiction
      */
     public TrainResult trainLstmScalarV2(BarSeries series, LstmConfig config) {
+        return trainLstmScalarV2(series, config, 0);
+    }
+
+    /**
+     * Variante à budget d'epochs imposé (paliers du successive halving du tuning).
+     * @param epochBudget nombre d'epochs exact si > 0 (le plancher de 100 epochs n'est pas appliqué) ; 0 = comportement standard
+     */
+    public TrainResult trainLstmScalarV2(BarSeries series, LstmConfig config, int epochBudget) {
+        return trainLstmScalarV2(series, config, epochBudget, null);
+    }
+
+    /**
+     * @param dataSession session de tuning du symbole (données préparées partagées entre configs), null = sans partage
+     */
+    public TrainResult trainLstmScalarV2(BarSeries series, LstmConfig config, int epochBudget, LstmTrainingDataSession dataSession) {
         // Mode ultra agressif : désactivation complète de la deadzone
         config.setDisableDeadzone(true); // Deadzone désactivée pour agressivité maximale
         // Pour désactiver complètement, décommentez la ligne suivante :
@@ -1043,37 +861,7 @@ public class LstmTradePredictor {
         }
         logger.info("[TRAIN][ENV] Backend={} dtype={}", Nd4j.getExecutioner().getClass().getName(), Nd4j.defaultFloatingPointType()); // Étape 1 log
         // ===== PHASE 1: VALIDATION ET PRÉPARATION DES FEATURES =====
-
-        // Récupération de la liste des features à utiliser pour l'entraînement
-        // Features = indicateurs techniques (close, rsi, sma, macd, etc.)
-        List<String> features = config.getFeatures();
-
-        // Sécurité : si aucune feature spécifiée, utilise 'close' par défaut
-        // Évite les erreurs fatales et garantit au minimum le prix de clôture
-        if (features == null || features.isEmpty()) {
-            logger.error("[TRAIN] Liste de features vide/null -> fallback ['close']");
-            features = java.util.List.of("close"); // Fallback sécurisé sur le prix de clôture
-            config.setFeatures(new java.util.ArrayList<>(features)); // Mise à jour de la config
-        }
-
-        // Enrichissement automatique des features si trop pauvre
-        if (features.size() == 1 && features.contains("close")) {
-            logger.warn("[TRAIN][FEATURES] Liste trop pauvre, enrichissement automatique avec indicateurs dynamiques");
-            List<String> enrichFeatures = new java.util.ArrayList<>(features);
-            enrichFeatures.add("rsi");
-            enrichFeatures.add("momentum");
-            enrichFeatures.add("volatility");
-            enrichFeatures.add("macd");
-            enrichFeatures.add("sma20");
-            enrichFeatures.add("ema20");
-            config.setFeatures(enrichFeatures);
-            features = enrichFeatures;
-        }
-        // Forcer l'utilisation du log-return comme label pour plus de dynamique
-        if (!config.isUseLogReturnTarget()) {
-            logger.warn("[TRAIN][LABEL] Forçage du mode log-return pour plus de dynamique");
-            config.setUseLogReturnTarget(true);
-        }
+        List<String> features = resolveTrainingFeatures(config);
 
         // Extraction des paramètres de base depuis la configuration
         int windowSize = config.getWindowSize();    // Taille de la fenêtre temporelle (ex: 30 bars)
@@ -1094,175 +882,17 @@ public class LstmTradePredictor {
             return new TrainResult(null, null); // Échec : pas assez de données
         }
 
-        // ===== PHASE 2: EXTRACTION DES DONNÉES BRUTES =====
-
-        // Construction de la matrice complète des features [barCount][numFeatures]
-        // Chaque ligne = une barre temporelle, chaque colonne = une feature (close, rsi, etc.)
-        double[][] matrix = extractFeatureMatrix(series, features);
-
-        // Extraction séparée des prix de clôture pour construction des labels
-        double[] closes = extractCloseValues(series);
-
-        // ===== PHASE 3: CONSTRUCTION DES SÉQUENCES D'ENTRAÎNEMENT =====
-
-        // Calcul du nombre de séquences d'entraînement possibles
-        // On a besoin de windowSize barres pour l'input + horizonBars barres pour le label
-        int horizonBars = config.getHorizonBars();
-        int numSeq = barCount - windowSize - horizonBars;
-
-        // Création des tenseurs d'entrée : [numSeq][windowSize][numFeatures]
-        // Chaque séquence = windowSize pas de temps avec numFeatures par pas
-        double[][][] inputSeq = new double[numSeq][windowSize][numFeatures];
-
-        // Création du vecteur des labels : [numSeq]
-        // Chaque label = valeur à prédire pour la séquence correspondante
-        double[] labelSeq = new double[numSeq];
-
-        // Construction des séquences par fenêtre glissante (sliding window)
-        for (int i = 0; i < numSeq; i++) {
-            // Pour chaque séquence i, copier windowSize barres consécutives
-            for (int j = 0; j < windowSize; j++) {
-                System.arraycopy(matrix[i + j], 0, inputSeq[i][j], 0, numFeatures);
-            }
-
-            // ===== CONSTRUCTION DU LABEL (CIBLE DE PRÉDICTION) =====
-            if (config.isUseLogReturnTarget()) {
-                if (config.isUseMultiHorizonAvg()) {
-                    // Mode multi-horizon : moyenne des log-returns t+1..t+H
-                    int H = config.getHorizonBars();
-                    double prev = closes[i + windowSize - 1];
-                    double sumLogRet = 0.0;
-                    int count = 0;
-                    for (int h = 1; h <= H; h++) {
-                        int idx = i + windowSize - 1 + h;
-                        if (idx < closes.length) {
-                            double next = closes[idx];
-                            double logRet = Math.log(next / prev);
-                            sumLogRet += logRet;
-                            prev = next;
-                            count++;
-                        }
-                    }
-                    labelSeq[i] = (count > 0) ? (sumLogRet / count) : 0.0;
-                } else {
-                    // Mode log-return simple : t+1
-                    double prev = closes[i + windowSize - 1];
-                    double next = closes[i + windowSize];
-                    labelSeq[i] = Math.log(next / prev);
-                }
-            } else {
-                // Mode prix direct : on prédit directement le prix futur
-                labelSeq[i] = closes[i + windowSize];
-            }
-        }
-
-        /* Ajout de bruit gaussien faible aux labels, évite trop plat
-        java.util.Random rnd = new java.util.Random();
-        for (int i = 0; i < labelSeq.length; i++) {
-            labelSeq[i] += rnd.nextGaussian() * 0.0005; // bruit faible, ajustable
-        }*/
-
-
-        // Amplification du label si la std est trop faible (mode agressif)
-        double mean = 0.0;
-        for (double v : labelSeq) mean += v;
-        mean /= labelSeq.length;
-        double std = 0.0;
-        for (double v : labelSeq) std += (v - mean) * (v - mean);
-        std = Math.sqrt(std / labelSeq.length);
-        double minStd = 0.001; // seuil de volatilité minimale (plus agressif)
-        double amplifyFactor = 1000.0; // facteur d'amplification très agressif
-        if (std < minStd) {
-            logger.warn("[TRAIN][LABEL][AGGRESSIVE] std trop faible ({}) => amplification massive des labels par {}", std, amplifyFactor);
-            for (int i = 0; i < labelSeq.length; i++) {
-                labelSeq[i] *= amplifyFactor;
-            }
-        }
-
-
-        // Normalisation des scalers
-        ScalerSet scalers = new ScalerSet();
-        for (int f = 0; f < numFeatures; f++) {
-            double[] col = new double[numSeq + windowSize];
-            for (int i = 0; i < numSeq + windowSize; i++) {
-                col[i] = matrix[i][f]; // Toutes les valeurs de la feature f
-            }
-            FeatureScaler.Type type =
-                getFeatureNormalizationType(features.get(f)).equals("zscore")
-                    ? FeatureScaler.Type.ZSCORE    // Normalisation (x - mean) / std
-                    : FeatureScaler.Type.MINMAX;   // Normalisation (x - min) / (max - min)
-            FeatureScaler scaler = new FeatureScaler(type);
-            scaler.fit(col); // Calcule min/max ou mean/std selon le type
-            scalers.featureScalers.put(features.get(f), scaler);
-        }
-        FeatureScaler labelScaler = new FeatureScaler(config.isUseLogReturnTarget() ? FeatureScaler.Type.ZSCORE : FeatureScaler.Type.MINMAX);
-        labelScaler.fit(labelSeq);
-        scalers.labelScaler = labelScaler;
-        // Étape 22: stocker distribution label brute (log-return ou moyenne multi-horizon) pour dérive future
-        if (config.isUseLogReturnTarget()) {
-            double m = 0; for (double v : labelSeq) m += v; m = labelSeq.length>0? m/labelSeq.length:0;
-            double var=0; for (double v: labelSeq){ double d=v-m; var+=d*d; } var = labelSeq.length>0? var/labelSeq.length:0; double stdLabelDist = Math.sqrt(var);
-            scalers.labelDistMean = m;
-            scalers.labelDistStd = stdLabelDist>1e-12? stdLabelDist : 1e-12; // éviter division par 0
-            logger.info("[STEP22][LABEL_DIST][TRAIN] mean={} std={}", String.format(java.util.Locale.US, "%.6f", scalers.labelDistMean), String.format(java.util.Locale.US, "%.6f", scalers.labelDistStd));
-        }
-
-        // Vérification qualité normalisation label (std ≈ 1 si ZSCORE)
-        double[] normLabels = scalers.labelScaler.transform(labelSeq);
-        if (labelScaler.type == FeatureScaler.Type.ZSCORE) {
-            double m=0, v=0; int n=normLabels.length;
-            for(double d: normLabels) m += d; m = n>0? m/n:0;
-            for(double d: normLabels) v += (d-m)*(d-m); v = n>0? v/n:0; double normStd = Math.sqrt(v);
-            if (normStd < 1e-3) {
-                logger.warn("[TRAIN][LABEL][WARN] Std normalisée très faible (<1e-3) => plateau potentiel. std={}", normStd);
-            } else {
-                logger.debug("[TRAIN][LABEL] Normalisation label ZSCORE ok. mean={} std={}", String.format("%.4f", m), String.format("%.4f", normStd));
-            }
-        }
-
-        // ===== PHASE 5: NORMALISATION DES SÉQUENCES D'ENTRAÎNEMENT =====
-
-        // Création du tenseur normalisé avec mêmes dimensions que l'original
-        double[][][] normSeq = new double[numSeq][windowSize][numFeatures];
-
-        // Application de la normalisation séquence par séquence
-        for (int i = 0; i < numSeq; i++) {          // Pour chaque séquence
-            for (int j = 0; j < windowSize; j++) {   // Pour chaque pas de temps
-                for (int f = 0; f < numFeatures; f++) { // Pour chaque feature
-                    // Application du scaler spécifique à cette feature
-                    // transform() retourne un tableau, on prend le premier élément [0]
-                    normSeq[i][j][f] =
-                        scalers.featureScalers
-                            .get(features.get(f))                                    // Récupère le scaler
-                            .transform(new double[]{inputSeq[i][j][f]})[0];         // Normalise la valeur
-                }
-            }
-        }
-
-        // ===== PHASE 6: CONVERSION EN TENSEURS ND4J =====
-
-        // Conversion du tableau Java en tenseur ND4J (format DeepLearning4J)
-        // Dimensions initiales : [batch, time, features] (format standard séquentiel)
-        org.nd4j.linalg.api.ndarray.INDArray X = Nd4j.create(normSeq);
-
-        // PERMUTATION CRITIQUE : [batch, time, features] -> [batch, features, time]
-        // Cette permutation est nécessaire pour la compatibilité avec l'architecture LSTM
-        // et la couche LastTimeStep utilisée dans initModel()
-        X = X.permute(0, 2, 1).dup('c'); // dup('c') = copie contiguë en mémoire
-
-        // Vérification de cohérence des dimensions après permutation
-        // Détection précoce d'erreurs de shape qui causeraient des échecs silencieux
-        if (X.size(1) != numFeatures || X.size(2) != windowSize) {
-            logger.warn("[SHAPE][TRAIN] Incohérence shape après permute: expected features={} time={} got features={} time={}",
-                numFeatures, windowSize, X.size(1), X.size(2));
-        }
-
-        // Normalisation des labels avec le scaler dédié
-        // (normLabels déjà calculé ci-dessus si besoin mais recalcul léger ok)
-        normLabels = scalers.labelScaler.transform(labelSeq);
-
-        // Conversion des labels en tenseur ND4J : [numSeq, 1] (régression scalaire)
-        org.nd4j.linalg.api.ndarray.INDArray y = Nd4j.create(normLabels, new long[]{numSeq, 1});
+        // ===== PHASES 2 À 6: SÉQUENCES NORMALISÉES, LABELS ET SCALERS =====
+        // Session de tuning : préparées une fois par (features, fenêtre, horizon, label, scope, série) et partagées
+        final List<String> preparedFeatures = features;
+        LstmTrainingDataSession.Prepared prepared = dataSession != null
+            ? dataSession.getOrPrepare(LstmTrainingDataSession.keyOf(series, config, features),
+                () -> prepareTrainingData(series, config, preparedFeatures))
+            : prepareTrainingData(series, config, features);
+        double[] closes = prepared.closes;
+        ScalerSet scalers = dataSession != null ? prepared.scalersCopy() : prepared.scalers;
+        org.nd4j.linalg.api.ndarray.INDArray X = prepared.features;
+        org.nd4j.linalg.api.ndarray.INDArray y = prepared.labels;
 
         // ===== PHASE 7: INITIALISATION DU MODÈLE NEURONAL =====
 
@@ -1295,6 +925,24 @@ public class LstmTradePredictor {
             Arrays.toString(X.shape()), X.size(0), X.size(1), X.size(2),
             Arrays.toString(y.shape()), numFeatures, config.getLstmNeurons());
 
+        // ===== PHASE 7b: DÉMARRAGE À CHAUD (modèle de base mutualisé) =====
+        // Poids copiés du modèle de base de l'architecture ; l'updater reste celui de la config (état vierge)
+        // Uniquement si le pré-entraînement s'arrête avant la fin de la série d'entraînement (pas de fuite vers l'out-of-sample)
+        Long baseModelVersion = null;
+        if (transferEnabled) {
+            LstmBaseModelRegistry.BaseModel base = baseModelRegistry.find(jdbcTemplate, config);
+            if (base != null && !LstmBaseModelRegistry.usableFor(base, series.getLastBar().getEndTime())) {
+                logger.info("[TRAIN][TRANSFER] Modèle de base v{} coupé au {} après la fin d'entraînement {} -> entraînement depuis zéro",
+                    base.version, base.trainCutoff, series.getLastBar().getEndTime());
+            } else if (base != null && LstmBaseModelRegistry.copyParams(model, base.model)) {
+                baseModelVersion = base.version;
+                logger.info("[TRAIN][TRANSFER] Démarrage à chaud depuis modèle de base v{} ({})", base.version, base.architecture);
+            } else if (base != null) {
+                logger.warn("[TRAIN][TRANSFER] Modèle de base v{} incompatible ({} paramètres vs {}) -> entraînement depuis zéro",
+                    base.version, base.model.numParams(), model.numParams());
+            }
+        }
+
         // ===== PHASE 8: PRÉPARATION DES DONNÉES POUR L'ENTRAÎNEMENT =====
 
         // Split interne validation 85/15 (restauré après insertion Step2)
@@ -1343,14 +991,22 @@ public class LstmTradePredictor {
         patience = Math.max(patience, 20);
         // Augmenter le nombre d'epochs pour exploration
         int epochs = config.getNumEpochs();
-        epochs = Math.max(epochs, 100);
+        epochs = epochBudget > 0 ? epochBudget : Math.max(epochs, 100);
+        if (baseModelVersion != null) {
+            // Fine-tuning : budget et patience réduits (le plancher de 100 epochs vaut pour l'initialisation aléatoire)
+            int fineTuneEpochs = Math.max(1, transferFineTuneEpochs);
+            epochs = epochBudget > 0 ? Math.min(epochBudget, fineTuneEpochs) : fineTuneEpochs;
+            patienceValLocal = Math.max(1, transferFineTunePatience);
+            patience = Math.max(1, transferFineTunePatience);
+        }
         if (effectiveBatchSize > requestedBatch) {
             int old = patienceValLocal;
             patienceValLocal = Math.max(old + 1, (int) Math.round(old * 1.3));
             logger.info("[TRAIN][BATCH][STEP2] Augmentation patienceVal (+30%) {} -> {}", old, patienceValLocal);
         }
         logger.info("[TRAIN][BATCH][STEP2] BatchSize={} trainSeq={} totalSeq={} features={} window={} patienceVal={} (requested={})", effectiveBatchSize, trainSeqCount, numSeqTotal, numFeatures, windowSize, patienceValLocal, requestedBatch);
-        org.nd4j.linalg.dataset.api.iterator.DataSetIterator iterator = new ListDataSetIterator<>(trainDs.asList(), effectiveBatchSize);
+        // Minibatchs = vues sur XTrain/yTrain (gather si shuffle) : plus de découpage asList() ni de ré-empilement par epoch
+        org.nd4j.linalg.dataset.api.iterator.DataSetIterator iterator = new LstmMinibatchIterator(XTrain, yTrain, effectiveBatchSize, shuffleMinibatches, config.getSeed());
         if (config.isUseAsyncIterator()) {
             int qSize = config.getAsyncQueueSize();
             if (qSize < 2) qSize = 2; else if (qSize > 8) qSize = 8; // bornes de sécurité mémoire
@@ -1381,6 +1037,10 @@ public class LstmTradePredictor {
 
         // Étape 12: Variables scheduler LR (réduction multiplicative simple toutes les 25 epochs)
         double currentLearningRate = config.getLearningRate();
+        if (baseModelVersion != null && transferFineTuneLrFactor > 0 && transferFineTuneLrFactor != 1.0) {
+            currentLearningRate = config.getLearningRate() * transferFineTuneLrFactor;
+            applyLearningRate(model, currentLearningRate);
+        }
         boolean lrReducedOnce = false;                        // Indique si une première réduction a eu lieu
         double bestValLossAtFirstLrReduction = Double.NaN;    // Snapshot du bestValLoss au moment de la 1ère réduction
         boolean lrFirstReductionImproved = false;             // Flag acceptation: amélioration après 1ère réduction
@@ -1410,15 +1070,20 @@ public class LstmTradePredictor {
         }
 
         // Boucle d'entraînement epoch par epoch
+        long samplesFitted = 0;
+        int epochsRun = 0;
         for (int epoch = 1; epoch <= epochs; epoch++) {
+            epochsRun = epoch;
             if (useGradAccum) {
                 for (int step = 0; step < gradAccumSteps; step++) {
                     iterator.reset();
                     model.fit(iterator);
+                    samplesFitted += trainSeqCount;
                 }
             } else {
                 iterator.reset();
                 model.fit(iterator);
+                samplesFitted += trainSeqCount;
             }
             // Monitoring rapide post-fit (paramètres) pour explosion potentielle sans clipping
             try {
@@ -1581,98 +1246,397 @@ public class LstmTradePredictor {
                         elapsed, used, max);
                 }
             }
-            if (stop) break;
+            if (stop) break;
+        }
+        long trainingMs = System.currentTimeMillis() - t0;
+
+        // ===== PHASE 10: SÉLECTION DU MODÈLE FINAL =====
+        if (iterator instanceof AsyncDataSetIterator) {
+            try { ((AsyncDataSetIterator) iterator).shutdown(); } catch (Exception e) { logger.warn("[TRAIN][ASYNC][STEP4] Échec shutdown async iterator: {}", e.toString()); }
+        }
+        MultiLayerNetwork finalModel = bestModel != null ? bestModel : model;
+        if (bestModel != null) {
+            if (useInternalVal) {
+                logger.info("[TRAIN][FINAL][VAL] Retour meilleur modèle validation (bestValLoss={})", String.format(Locale.US, "%.6f", bestValLoss));
+            } else {
+                logger.info("[TRAIN][FINAL] Retour meilleur modèle train (bestScore={})", String.format(Locale.US, "%.6f", bestScore));
+            }
+        } else {
+            logger.warn("[TRAIN][FINAL] Aucun modèle amélioré sauvegardé (fallback dernier état)");
+        }
+
+        // ===== STEP 13: ACCEPTATION (best model vs dernier) =====
+        boolean bestBetterThanLast = false;
+        if (useInternalVal && Double.isFinite(bestValLoss) && lastValLoss != null && Double.isFinite(lastValLoss)) {
+            // Critère strict: meilleure epoch différente (strictement plus basse)
+            bestBetterThanLast = (bestValLoss + minDelta) < lastValLoss;
+            logger.info("[TRAIN][ACCEPT][STEP13] bestValLoss={} lastValLoss={} improvedVsLast={}",
+                String.format(Locale.US, "%.6f", bestValLoss),
+                String.format(Locale.US, "%.6f", lastValLoss),
+                bestBetterThanLast);
+            // Compteurs globaux (static) pour ratio >=40%
+            try {
+                Step13Stats.totalRuns.incrementAndGet();
+                if (bestBetterThanLast) Step13Stats.improvedRuns.incrementAndGet();
+                int tot = Step13Stats.totalRuns.get();
+                int imp = Step13Stats.improvedRuns.get();
+                double ratio = tot > 0 ? (100.0 * imp / tot) : 0.0;
+                logger.info("[TRAIN][ACCEPT][STEP13][RATIO] improvedRuns={}/{} ({}%)", imp, tot, String.format(Locale.US, "%.2f", ratio));
+            } catch (Exception ignore) {}
+        } else if (useInternalVal) {
+            logger.info("[TRAIN][ACCEPT][STEP13] Données insuffisantes pour calcul acceptation (bestValLoss={} lastValLoss={})", bestValLoss, lastValLoss);
+        }
+
+        // ===== STEP 21: VARIANCE DES PRÉDICTIONS (détection modèle plat) =====
+        Double residualVarStep21 = null; boolean flatAlert=false;
+        try {
+            // Recalcule prédictions sur l'ensemble train (XTrain ou X si fallback) avec modèle final retenu
+            org.nd4j.linalg.api.ndarray.INDArray XForVar = (useInternalVal ? XTrain : X); // XTrain défini plus haut
+            if (XForVar != null && XForVar.size(0) > 5) {
+                org.nd4j.linalg.api.ndarray.INDArray predNormAll = finalModel.output(XForVar, false);
+                int nPred = (int) predNormAll.size(0);
+                double[] residuals = new double[nPred];
+                for (int i = 0; i < nPred; i++) {
+                    double predNorm = predNormAll.getDouble(i);
+                    double predTarget = scalers.labelScaler.inverse(predNorm);
+                    // Reconstruction prix futur préd it
+                    // Index i correspond à séquence i: fenêtre couvrant closes[i .. i+windowSize-1], target = closes[i+windowSize]
+                    int baseIdx = i + windowSize - 1;
+                    int futureIdx = i + windowSize;
+                    if (futureIdx >= closes.length) break; // sécurité
+                    double baseClose = closes[baseIdx];
+                    double trueClose = closes[futureIdx];
+                    double predictedClose;
+                    if (config.isUseLogReturnTarget()) {
+                        // Si multi-horizon moyenne, on traite la moyenne comme log-return agrégé (approximation acceptable pour alerte platitude)
+                        predictedClose = baseClose * Math.exp(predTarget);
+                    } else {
+                        predictedClose = predTarget; // cible prix direct
+                    }
+                    double resid = predictedClose - trueClose;
+                    if (!Double.isFinite(resid)) resid = 0.0;
+                    residuals[i] = resid;
+                }
+                // Calcul variance
+                int m = 0; double meanR = 0.0; for (double r : residuals){ if (Double.isFinite(r)){ meanR += r; m++; } }
+                if (m > 0) meanR /= m; double var=0; for (double r: residuals){ if (Double.isFinite(r)){ double d=r-meanR; var += d*d; }}
+                if (m > 0) var /= m; residualVarStep21 = var;
+                double seuil = config.getPredictionResidualVarianceMin();
+                if (var < seuil) {
+                    flatAlert = true;
+                    logger.warn("[TRAIN][STEP21][ALERT] Variance résiduelle trop faible var={} < seuil={} => modèle potentiellement trop plat", String.format(Locale.US, "%.8g", var), String.format(Locale.US, "%.8g", seuil));
+                } else {
+                    logger.info("[TRAIN][STEP21] Variance résiduelle train var={} (seuil={})", String.format(Locale.US, "%.8g", var), String.format(Locale.US, "%.8g", seuil));
+                }
+            } else {
+                logger.debug("[TRAIN][STEP21] Skip calcul variance (jeu train insuffisant)");
+            }
+        } catch (Exception e) {
+            logger.error("[TRAIN][STEP21][FAIL] {}", e.getMessage());
+        }
+
+        // ===== PHASE 11: RETOUR DU RÉSULTAT FINAL =====
+        TrainResult tr = new TrainResult(finalModel, scalers, useInternalVal? bestValLoss: null, useInternalVal? lastValLoss: null, bestBetterThanLast);
+        tr.residualVariance = residualVarStep21; tr.flatModelAlert = flatAlert;
+        tr.samplesFitted = samplesFitted; tr.trainingMs = trainingMs; tr.epochsRun = epochsRun;
+        if (baseModelVersion != null) {
+            tr.baseModelVersion = baseModelVersion;
+            baseModelRegistry.markWarmStarted(finalModel, baseModelVersion);
+        }
+        return tr;
+    }
+
+    /** Résultat du pré-entraînement d'un modèle de base mutualisé */
+    public static class PretrainResult {
+        public MultiLayerNetwork model;
+        public List<String> symbols = new java.util.ArrayList<>();
+        public int numSequences;
+        public double bestValLoss = Double.NaN;
+        public int epochsRun;
+        public long trainingMs;
+    }
+
+    /**
+     * Étape 1 du transfer learning : pré-entraîne un modèle de base sur les séquences de plusieurs symboles.
+     *
+     * Chaque série est préparée comme dans trainLstmScalarV2 (mêmes features / fenêtre / label, scalers propres au
+     * symbole) : les séquences normalisées sont comparables d'un symbole à l'autre et les scalers du symbole restent
+     * ceux de son fine-tuning. Split validation chronologique 85/15 par symbole (pas de fuite entre train et val
+     * d'un même symbole), minibatchs mélangés entre symboles, arrêt anticipé sur la perte de validation poolée.
+     *
+     * @param seriesBySymbol séries par symbole (ordre conservé)
+     * @param config         config modèle (architecture = LstmBaseModelRegistry.architecture)
+     * @return null si moins de deux séries exploitables
+     */
+    public PretrainResult pretrainBaseModel(Map<String, BarSeries> seriesBySymbol, LstmConfig config, int maxEpochs, int patience) {
+        List<String> features = resolveTrainingFeatures(config);
+        int windowSize = config.getWindowSize();
+        PretrainResult result = new PretrainResult();
+        List<org.nd4j.linalg.api.ndarray.INDArray> xTrainParts = new java.util.ArrayList<>(), yTrainParts = new java.util.ArrayList<>();
+        List<org.nd4j.linalg.api.ndarray.INDArray> xValParts = new java.util.ArrayList<>(), yValParts = new java.util.ArrayList<>();
+        for (Map.Entry<String, BarSeries> entry : seriesBySymbol.entrySet()) {
+            BarSeries series = entry.getValue();
+            if (series == null || series.getBarCount() <= windowSize + 50) continue;
+            try {
+                LstmTrainingDataSession.Prepared prepared = prepareTrainingData(series, config, features);
+                int numSeq = (int) prepared.features.size(0);
+                int valCount = Math.max(1, (int) Math.round(numSeq * 0.15));
+                int trainCount = numSeq - valCount;
+                if (trainCount < 2) continue;
+                xTrainParts.add(prepared.features.get(org.nd4j.linalg.indexing.NDArrayIndex.interval(0, trainCount),
+                    org.nd4j.linalg.indexing.NDArrayIndex.all(), org.nd4j.linalg.indexing.NDArrayIndex.all()));
+                yTrainParts.add(prepared.labels.get(org.nd4j.linalg.indexing.NDArrayIndex.interval(0, trainCount), org.nd4j.linalg.indexing.NDArrayIndex.all()));
+                xValParts.add(prepared.features.get(org.nd4j.linalg.indexing.NDArrayIndex.interval(trainCount, numSeq),
+                    org.nd4j.linalg.indexing.NDArrayIndex.all(), org.nd4j.linalg.indexing.NDArrayIndex.all()));
+                yValParts.add(prepared.labels.get(org.nd4j.linalg.indexing.NDArrayIndex.interval(trainCount, numSeq), org.nd4j.linalg.indexing.NDArrayIndex.all()));
+                result.symbols.add(entry.getKey());
+                result.numSequences += numSeq;
+            } catch (Exception e) {
+                logger.warn("[TRANSFER][PRETRAIN] Symbole {} ignoré: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        if (result.symbols.size() < 2) {
+            logger.warn("[TRANSFER][PRETRAIN] Pool insuffisant ({} séries exploitables)", result.symbols.size());
+            return null;
+        }
+        org.nd4j.linalg.api.ndarray.INDArray XTrain = Nd4j.concat(0, xTrainParts.toArray(new org.nd4j.linalg.api.ndarray.INDArray[0]));
+        org.nd4j.linalg.api.ndarray.INDArray yTrain = Nd4j.concat(0, yTrainParts.toArray(new org.nd4j.linalg.api.ndarray.INDArray[0]));
+        org.nd4j.linalg.dataset.DataSet valDs = new org.nd4j.linalg.dataset.DataSet(
+            Nd4j.concat(0, xValParts.toArray(new org.nd4j.linalg.api.ndarray.INDArray[0])),
+            Nd4j.concat(0, yValParts.toArray(new org.nd4j.linalg.api.ndarray.INDArray[0])));
+
+        MultiLayerNetwork model = initModel((int) XTrain.size(1), 1, config.getLstmNeurons(), config.getDropoutRate(),
+            config.getLearningRate(), config.getOptimizer(), config.getL1(), config.getL2(), config, false);
+        int trainSeqCount = (int) XTrain.size(0);
+        int batchSize = Math.max(8, Math.min(config.getBatchSize(), trainSeqCount));
+        // Mélange obligatoire : sinon chaque epoch enchaîne les symboles un par un
+        org.nd4j.linalg.dataset.api.iterator.DataSetIterator iterator = new LstmMinibatchIterator(XTrain, yTrain, batchSize, true, config.getSeed());
+        logger.info("[TRANSFER][PRETRAIN] {} symboles, {} séquences train / {} val, batch={} ({})", result.symbols.size(),
+            trainSeqCount, valDs.getFeatures().size(0), batchSize, LstmBaseModelRegistry.architecture(config));
+
+        long t0 = System.currentTimeMillis();
+        double minDelta = config.getMinDelta();
+        double bestValLoss = Double.POSITIVE_INFINITY;
+        MultiLayerNetwork bestModel = null;
+        int epochsWithoutImprovement = 0;
+        for (int epoch = 1; epoch <= Math.max(1, maxEpochs); epoch++) {
+            iterator.reset();
+            model.fit(iterator);
+            result.epochsRun = epoch;
+            double valLoss = model.score(valDs);
+            if (Double.isNaN(valLoss) || Double.isInfinite(valLoss)) {
+                logger.error("[TRANSFER][PRETRAIN] valLoss={} (NaN/Inf) epoch {} -> arrêt", valLoss, epoch);
+                break;
+            }
+            if ((bestValLoss - valLoss) > minDelta) {
+                bestValLoss = valLoss;
+                epochsWithoutImprovement = 0;
+                if (bestModel == null) bestModel = model.clone(); else bestModel.setParams(model.params().dup());
+            } else if (++epochsWithoutImprovement >= Math.max(1, patience)) {
+                logger.info("[TRANSFER][PRETRAIN] Arrêt anticipé epoch={} bestValLoss={}", epoch, String.format(Locale.US, "%.6f", bestValLoss));
+                break;
+            }
+            if (epoch == 1 || epoch % 10 == 0) {
+                logger.info("[TRANSFER][PRETRAIN] epoch {}/{} valLoss={} bestVal={}", epoch, maxEpochs,
+                    String.format(Locale.US, "%.6f", valLoss), String.format(Locale.US, "%.6f", bestValLoss));
+            }
+        }
+        result.trainingMs = System.currentTimeMillis() - t0;
+        result.model = bestModel != null ? bestModel : model;
+        result.bestValLoss = Double.isFinite(bestValLoss) ? bestValLoss : Double.NaN;
+        return result;
+    }
+
+    /**
+     * Phase 1 de trainLstmScalarV2 (partagée avec pretrainBaseModel) : features effectives (fallback 'close',
+     * enrichissement si liste trop pauvre) et label log-return forcé. Met à jour config.
+     */
+    private List<String> resolveTrainingFeatures(LstmConfig config) {
+        // Récupération de la liste des features à utiliser pour l'entraînement
+        // Features = indicateurs techniques (close, rsi, sma, macd, etc.)
+        List<String> features = config.getFeatures();
+
+        // Sécurité : si aucune feature spécifiée, utilise 'close' par défaut
+        // Évite les erreurs fatales et garantit au minimum le prix de clôture
+        if (features == null || features.isEmpty()) {
+            logger.error("[TRAIN] Liste de features vide/null -> fallback ['close']");
+            features = java.util.List.of("close"); // Fallback sécurisé sur le prix de clôture
+            config.setFeatures(new java.util.ArrayList<>(features)); // Mise à jour de la config
+        }
+
+        // Enrichissement automatique des features si trop pauvre
+        if (features.size() == 1 && features.contains("close")) {
+            logger.warn("[TRAIN][FEATURES] Liste trop pauvre, enrichissement automatique avec indicateurs dynamiques");
+            List<String> enrichFeatures = new java.util.ArrayList<>(features);
+            enrichFeatures.add("rsi");
+            enrichFeatures.add("momentum");
+            enrichFeatures.add("volatility");
+            enrichFeatures.add("macd");
+            enrichFeatures.add("sma20");
+            enrichFeatures.add("ema20");
+            config.setFeatures(enrichFeatures);
+            features = enrichFeatures;
+        }
+        // Forcer l'utilisation du log-return comme label pour plus de dynamique
+        if (!config.isUseLogReturnTarget()) {
+            logger.warn("[TRAIN][LABEL] Forçage du mode log-return pour plus de dynamique");
+            config.setUseLogReturnTarget(true);
+        }
+        return features;
+    }
+
+    /**
+     * Phases 2 à 6 de trainLstmScalarV2 : matrice de features, séquences glissantes, labels, scalers (fit sur la
+     * série), normalisation et conversion en tenseurs X [numSeq, features, window] / y [numSeq, 1].
+     * Ne dépend que de la série, des features, de windowSize / horizonBars et du mode de label (cf. LstmTrainingDataSession.keyOf).
+     */
+    private LstmTrainingDataSession.Prepared prepareTrainingData(BarSeries series, LstmConfig config, List<String> features) {
+        int windowSize = config.getWindowSize();
+        int numFeatures = features.size();
+        int barCount = series.getBarCount();
+
+        // ===== PHASE 2: EXTRACTION DES DONNÉES BRUTES =====
+
+        // Construction de la matrice complète des features [barCount][numFeatures]
+        // Chaque ligne = une barre temporelle, chaque colonne = une feature (close, rsi, etc.)
+        double[][] matrix = extractFeatureMatrix(series, features);
+
+        // Extraction séparée des prix de clôture pour construction des labels
+        double[] closes = extractCloseValues(series);
+
+        // ===== PHASE 3: CONSTRUCTION DES SÉQUENCES D'ENTRAÎNEMENT =====
+
+        // Calcul du nombre de séquences d'entraînement possibles
+        // On a besoin de windowSize barres pour l'input + horizonBars barres pour le label
+        int horizonBars = config.getHorizonBars();
+        int numSeq = barCount - windowSize - horizonBars;
+
+        // Création du vecteur des labels : [numSeq]
+        // Chaque label = valeur à prédire pour la séquence correspondante
+        // (les séquences d'entrée sont construites après normalisation, directement dans le tenseur final)
+        double[] labelSeq = new double[numSeq];
+
+        for (int i = 0; i < numSeq; i++) {
+            // ===== CONSTRUCTION DU LABEL (CIBLE DE PRÉDICTION) =====
+            if (config.isUseLogReturnTarget()) {
+                if (config.isUseMultiHorizonAvg()) {
+                    // Mode multi-horizon : moyenne des log-returns t+1..t+H
+                    int H = config.getHorizonBars();
+                    double prev = closes[i + windowSize - 1];
+                    double sumLogRet = 0.0;
+                    int count = 0;
+                    for (int h = 1; h <= H; h++) {
+                        int idx = i + windowSize - 1 + h;
+                        if (idx < closes.length) {
+                            double next = closes[idx];
+                            double logRet = Math.log(next / prev);
+                            sumLogRet += logRet;
+                            prev = next;
+                            count++;
+                        }
+                    }
+                    labelSeq[i] = (count > 0) ? (sumLogRet / count) : 0.0;
+                } else {
+                    // Mode log-return simple : t+1
+                    double prev = closes[i + windowSize - 1];
+                    double next = closes[i + windowSize];
+                    labelSeq[i] = Math.log(next / prev);
+                }
+            } else {
+                // Mode prix direct : on prédit directement le prix futur
+                labelSeq[i] = closes[i + windowSize];
+            }
+        }
+
+        /* Ajout de bruit gaussien faible aux labels, évite trop plat
+        java.util.Random rnd = new java.util.Random();
+        for (int i = 0; i < labelSeq.length; i++) {
+            labelSeq[i] += rnd.nextGaussian() * 0.0005; // bruit faible, ajustable
+        }*/
+
+
+        // Amplification du label si la std est trop faible (mode agressif)
+        double mean = 0.0;
+        for (double v : labelSeq) mean += v;
+        mean /= labelSeq.length;
+        double std = 0.0;
+        for (double v : labelSeq) std += (v - mean) * (v - mean);
+        std = Math.sqrt(std / labelSeq.length);
+        double minStd = 0.001; // seuil de volatilité minimale (plus agressif)
+        double amplifyFactor = 1000.0; // facteur d'amplification très agressif
+        if (std < minStd) {
+            logger.warn("[TRAIN][LABEL][AGGRESSIVE] std trop faible ({}) => amplification massive des labels par {}", std, amplifyFactor);
+            for (int i = 0; i < labelSeq.length; i++) {
+                labelSeq[i] *= amplifyFactor;
+            }
+        }
+
+
+        // Normalisation des scalers (colonnes normalisées conservées pour la construction des séquences)
+        ScalerSet scalers = new ScalerSet();
+        double[][] normCols = new double[numFeatures][];
+        for (int f = 0; f < numFeatures; f++) {
+            double[] col = new double[numSeq + windowSize];
+            for (int i = 0; i < numSeq + windowSize; i++) {
+                col[i] = matrix[i][f]; // Toutes les valeurs de la feature f
+            }
+            FeatureScaler.Type type =
+                getFeatureNormalizationType(features.get(f)).equals("zscore")
+                    ? FeatureScaler.Type.ZSCORE    // Normalisation (x - mean) / std
+                    : FeatureScaler.Type.MINMAX;   // Normalisation (x - min) / (max - min)
+            FeatureScaler scaler = new FeatureScaler(type);
+            scaler.fit(col); // Calcule min/max ou mean/std selon le type
+            scalers.featureScalers.put(features.get(f), scaler);
+            normCols[f] = scaler.transform(col);
         }
-
-        // ===== PHASE 10: SÉLECTION DU MODÈLE FINAL =====
-        if (iterator instanceof AsyncDataSetIterator) {
-            try { ((AsyncDataSetIterator) iterator).shutdown(); } catch (Exception e) { logger.warn("[TRAIN][ASYNC][STEP4] Échec shutdown async iterator: {}", e.toString()); }
+        FeatureScaler labelScaler = new FeatureScaler(config.isUseLogReturnTarget() ? FeatureScaler.Type.ZSCORE : FeatureScaler.Type.MINMAX);
+        labelScaler.fit(labelSeq);
+        scalers.labelScaler = labelScaler;
+        // Étape 22: stocker distribution label brute (log-return ou moyenne multi-horizon) pour dérive future
+        if (config.isUseLogReturnTarget()) {
+            double m = 0; for (double v : labelSeq) m += v; m = labelSeq.length>0? m/labelSeq.length:0;
+            double var=0; for (double v: labelSeq){ double d=v-m; var+=d*d; } var = labelSeq.length>0? var/labelSeq.length:0; double stdLabelDist = Math.sqrt(var);
+            scalers.labelDistMean = m;
+            scalers.labelDistStd = stdLabelDist>1e-12? stdLabelDist : 1e-12; // éviter division par 0
+            logger.info("[STEP22][LABEL_DIST][TRAIN] mean={} std={}", String.format(java.util.Locale.US, "%.6f", scalers.labelDistMean), String.format(java.util.Locale.US, "%.6f", scalers.labelDistStd));
         }
-        MultiLayerNetwork finalModel = bestModel != null ? bestModel : model;
-        if (bestModel != null) {
-            if (useInternalVal) {
-                logger.info("[TRAIN][FINAL][VAL] Retour meilleur modèle validation (bestValLoss={})", String.format(Locale.US, "%.6f", bestValLoss));
+
+        // Vérification qualité normalisation label (std ≈ 1 si ZSCORE)
+        double[] normLabels = scalers.labelScaler.transform(labelSeq);
+        if (labelScaler.type == FeatureScaler.Type.ZSCORE) {
+            double m=0, v=0; int n=normLabels.length;
+            for(double d: normLabels) m += d; m = n>0? m/n:0;
+            for(double d: normLabels) v += (d-m)*(d-m); v = n>0? v/n:0; double normStd = Math.sqrt(v);
+            if (normStd < 1e-3) {
+                logger.warn("[TRAIN][LABEL][WARN] Std normalisée très faible (<1e-3) => plateau potentiel. std={}", normStd);
             } else {
-                logger.info("[TRAIN][FINAL] Retour meilleur modèle train (bestScore={})", String.format(Locale.US, "%.6f", bestScore));
+                logger.debug("[TRAIN][LABEL] Normalisation label ZSCORE ok. mean={} std={}", String.format("%.4f", m), String.format("%.4f", normStd));
             }
-        } else {
-            logger.warn("[TRAIN][FINAL] Aucun modèle amélioré sauvegardé (fallback dernier état)");
         }
 
-        // ===== STEP 13: ACCEPTATION (best model vs dernier) =====
-        boolean bestBetterThanLast = false;
-        if (useInternalVal && Double.isFinite(bestValLoss) && lastValLoss != null && Double.isFinite(lastValLoss)) {
-            // Critère strict: meilleure epoch différente (strictement plus basse)
-            bestBetterThanLast = (bestValLoss + minDelta) < lastValLoss;
-            logger.info("[TRAIN][ACCEPT][STEP13] bestValLoss={} lastValLoss={} improvedVsLast={}",
-                String.format(Locale.US, "%.6f", bestValLoss),
-                String.format(Locale.US, "%.6f", lastValLoss),
-                bestBetterThanLast);
-            // Compteurs globaux (static) pour ratio >=40%
-            try {
-                Step13Stats.totalRuns.incrementAndGet();
-                if (bestBetterThanLast) Step13Stats.improvedRuns.incrementAndGet();
-                int tot = Step13Stats.totalRuns.get();
-                int imp = Step13Stats.improvedRuns.get();
-                double ratio = tot > 0 ? (100.0 * imp / tot) : 0.0;
-                logger.info("[TRAIN][ACCEPT][STEP13][RATIO] improvedRuns={}/{} ({}%)", imp, tot, String.format(Locale.US, "%.2f", ratio));
-            } catch (Exception ignore) {}
-        } else if (useInternalVal) {
-            logger.info("[TRAIN][ACCEPT][STEP13] Données insuffisantes pour calcul acceptation (bestValLoss={} lastValLoss={})", bestValLoss, lastValLoss);
-        }
+        // ===== PHASES 5-6: SÉQUENCES NORMALISÉES DANS UN TENSEUR CONTIGU =====
 
-        // ===== STEP 21: VARIANCE DES PRÉDICTIONS (détection modèle plat) =====
-        Double residualVarStep21 = null; boolean flatAlert=false;
-        try {
-            // Recalcule prédictions sur l'ensemble train (XTrain ou X si fallback) avec modèle final retenu
-            org.nd4j.linalg.api.ndarray.INDArray XForVar = (useInternalVal ? XTrain : X); // XTrain défini plus haut
-            if (XForVar != null && XForVar.size(0) > 5) {
-                org.nd4j.linalg.api.ndarray.INDArray predNormAll = finalModel.output(XForVar, false);
-                int nPred = (int) predNormAll.size(0);
-                double[] residuals = new double[nPred];
-                for (int i = 0; i < nPred; i++) {
-                    double predNorm = predNormAll.getDouble(i);
-                    double predTarget = scalers.labelScaler.inverse(predNorm);
-                    // Reconstruction prix futur préd it
-                    // Index i correspond à séquence i: fenêtre couvrant closes[i .. i+windowSize-1], target = closes[i+windowSize]
-                    int baseIdx = i + windowSize - 1;
-                    int futureIdx = i + windowSize;
-                    if (futureIdx >= closes.length) break; // sécurité
-                    double baseClose = closes[baseIdx];
-                    double trueClose = closes[futureIdx];
-                    double predictedClose;
-                    if (config.isUseLogReturnTarget()) {
-                        // Si multi-horizon moyenne, on traite la moyenne comme log-return agrégé (approximation acceptable pour alerte platitude)
-                        predictedClose = baseClose * Math.exp(predTarget);
-                    } else {
-                        predictedClose = predTarget; // cible prix direct
-                    }
-                    double resid = predictedClose - trueClose;
-                    if (!Double.isFinite(resid)) resid = 0.0;
-                    residuals[i] = resid;
-                }
-                // Calcul variance
-                int m = 0; double meanR = 0.0; for (double r : residuals){ if (Double.isFinite(r)){ meanR += r; m++; } }
-                if (m > 0) meanR /= m; double var=0; for (double r: residuals){ if (Double.isFinite(r)){ double d=r-meanR; var += d*d; }}
-                if (m > 0) var /= m; residualVarStep21 = var;
-                double seuil = config.getPredictionResidualVarianceMin();
-                if (var < seuil) {
-                    flatAlert = true;
-                    logger.warn("[TRAIN][STEP21][ALERT] Variance résiduelle trop faible var={} < seuil={} => modèle potentiellement trop plat", String.format(Locale.US, "%.8g", var), String.format(Locale.US, "%.8g", seuil));
-                } else {
-                    logger.info("[TRAIN][STEP21] Variance résiduelle train var={} (seuil={})", String.format(Locale.US, "%.8g", var), String.format(Locale.US, "%.8g", seuil));
-                }
-            } else {
-                logger.debug("[TRAIN][STEP21] Skip calcul variance (jeu train insuffisant)");
+        // Fenêtres glissantes écrites directement au format LSTM [batch, features, time] ('c') :
+        // séquence i, feature f, pas t = colonne normalisée f à la barre i + t (mêmes valeurs que la normalisation
+        // valeur par valeur puis permute(0, 2, 1)), sans tableaux intermédiaires [numSeq][window][features]
+        double[] flat = new double[numSeq * numFeatures * windowSize];
+        int pos = 0;
+        for (int i = 0; i < numSeq; i++) {
+            for (int f = 0; f < numFeatures; f++) {
+                System.arraycopy(normCols[f], i, flat, pos, windowSize);
+                pos += windowSize;
             }
-        } catch (Exception e) {
-            logger.error("[TRAIN][STEP21][FAIL] {}", e.getMessage());
         }
+        org.nd4j.linalg.api.ndarray.INDArray X = Nd4j.create(flat, new long[]{numSeq, numFeatures, windowSize}, 'c');
 
-        // ===== PHASE 11: RETOUR DU RÉSULTAT FINAL =====
-        TrainResult tr = new TrainResult(finalModel, scalers, useInternalVal? bestValLoss: null, useInternalVal? lastValLoss: null, bestBetterThanLast);
-        tr.residualVariance = residualVarStep21; tr.flatModelAlert = flatAlert;
-        return tr;
+        // Normalisation des labels avec le scaler dédié
+        // (normLabels déjà calculé ci-dessus si besoin mais recalcul léger ok)
+        normLabels = scalers.labelScaler.transform(labelSeq);
+
+        // Conversion des labels en tenseur ND4J : [numSeq, 1] (régression scalaire)
+        org.nd4j.linalg.api.ndarray.INDArray y = Nd4j.create(normLabels, new long[]{numSeq, 1});
+
+        return new LstmTrainingDataSession.Prepared(X, y, scalers, closes);
     }
 
     /* =========================================================
@@ -2170,9 +2134,10 @@ public class LstmTradePredictor {
             );
 
             // Calcul MSE sur ce split out-of-sample
-            metrics.mse = computeSplitMse(series, testStartBar, testEndBar,
+            SplitMseResult splitMse = computeSplitMseResult(series, testStartBar, testEndBar,
                                         preTrainedModel, preTrainedScalers, config);
-            metrics.meanAbsPredDelta = lastComputedMeanAbsPredDelta.get();
+            metrics.mse = splitMse.mse;
+            metrics.meanAbsPredDelta = splitMse.meanAbsPredDelta;
 
             // Calcul du business score
             double businessScore = computeBusinessScore(
@@ -2237,6 +2202,13 @@ public class LstmTradePredictor {
         return result;
     }
 
+    /**
+     * Simulation de trading walk-forward sur [testStartBar, testEndBar].
+     * Mode précalculé (lstm.walkforward.precomputed=true, défaut) : features, normalisation et ATR/RSI/volume
+     * calculés une seule fois pour le split, prédictions par lots de fenêtres (coût linéaire).
+     * Sinon (ou en cas d'échec du mode précalculé) : predictTradeStyle sur chaque préfixe de la série (coût quadratique).
+     * Les deux modes rejouent la même logique de décision (applyTradeDecision) et la même gestion de position.
+     */
     public TradingMetricsV2 simulateTradingWalkForwardBis(
             BarSeries fullSeries,
             int testStartBar,
@@ -2245,6 +2217,94 @@ public class LstmTradePredictor {
             ScalerSet scalers,
             LstmConfig config
     ) {
+        boolean scalersComplete = scalers != null && scalers.featureScalers != null && scalers.labelScaler != null
+                && scalers.featureScalers.size() == config.getFeatures().size();
+        if (walkForwardPrecomputed && model != null && scalersComplete) {
+            try {
+                return simulateTradingWalkForwardPrecomputed(fullSeries, testStartBar, testEndBar, model, scalers, config);
+            } catch (Exception e) {
+                logger.warn("[simulateTradingWalkForwardBis] Mode précalculé en échec ({}), repli barre par barre", e.toString());
+            }
+        }
+        return simulateTradingWalkForwardPerBar(fullSeries, testStartBar, testEndBar, model, scalers, config);
+    }
+
+    /**
+     * Mode historique : une prédiction predictTradeStyle complète par barre de test (sous-série [0, i]).
+     */
+    TradingMetricsV2 simulateTradingWalkForwardPerBar(BarSeries fullSeries, int testStartBar, int testEndBar,
+                                                      MultiLayerNetwork model, ScalerSet scalers, LstmConfig config) {
+        return replayTradingWalkForward(fullSeries, testStartBar, testEndBar, config, computeAtrValues(fullSeries),
+                bar -> predictTradeStyle("", fullSeries.getSubSeries(0, bar + 1), config, model, scalers));
+    }
+
+    /**
+     * Mode précalculé : les features étant causales (la ligne i ne dépend que des barres [0, i]), une seule
+     * extraction sur la série complète remplace l'extraction de chaque préfixe. Les fenêtres normalisées de
+     * toutes les barres de test passent dans le modèle par lots (predictNextClosesBatch), puis la logique
+     * de décision est rejouée sur les tableaux précalculés. Décisions identiques au mode barre par barre,
+     * à l'arrondi float près de l'inférence par lot.
+     */
+    TradingMetricsV2 simulateTradingWalkForwardPrecomputed(BarSeries fullSeries, int testStartBar, int testEndBar,
+                                                           MultiLayerNetwork model, ScalerSet scalers, LstmConfig config) {
+        int n = fullSeries.getBarCount();
+        int window = config.getWindowSize();
+        int lastBar = Math.min(testEndBar, n - 1);
+        double[] closes = extractCloseValues(fullSeries);
+        double[] volumes = new double[n];
+        for (int i = 0; i < n; i++) volumes[i] = fullSeries.getBar(i).getVolume().doubleValue();
+        double[] atrValues = computeAtrValues(fullSeries);
+        double[] rsiValues = new double[n];
+        try {
+            RSIIndicator rsiAll = new RSIIndicator(new ClosePriceIndicator(fullSeries), 14);
+            for (int i = 0; i < n; i++) rsiValues[i] = rsiAll.getValue(i).doubleValue();
+        } catch (Exception e) { Arrays.fill(rsiValues, 50); }
+
+        // Prédictions par lots (même disposition que predictNextCloseScalarFast)
+        double[] predicted = new double[n];
+        int firstPredictable = Math.max(testStartBar, window + 2);
+        if (firstPredictable <= lastBar) {
+            double[] batch = predictNextClosesBatch(fullSeries, firstPredictable, lastBar, model, scalers, config);
+            System.arraycopy(batch, 0, predicted, firstPredictable, batch.length);
+        }
+        logger.debug("[WALK-FORWARD][PRECOMPUTED] split=[{},{}] predictions={}",
+                testStartBar, testEndBar, Math.max(0, lastBar - firstPredictable + 1));
+
+        return replayTradingWalkForward(fullSeries, testStartBar, testEndBar, config, atrValues, bar -> {
+            TradeStylePrediction out = new TradeStylePrediction();
+            double lastClose = closes[bar];
+            out.lastClose = lastClose;
+            if (bar + 1 <= window + 2) {
+                out.predictedClose = lastClose; out.tendance = "STABLE"; out.action = "HOLD"; out.comment = "insuffisant";
+                return out;
+            }
+            out.predictedClose = predicted[bar];
+            double atrPct = lastClose > 0 ? atrValues[bar] / lastClose : 0;
+            // Volume relatif : volume courant vs moyenne des 20 dernières barres (même sommation que predictTradeStyle)
+            double sumVol = 0.0; int count = 0;
+            for (int i = Math.max(0, bar - 19); i <= bar; i++) { sumVol += volumes[i]; count++; }
+            double avgVol = count > 0 ? sumVol / count : volumes[bar];
+            double volRatio = avgVol > 0 ? volumes[bar] / avgVol : 1.0;
+            applyTradeDecision(out, config, lastClose, predicted[bar], atrPct, rsiValues[bar], volRatio, rsiValues, bar, fullSeries);
+            return out;
+        });
+    }
+
+    private double[] computeAtrValues(BarSeries series) {
+        double[] atr = new double[series.getBarCount()];
+        try {
+            ATRIndicator atrInd = new ATRIndicator(series, 14);
+            for (int i = 0; i < atr.length; i++) atr[i] = atrInd.getValue(i).doubleValue();
+        } catch (Exception e) { logger.debug("[WALK-FORWARD][ATR] skip {}", e.toString()); }
+        return atr;
+    }
+
+    /**
+     * Gestion de position (entrées BUY, sorties SELL, sorties forcées stop/take profit) et métriques du split.
+     * @param predictionAt prédiction pour l'index de barre (borné à la dernière barre de la série)
+     */
+    private TradingMetricsV2 replayTradingWalkForward(BarSeries fullSeries, int testStartBar, int testEndBar, LstmConfig config,
+                                                      double[] atrValues, java.util.function.IntFunction<TradeStylePrediction> predictionAt) {
         TradingMetricsV2 tm = new TradingMetricsV2();
         boolean inPosition = false;
         double entryPrice = 0.0;
@@ -2266,10 +2326,12 @@ public class LstmTradePredictor {
         int meanAbsPredDeltaCount = 0;
         List<Double> equityCurve = new ArrayList<>();
         double currentEquity = capital;
+        int lastIndex = closes.length - 1;
         for (int i = testStartBar; i <= testEndBar; i++) {
-            BarSeries subSeries = fullSeries.getSubSeries(0, i + 1);
-            TradeStylePrediction pred = predictTradeStyle("", subSeries, config, model, scalers);
-            double close = subSeries.getLastBar().getClosePrice().doubleValue();
+            // getSubSeries(0, i + 1) est borné à la série : au-delà de la dernière barre on rejoue celle-ci
+            int bar = Math.min(i, lastIndex);
+            TradeStylePrediction pred = predictionAt.apply(bar);
+            double close = closes[bar];
             double predicted = pred.predictedClose;
             if (Double.isFinite(predicted) && close != 0.0) {
                 meanAbsPredDeltaSum += Math.abs(predicted - close) / close;
@@ -2307,11 +2369,7 @@ public class LstmTradePredictor {
                     entryPrice = close;
                     barsInPos = 0;
                     // Calcul du stop et positionSize
-                    double atr = 0.0;
-                    try {
-                        ATRIndicator atrInd = new ATRIndicator(subSeries, 14);
-                        atr = atrInd.getValue(subSeries.getEndIndex()).doubleValue();
-                    } catch (Exception e) {}
+                    double atr = atrValues[bar];
                     double stopDistance = atr > 0 ? atr : entryPrice * 0.01;
                     stopLoss = entryPrice - stopDistance;
                     initialRiskPerShare = entryPrice - stopLoss;
@@ -2451,44 +2509,121 @@ public class LstmTradePredictor {
         return tm;
     }
 
+    /**
+     * Erreurs de prédiction d'un split : MSE et amplitude moyenne des prédictions.
+     */
+    public static class SplitMseResult implements Serializable {
+        /** MSE (NaN si aucun point) */
+        public double mse = Double.NaN;
+        /** Moyenne |pred - close_{t-1}| / close_{t-1} */
+        public double meanAbsPredDelta;
+        /** Nombre de points pris en compte dans le MSE */
+        public int count;
+    }
+
     /**
      * Calcule le MSE sur un intervalle (test) en réutilisant la logique de prédiction.
      *
      * @return MSE ou NaN si pas de points.
      */
     public double computeSplitMse(BarSeries series, int testStartBar, int testEndBar, MultiLayerNetwork model, ScalerSet scalers, LstmConfig config) {
-        int window = config.getWindowSize();
+        return computeSplitMseResult(series, testStartBar, testEndBar, model, scalers, config).mse;
+    }
+
+    /**
+     * MSE et amplitude des prédictions sur [testStartBar, testEndBar[ : une seule extraction de features,
+     * toutes les fenêtres passent dans le modèle par lots (predictNextClosesBatch).
+     * La prédiction du close t utilise les barres [0, t-1] (mêmes points que la version barre par barre).
+     */
+    public SplitMseResult computeSplitMseResult(BarSeries series, int testStartBar, int testEndBar, MultiLayerNetwork model, ScalerSet scalers, LstmConfig config) {
+        double[] closes = extractCloseValues(series);
+        int first = Math.max(testStartBar, config.getWindowSize() + 1); // si log-return => besoin de t-1
+        int last = Math.min(testEndBar, closes.length) - 1;
+        if (first > last) {
+            return new SplitMseResult();
+        }
+        double[] preds = predictNextClosesBatch(series, first - 1, last - 1, model, scalers, config);
+        return splitErrors(preds, closes, first);
+    }
+
+    /**
+     * Agrège les erreurs : preds[k] est la prédiction du close (first + k), la référence d'amplitude le close précédent.
+     */
+    static SplitMseResult splitErrors(double[] preds, double[] closes, int first) {
         double se = 0;
         int count = 0;
-        double[] closes = extractCloseValues(series);
-        // Pour amplitude
         double sumAbsPredDelta = 0; int countAmp = 0;
-
-        for (int t = testStartBar; t < testEndBar; t++) {
-            if (t - window < 1) continue; // si log-return => besoin de t-1
-            BarSeries sub = series.getSubSeries(0, t); // exclut t (label à t)
-            double pred = predictNextCloseScalarFast(sub, config, model, scalers);
-            double actual = closes[t];
+        for (int k = 0; k < preds.length; k++) {
+            double pred = preds[k];
+            double actual = closes[first + k];
             if (Double.isFinite(pred) && Double.isFinite(actual)) {
                 double diff = pred - actual;
                 se += diff * diff;
                 count++;
             }
             // Amplitude par rapport au dernier close disponible (t-1)
-            double ref = closes[t-1];
+            double ref = closes[first + k - 1];
             if (Double.isFinite(pred) && Double.isFinite(ref) && ref != 0) {
                 sumAbsPredDelta += Math.abs(pred - ref) / ref;
                 countAmp++;
             }
         }
-        double mse = count > 0 ? se / count : Double.NaN;
-        // Injection amplitude dans dernier split metrics si accessible via thread local? -> Simplifié: on stocke dans ThreadLocal static
-        lastComputedMeanAbsPredDelta.set(countAmp>0? sumAbsPredDelta / countAmp : 0.0);
-        return mse;
+        SplitMseResult r = new SplitMseResult();
+        r.mse = count > 0 ? se / count : Double.NaN;
+        r.meanAbsPredDelta = countAmp > 0 ? sumAbsPredDelta / countAmp : 0.0;
+        r.count = count;
+        return r;
     }
 
-    // ThreadLocal pour laisser computeSplitMse communiquer l'amplitude au caller (évite refactor large signature)
-    private static final ThreadLocal<Double> lastComputedMeanAbsPredDelta = ThreadLocal.withInitial(() -> 0.0);
+    /**
+     * Prédiction du prochain close pour chaque barre b de [fromBar, toBar], équivalente à
+     * predictNextCloseScalarFast(series.getSubSeries(0, b + 1), ...) : les features étant causales, une seule
+     * extraction sur la série suffit, et les fenêtres [b - window + 1, b] sont envoyées au modèle par lots
+     * de walkForwardPredictBatchSize (tenseur [lot, features, window]). Égalité à l'arrondi float près.
+     *
+     * @return tableau de taille toBar - fromBar + 1 (vide si toBar < fromBar)
+     */
+    public double[] predictNextClosesBatch(BarSeries series, int fromBar, int toBar, MultiLayerNetwork model, ScalerSet scalers, LstmConfig config) {
+        List<String> features = config.getFeatures();
+        int window = config.getWindowSize();
+        int numFeatures = features.size();
+        int n = series.getBarCount();
+        if (toBar < fromBar) return new double[0];
+        if (fromBar < window || toBar >= n) {
+            throw new IllegalArgumentException("Plage [" + fromBar + "," + toBar + "] hors de [" + window + "," + (n - 1) + "]");
+        }
+        double[] closes = extractCloseValues(series);
+        // Matrice de features normalisée, rangée par colonne pour copier les fenêtres d'un bloc
+        double[][] matrix = extractFeatureMatrix(series, features);
+        double[][] normCols = new double[numFeatures][];
+        for (int f = 0; f < numFeatures; f++) {
+            double[] col = new double[toBar + 1];
+            for (int i = 0; i <= toBar; i++) col[i] = matrix[i][f];
+            normCols[f] = scalers.featureScalers.get(features.get(f)).transform(col);
+        }
+
+        double[] predicted = new double[toBar - fromBar + 1];
+        int batchSize = Math.max(1, walkForwardPredictBatchSize);
+        for (int start = fromBar; start <= toBar; start += batchSize) {
+            int size = Math.min(batchSize, toBar - start + 1);
+            double[] data = new double[size * numFeatures * window];
+            for (int k = 0; k < size; k++) {
+                int from = start + k - window + 1;
+                int base = k * numFeatures * window;
+                for (int f = 0; f < numFeatures; f++) {
+                    System.arraycopy(normCols[f], from, data, base + f * window, window);
+                }
+            }
+            org.nd4j.linalg.api.ndarray.INDArray input = Nd4j.create(data, new long[]{size, numFeatures, window}, 'c');
+            double[] output = model.output(input).reshape(size).toDoubleVector();
+            for (int k = 0; k < size; k++) {
+                int bar = start + k;
+                double predTarget = scalers.labelScaler.inverse(output[k]);
+                predicted[bar - fromBar] = config.isUseLogReturnTarget() ? closes[bar] * Math.exp(predTarget) : predTarget;
+            }
+        }
+        return predicted;
+    }
 
     /* =========================================================
      *                DRIFT DETECTION (STATISTIQUE)
@@ -2677,6 +2812,14 @@ public class LstmTradePredictor {
      * @return Objet PreditLsdm (DTO)
      */
     public PreditLsdm getPredit(BarSeries series, LstmConfig config, MultiLayerNetwork model, ScalerSet scalers) {
+        return getPredit(null, series, config, model, scalers);
+    }
+
+    /**
+     * Idem getPredit(series, ...) ; avec un symbole, la prédiction passe par predictNextCloseStreaming
+     * (état LSTM conservé entre les appels quotidiens).
+     */
+    public PreditLsdm getPredit(String symbol, BarSeries series, LstmConfig config, MultiLayerNetwork model, ScalerSet scalers) {
         int window = config.getWindowSize();
         if (series.getBarCount() <= window + 1) {
             double last = series.getLastBar().getClosePrice().doubleValue();
@@ -2689,6 +2832,8 @@ public class LstmTradePredictor {
                 .build();
         }
 
+        // Modèle ou scalers reconstruits : pas d'état en flux (objets différents à chaque appel)
+        boolean streaming = symbol != null && model != null && scalers != null;
         model = ensureModelWindowSize(model, config.getFeatures().size(), config);
         if (scalers == null) {
             scalers = rebuildScalers(series, config);
@@ -2696,7 +2841,9 @@ public class LstmTradePredictor {
 
         // Seuil swing de base (ATR ou returns selon config)
         double th = computeSwingTradeThreshold(series, config);
-        double predicted = predictNextCloseWithScalerSet(series, config, model, scalers);
+        double predicted = streaming
+            ? predictNextCloseStreaming(symbol, series, config, model, scalers)
+            : predictNextCloseWithScalerSet(series, config, model, scalers);
         predicted = Math.round(predicted * 1000.0) / 1000.0;
 
         double[] closes = extractCloseValues(series);
@@ -2864,16 +3011,27 @@ public class LstmTradePredictor {
         String scalersJson = mapper.writeValueAsString(scalers);
         double rendement = config.getCapital() > 0 ? (sumProfit / config.getCapital()) : 0.0;
 
-        String sql = "REPLACE INTO lstm_models (symbol, model_blob, hyperparams_json, normalization_scope, scalers_json, mse, profit_factor, " +
+        // Binaire dans le store adressé par contenu ; lstm_models ne garde que la référence
+        String modelSha256 = LstmModelBlobStore.save(jdbcTemplate, modelBytes);
+
+        // Modèle fine-tuné depuis un modèle de base : version tracée (null = entraîné depuis zéro)
+        Long baseModelVersion = baseModelRegistry.versionOf(model);
+
+        String sql = "REPLACE INTO lstm_models (symbol, model_sha256, hyperparams_json, normalization_scope, scalers_json, mse, profit_factor, " +
                 "win_rate, max_drawdown, rmse, sum_profit, total_trades, business_score, total_series_tested, rendement, " +
-                "phase_grid, number_grid, phase_1_top_n, phase_1_top_n_label, holdOut, tuning_result_json, ratio, updated_date) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?, CURRENT_TIMESTAMP)";
-        jdbcTemplate.update(sql, symbol, modelBytes, hyperparamsJson, config.getNormalizationScope(),
+                "phase_grid, number_grid, phase_1_top_n, phase_1_top_n_label, holdOut, tuning_result_json, ratio, base_model_version, updated_date) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?, CURRENT_TIMESTAMP)";
+        jdbcTemplate.update(sql, symbol, modelSha256, hyperparamsJson, config.getNormalizationScope(),
                 scalersJson, mse, profitFactor, winRate, maxDrawdown, rmse, sumProfit, totalTrades, businessScore, totalSeriesTested, rendement,
-                phase_grid, number_grid, phase_1_top_n, phase_1_top_n_label, holdOut, tuningResult, ratio);
+                phase_grid, number_grid, phase_1_top_n, phase_1_top_n_label, holdOut, tuningResult, ratio, baseModelVersion);
+        // Nouveau modèle : les entrées du registre pour ce symbole ne reflètent plus forcément la meilleure ligne
+        modelRegistry.invalidate(symbol);
+        streamingPredictor.invalidate(symbol);
     }
 
     /**
      * Charge modèle + scalers (JSON) + hyperparams.
+     * Servi par le registre mémoire (modelRegistry) tant que la ligne retenue (id, updated_date) est inchangée :
+     * pas de relecture de model_blob ni de désérialisation. L'objet retourné est une copie propre à l'appelant.
      */
     public LoadedModel loadModelAndScalersFromDb(String symbol, String index, JdbcTemplate jdbcTemplate) throws IOException {
 
@@ -2881,13 +3039,31 @@ public class LstmTradePredictor {
         if("classement".equals(index)){
             index = "business_score";
         }
-        String sql = "SELECT * FROM lstm_models WHERE symbol = ? order by "+ index +" desc limit 1";
+        // Ligne retenue, sans model_blob : id + updated_date valident l'entrée du registre
+        String headSql = "SELECT id, updated_date FROM lstm_models WHERE symbol = ? order by "+ index +" desc limit 1";
+        long id;
+        long version;
+        try {
+            Map<String,Object> head = jdbcTemplate.queryForMap(headSql, symbol);
+            id = ((Number) head.get("id")).longValue();
+            version = head.get("updated_date") instanceof java.util.Date ? ((java.util.Date) head.get("updated_date")).getTime() : 0L;
+        } catch (EmptyResultDataAccessException e) {
+            throw new IOException("Modèle non trouvé");
+        }
+        LoadedModel registered = modelRegistry.get(symbol, index, id, version);
+        if (registered != null) {
+            return registered;
+        }
+        // Métadonnées seules : le binaire est lu à part (store adressé par contenu, ou colonne historique)
+        String sql = "SELECT model_sha256, hyperparams_json, scalers_json, tuning_result_json, rendement, total_series_tested, total_trades, " +
+                "business_score, sum_profit, max_drawdown, win_rate, profit_factor, ratio, phase_grid FROM lstm_models WHERE id = ?";
 
         try {
-            Map<String,Object> result = jdbcTemplate.queryForMap(sql, symbol);
+            Map<String,Object> result = jdbcTemplate.queryForMap(sql, id);
 
             // Récupération sécurisée des colonnes
-            Object modelBlobObj = result.get("model_blob");
+            Object modelSha256 = result.get("model_sha256");
+            Object modelBlobObj = LstmModelBlobStore.loadForModel(jdbcTemplate, modelSha256, id);
             //byte[] modelBlob = modelBlobObj instanceof byte[] ? (byte[]) modelBlobObj : null;
 
             byte[] modelBlob = null;
@@ -3027,7 +3203,7 @@ public class LstmTradePredictor {
             lm.ratio = Double.isFinite(ratio) ? ratio : 0.0;
             lm.phase = (int) Math.round(Double.isFinite(phaseD) ? phaseD : 0.0);
 
-            return lm;
+            return modelRegistry.put(symbol, index, id, version, lm);
 
         } catch (EmptyResultDataAccessException e) {
             throw new IOException("Modèle non trouvé");
@@ -3074,6 +3250,26 @@ public class LstmTradePredictor {
         public LstmConfig config;
         public int phase;
         public LoadedModel(){}
+
+        /** Copie superficielle : réseau, scalers, config et résultat de tuning partagés */
+        public LoadedModel copy() {
+            LoadedModel c = new LoadedModel();
+            c.model = model;
+            c.scalers = scalers;
+            c.rendement = rendement;
+            c.totalSerieTested = totalSerieTested;
+            c.totalTrades = totalTrades;
+            c.businnesScore = businnesScore;
+            c.sumProfil = sumProfil;
+            c.maxDrawdown = maxDrawdown;
+            c.winRate = winRate;
+            c.profitFactor = profitFactor;
+            c.ratio = ratio;
+            c.resultTuning = resultTuning;
+            c.config = config;
+            c.phase = phase;
+            return c;
+        }
     }
 
     /* =========================================================
@@ -3239,7 +3435,7 @@ public class LstmTradePredictor {
         LstmTradePredictor predictor = new LstmTradePredictor(null, null);
         // Construire une sous-série initiale (au moins 501 barres dans fullbars attendu)
         int initialBars = Math.min(500, fullbars.getBarCount() - 2); // garde 1+ barres pour ajout
-        BarSeries series = new BaseBarSeriesBuilder().withName(symbol).build();
+        BarSeries series = new BaseBarSeriesBuilder().withName(symbol).withNumTypeOf(fullbars).build();
         for (int i = 0; i < initialBars; i++) series.addBar(fullbars.getBar(i));
 
         // Helpers checksum
@@ -3351,9 +3547,10 @@ public class LstmTradePredictor {
             out.lastClose = lastClose;
             // Prédiction principale
             java.util.Random rand = new java.util.Random();
-            double predicted = predictNextCloseScalarFast(series, config, model, scalers);
+            double predicted = (rebuiltModel || rebuiltScalers)
+                ? predictNextCloseScalarFast(series, config, model, scalers)
+                : predictNextCloseStreaming(symbol, series, config, model, scalers);
             out.predictedClose = predicted;
-            double rawDeltaPct = (lastClose > 0) ? (predicted - lastClose) / lastClose : 0.0;
 
             // Correction : gestion NaN ou modèle non entraîné pour cas contrarien
             if (!Double.isFinite(predicted)) {
@@ -3398,110 +3595,30 @@ public class LstmTradePredictor {
                 if (avgVol > 0) volRatio = curVol / avgVol;
             } catch (Exception e) { logger.debug("[PREDIT][VOL] skip {}", e.toString()); }
 
-        // Seuil ATR adaptatif (min/max)
-        double cfgMinTh = config.getThresholdAtrMin(); if (!(cfgMinTh > 0)) cfgMinTh = 0.001; if (cfgMinTh < 1e-4) cfgMinTh = 1e-4;
-        double cfgMaxTh = config.getThresholdAtrMax(); if (!(cfgMaxTh > cfgMinTh)) cfgMaxTh = Math.max(cfgMinTh*2, 0.01);
-        double atrAdaptiveThreshold = Math.min(cfgMaxTh, Math.max(cfgMinTh, atrPct));
-
-        // Paramètres d'entrée avancés (mêmes noms que simulation)
-        double basePercentileQ = Math.min(0.95, Math.max(0.50, config.getEntryPercentileQuantile()));
-        double deltaFloor = Math.max(0.0002, config.getEntryDeltaFloor());
-        boolean orLogic = config.isEntryOrLogic();
-        double aggressivenessBoost = config.getAggressivenessBoost() > 0 ? config.getAggressivenessBoost() : 1.0;
-
-        // Distribution historique des deltas prédits (approx) sur N dernières barres pour percentile
-        int lookbackForPercentile = Math.min(100, barCount - window - 2); // réduit à 100 pour accélérer
-        List<Double> absDeltas = new ArrayList<>();
-        /*if (lookbackForPercentile > 20) {
-                Collections.sort(absDeltas);
-                int start = barCount - lookbackForPercentile - 1;
-                double[] closes = extractCloseValues(series);
-                // Échantillonnage : une barre sur deux
-                for (int b = start + window; b < barCount - 1; b += 2) { // step=2 pour accélérer
-                    try {
-                        BarSeries sub = series.getSubSeries(0, b + 1);
-                        double prevClose = closes[b];
-                        double predB = predictNextCloseScalarFast(sub, config, model, scalers);
-                        if (prevClose > 0 && Double.isFinite(predB)) {
-                            double d = Math.abs((predB - prevClose) / prevClose);
-                            if (Double.isFinite(d)) absDeltas.add(d);
-                        }
-                    } catch (Exception ignore) { }
-                }
-            }*/
-            double entryPercentileThreshold;
-            if (absDeltas.size() >= 32) {
-                int idx = (int)Math.floor(basePercentileQ * (absDeltas.size()-1));
-                if (idx < 0) idx = 0; if (idx >= absDeltas.size()) idx = absDeltas.size()-1;
-                entryPercentileThreshold = Math.max(absDeltas.get(idx), deltaFloor);
-            } else {
-                entryPercentileThreshold = deltaFloor;
-            }
-            out.percentileThreshold = entryPercentileThreshold;
-
-            // Signal strength + contrarian éventuel (logique proche simulation)
-            double signalStrength = rawDeltaPct * aggressivenessBoost;
-            // Construire rsiValues pour appel evaluateContrarian
+            // Décision (seuils, contrarian, filtres) : logique partagée avec la simulation walk-forward précalculée
             double[] rsiValues = new double[barCount];
             try {
                 RSIIndicator rsiAll = new RSIIndicator(new ClosePriceIndicator(series), 14);
                 for (int i=0;i<barCount;i++) rsiValues[i] = rsiAll.getValue(i).doubleValue();
             } catch (Exception e){ Arrays.fill(rsiValues, rsiVal); }
-            ContrarianDecision contrarian = evaluateContrarian(signalStrength, lastClose, rsiValues, barCount-1, series.getSubSeries(Math.max(0, barCount-50), barCount));
-            if (contrarian.active) {
-                signalStrength = contrarian.adjustedSignalStrength;
-                out.contrarianAdjusted = true;
-                out.contrarianReason = contrarian.reason;
-            }
-            out.signalStrength = signalStrength;
-
-            // Filtres RSI/Volume (mêmes que simulation pour l'entrée)
-            boolean rsiFilter = rsiVal > config.getRsiOverboughtLimit();
-            boolean volumeFilter = !(volRatio >= config.getVolumeMinRatio());
+            boolean enter = applyTradeDecision(out, config, lastClose, predicted, atrPct, rsiVal, volRatio, rsiValues, barCount - 1, series);
+            logger.info("[DEBUG][TRADE] bar={} action={} rawDeltaPct={} threshold={}", barCount, out.action, out.deltaPct, out.thresholdAtrAdaptive);
 
-            boolean enter = !rsiFilter && !volumeFilter && (
-                    orLogic ? (signalStrength > entryPercentileThreshold || signalStrength > atrAdaptiveThreshold)
-                            : (signalStrength > entryPercentileThreshold && signalStrength > atrAdaptiveThreshold)
-            );
-
-            // Tendance brute (au-dessus / en-dessous seuil principal)
-            String tendance;
-            if (rawDeltaPct > atrAdaptiveThreshold) tendance = "UP"; else if (rawDeltaPct < -atrAdaptiveThreshold) tendance = "DOWN"; else tendance = "STABLE";
-            out.tendance = tendance;
-
-            // Action décisionnelle
-            String action;
-            double sellThreshold = Math.max(0.001, config.getThresholdAtrMin() * 0.5);
-            if (enter && signalStrength > 0) action = "BUY";
-            else if (rawDeltaPct < -sellThreshold) action = "SELL"; // signal de faiblesse
-            else action = "HOLD";
-            out.action = action;
-            logger.info("[DEBUG][TRADE] bar={} action={} rawDeltaPct={} threshold={}", barCount, action, rawDeltaPct, atrAdaptiveThreshold);
-
-            out.deltaPct = rawDeltaPct;
-            out.atrPct = atrPct;
-            out.rsi = rsiVal;
-            out.volumeRatio = volRatio;
-            out.thresholdAtrAdaptive = atrAdaptiveThreshold;
-            out.entryLogicOr = orLogic;
-            out.rsiFiltered = rsiFilter;
-            out.volumeFiltered = volumeFilter;
-            out.aggressivenessBoost = aggressivenessBoost;
             out.symbol = symbol;
             out.windowSize = window;
             out.comment = String.format(java.util.Locale.US,
                     "rawDelta=%.4f%% sig=%.4f thrATR=%.4f thrPct=%.4f rsi=%.1f volR=%.2f enter=%s",
-                    rawDeltaPct*100, signalStrength, atrAdaptiveThreshold, entryPercentileThreshold, rsiVal, volRatio, enter);
+                    out.deltaPct*100, out.signalStrength, out.thresholdAtrAdaptive, out.percentileThreshold, rsiVal, volRatio, enter);
 
             logger.info("[PRED-TRADE] win={} last={} pred={} delta={} ({}%) thr={} ({}) signal={} conf={} rsi={} volR={} atrPct={}",
                     symbol,
                     String.format(java.util.Locale.US, "%.4f", lastClose),
                     String.format(java.util.Locale.US, "%.4f", predicted),
-                    String.format(java.util.Locale.US, "%.4f", rawDeltaPct*100),
-                    tendance, action,
-                    String.format(java.util.Locale.US, "%.5f", signalStrength),
-                    String.format(java.util.Locale.US, "%.5f", atrAdaptiveThreshold),
-                    String.format(java.util.Locale.US, "%.5f", entryPercentileThreshold),
+                    String.format(java.util.Locale.US, "%.4f", out.deltaPct*100),
+                    out.tendance, out.action,
+                    String.format(java.util.Locale.US, "%.5f", out.signalStrength),
+                    String.format(java.util.Locale.US, "%.5f", out.thresholdAtrAdaptive),
+                    String.format(java.util.Locale.US, "%.5f", out.percentileThreshold),
                     String.format(java.util.Locale.US, "%.1f", rsiVal),
                     String.format(java.util.Locale.US, "%.2f", volRatio),
                     String.format(java.util.Locale.US, "%.3f", atrPct * 100.0)
@@ -3514,6 +3631,87 @@ public class LstmTradePredictor {
         return out;
     }
 
+    /**
+     * Logique décisionnelle de predictTradeStyle à partir de valeurs déjà calculées (prix, ATR, RSI, volume).
+     * Partagée entre la prédiction snapshot et la simulation walk-forward précalculée pour garantir des décisions identiques.
+     *
+     * @param rsiValues RSI(14) de la série jusqu'à bar au moins
+     * @param bar index de la barre courante dans series
+     * @param series série contenant la barre courante (bougies récentes utilisées pour le support contrarian)
+     * @return true si les conditions d'entrée sont réunies
+     */
+    private boolean applyTradeDecision(TradeStylePrediction out, LstmConfig config, double lastClose, double predicted,
+                                       double atrPct, double rsiVal, double volRatio, double[] rsiValues, int bar, BarSeries series) {
+        double rawDeltaPct = (lastClose > 0) ? (predicted - lastClose) / lastClose : 0.0;
+
+        // Seuil ATR adaptatif (min/max)
+        double cfgMinTh = config.getThresholdAtrMin(); if (!(cfgMinTh > 0)) cfgMinTh = 0.001; if (cfgMinTh < 1e-4) cfgMinTh = 1e-4;
+        double cfgMaxTh = config.getThresholdAtrMax(); if (!(cfgMaxTh > cfgMinTh)) cfgMaxTh = Math.max(cfgMinTh*2, 0.01);
+        double atrAdaptiveThreshold = Math.min(cfgMaxTh, Math.max(cfgMinTh, atrPct));
+
+        // Paramètres d'entrée avancés (mêmes noms que simulation)
+        double basePercentileQ = Math.min(0.95, Math.max(0.50, config.getEntryPercentileQuantile()));
+        double deltaFloor = Math.max(0.0002, config.getEntryDeltaFloor());
+        boolean orLogic = config.isEntryOrLogic();
+        double aggressivenessBoost = config.getAggressivenessBoost() > 0 ? config.getAggressivenessBoost() : 1.0;
+
+        // Distribution historique des deltas prédits : échantillonnage désactivé (coût d'une prédiction par barre),
+        // le seuil percentile retombe sur deltaFloor
+        List<Double> absDeltas = new ArrayList<>();
+        double entryPercentileThreshold;
+        if (absDeltas.size() >= 32) {
+            int idx = (int)Math.floor(basePercentileQ * (absDeltas.size()-1));
+            if (idx < 0) idx = 0; if (idx >= absDeltas.size()) idx = absDeltas.size()-1;
+            entryPercentileThreshold = Math.max(absDeltas.get(idx), deltaFloor);
+        } else {
+            entryPercentileThreshold = deltaFloor;
+        }
+        out.percentileThreshold = entryPercentileThreshold;
+
+        // Signal strength + contrarian éventuel (logique proche simulation)
+        double signalStrength = rawDeltaPct * aggressivenessBoost;
+        ContrarianDecision contrarian = evaluateContrarian(signalStrength, lastClose, rsiValues, bar, series.getSubSeries(Math.max(0, bar + 1 - 50), bar + 1));
+        if (contrarian.active) {
+            signalStrength = contrarian.adjustedSignalStrength;
+            out.contrarianAdjusted = true;
+            out.contrarianReason = contrarian.reason;
+        }
+        out.signalStrength = signalStrength;
+
+        // Filtres RSI/Volume (mêmes que simulation pour l'entrée)
+        boolean rsiFilter = rsiVal > config.getRsiOverboughtLimit();
+        boolean volumeFilter = !(volRatio >= config.getVolumeMinRatio());
+
+        boolean enter = !rsiFilter && !volumeFilter && (
+                orLogic ? (signalStrength > entryPercentileThreshold || signalStrength > atrAdaptiveThreshold)
+                        : (signalStrength > entryPercentileThreshold && signalStrength > atrAdaptiveThreshold)
+        );
+
+        // Tendance brute (au-dessus / en-dessous seuil principal)
+        String tendance;
+        if (rawDeltaPct > atrAdaptiveThreshold) tendance = "UP"; else if (rawDeltaPct < -atrAdaptiveThreshold) tendance = "DOWN"; else tendance = "STABLE";
+        out.tendance = tendance;
+
+        // Action décisionnelle
+        String action;
+        double sellThreshold = Math.max(0.001, config.getThresholdAtrMin() * 0.5);
+        if (enter && signalStrength > 0) action = "BUY";
+        else if (rawDeltaPct < -sellThreshold) action = "SELL"; // signal de faiblesse
+        else action = "HOLD";
+        out.action = action;
+
+        out.deltaPct = rawDeltaPct;
+        out.atrPct = atrPct;
+        out.rsi = rsiVal;
+        out.volumeRatio = volRatio;
+        out.thresholdAtrAdaptive = atrAdaptiveThreshold;
+        out.entryLogicOr = orLogic;
+        out.rsiFiltered = rsiFilter;
+        out.volumeFiltered = volumeFilter;
+        out.aggressivenessBoost = aggressivenessBoost;
+        return enter;
+    }
+
     /**
      * Version optimisée/minimale : retourne juste le prix prédit sans limitation, logs, ni ajustements.
      * Prérequis : model, config et scalers sont valides et cohérents.
@@ -3543,6 +3741,29 @@ public class LstmTradePredictor {
         }
         org.nd4j.linalg.api.ndarray.INDArray input = Nd4j.create(seq).permute(0, 2, 1).dup('c');
         double predNorm = model.output(input).getDouble(0);
+        return toPredictedClose(predNorm, series, config, scalers);
+    }
+
+    /**
+     * Variante en flux de predictNextCloseScalarFast pour la prédiction quotidienne d'un symbole : l'état LSTM est
+     * conservé entre appels (LstmStreamingPredictor), chaque nouvelle barre coûte un pas de temps, avec
+     * resynchronisation fenêtre complète périodique. Repli sur predictNextCloseScalarFast si désactivé, sans symbole
+     * ou réseau bidirectionnel.
+     */
+    public double predictNextCloseStreaming(String symbol, BarSeries series, LstmConfig config, MultiLayerNetwork model, ScalerSet scalers) {
+        if (!streamingEnabled || symbol == null || symbol.isBlank() || !LstmStreamingPredictor.isStreamable(model)) {
+            return predictNextCloseScalarFast(series, config, model, scalers);
+        }
+        if (series.getBarCount() <= config.getWindowSize()) {
+            throw new IllegalArgumentException("Pas assez de barres: " + series.getBarCount() + " <= " + config.getWindowSize());
+        }
+        double[][] matrix = extractFeatureMatrix(series, config.getFeatures());
+        double predNorm = streamingPredictor.output(symbol, series, matrix, config, model, scalers);
+        return toPredictedClose(predNorm, series, config, scalers);
+    }
+
+    // Sortie normalisée du modèle -> prix de clôture prédit (inverse labelScaler, log-return éventuel)
+    private double toPredictedClose(double predNorm, BarSeries series, LstmConfig config, ScalerSet scalers) {
         double predTarget = scalers.labelScaler.inverse(predNorm);
         double[] closes = extractCloseValues(series);
         double referencePrice = closes[closes.length - 1];
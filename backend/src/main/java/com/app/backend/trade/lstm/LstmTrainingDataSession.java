@@ -0,0 +1,196 @@
+package com.app.backend.trade.lstm;
+
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.ta4j.core.BarSeries;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Session de tuning d'un symbole : données d'entraînement préparées par trainLstmScalarV2 (séquences normalisées
+ * [numSeq, features, window], labels normalisés [numSeq, 1], scalers, clôtures), partagées entre les configurations
+ * de la grille qui ont la même clé (features, windowSize, horizonBars, mode de label, scope de normalisation, série).
+ *
+ * Les configurations concurrentes de tuneSymbolMultiThread lisent les mêmes tenseurs sans les modifier (les splits
+ * train/val sont des dup). Une clé n'est préparée qu'une fois : les autres threads attendent le résultat.
+ * Les tenseurs sont créés hors workspace ND4J (survivent aux destroyAllWorkspacesForCurrentThread des workers).
+ *
+ * Budget en octets (LRU, 0 = pas de partage) ; close() en fin de symbole libère toutes les entrées.
+ */
+public final class LstmTrainingDataSession implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LstmTrainingDataSession.class);
+
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    /** Données préparées (lecture seule) */
+    public static final class Prepared {
+        final INDArray features;
+        final INDArray labels;
+        final LstmTradePredictor.ScalerSet scalers;
+        final double[] closes;
+        final long bytes;
+
+        Prepared(INDArray features, INDArray labels, LstmTradePredictor.ScalerSet scalers, double[] closes) {
+            this.features = features;
+            this.labels = labels;
+            this.scalers = scalers;
+            this.closes = closes;
+            this.bytes = arrayBytes(features) + arrayBytes(labels) + closes.length * 8L;
+        }
+
+        /** ScalerSet propre à l'appelant (map copiée ; les FeatureScaler ne sont plus modifiés après fit) */
+        LstmTradePredictor.ScalerSet scalersCopy() {
+            LstmTradePredictor.ScalerSet copy = new LstmTradePredictor.ScalerSet();
+            copy.featureScalers.putAll(scalers.featureScalers);
+            copy.labelScaler = scalers.labelScaler;
+            copy.labelDistMean = scalers.labelDistMean;
+            copy.labelDistStd = scalers.labelDistStd;
+            return copy;
+        }
+
+        private static long arrayBytes(INDArray array) {
+            return array == null ? 0 : array.length() * array.dataType().width();
+        }
+    }
+
+    // Préparation en cours ou terminée pour une clé (prepared == null tant que non calculé)
+    private static final class Slot {
+        Prepared prepared;  // sous verrou du slot
+        long accounted;     // octets comptés dans le budget, sous verrou de la session (0 = en cours)
+    }
+
+    private final String symbol;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Slot> slots = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+    private boolean closed = false;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public LstmTrainingDataSession(String symbol, long maxBytes) {
+        this.symbol = symbol;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Clé des données préparées : tout ce qui influe sur séquences, labels et scalers.
+     * @param features liste effective (après fallback / enrichissement de trainLstmScalarV2)
+     */
+    public static String keyOf(BarSeries series, LstmConfig config, List<String> features) {
+        int n = series.getBarCount();
+        long first = n > 0 ? series.getBar(0).getEndTime().toEpochSecond() : 0L;
+        long last = n > 0 ? series.getBar(n - 1).getEndTime().toEpochSecond() : 0L;
+        return String.join(",", features)
+            + "|w=" + config.getWindowSize()
+            + "|h=" + config.getHorizonBars()
+            + "|logret=" + config.isUseLogReturnTarget()
+            + "|multiH=" + config.isUseMultiHorizonAvg()
+            + "|scope=" + config.getNormalizationScope()
+            + "|" + series.getName() + "|" + n + "|" + first + "-" + last;
+    }
+
+    /**
+     * Données préparées pour key, calculées par preparer au premier appel (une seule fois par clé).
+     * Session fermée ou budget nul : preparer est appelé sans partage.
+     */
+    public Prepared getOrPrepare(String key, Supplier<Prepared> preparer) {
+        Slot slot;
+        synchronized (this) {
+            if (closed || maxBytes <= 0) {
+                slot = null;
+            } else {
+                slot = slots.computeIfAbsent(key, k -> new Slot());
+            }
+        }
+        if (slot == null) {
+            misses.incrementAndGet();
+            return prepareOutOfWorkspace(preparer);
+        }
+        Prepared prepared;
+        boolean computed = false;
+        synchronized (slot) {
+            if (slot.prepared == null) {
+                slot.prepared = prepareOutOfWorkspace(preparer);
+                computed = true;
+            }
+            prepared = slot.prepared;
+        }
+        if (!computed) {
+            hits.incrementAndGet();
+            return prepared;
+        }
+        misses.incrementAndGet();
+        synchronized (this) {
+            if (slots.get(key) == slot) {
+                if (prepared.bytes > maxBytes) {
+                    slots.remove(key);
+                } else {
+                    slot.accounted = prepared.bytes;
+                    bytes += slot.accounted;
+                    evictToBudget(slot);
+                }
+            }
+        }
+        return prepared;
+    }
+
+    private static Prepared prepareOutOfWorkspace(Supplier<Prepared> preparer) {
+        try (MemoryWorkspace ignored = Nd4j.getWorkspaceManager().scopeOutOfWorkspaces()) {
+            return preparer.get();
+        }
+    }
+
+    // Appelé sous verrou : retire les entrées calculées les moins récemment utilisées (sauf keep)
+    private void evictToBudget(Slot keep) {
+        Iterator<Map.Entry<String, Slot>> it = slots.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Slot slot = it.next().getValue();
+            if (slot == keep || slot.accounted == 0) continue;
+            bytes -= slot.accounted;
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /** Libère toutes les entrées (fin du symbole) ; les configurations encore en cours gardent leurs références */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            slots.clear();
+            bytes = 0;
+        }
+        logger.info("[TUNING][PREPARED] {} session fermée hits={} misses={} evictions={}", symbol, hits.get(), misses.get(), evictions.get());
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+}
@@ -51,7 +51,7 @@ import java.util.concurrent.atomic.AtomicLong;
  *       - calcul de métriques business (profitFactor, winRate, drawdown, expectancy, etc.)
  *  4. Sélection du "best model" basée ici sur un businessScore (et non uniquement MSE).
  *  5. Sauvegarde en base: hyperparams + métriques + modèle sérialisé.
- *  6. Protection mémoire: avant de lancer (ou entre étapes) on appelle waitForMemory().
+ *  6. Protection mémoire: chaque tâche réserve son empreinte estimée (LstmMemoryAdmissionController).
  *  7. Suivi de progression: structure TuningProgress + logs heartbeat périodiques.
  *
  * Ne surtout pas modifier la logique interne sans tests, car:
@@ -82,6 +82,8 @@ public class LstmTuningService {
     private final Object modelSaveLock = new Object();
     // Contrôleur de concurrence GPU (sémaphore adaptative)
     private final GpuConcurrencyController gpuController = new GpuConcurrencyController();
+    // Contrôleur de concurrence CPU (coeurs physiques partagés entre entraînements, adaptation au débit)
+    private final CpuConcurrencyController cpuController = CpuConcurrencyController.forLocalMachine();
 
     // --- Paramétrage dynamique du parallélisme ---
     @Value("${lstm.tuning.maxThreads:0}")
@@ -93,6 +95,51 @@ public class LstmTuningService {
     public boolean isEnableTwoPhase(){ return enableTwoPhase; }
     public void setEnableTwoPhase(boolean enableTwoPhase){ this.enableTwoPhase = enableTwoPhase; }
 
+    // --- Successive halving (élagage de la grille à budget d'epochs réduit avant l'entraînement complet) ---
+    @Value("${lstm.tuning.successiveHalving.enabled:false}")
+    private boolean successiveHalvingEnabled;
+    @Value("${lstm.tuning.successiveHalving.minEpochs:10}")
+    private int successiveHalvingMinEpochs;   // budget du premier palier
+    @Value("${lstm.tuning.successiveHalving.eta:3}")
+    private int successiveHalvingEta;         // 1/eta des configs promues, budget x eta par palier
+    @Value("${lstm.tuning.successiveHalving.minSurvivors:2}")
+    private int successiveHalvingMinSurvivors; // configs minimum entraînées au budget complet
+    @Value("${lstm.tuning.successiveHalving.metric:business}")
+    private String successiveHalvingMetric;   // business | val_loss (comparée par groupe de labels)
+    public boolean isSuccessiveHalvingEnabled(){ return successiveHalvingEnabled; }
+    public void setSuccessiveHalvingEnabled(boolean successiveHalvingEnabled){ this.successiveHalvingEnabled = successiveHalvingEnabled; }
+
+    // --- Transfer learning : pré-entraînement des modèles de base mutualisés avant le tuning multi-symboles ---
+    @Value("${lstm.transfer.pretrain.enabled:false}")
+    private boolean transferPretrainEnabled = false;
+    @Value("${lstm.transfer.pretrain.poolSymbols:20}")
+    private int transferPoolSymbols = 20;      // symboles échantillonnés pour le pool de séquences
+    @Value("${lstm.transfer.pretrain.maxBaseModels:4}")
+    private int transferMaxBaseModels = 4;     // architectures les plus fréquentes de la grille
+    @Value("${lstm.transfer.pretrain.epochs:80}")
+    private int transferPretrainEpochs = 80;
+    @Value("${lstm.transfer.pretrain.patience:10}")
+    private int transferPretrainPatience = 10;
+    @Value("${lstm.transfer.pretrain.refresh:false}")
+    private boolean transferPretrainRefresh;   // true = nouvelle version même si un modèle de base existe
+
+    // Données d'entraînement préparées partagées entre configs d'un même symbole (0 = pas de partage)
+    @Value("${lstm.tuning.preparedData.maxBytes:268435456}")
+    private long preparedDataMaxBytes;
+
+    // --- Admission mémoire (mémoire physique JavaCPP : heap + tenseurs ND4J hors heap) ---
+    @Value("${lstm.tuning.memory.admission.enabled:true}")
+    private boolean memoryAdmissionEnabled = true;
+    @Value("${lstm.tuning.memory.maxBytes:0}")
+    private long memoryMaxBytes;              // 0 = Pointer.maxPhysicalBytes
+    @Value("${lstm.tuning.memory.headroom:0.85}")
+    private double memoryHeadroom = LstmMemoryAdmissionController.DEFAULT_HEADROOM;
+    @Value("${lstm.tuning.memory.pollMs:1000}")
+    private long memoryPollMs = LstmMemoryAdmissionController.DEFAULT_POLL_MS;
+    private final LstmMemoryAdmissionController memoryAdmission =
+        new LstmMemoryAdmissionController(LstmMemoryAdmissionController::physicalUsedBytes, 0, LstmMemoryAdmissionController.DEFAULT_POLL_MS);
+    public java.util.Map<String, Object> getMemoryAdmissionStats(){ return memoryAdmission.getStats(); }
+
     // === Nouveaux paramètres d'utilisation GPU ===
     @Value("${gpu.concurrency.min:1}")
     private int gpuMinConcurrency;
@@ -111,6 +158,19 @@ public class LstmTuningService {
     @Value("${lstm.tuning.gpu.scaleLearningRateOnBatch:true}")
     private boolean gpuScaleLearningRateOnBatch; // ajuste LR proportionnellement à l'augmentation batch
 
+    // === Concurrence adaptative backend CPU ===
+    @Value("${lstm.tuning.cpu.adaptive.enabled:false}")
+    private boolean cpuAdaptiveEnabled = false;
+    @Value("${lstm.tuning.cpu.concurrency.min:1}")
+    private int cpuMinConcurrency = 1;
+    @Value("${lstm.tuning.cpu.concurrency.max:0}")
+    private int cpuMaxConcurrency;            // 0 = effectiveMaxThreads
+    @Value("${lstm.tuning.cpu.trainingsPerDecision:3}")
+    private int cpuTrainingsPerDecision = 3;  // entraînements mesurés avant de changer de niveau
+    @Value("${lstm.tuning.cpu.tolerance:0.05}")
+    private double cpuTolerance = 0.05;       // gain de débit agrégé minimal pour poursuivre dans le même sens
+    public java.util.Map<String, Object> getCpuConcurrencyStats(){ return cpuController.getStats(); }
+
     /**
      * Permet (ex: via un endpoint admin) de forcer dynamiquement le nombre max de threads de tuning.
      * Thread-safe: synchronized pour éviter des recalculs simultanés incohérents.
@@ -169,6 +229,9 @@ public class LstmTuningService {
         // Étape 19: cumul durées individuelles des configs pour stats
         public AtomicLong cumulativeConfigDurationMs = new AtomicLong(0);
         public int threadsUsed;               // Threads utilisés pour ce symbole
+        // Successive halving : palier en cours (0 = entraînement complet) et configs éliminées (comptées dans testedConfigs)
+        public volatile int currentRung;
+        public AtomicInteger prunedConfigs = new AtomicInteger(0);
     }
 
     private final ConcurrentHashMap<String, TuningProgress> tuningProgressMap = new ConcurrentHashMap<>();
@@ -205,6 +268,27 @@ public class LstmTuningService {
             computeEffectiveMaxThreads();
         }
 
+        // Concurrence CPU : niveau initial = parallélisme effectif, coeurs partagés entre entraînements
+        if (!cudaBackend && cpuAdaptiveEnabled) {
+            try {
+                int max = cpuMaxConcurrency > 0 ? cpuMaxConcurrency : effectiveMaxThreads;
+                cpuController.configure(cpuMinConcurrency, max, cpuTrainingsPerDecision, cpuTolerance);
+                logger.info("[CPU][CONF] Concurrence CPU {}..{} sur {} coeurs physiques ({} threads/entraînement)",
+                    cpuMinConcurrency, max, cpuController.getCores(), cpuController.getStats().get("threadsPerTraining"));
+            } catch (Exception ex) {
+                logger.warn("[CPU][CONF] Échec configuration: {}", ex.getMessage());
+            }
+        }
+
+        // Budget d'admission mémoire (0 = désactivé)
+        try {
+            long budget = memoryAdmissionEnabled ? LstmMemoryAdmissionController.physicalBudget(memoryMaxBytes, memoryHeadroom) : 0;
+            memoryAdmission.configure(budget, memoryPollMs);
+            logger.info("[TUNING][MEMORY] Admission mémoire budget={} Mo (enabled={})", budget >> 20, memoryAdmissionEnabled);
+        } catch (Throwable t) {
+            logger.warn("[TUNING][MEMORY] Mémoire physique JavaCPP indisponible, admission désactivée: {}", t.getMessage());
+        }
+
         // Configuration du contrôleur GPU avant démarrage
         try {
             gpuController.configure(gpuMinConcurrency, gpuMaxConcurrency, gpuScaleUpThreshold, gpuScaleDownThreshold);
@@ -294,9 +378,10 @@ public class LstmTuningService {
      *
      * Flux détaillé:
      *  1. Vérifie si le symbole a déjà un modèle en base (évite recalcul inutile).
-     *  2. Protection mémoire: waitForMemory() avant de démarrer.
+     *  2. Protection mémoire: attente d'admission mémoire (awaitMemory) avant de démarrer.
      *  3. Initialise la structure de progression (TuningProgress).
      *  4. Crée un pool de threads dimensionné par effectiveMaxThreads.
+     *  4b. Successive halving (si activé): paliers à budget d'epochs réduit, seules les configs promues continuent.
      *  5. Pour chaque configuration de la grille:
      *       - Soumet une tâche:
      *           a. Fixe les seeds (reproductibilité)
@@ -345,9 +430,8 @@ public class LstmTuningService {
             return null; // Aucun tuning nécessaire
         }
 
-        // Protection mémoire préventive: attendre que l'usage RAM descende sous le seuil
-        // Évite de lancer un tuning coûteux quand la JVM est proche de la limite
-        waitForMemory();
+        // Protection mémoire préventive: attendre qu'au moins la plus petite config de la grille soit admissible
+        awaitMemory(symbol, grid, series);
 
         // Capture du timestamp de début pour mesure de performance globale
         long startSymbol = System.currentTimeMillis();
@@ -397,268 +481,263 @@ public class LstmTuningService {
         // Liste des Future pour récupération asynchrone des résultats
         java.util.List<java.util.concurrent.Future<TuningResult>> futures = new java.util.ArrayList<>();
 
-        // ===== PHASE 6: SOUMISSION DES TÂCHES DE TUNING =====
+        // Séquences normalisées / labels / scalers partagés entre configs de même clé, libérés en fin de symbole
+        LstmTrainingDataSession dataSession = new LstmTrainingDataSession(symbol, preparedDataMaxBytes);
 
-        // Itération sur chaque configuration de la grille d'hyperparamètres
-        for (int i = 0; i < grid.size(); i++) {
-            // Protection mémoire avant chaque nouvelle tâche (évite accumulation)
-            waitForMemory();
-
-            // Index de configuration (1-based pour logs lisibles)
-            final int configIndex = i + 1;
-
-            // Configuration courante à tester
-            LstmConfig config = grid.get(i);
-
-            // Auto-scale batch pour GPU
-            if (cudaBackend && gpuAutoBatchScale) {
-                int originalBatch = config.getBatchSize() > 0 ? config.getBatchSize() : 32;
-                if (originalBatch < gpuTargetBatchSize) {
-                    int newBatch = originalBatch;
-                    while (newBatch < gpuTargetBatchSize) {
-                        newBatch *= 2;
-                        if (newBatch >= gpuTargetBatchSize) break;
-                    }
-                    if (newBatch > gpuTargetBatchSize) newBatch = gpuTargetBatchSize;
-                    if (newBatch != originalBatch) {
-                        if (gpuScaleLearningRateOnBatch && config.getLearningRate() > 0) {
-                            double scaledLr = config.getLearningRate() * ((double) originalBatch / (double) newBatch);
-                            config.setLearningRate(scaledLr);
-                        }
-                        config.setBatchSize(newBatch);
-                        //logger.debug("[GPU][BATCHSCALE] {} configIdx={} batch {} -> {} lr={}", symbol, configIndex, originalBatch, newBatch, config.getLearningRate());
-                    }
-                }
-            }
+        // Compteurs pour statistiques finales
+        int failedConfigs = 0;                                    // Nombre de configs échouées
+        double bestBusinessScore = Double.NEGATIVE_INFINITY;      // Meilleur score business trouvé
+        double bestAdjScore = Double.NEGATIVE_INFINITY;           // Nouveau : suivi score ajusté (anti overfit winRate)
 
-            config.setUseScalarV2(true);
-            config.setUseWalkForwardV2(true);
-            futures.add(executor.submit(() -> {
-                MultiLayerNetwork model = null;
-                boolean permitAcquired = false;
-                long staggerSleepMs = 0L;
-                try {
-                    if (cudaBackend) {
-                        gpuController.acquirePermit();
-                        permitAcquired = true;
-                        int active = gpuController.getActiveTrainings();
-                        if (gpuEnableStagger && active > 1) { // stagger optionnel
-                            staggerSleepMs = 500L + (long)(Math.random()*500L); // réduit à 0.5-1s pour maximiser GPU
-                            Thread.sleep(staggerSleepMs);
+        try {
+            // ===== PHASE 5b: SUCCESSIVE HALVING =====
+            // Paliers à budget réduit sur le même pool : seules les configs promues sont entraînées au budget complet
+            grid = pruneGridBySuccessiveHalving(symbol, grid, series, 20, progress, executor, dataSession);
+
+            // ===== PHASE 6: SOUMISSION DES TÂCHES DE TUNING =====
+
+            // Itération sur chaque configuration de la grille d'hyperparamètres
+            for (int i = 0; i < grid.size(); i++) {
+                // Index de configuration (1-based pour logs lisibles)
+                final int configIndex = i + 1;
+
+                // Configuration courante à tester
+                LstmConfig config = grid.get(i);
+
+                // Auto-scale batch pour GPU (idempotent : déjà appliqué si la config a passé les paliers d'élagage)
+                scaleBatchForGpu(config);
+
+                config.setUseScalarV2(true);
+                config.setUseWalkForwardV2(true);
+                futures.add(executor.submit(() -> {
+                    MultiLayerNetwork model = null;
+                    boolean permitAcquired = false;
+                    long staggerSleepMs = 0L;
+                    LstmMemoryAdmissionController.Reservation memory = null;
+                    try {
+                        // Réservation de l'empreinte estimée (tâche parquée tant qu'elle ne tient pas dans le budget)
+                        memory = reserveMemory(symbol, config, series);
+                        if (cudaBackend) {
+                            gpuController.acquirePermit();
+                            permitAcquired = true;
+                            int active = gpuController.getActiveTrainings();
+                            if (gpuEnableStagger && active > 1) { // stagger optionnel
+                                staggerSleepMs = 500L + (long)(Math.random()*500L); // réduit à 0.5-1s pour maximiser GPU
+                                Thread.sleep(staggerSleepMs);
+                            }
+                            gpuController.markTrainingStarted();
+                            //logger.info("[GPU][MONITOR] Utilisation VRAM: {}% (activeTrainings={})", String.format("%.2f", gpuController.getLastVramUsagePct()), active);
                         }
-                        gpuController.markTrainingStarted();
-                        //logger.info("[GPU][MONITOR] Utilisation VRAM: {}% (activeTrainings={})", String.format("%.2f", gpuController.getLastVramUsagePct()), active);
-                    }
-                    // ===== DÉBUT DE TRAITEMENT D'UNE CONFIGURATION =====
+                        // ===== DÉBUT DE TRAITEMENT D'UNE CONFIGURATION =====
 
-                    // Timestamp de début pour mesure de performance par config
-                    long startConfig = System.currentTimeMillis();
+                        // Timestamp de début pour mesure de performance par config
+                        long startConfig = System.currentTimeMillis();
 
-                    // ===== REPRODUCTIBILITÉ: INITIALISATION DES SEEDS =====
-                    // Fixe les générateurs aléatoires pour résultats reproductibles
-                    // Critique pour pouvoir recréer exactement les mêmes résultats
-                    lstmTradePredictor.setGlobalSeeds(config.getSeed());
+                        // ===== REPRODUCTIBILITÉ: INITIALISATION DES SEEDS =====
+                        // Fixe les générateurs aléatoires pour résultats reproductibles
+                        // Critique pour pouvoir recréer exactement les mêmes résultats
+                        lstmTradePredictor.setGlobalSeeds(config.getSeed());
 
-                    // Log de début de traitement de cette configuration
-                    //logger.info("[TUNING][V2] [{}] Début config {}/{}", symbol, configIndex, grid.size());
+                        // Log de début de traitement de cette configuration
+                        //logger.info("[TUNING][V2] [{}] Début config {}/{}", symbol, configIndex, grid.size());
 
-                    // ===== SÉPARATION TRAIN/TEST POUR ÉVITER LE DATA LEAKAGE =====
-                    // PROBLÈME CORRIGÉ: éviter d'entraîner et tester sur les mêmes données
+                        // ===== SÉPARATION TRAIN/TEST POUR ÉVITER LE DATA LEAKAGE =====
+                        // PROBLÈME CORRIGÉ: éviter d'entraîner et tester sur les mêmes données
 
-                    int totalBars = series.getBarCount();
-                    int testSplitRatio = 20; // 20% pour le test (out-of-sample)
-                    int trainEndBar = totalBars * (100 - testSplitRatio) / 100; // 80% pour l'entraînement
+                        int totalBars = series.getBarCount();
+                        int testSplitRatio = 20; // 20% pour le test (out-of-sample)
+                        int trainEndBar = totalBars * (100 - testSplitRatio) / 100; // 80% pour l'entraînement
 
-                    // Vérification que nous avons assez de données
-                    if (trainEndBar < config.getWindowSize() + 50) {
-                        throw new IllegalStateException("Données insuffisantes après séparation train/test");
-                    }
+                        // Vérification que nous avons assez de données
+                        if (trainEndBar < config.getWindowSize() + 50) {
+                            throw new IllegalStateException("Données insuffisantes après séparation train/test");
+                        }
 
-                    // ===== ENTRAÎNEMENT SUR LA PARTIE TRAIN UNIQUEMENT =====
-                    // Création d'une sous-série contenant uniquement les données d'entraînement
-                    BarSeries trainSeries = series.getSubSeries(0, trainEndBar);
-                    //logger.debug("[TUNING][V2] [{}] Séparation données: train=[0,{}], test=[{},{}]","BTCUSDT", trainEndBar, trainEndBar, totalBars);
-
-
-                    // Entraîne le modèle UNIQUEMENT sur les données d'entraînement
-                    LstmTradePredictor.TrainResult trFull = lstmTradePredictor.trainLstmScalarV2(trainSeries, config);
-                    model = trFull.model;                    // Modèle neuronal entraîné
-                    LstmTradePredictor.ScalerSet scalers = trFull.scalers; // Normalisateurs (min/max, z-score, etc.)
-
-                    // ===== VALIDATION WALK-FORWARD SUR DONNÉES NON VUES =====
-                    // Évalue la performance du modèle via validation temporelle séquentielle
-                    // IMPORTANT: Le modèle n'a été entraîné que sur trainSeries [0, trainEndBar]
-                    // Cette méthode teste UNIQUEMENT sur [trainEndBar, totalBars] (données non vues)
-                    LstmTradePredictor.WalkForwardResultV2 wf = lstmTradePredictor.walkForwardEvaluateOutOfSample(
-                        series,           // Série complète (pour contexte historique)
-                        config,
-                        model,           // Modèle entraîné UNIQUEMENT sur trainSeries
-                        scalers,         // Scalers calculés UNIQUEMENT sur trainSeries
-                        trainEndBar      // Point de séparation: test commence à partir d'ici (20% finaux)
-                    );
-                    double meanMse = wf.meanMse;            // Erreur quadratique moyenne sur tous les splits
-
-                    // ===== AGRÉGATION DES MÉTRIQUES DE TRADING =====
-                    // Collecte et moyenne des métriques business sur tous les splits walk-forward
-                    double sumPF=0, sumWin=0, sumExp=0, maxDrawdownPct=0, sumBusiness=0, sumProfit=0, sumBusinessSq=0; // ajout sumBusinessSq
-                    int splits=0;           // Compteur de splits valides
-                    int totalTrades=0;      // Nombre total de trades sur tous les splits
-
-                    // Parcours de tous les résultats de split pour agrégation
-                    for(LstmTradePredictor.TradingMetricsV2 m : wf.splits){
-                        if (m.numTrades == 0 && logger.isDebugEnabled()) {
-                            /*logger.info("[TUNING][NO_TRADES][V2] symbol={} cfgNeurons={} lr={} dropout={} splitIdx={} pf={} wr={} dd={} exp={} bs={}",
-                                    symbol,
-                                    config.getLstmNeurons(),
-                                    config.getLearningRate(),
-                                    config.getDropoutRate(),
-                                    splits+1,
-                                    m.profitFactor,
-                                    m.winRate,
-                                    m.maxDrawdownPct,
-                                    m.expectancy,
-                                    m.businessScore);*/
+                        // ===== ENTRAÎNEMENT SUR LA PARTIE TRAIN UNIQUEMENT =====
+                        // Création d'une sous-série contenant uniquement les données d'entraînement
+                        BarSeries trainSeries = series.getSubSeries(0, trainEndBar);
+                        //logger.debug("[TUNING][V2] [{}] Séparation données: train=[0,{}], test=[{},{}]","BTCUSDT", trainEndBar, trainEndBar, totalBars);
+
+
+                        // Entraîne le modèle UNIQUEMENT sur les données d'entraînement
+                        LstmTradePredictor.TrainResult trFull = trainUnderCpuPermit(trainSeries, config, 0, dataSession);
+                        model = trFull.model;                    // Modèle neuronal entraîné
+                        LstmTradePredictor.ScalerSet scalers = trFull.scalers; // Normalisateurs (min/max, z-score, etc.)
+
+                        // ===== VALIDATION WALK-FORWARD SUR DONNÉES NON VUES =====
+                        // Évalue la performance du modèle via validation temporelle séquentielle
+                        // IMPORTANT: Le modèle n'a été entraîné que sur trainSeries [0, trainEndBar]
+                        // Cette méthode teste UNIQUEMENT sur [trainEndBar, totalBars] (données non vues)
+                        LstmTradePredictor.WalkForwardResultV2 wf = lstmTradePredictor.walkForwardEvaluateOutOfSample(
+                            series,           // Série complète (pour contexte historique)
+                            config,
+                            model,           // Modèle entraîné UNIQUEMENT sur trainSeries
+                            scalers,         // Scalers calculés UNIQUEMENT sur trainSeries
+                            trainEndBar      // Point de séparation: test commence à partir d'ici (20% finaux)
+                        );
+                        double meanMse = wf.meanMse;            // Erreur quadratique moyenne sur tous les splits
+
+                        // ===== AGRÉGATION DES MÉTRIQUES DE TRADING =====
+                        // Collecte et moyenne des métriques business sur tous les splits walk-forward
+                        double sumPF=0, sumWin=0, sumExp=0, maxDrawdownPct=0, sumBusiness=0, sumProfit=0, sumBusinessSq=0; // ajout sumBusinessSq
+                        int splits=0;           // Compteur de splits valides
+                        int totalTrades=0;      // Nombre total de trades sur tous les splits
+
+                        // Parcours de tous les résultats de split pour agrégation
+                        for(LstmTradePredictor.TradingMetricsV2 m : wf.splits){
+                            if (m.numTrades == 0 && logger.isDebugEnabled()) {
+                                /*logger.info("[TUNING][NO_TRADES][V2] symbol={} cfgNeurons={} lr={} dropout={} splitIdx={} pf={} wr={} dd={} exp={} bs={}",
+                                        symbol,
+                                        config.getLstmNeurons(),
+                                        config.getLearningRate(),
+                                        config.getDropoutRate(),
+                                        splits+1,
+                                        m.profitFactor,
+                                        m.winRate,
+                                        m.maxDrawdownPct,
+                                        m.expectancy,
+                                        m.businessScore);*/
+                            }
+                            if(Double.isFinite(m.profitFactor)) sumPF += m.profitFactor; else sumPF += 0;
+                            sumWin += m.winRate;
+                            sumExp += m.expectancy;
+                            if(m.maxDrawdownPct > maxDrawdownPct) maxDrawdownPct = m.maxDrawdownPct;
+                            double bsSplit = (Double.isFinite(m.businessScore) ? m.businessScore : 0);
+                            sumBusiness += bsSplit;
+                            sumBusinessSq += bsSplit * bsSplit; // accumulation variance
+                            sumProfit += m.totalProfit;
+                            totalTrades += m.numTrades;
+                            splits++;
                         }
-                        if(Double.isFinite(m.profitFactor)) sumPF += m.profitFactor; else sumPF += 0;
-                        sumWin += m.winRate;
-                        sumExp += m.expectancy;
-                        if(m.maxDrawdownPct > maxDrawdownPct) maxDrawdownPct = m.maxDrawdownPct;
-                        double bsSplit = (Double.isFinite(m.businessScore) ? m.businessScore : 0);
-                        sumBusiness += bsSplit;
-                        sumBusinessSq += bsSplit * bsSplit; // accumulation variance
-                        sumProfit += m.totalProfit;
-                        totalTrades += m.numTrades;
-                        splits++;
-                    }
-                    if(splits==0){
-                        throw new IllegalStateException("Aucun split valide walk-forward");
-                    }
-                    double meanPF = sumPF / splits;
-                    double meanWinRate = sumWin / splits;
-                    double meanExpectancy = sumExp / splits;
-                    double meanBusinessScore = sumBusiness / splits;
-                    double varianceBusiness = (sumBusinessSq / splits) - (meanBusinessScore * meanBusinessScore); if(varianceBusiness < 0) varianceBusiness = 0; double stdBusinessScore = Math.sqrt(varianceBusiness);
-                    // DEBUG: Log détaillé des businessScore de chaque split
-                    java.util.List<Double> businessScoresDebug = new java.util.ArrayList<>();
-                    for(LstmTradePredictor.TradingMetricsV2 m : wf.splits) {
-                        businessScoresDebug.add(m.businessScore);
-                    }
-                    //logger.info("[--------][DEBUG][TUNING][V2] [{}] businessScores splits: {} | sumBusiness={} | splits={} | meanBusinessScore={}",symbol, businessScoresDebug, sumBusiness, splits, meanBusinessScore);
-                    double rmse = Double.isFinite(meanMse) && meanMse>=0? Math.sqrt(meanMse): Double.NaN;
-                    hyperparamsRepository.saveTuningMetrics(
-                            symbol, config,
-                            meanMse, rmse,
-                            sumProfit, meanPF, meanWinRate, maxDrawdownPct, totalTrades, meanBusinessScore,
-                            wf.splits.stream().mapToDouble(m->m.sortino).average().orElse(0.0),
-                            wf.splits.stream().mapToDouble(m->m.calmar).average().orElse(0.0),
-                            wf.splits.stream().mapToDouble(m->m.turnover).average().orElse(0.0),
-                            wf.splits.stream().mapToDouble(m->m.avgBarsInPosition).average().orElse(0.0),
-                            0, 0, 0, false
-                    );
-                    long endConfig = System.currentTimeMillis();
-                    long cfgDuration = (endConfig-startConfig);
-                    /*logger.info("[TUNING][V2] [{}] Fin config {}/{} | meanMSE={}, PF={}, winRate={}, DD%={}, expectancy={}, businessScore={}, trades={} durée={} ms",
-                            symbol, configIndex, grid.size(), meanMse, meanPF, meanWinRate, maxDrawdownPct,
-                            meanExpectancy, meanBusinessScore, totalTrades, cfgDuration);*/
-                    TuningProgress p = tuningProgressMap.get(symbol);
-                    if (p != null) {
-                        p.testedConfigs.incrementAndGet();
-                        p.lastUpdate = System.currentTimeMillis();
-                        p.cumulativeConfigDurationMs.addAndGet(cfgDuration);
-                    }
-                    return new TuningResult(config, model, scalers, meanMse, meanPF, meanWinRate, maxDrawdownPct, meanBusinessScore, stdBusinessScore, rmse, sumProfit, totalTrades, series.getBarCount() - trainEndBar, -1);
+                        if(splits==0){
+                            throw new IllegalStateException("Aucun split valide walk-forward");
+                        }
+                        double meanPF = sumPF / splits;
+                        double meanWinRate = sumWin / splits;
+                        double meanExpectancy = sumExp / splits;
+                        double meanBusinessScore = sumBusiness / splits;
+                        double varianceBusiness = (sumBusinessSq / splits) - (meanBusinessScore * meanBusinessScore); if(varianceBusiness < 0) varianceBusiness = 0; double stdBusinessScore = Math.sqrt(varianceBusiness);
+                        // DEBUG: Log détaillé des businessScore de chaque split
+                        java.util.List<Double> businessScoresDebug = new java.util.ArrayList<>();
+                        for(LstmTradePredictor.TradingMetricsV2 m : wf.splits) {
+                            businessScoresDebug.add(m.businessScore);
+                        }
+                        //logger.info("[--------][DEBUG][TUNING][V2] [{}] businessScores splits: {} | sumBusiness={} | splits={} | meanBusinessScore={}",symbol, businessScoresDebug, sumBusiness, splits, meanBusinessScore);
+                        double rmse = Double.isFinite(meanMse) && meanMse>=0? Math.sqrt(meanMse): Double.NaN;
+                        hyperparamsRepository.saveTuningMetrics(
+                                symbol, config,
+                                meanMse, rmse,
+                                sumProfit, meanPF, meanWinRate, maxDrawdownPct, totalTrades, meanBusinessScore,
+                                wf.splits.stream().mapToDouble(m->m.sortino).average().orElse(0.0),
+                                wf.splits.stream().mapToDouble(m->m.calmar).average().orElse(0.0),
+                                wf.splits.stream().mapToDouble(m->m.turnover).average().orElse(0.0),
+                                wf.splits.stream().mapToDouble(m->m.avgBarsInPosition).average().orElse(0.0),
+                                0, 0, 0, false
+                        );
+                        long endConfig = System.currentTimeMillis();
+                        long cfgDuration = (endConfig-startConfig);
+                        /*logger.info("[TUNING][V2] [{}] Fin config {}/{} | meanMSE={}, PF={}, winRate={}, DD%={}, expectancy={}, businessScore={}, trades={} durée={} ms",
+                                symbol, configIndex, grid.size(), meanMse, meanPF, meanWinRate, maxDrawdownPct,
+                                meanExpectancy, meanBusinessScore, totalTrades, cfgDuration);*/
+                        TuningProgress p = tuningProgressMap.get(symbol);
+                        if (p != null) {
+                            p.testedConfigs.incrementAndGet();
+                            p.lastUpdate = System.currentTimeMillis();
+                            p.cumulativeConfigDurationMs.addAndGet(cfgDuration);
+                        }
+                        return new TuningResult(config, model, scalers, meanMse, meanPF, meanWinRate, maxDrawdownPct, meanBusinessScore, stdBusinessScore, rmse, sumProfit, totalTrades, series.getBarCount() - trainEndBar, -1);
 
-                } catch (Exception e){
-                    // ===== GESTION CENTRALISÉE DES ERREURS =====
-                    // Log l'erreur sans interrompre le processus global
-                    logger.error("[TUNING][V2] Erreur config {} : {}", configIndex, e.getMessage());
+                    } catch (Exception e){
+                        // ===== GESTION CENTRALISÉE DES ERREURS =====
+                        // Log l'erreur sans interrompre le processus global
+                        logger.error("[TUNING][V2] Erreur config {} : {}", configIndex, e.getMessage());
 
-                    // Capture de la stack trace complète pour debug
-                    String stack = org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace(e);
+                        // Capture de la stack trace complète pour debug
+                        String stack = org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace(e);
 
-                    // Ajout dans le rapport d'exceptions pour analyse post-mortem
-                    tuningExceptionReport.add(new TuningExceptionReportEntry(symbol, config, e.getMessage(), stack, System.currentTimeMillis()));
+                        // Ajout dans le rapport d'exceptions pour analyse post-mortem
+                        tuningExceptionReport.add(new TuningExceptionReportEntry(symbol, config, e.getMessage(), stack, System.currentTimeMillis()));
 
-                    // Retourne null pour signaler l'échec (sera ignoré dans la sélection)
-                    return null;
+                        // Retourne null pour signaler l'échec (sera ignoré dans la sélection)
+                        return null;
 
-                } finally {
-                    // ===== NETTOYAGE MÉMOIRE CRITIQUE =====
-                    // Libération explicite des références pour aider le GC
-                    model = null;
+                    } finally {
+                        // ===== NETTOYAGE MÉMOIRE CRITIQUE =====
+                        // Libération explicite des références pour aider le GC
+                        model = null;
 
-                    // Nettoyage spécifique ND4J: libération des buffers GPU/CPU
-                    org.nd4j.linalg.factory.Nd4j.getMemoryManager().invokeGc();
+                        // Nettoyage spécifique ND4J: libération des buffers GPU/CPU
+                        org.nd4j.linalg.factory.Nd4j.getMemoryManager().invokeGc();
 
-                    // Destruction des workspaces ND4J du thread courant
-                    org.nd4j.linalg.factory.Nd4j.getWorkspaceManager().destroyAllWorkspacesForCurrentThread();
+                        // Destruction des workspaces ND4J du thread courant
+                        org.nd4j.linalg.factory.Nd4j.getWorkspaceManager().destroyAllWorkspacesForCurrentThread();
 
-                    // GC système pour libération immédiate (optionnel mais utile ici)
-                    System.gc();
-                    if (cudaBackend) {
-                        gpuController.markTrainingFinished();
-                        if (permitAcquired) gpuController.releasePermit();
+                        // GC système pour libération immédiate (optionnel mais utile ici)
+                        System.gc();
+                        if (cudaBackend) {
+                            gpuController.markTrainingFinished();
+                            if (permitAcquired) gpuController.releasePermit();
+                        }
+                        if (memory != null) memory.close();
                     }
-                }
-            }));
-        }
+                }));
+            }
 
-        // ===== PHASE 7: FERMETURE DU POOL DE SOUMISSIONS =====
-        // Empêche la soumission de nouvelles tâches (les existantes continuent)
-        executor.shutdown();
+            // ===== PHASE 7: FERMETURE DU POOL DE SOUMISSIONS =====
+            // Empêche la soumission de nouvelles tâches (les existantes continuent)
+            executor.shutdown();
 
-        // ===== PHASE 8: COLLECTE ET ANALYSE DES RÉSULTATS =====
+            // ===== PHASE 8: COLLECTE ET ANALYSE DES RÉSULTATS =====
 
-        // Compteurs pour statistiques finales
-        int failedConfigs = 0;                                    // Nombre de configs échouées
-        double bestBusinessScore = Double.NEGATIVE_INFINITY;      // Meilleur score business trouvé
-        double bestAdjScore = Double.NEGATIVE_INFINITY;           // Nouveau : suivi score ajusté (anti overfit winRate)
-
-        // ===== RÉCUPÉRATION SÉQUENTIELLE DES RÉSULTATS =====
-        // Parcours des Future dans l'ordre de soumission (maintien de la séquence)
-        for (int i = 0; i < futures.size(); i++) {
-            try {
-                // Récupération bloquante du résultat (attente si pas encore terminé)
-                TuningResult result = futures.get(i).get();
+            // ===== RÉCUPÉRATION SÉQUENTIELLE DES RÉSULTATS =====
+            // Parcours des Future dans l'ordre de soumission (maintien de la séquence)
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    // Récupération bloquante du résultat (attente si pas encore terminé)
+                    TuningResult result = futures.get(i).get();
 
-                // Log de progression pour monitoring
-                //logger.info("[TUNING][V2] [{}] Progression : {}/{} configs terminées", symbol, i+1, grid.size());
+                    // Log de progression pour monitoring
+                    //logger.info("[TUNING][V2] [{}] Progression : {}/{} configs terminées", symbol, i+1, grid.size());
 
-                // ===== FILTRAGE DES RÉSULTATS INVALIDES =====
-                // Ignore les configs qui ont échoué ou produit des scores invalides
-                if (result == null || Double.isNaN(result.businessScore) || Double.isInfinite(result.businessScore)) {
-                    failedConfigs++;
-                    continue; // Passe à la config suivante
-                }
+                    // ===== FILTRAGE DES RÉSULTATS INVALIDES =====
+                    // Ignore les configs qui ont échoué ou produit des scores invalides
+                    if (result == null || Double.isNaN(result.businessScore) || Double.isInfinite(result.businessScore)) {
+                        failedConfigs++;
+                        continue; // Passe à la config suivante
+                    }
 
-                double adj = adjScore(result);
-                if (adj > bestAdjScore) {
-                    bestAdjScore = adj;
-                    bestBusinessScore = result.businessScore;   // conserve la valeur brute pour reporting
-                    bestConfig = result.config;
-                    bestModel = result.model;
-                    bestScalers = result.scalers;
-                    bestScore = result.score;
-                    bestResul = result;
-                }
+                    double adj = adjScore(result);
+                    if (adj > bestAdjScore) {
+                        bestAdjScore = adj;
+                        bestBusinessScore = result.businessScore;   // conserve la valeur brute pour reporting
+                        bestConfig = result.config;
+                        bestModel = result.model;
+                        bestScalers = result.scalers;
+                        bestScore = result.score;
+                        bestResul = result;
+                    }
 
-            } catch (Exception e) {
-                // ===== GESTION D'ERREUR DE RÉCUPÉRATION =====
-                failedConfigs++;
-                progress.status = "erreur"; // Marque le processus en erreur
-                progress.lastUpdate = System.currentTimeMillis();
+                } catch (Exception e) {
+                    // ===== GESTION D'ERREUR DE RÉCUPÉRATION =====
+                    failedConfigs++;
+                    progress.status = "erreur"; // Marque le processus en erreur
+                    progress.lastUpdate = System.currentTimeMillis();
 
-                // Log de l'erreur de récupération (différent de l'erreur d'exécution)
-                logger.error("Erreur lors de la récupération du résultat de tuning : {}", e.getMessage());
+                    // Log de l'erreur de récupération (différent de l'erreur d'exécution)
+                    logger.error("Erreur lors de la récupération du résultat de tuning : {}", e.getMessage());
 
-                // Extraction de la stack trace (cause racine si disponible)
-                String stack = e.getCause() != null
-                        ? org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace(e.getCause())
-                        : org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace(e);
+                    // Extraction de la stack trace (cause racine si disponible)
+                    String stack = e.getCause() != null
+                            ? org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace(e.getCause())
+                            : org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace(e);
 
-                // Ajout au rapport d'exceptions (config = null car erreur de récupération)
-                tuningExceptionReport.add(new TuningExceptionReportEntry(symbol, null, e.getMessage(), stack, System.currentTimeMillis()));
+                    // Ajout au rapport d'exceptions (config = null car erreur de récupération)
+                    tuningExceptionReport.add(new TuningExceptionReportEntry(symbol, null, e.getMessage(), stack, System.currentTimeMillis()));
+                }
             }
+        } finally {
+            // Libère les données préparées même si l'élagage ou la soumission échoue
+            dataSession.close();
         }
 
         // ===== PHASE 9: ANALYSE DU SUCCÈS/ÉCHEC GLOBAL =====
@@ -1175,7 +1254,7 @@ public class LstmTuningService {
      *
      * Flux général:
      *  1. Pour chaque symbole:
-     *       - Vérifie la mémoire disponible (waitForMemory)
+     *       - Attend que la mémoire admette au moins une config du symbole (awaitMemory)
      *       - Démarre le tuning en appelant tuneSymbolMultiThread ou tuneSymbolTwoPhase
      *       - Gère les exceptions et nettoie les ressources
      *  2. Attente de la fin de tous les tunings
@@ -1197,15 +1276,22 @@ public class LstmTuningService {
         int maxParallelSymbols = TradeConstant.isGPU ? Math.max(1, effectiveMaxThreads) : 4;
         java.util.concurrent.ExecutorService symbolExecutor = java.util.concurrent.Executors.newFixedThreadPool(maxParallelSymbols);
         java.util.List<java.util.concurrent.Future<?>> futures = new java.util.ArrayList<>();
+        if (transferPretrainEnabled && lstmTradePredictor.isTransferEnabled()) {
+            try {
+                pretrainBaseModels(symbols, grid, jdbcTemplate, seriesProvider);
+            } catch (Exception e) {
+                logger.error("[TRANSFER][PRETRAIN] Échec pré-entraînement (tuning depuis zéro) : {}", e.getMessage());
+            }
+        }
         for (int i = 0; i < symbols.size(); i++) {
             final int symbolIndex = i;
             futures.add(symbolExecutor.submit(() -> {
-                waitForMemory(); // Protection mémoire avant chaque tuning de symbole
                 String symbol = symbols.get(symbolIndex);
                 long startSymbol = System.currentTimeMillis();
                 //logger.info("[TUNING] Début tuning symbole {}/{} : {} (thread={})", symbolIndex+1, symbols.size(), symbol, Thread.currentThread().getName());
                 try {
                     BarSeries series = seriesProvider.apply(symbol);
+                    awaitMemory(symbol, grid, series); // Protection mémoire avant chaque tuning de symbole
                     if (enableTwoPhase) {
                         // Utilise la grille comme grille coarse de phase 1
                         tuneSymbolTwoPhase(symbol, grid, series, jdbcTemplate);
@@ -1236,10 +1322,131 @@ public class LstmTuningService {
             }
         }
         symbolExecutor.shutdown();
+        // Binaires de modèles dont les lignes ont été supprimées
+        if (jdbcTemplate != null) {
+            try {
+                LstmModelBlobStore.deleteUnreferenced(jdbcTemplate, LstmModelBlobStore.ORPHAN_MIN_AGE_MINUTES);
+            } catch (Exception e) {
+                logger.warn("[MODEL_BLOB] Purge des binaires orphelins impossible : {}", e.getMessage());
+            }
+        }
         long endAll = System.currentTimeMillis();
         //logger.info("[TUNING] Fin tuning multi-symboles | durée totale={} ms", (endAll - startAll));
     }
 
+    /**
+     * Étape 1 du transfer learning : un modèle de base par architecture parmi les plus fréquentes de la grille
+     * (maxBaseModels), pré-entraîné sur les séquences de poolSymbols symboles répartis sur la liste. Les architectures
+     * déjà pourvues d'un modèle de base sont ignorées (sauf refresh). La config de référence d'une architecture est
+     * sa première occurrence dans la grille (fenêtre, horizon, learning rate).
+     *
+     * Pas de fuite vers l'évaluation : le pool est coupé à une date commune (pretrainCutoff), antérieure au début
+     * out-of-sample le plus précoce du tuning de ses symboles. Cette coupure est enregistrée avec le modèle de base :
+     * un symbole hors pool dont l'entraînement s'arrête plus tôt part de zéro (LstmBaseModelRegistry.usableFor).
+     */
+    public void pretrainBaseModels(List<String> symbols, List<LstmConfig> grid, JdbcTemplate jdbcTemplate,
+                                   java.util.function.Function<String, BarSeries> seriesProvider) {
+        LstmBaseModelRegistry registry = lstmTradePredictor.getBaseModelRegistry();
+        if (transferPretrainRefresh) registry.invalidate();
+        java.util.Map<String, List<LstmConfig>> byArchitecture = new java.util.LinkedHashMap<>();
+        for (LstmConfig config : grid) {
+            byArchitecture.computeIfAbsent(LstmBaseModelRegistry.architectureKey(config), k -> new java.util.ArrayList<>()).add(config);
+        }
+        List<LstmConfig> templates = byArchitecture.values().stream()
+            .sorted((a, b) -> Integer.compare(b.size(), a.size()))
+            .limit(Math.max(0, transferMaxBaseModels))
+            .map(configs -> configs.get(0))
+            .filter(config -> transferPretrainRefresh || registry.find(jdbcTemplate, config) == null)
+            .collect(java.util.stream.Collectors.toList());
+        if (templates.isEmpty()) {
+            logger.info("[TRANSFER][PRETRAIN] Modèles de base déjà disponibles pour les {} architectures principales", Math.min(byArchitecture.size(), transferMaxBaseModels));
+            return;
+        }
+        // Échantillon réparti sur la liste des symboles
+        int poolSize = Math.min(symbols.size(), Math.max(2, transferPoolSymbols));
+        java.util.Map<String, BarSeries> pool = new java.util.LinkedHashMap<>();
+        for (int i = 0; i < poolSize; i++) {
+            String symbol = symbols.get((int) ((long) i * symbols.size() / poolSize));
+            try {
+                BarSeries series = seriesProvider.apply(symbol);
+                if (series != null && series.getBarCount() > 0) pool.put(symbol, series);
+            } catch (Exception e) {
+                logger.warn("[TRANSFER][PRETRAIN] Série {} indisponible : {}", symbol, e.getMessage());
+            }
+        }
+        java.time.ZonedDateTime cutoff = pretrainCutoff(pool.values(), enableTwoPhase);
+        if (cutoff == null) {
+            logger.warn("[TRANSFER][PRETRAIN] Historique insuffisant pour couper le pool avant l'out-of-sample, pré-entraînement ignoré");
+            return;
+        }
+        java.util.Map<String, BarSeries> trainPool = cutPoolAt(pool, cutoff);
+        logger.info("[TRANSFER][PRETRAIN] Pool de {} symboles coupé au {}", trainPool.size(), cutoff);
+        for (LstmConfig template : templates) {
+            long start = System.currentTimeMillis();
+            try {
+                LstmTradePredictor.PretrainResult pr = lstmTradePredictor.pretrainBaseModel(trainPool, template, transferPretrainEpochs, transferPretrainPatience);
+                if (pr == null || pr.model == null) continue;
+                long version = registry.save(jdbcTemplate, template, pr.model, pr.symbols, pr.numSequences, pr.bestValLoss, pr.epochsRun, cutoff.toInstant());
+                logger.info("[TRANSFER][PRETRAIN] Base v{} : {} epochs en {} ms ({})", version, pr.epochsRun,
+                    System.currentTimeMillis() - start, LstmBaseModelRegistry.architecture(template));
+            } catch (Exception e) {
+                logger.warn("[TRANSFER][PRETRAIN] Échec architecture {} : {}", LstmBaseModelRegistry.architecture(template), e.getMessage());
+            } finally {
+                try { org.nd4j.linalg.factory.Nd4j.getWorkspaceManager().destroyAllWorkspacesForCurrentThread(); } catch (Exception ignored) {}
+            }
+        }
+    }
+
+    /**
+     * Premier index out-of-sample possible d'une série de totalBars barres lors du tuning : hold-out final retiré
+     * (twoPhase, même quand la fenêtre le désactive), puis split de phase 2 (25 % de test) avancé du jitter maximal.
+     * Le split 80/20 de la phase 1 et du tuning simple commence toujours après.
+     */
+    static int earliestOutOfSampleStart(int totalBars, boolean twoPhase) {
+        int bars = totalBars;
+        if (twoPhase) {
+            int holdOut = Math.min(Math.max((int)(bars * HOLD_OUT_FRACTION), MIN_HOLD_OUT_BARS), bars / 3);
+            bars -= holdOut;
+        }
+        int trainEnd = bars * (100 - 25) / 100 - Math.max(5, (int)(bars * 0.01));
+        return Math.max(0, trainEnd);
+    }
+
+    /**
+     * Date de coupure commune du pool de pré-entraînement : fin de la dernière barre d'entraînement la plus ancienne
+     * parmi les séries (earliestOutOfSampleStart). null si aucune série n'a de partie entraînement.
+     */
+    static java.time.ZonedDateTime pretrainCutoff(java.util.Collection<BarSeries> pool, boolean twoPhase) {
+        java.time.ZonedDateTime cutoff = null;
+        for (BarSeries series : pool) {
+            if (series == null) continue;
+            int oosStart = earliestOutOfSampleStart(series.getBarCount(), twoPhase);
+            if (oosStart <= 0) continue;
+            java.time.ZonedDateTime lastTrain = series.getBar(series.getBeginIndex() + oosStart - 1).getEndTime();
+            if (cutoff == null || lastTrain.isBefore(cutoff)) cutoff = lastTrain;
+        }
+        return cutoff;
+    }
+
+    /** Séries du pool réduites à leurs barres terminées au plus tard à cutoff (séries vides retirées) */
+    static java.util.Map<String, BarSeries> cutPoolAt(java.util.Map<String, BarSeries> pool, java.time.ZonedDateTime cutoff) {
+        java.util.Map<String, BarSeries> cut = new java.util.LinkedHashMap<>();
+        for (java.util.Map.Entry<String, BarSeries> e : pool.entrySet()) {
+            BarSeries series = e.getValue();
+            if (series == null || series.isEmpty()) continue;
+            // Barres triées par date : recherche du nombre de barres <= cutoff
+            int lo = 0, hi = series.getBarCount();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (series.getBar(series.getBeginIndex() + mid).getEndTime().isAfter(cutoff)) hi = mid; else lo = mid + 1;
+            }
+            if (lo == 0) continue;
+            cut.put(e.getKey(), lo == series.getBarCount() ? series
+                : series.getSubSeries(series.getBeginIndex(), series.getBeginIndex() + lo));
+        }
+        return cut;
+    }
+
     /** Nouveau business score V2 */
     private double computeBusinessScoreV2(double profitFactor, double winRate, double maxDrawdownPct, double expectancy, LstmConfig config){
         // Important: ne pas modifier => impact sur choix des configs si activé ailleurs
@@ -1290,42 +1497,40 @@ public class LstmTuningService {
     }
 
     /**
-     * Seuil d'utilisation mémoire accepté (80%).
-     * Ajuster avec prudence: trop bas => tuning ralenti; trop haut => risque OOM.
+     * Réservation mémoire d'une tâche (entraînement / évaluation d'une config) : empreinte estimée sur la série,
+     * thread parqué tant qu'elle ne tient pas dans le budget. À fermer sur le même thread.
      */
-    private static final double MEMORY_USAGE_THRESHOLD = 0.8;
+    private LstmMemoryAdmissionController.Reservation reserveMemory(String symbol, LstmConfig config, BarSeries series) throws InterruptedException {
+        return memoryAdmission.acquire(symbol, LstmMemoryAdmissionController.estimateConfigBytes(config, series.getBarCount()));
+    }
 
     /**
-     * Vérifie si l'utilisation mémoire actuelle dépasse le seuil défini.
-     * @return true si usage mémoire > threshold, sinon false
+     * Entraînement sous permis CPU (backend CPU) : concurrence bornée par CpuConcurrencyController, threads ND4J du
+     * processus = coeurs / concurrence (fixés par le contrôleur), débit de l'entraînement remonté pour l'adaptation.
      */
-    private static boolean isMemoryUsageHigh() {
-        Runtime runtime = Runtime.getRuntime();
-        long maxMemory = runtime.maxMemory();
-        long totalMemory = runtime.totalMemory();
-        long freeMemory = runtime.freeMemory();
-        long usedMemory = totalMemory - freeMemory;
-        double usage = (double) usedMemory / (double) maxMemory;
-        return usage > MEMORY_USAGE_THRESHOLD;
+    private LstmTradePredictor.TrainResult trainUnderCpuPermit(BarSeries series, LstmConfig config, int epochBudget,
+                                                               LstmTrainingDataSession dataSession) throws InterruptedException {
+        if (cudaBackend || !cpuAdaptiveEnabled) {
+            return lstmTradePredictor.trainLstmScalarV2(series, config, epochBudget, dataSession);
+        }
+        try (CpuConcurrencyController.Permit permit = cpuController.acquire()) {
+            LstmTradePredictor.TrainResult tr = lstmTradePredictor.trainLstmScalarV2(series, config, epochBudget, dataSession);
+            if (tr != null) {
+                permit.recordTraining(tr.samplesFitted, CpuConcurrencyController.costPerSample(config), tr.trainingMs);
+            }
+            return tr;
+        }
     }
 
     /**
-     * Boucle d'attente active (avec sleep) tant que la mémoire est trop utilisée.
-     * Raison: éviter de lancer un nouvel entraînement LSTM (coûteux en RAM) quand la JVM est proche du plafond.
-     * Stratégie simple mais efficace pour environnement batch/offline.
-     * Amélioration future possible: backoff exponentiel / monitoring externe.
+     * Attend (sans réserver) que la plus petite config de la grille soit admissible avant de lancer un symbole.
      */
-    private static void waitForMemory() {
-        while (isMemoryUsageHigh()) {
-            logger.warn("[TUNING] Utilisation mémoire élevée (> {}%), attente avant de lancer une nouvelle tâche...",
-                    (int)(MEMORY_USAGE_THRESHOLD*100));
-            try {
-                Thread.sleep(5000); // Pause 5s (magique mais suffisant ici)
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
+    private void awaitMemory(String symbol, List<LstmConfig> grid, BarSeries series) {
+        long smallest = Long.MAX_VALUE;
+        for (LstmConfig config : grid) {
+            smallest = Math.min(smallest, LstmMemoryAdmissionController.estimateConfigBytes(config, series.getBarCount()));
         }
+        if (smallest != Long.MAX_VALUE) memoryAdmission.awaitCapacity(symbol, smallest);
     }
 
     private static final Object METRICS_FILE_LOCK = new Object();
@@ -1350,11 +1555,15 @@ public class LstmTuningService {
                 "\"status\":\""+progress.status+"\","+
                 "\"totalConfigs\":"+progress.totalConfigs+","+
                 "\"testedConfigs\":"+progress.testedConfigs.get()+","+
+                "\"prunedConfigs\":"+progress.prunedConfigs.get()+","+
                 "\"durationMs\":"+ (long)durationMs +","+
                 "\"configsPerSecond\":"+String.format(java.util.Locale.US,"%.4f",cfgPerSec)+","+
                 "\"meanConfigDurationMs\":"+ (long)meanCfgMs +","+
                 "\"threadsUsed\":"+progress.threadsUsed+","+
                 "\"effectiveMaxThreads\":"+effectiveMaxThreads+"," +
+                "\"memoryReservedBytes\":"+memoryAdmission.getReservedBytes()+","+
+                "\"memoryParkedTasks\":"+memoryAdmission.getParkedTasks()+","+
+                "\"cpuConcurrency\":"+(cudaBackend ? 0 : cpuController.getTargetConcurrency())+","+
                 "\"startTime\":\""+startIso+"\","+
                 "\"endTime\":\""+endIso+"\"}";
         synchronized (METRICS_FILE_LOCK) {
@@ -1731,12 +1940,11 @@ public class LstmTuningService {
     private static class HoldOutEval { LstmConfig config; MultiLayerNetwork model; LstmTradePredictor.ScalerSet scalers; double businessScore; double meanMse; double rmse; double profitFactor; double winRate; double maxDrawdown; double sumProfit; int totalTrades; int totalSeriesTested; }
 
     private HoldOutEval evaluateHoldOut(String symbol, LstmConfig config, BarSeries fullSeries, int holdOutStart) {
-        try {
-            waitForMemory();
+        try (LstmMemoryAdmissionController.Reservation memory = reserveMemory(symbol, config, fullSeries)) {
             if (holdOutStart <= 0 || holdOutStart >= fullSeries.getBarCount()-config.getWindowSize()-10) return null;
             BarSeries trainSeries = fullSeries.getSubSeries(0, holdOutStart);
             lstmTradePredictor.setGlobalSeeds(config.getSeed());
-            LstmTradePredictor.TrainResult tr = lstmTradePredictor.trainLstmScalarV2(trainSeries, config);
+            LstmTradePredictor.TrainResult tr = trainUnderCpuPermit(trainSeries, config, 0, null);
             MultiLayerNetwork model = tr.model; LstmTradePredictor.ScalerSet scalers = tr.scalers;
             LstmTradePredictor.WalkForwardResultV2 wf = lstmTradePredictor.walkForwardEvaluateOutOfSample(fullSeries, config, model, scalers, holdOutStart);
             double sumB=0,sumPF=0,sumWin=0,maxDrawdownPct=0,sumProfit=0; int splits=0,trades=0; for(var m: wf.splits){ sumB += Double.isFinite(m.businessScore)?m.businessScore:0; sumPF += Double.isFinite(m.profitFactor)?m.profitFactor:0; sumWin+=m.winRate; if(m.maxDrawdownPct>maxDrawdownPct) maxDrawdownPct=m.maxDrawdownPct; sumProfit+=m.totalProfit; trades+=m.numTrades; splits++; }
@@ -1748,8 +1956,7 @@ public class LstmTuningService {
         finally { try { org.nd4j.linalg.factory.Nd4j.getMemoryManager().invokeGc(); } catch (Exception ignored) {} try { org.nd4j.linalg.factory.Nd4j.getWorkspaceManager().destroyAllWorkspacesForCurrentThread(); } catch (Exception ignored) {} System.gc(); }
     }
     private HoldOutEval evaluateHoldOutFull(String symbol, LstmConfig config, MultiLayerNetwork model, LstmTradePredictor.ScalerSet scalers, BarSeries fullSeries, int holdOutStart) {
-        try {
-            waitForMemory();
+        try (LstmMemoryAdmissionController.Reservation memory = reserveMemory(symbol, config, fullSeries)) {
             if (holdOutStart <= 0 || holdOutStart >= fullSeries.getBarCount()-config.getWindowSize()-10) return null;
             lstmTradePredictor.setGlobalSeeds(config.getSeed());
             LstmTradePredictor.WalkForwardResultV2 wf = lstmTradePredictor.walkForwardEvaluateOutOfSample(fullSeries, config, model, scalers, holdOutStart);
@@ -1767,7 +1974,7 @@ public class LstmTuningService {
                                              int phase,
                                              String phaseTag,
                                              TuningProgress progress) {
-        waitForMemory();
+        awaitMemory(symbol, grid, series);
 
         long start = System.currentTimeMillis();
         int numThreads = TradeConstant.isGPU ? 2 : 4; // Désormais séquentiel
@@ -1777,93 +1984,80 @@ public class LstmTuningService {
         // var executor = java.util.concurrent.Executors.newFixedThreadPool(numThreads);
         // var futures = new java.util.ArrayList<java.util.concurrent.Future<TuningResult>>();
         var results = new java.util.ArrayList<TuningResult>(); // plus besoin de synchronizedList
-        for (int i=0;i<grid.size();i++) {
-            final int idx=i; LstmConfig cfg=grid.get(i); cfg.setUseScalarV2(true); cfg.setUseWalkForwardV2(true); // fix parenthèse
-            // Auto-scale batch GPU phase1/2
-            if (cudaBackend && gpuAutoBatchScale) {
-                int originalBatch = cfg.getBatchSize()>0?cfg.getBatchSize():32;
-                if (originalBatch < gpuTargetBatchSize) {
-                    int newBatch = originalBatch;
-                    while (newBatch < gpuTargetBatchSize) { newBatch *= 2; if (newBatch >= gpuTargetBatchSize) break; }
-                    if (newBatch > gpuTargetBatchSize) newBatch = gpuTargetBatchSize;
-                    if (newBatch != originalBatch) {
-                        if (gpuScaleLearningRateOnBatch && cfg.getLearningRate() > 0) {
-                            double scaledLr = cfg.getLearningRate() * ((double) originalBatch / (double) newBatch);
-                            cfg.setLearningRate(scaledLr);
-                        }
-                        cfg.setBatchSize(newBatch);
-                        //logger.debug("[GPU][BATCHSCALE][{}] phase={} idx={} batch {} -> {} lr={}", symbol, phase, idx+1, originalBatch, newBatch, cfg.getLearningRate());
-                    }
-                }
-            }
-            // --- Phase 2: diversification supplémentaire pour réduire corrélation ---
-            if (phase == 2 && !cfg.isBaselineReplica()) {
-                cfg.setSeed(cfg.getSeed() + 777 + idx); // seed décalé (sauf baseline)
+        // Successive halving : seules les configs promues sont entraînées au budget complet (numberGrid = index d'origine)
+        java.util.Set<LstmConfig> promoted = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+        // --- Phase 2: diversification supplémentaire pour réduire corrélation ---
+        // Appliquée avant le successive halving : les paliers évaluent les configs telles qu'entraînées ensuite
+        if (phase == 2) {
+            for (int i = 0; i < grid.size(); i++) {
+                LstmConfig cfg = grid.get(i);
+                if (cfg.isBaselineReplica()) continue;
+                cfg.setSeed(cfg.getSeed() + 777 + i); // seed décalé (sauf baseline)
                 cfg.setWalkForwardSplits(Math.min(6, cfg.getWalkForwardSplits() + 1)); // plus de splits (sauf baseline)
             }
-            // Exécution séquentielle de la tâche (remplace submit)
-            MultiLayerNetwork model=null; boolean permit=false; long stagger=0;
-            try {
-                if (cudaBackend){ gpuController.acquirePermit(); permit=true; int active=gpuController.getActiveTrainings(); if(gpuEnableStagger && active>1){ stagger=1000+(long)(Math.random()*1500); Thread.sleep(stagger);} gpuController.markTrainingStarted();
-                    //logger.info("[GPU][MONITOR] Utilisation VRAM: {}% (activeTrainings={})", String.format("%.2f", gpuController.getLastVramUsagePct()), active);
-                }
-                lstmTradePredictor.setGlobalSeeds(cfg.getSeed());
-                int totalBars=series.getBarCount();
-                int testSplitRatio = (phase == 2 ? 25 : 20);
-                int trainEnd= totalBars*(100-testSplitRatio)/100;
-                if (phase == 2) {
-                    int jitterRange = Math.max(5, (int)(totalBars * 0.01));
-                    int jitterSeed = (int)((cfg.getSeed() ^ (idx * 0x9E3779B97F4A7C15L)) & 0x7fffffff);
-                    java.util.Random jitterRand = new java.util.Random(jitterSeed);
-                    int jitter = jitterRand.nextInt(jitterRange * 2 + 1) - jitterRange;
-                    trainEnd = trainEnd + jitter;
-                    int minTrain = cfg.getWindowSize() + 60;
-                    int maxTrain = totalBars - (cfg.getWindowSize() + 60);
-                    if (trainEnd < minTrain) trainEnd = minTrain;
-                    if (trainEnd > maxTrain) trainEnd = maxTrain;
-                    if (logger.isDebugEnabled()) {
-                        //logger.debug("[TUNING-2PH][{}] phase=2 configIdx={} ratioTest={} jitter={} trainEnd={}/{}", symbol, idx+1, testSplitRatio, jitter, trainEnd, totalBars);
+        }
+        // Données préparées partagées entre configs, libérées en fin de phase (y compris sur exception)
+        try (LstmTrainingDataSession dataSession = new LstmTrainingDataSession(symbol, preparedDataMaxBytes)) {
+            promoted.addAll(pruneGridBySuccessiveHalving(symbol, grid, series, phase == 2 ? 25 : 20, progress, null, dataSession));
+            for (int i=0;i<grid.size();i++) {
+                final int idx=i; LstmConfig cfg=grid.get(i);
+                if (!promoted.contains(cfg)) continue;
+                cfg.setUseScalarV2(true); cfg.setUseWalkForwardV2(true); // fix parenthèse
+                // Auto-scale batch GPU phase1/2
+                scaleBatchForGpu(cfg);
+                // Exécution séquentielle de la tâche (remplace submit)
+                MultiLayerNetwork model=null; boolean permit=false; long stagger=0;
+                LstmMemoryAdmissionController.Reservation memory=null;
+                try {
+                    memory = reserveMemory(symbol, cfg, series);
+                    if (cudaBackend){ gpuController.acquirePermit(); permit=true; int active=gpuController.getActiveTrainings(); if(gpuEnableStagger && active>1){ stagger=1000+(long)(Math.random()*1500); Thread.sleep(stagger);} gpuController.markTrainingStarted();
+                        //logger.info("[GPU][MONITOR] Utilisation VRAM: {}% (activeTrainings={})", String.format("%.2f", gpuController.getLastVramUsagePct()), active);
+                    }
+                    lstmTradePredictor.setGlobalSeeds(cfg.getSeed());
+                    int totalBars=series.getBarCount();
+                    int testSplitRatio = (phase == 2 ? 25 : 20);
+                    int trainEnd= totalBars*(100-testSplitRatio)/100;
+                    if (phase == 2) {
+                        int jitterRange = Math.max(5, (int)(totalBars * 0.01));
+                        int jitterSeed = (int)((cfg.getSeed() ^ (idx * 0x9E3779B97F4A7C15L)) & 0x7fffffff);
+                        java.util.Random jitterRand = new java.util.Random(jitterSeed);
+                        int jitter = jitterRand.nextInt(jitterRange * 2 + 1) - jitterRange;
+                        trainEnd = trainEnd + jitter;
+                        int minTrain = cfg.getWindowSize() + 60;
+                        int maxTrain = totalBars - (cfg.getWindowSize() + 60);
+                        if (trainEnd < minTrain) trainEnd = minTrain;
+                        if (trainEnd > maxTrain) trainEnd = maxTrain;
+                        if (logger.isDebugEnabled()) {
+                            //logger.debug("[TUNING-2PH][{}] phase=2 configIdx={} ratioTest={} jitter={} trainEnd={}/{}", symbol, idx+1, testSplitRatio, jitter, trainEnd, totalBars);
+                        }
                     }
+                    if(trainEnd < cfg.getWindowSize()+50) throw new IllegalStateException("Données insuffisantes");
+                    BarSeries trainSeries=series.getSubSeries(0, trainEnd);
+                    var tr = trainUnderCpuPermit(trainSeries, cfg, 0, dataSession);
+                    model=tr.model; var scalers=tr.scalers;
+                    var wf = lstmTradePredictor.walkForwardEvaluateOutOfSample(series, cfg, model, scalers, trainEnd);
+                    TuningResult trRes = aggregateWalkForward(wf, cfg, model, scalers, i + 1);
+                    if (trRes == null) throw new AucunSplitValideException("Aucun split valide");
+                    hyperparamsRepository.saveTuningMetrics(symbol,cfg,trRes.score,trRes.rmse,trRes.sumProfit,trRes.profitFactor,trRes.winRate,trRes.maxDrawdown,trRes.totalTrades,trRes.businessScore,
+                            wf.splits.stream().mapToDouble(m->m.sortino).average().orElse(0.0),
+                            wf.splits.stream().mapToDouble(m->m.calmar).average().orElse(0.0),
+                            wf.splits.stream().mapToDouble(m->m.turnover).average().orElse(0.0),
+                            wf.splits.stream().mapToDouble(m->m.avgBarsInPosition).average().orElse(0.0),
+                            phase, i + 1, -1, false);
+                    results.add(trRes);
+                    if(progress!=null){ progress.testedConfigs.incrementAndGet(); progress.lastUpdate=System.currentTimeMillis(); }
+                    //logger.info("[TUNING-2PH][{}] {} config {}/{} bs={} adj={} dd={} trades={} phase={}", phaseTag, symbol, idx+1, grid.size(), String.format("%.5f", meanBusiness), String.format("%.5f", adjScore(trRes)), String.format("%.4f", maxDrawdownPct), trades, phase);
+                    trRes.numberGridTop = grid.get(idx).getIndexTop();
+                    trRes.numberGrid = i + 1;
+                } catch(AucunSplitValideException ex){
+                    if(progress!=null){ progress.testedConfigs.incrementAndGet(); progress.lastUpdate=System.currentTimeMillis(); }
+                    logger.warn("[TUNING-2PH][{}][{}] AucunSplitValideException {}/{} : {}", phaseTag, symbol, idx+1, grid.size(), ex.getMessage());
+                } catch(Exception ex){
+                    if(progress!=null){ progress.testedConfigs.incrementAndGet(); progress.lastUpdate=System.currentTimeMillis(); }
+                    logger.error("[TUNING-2PH]Exception[{}][{}] Erreur config {}/{} : {}", phaseTag, symbol, idx+1, grid.size(), ex.getMessage());
                 }
-                if(trainEnd < cfg.getWindowSize()+50) throw new IllegalStateException("Données insuffisantes");
-                BarSeries trainSeries=series.getSubSeries(0, trainEnd);
-                var tr = lstmTradePredictor.trainLstmScalarV2(trainSeries, cfg);
-                model=tr.model; var scalers=tr.scalers;
-                var wf = lstmTradePredictor.walkForwardEvaluateOutOfSample(series, cfg, model, scalers, trainEnd);
-                double sumPF=0,sumWin=0,maxDrawdownPct=0,sumBusiness=0,sumProfit=0,sumBusinessSq=0; // ajout sumBusinessSq
-                int splits=0,trades=0;
-                for(var m: wf.splits){
-                    double bsSplit = Double.isFinite(m.businessScore)?m.businessScore:0;
-                    sumPF+=Double.isFinite(m.profitFactor)?m.profitFactor:0;
-                    sumWin+=m.winRate;
-                    if(m.maxDrawdownPct>maxDrawdownPct) maxDrawdownPct=m.maxDrawdownPct;
-                    sumBusiness+=bsSplit;
-                    sumBusinessSq+=bsSplit*bsSplit; // accumulation pour variance
-                    sumProfit+=m.totalProfit;
-                    trades+=m.numTrades; splits++; }
-                if (splits==0) throw new AucunSplitValideException("Aucun split valide");
-                double meanMse=wf.meanMse; double meanBusiness=sumBusiness/splits; double variance = (sumBusinessSq / splits) - (meanBusiness*meanBusiness); if(variance<0) variance=0; double stdBusiness = Math.sqrt(variance);
-                double rmse=(Double.isFinite(meanMse)&&meanMse>=0)?Math.sqrt(meanMse):Double.NaN;
-                hyperparamsRepository.saveTuningMetrics(symbol,cfg,meanMse,rmse,sumProfit,sumPF/splits,sumWin/splits,maxDrawdownPct,trades,meanBusiness,
-                        wf.splits.stream().mapToDouble(m->m.sortino).average().orElse(0.0),
-                        wf.splits.stream().mapToDouble(m->m.calmar).average().orElse(0.0),
-                        wf.splits.stream().mapToDouble(m->m.turnover).average().orElse(0.0),
-                        wf.splits.stream().mapToDouble(m->m.avgBarsInPosition).average().orElse(0.0),
-                        phase, i + 1, -1, false);
-                TuningResult trRes=new TuningResult(cfg, model, scalers, meanMse, sumPF/splits, sumWin/splits, maxDrawdownPct, meanBusiness, stdBusiness, rmse, sumProfit, trades, wf.totalTestedBars, i + 1);
-                results.add(trRes);
-                if(progress!=null){ progress.testedConfigs.incrementAndGet(); progress.lastUpdate=System.currentTimeMillis(); }
-                //logger.info("[TUNING-2PH][{}] {} config {}/{} bs={} adj={} dd={} trades={} phase={}", phaseTag, symbol, idx+1, grid.size(), String.format("%.5f", meanBusiness), String.format("%.5f", adjScore(trRes)), String.format("%.4f", maxDrawdownPct), trades, phase);
-                trRes.numberGridTop = grid.get(idx).getIndexTop();
-                trRes.numberGrid = i + 1;
-            } catch(AucunSplitValideException ex){
-                if(progress!=null){ progress.testedConfigs.incrementAndGet(); progress.lastUpdate=System.currentTimeMillis(); }
-                logger.warn("[TUNING-2PH][{}][{}] AucunSplitValideException {}/{} : {}", phaseTag, symbol, idx+1, grid.size(), ex.getMessage());
-            } catch(Exception ex){
-                if(progress!=null){ progress.testedConfigs.incrementAndGet(); progress.lastUpdate=System.currentTimeMillis(); }
-                logger.error("[TUNING-2PH]Exception[{}][{}] Erreur config {}/{} : {}", phaseTag, symbol, idx+1, grid.size(), ex.getMessage());
+                finally { model=null; try{ org.nd4j.linalg.factory.Nd4j.getMemoryManager().invokeGc(); org.nd4j.linalg.factory.Nd4j.getWorkspaceManager().destroyAllWorkspacesForCurrentThread(); }catch(Exception ignore){} System.gc(); if(cudaBackend){ gpuController.markTrainingFinished(); if(permit) gpuController.releasePermit(); } if(memory!=null) memory.close(); }
             }
-            finally { model=null; try{ org.nd4j.linalg.factory.Nd4j.getMemoryManager().invokeGc(); org.nd4j.linalg.factory.Nd4j.getWorkspaceManager().destroyAllWorkspacesForCurrentThread(); }catch(Exception ignore){} System.gc(); if(cudaBackend){ gpuController.markTrainingFinished(); if(permit) gpuController.releasePermit(); } }
         }
         // Suppression de la récupération des futures
         // executor.shutdown(); for(var f: futures){ try{ f.get(); }catch(Exception ignored){} }
@@ -1883,6 +2077,165 @@ public class LstmTuningService {
         //logger.info("[TUNING-2PH][{}] Fin phase {} | bestRawBS={} bestAdjBS={} std={} trades={} ", symbol, phaseTag, String.format("%.6f", bestRaw), String.format("%.6f", bestAdj), String.format("%.6f", bestStd), best!=null?best.totalTrades:0); 
         return ag;
     }
+    /**
+     * Auto-scale batch pour GPU : double le batch jusqu'à gpuTargetBatchSize (LR réduit proportionnellement si activé).
+     * Idempotent (batch déjà à la cible => aucun changement).
+     */
+    private void scaleBatchForGpu(LstmConfig config) {
+        if (!cudaBackend || !gpuAutoBatchScale) return;
+        int originalBatch = config.getBatchSize() > 0 ? config.getBatchSize() : 32;
+        if (originalBatch >= gpuTargetBatchSize) return;
+        int newBatch = originalBatch;
+        while (newBatch < gpuTargetBatchSize) {
+            newBatch *= 2;
+            if (newBatch >= gpuTargetBatchSize) break;
+        }
+        if (newBatch > gpuTargetBatchSize) newBatch = gpuTargetBatchSize;
+        if (newBatch != originalBatch) {
+            if (gpuScaleLearningRateOnBatch && config.getLearningRate() > 0) {
+                double scaledLr = config.getLearningRate() * ((double) originalBatch / (double) newBatch);
+                config.setLearningRate(scaledLr);
+            }
+            config.setBatchSize(newBatch);
+        }
+    }
+
+    /**
+     * Successive halving sur la grille : paliers à budget d'epochs réduit (minEpochs, x eta, ...) sous le budget
+     * complet, 1/eta des configs promues à chaque palier. Les configs éliminées sont comptées dans testedConfigs
+     * (et prunedConfigs) ; celles retournées suivent le pipeline complet inchangé (walk-forward, TuningResult, persistance).
+     * @param executor pool d'évaluation des paliers (null = séquentiel)
+     * @return configurations promues (ordre de la grille), ou la grille entière si désactivé
+     */
+    private java.util.List<LstmConfig> pruneGridBySuccessiveHalving(String symbol, java.util.List<LstmConfig> grid, BarSeries series,
+                                                                     int testSplitRatio, TuningProgress progress,
+                                                                     java.util.concurrent.ExecutorService executor,
+                                                                     LstmTrainingDataSession dataSession) {
+        if (!successiveHalvingEnabled || grid == null || grid.size() <= Math.max(1, successiveHalvingMinSurvivors)) return grid;
+        int fullEpochs = 100; // plancher appliqué par trainLstmScalarV2
+        for (LstmConfig c : grid) fullEpochs = Math.max(fullEpochs, c.getNumEpochs());
+        SuccessiveHalvingScheduler scheduler = new SuccessiveHalvingScheduler(successiveHalvingMinEpochs, fullEpochs,
+            successiveHalvingEta, successiveHalvingMinSurvivors);
+        boolean businessMetric = "business".equalsIgnoreCase(successiveHalvingMetric);
+        long start = System.currentTimeMillis();
+        SuccessiveHalvingScheduler.RungEvaluator<LstmConfig> evaluator =
+            (cfg, budget) -> rungScore(cfg, series, testSplitRatio, budget, businessMetric, dataSession);
+        SuccessiveHalvingScheduler.RungListener listener = (rung, budget, evaluated, kept) -> {
+            if (progress != null) {
+                progress.currentRung = rung;
+                progress.prunedConfigs.addAndGet(evaluated - kept);
+                progress.testedConfigs.addAndGet(evaluated - kept);
+                progress.lastUpdate = System.currentTimeMillis();
+            }
+        };
+        java.util.List<LstmConfig> promoted;
+        if (businessMetric) {
+            promoted = scheduler.prune(grid, evaluator, executor, listener);
+        } else {
+            // val_loss n'est comparable qu'entre configs de même label (horizon, cible, normalisation) : élagage par groupe
+            java.util.Map<String, java.util.List<LstmConfig>> groups = new java.util.LinkedHashMap<>();
+            for (LstmConfig c : grid) groups.computeIfAbsent(labelKey(c), k -> new java.util.ArrayList<>()).add(c);
+            java.util.Set<LstmConfig> kept = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+            for (java.util.List<LstmConfig> group : groups.values()) kept.addAll(scheduler.prune(group, evaluator, executor, listener));
+            promoted = new java.util.ArrayList<>();
+            for (LstmConfig c : grid) if (kept.contains(c)) promoted.add(c);
+            if (groups.size() > 1) logger.info("[TUNING][SHA] {} : val_loss comparée dans {} groupes de labels", symbol, groups.size());
+        }
+        if (progress != null) progress.currentRung = 0;
+        logger.info("[TUNING][SHA] {} : {} configs -> {} promues au budget complet ({} epochs, métrique={}) en {} ms",
+            symbol, grid.size(), promoted.size(), fullEpochs, businessMetric ? "business" : "val_loss", System.currentTimeMillis() - start);
+        return promoted;
+    }
+
+    /**
+     * Réglages qui fixent l'échelle de la val_loss : horizon, cible (log-return, moyenne multi-horizon) et
+     * normalisation. Deux configs de clés différentes n'ont pas de val_loss comparables.
+     */
+    static String labelKey(LstmConfig config) {
+        return "h=" + config.getHorizonBars()
+            + "|logret=" + config.isUseLogReturnTarget()
+            + "|multiH=" + config.isUseMultiHorizonAvg()
+            + "|norm=" + config.getNormalizationMethod()
+            + "|scope=" + config.getNormalizationScope();
+    }
+
+    /**
+     * Score d'une config pour un palier : -meilleure val_loss de l'entraînement, ou adjScore d'un walk-forward
+     * out-of-sample (métrique business). Plus grand = meilleur, NaN = éliminée.
+     */
+    private double rungScore(LstmConfig config, BarSeries series, int testSplitRatio, int epochBudget, boolean businessMetric,
+                             LstmTrainingDataSession dataSession) throws Exception {
+        MultiLayerNetwork model = null;
+        boolean permitAcquired = false;
+        LstmMemoryAdmissionController.Reservation memory = null;
+        try {
+            memory = reserveMemory(series.getName(), config, series);
+            if (cudaBackend) {
+                gpuController.acquirePermit();
+                permitAcquired = true;
+                gpuController.markTrainingStarted();
+            }
+            scaleBatchForGpu(config);
+            config.setUseScalarV2(true);
+            config.setUseWalkForwardV2(true);
+            lstmTradePredictor.setGlobalSeeds(config.getSeed());
+            int trainEndBar = series.getBarCount() * (100 - testSplitRatio) / 100;
+            if (trainEndBar < config.getWindowSize() + 50) {
+                throw new IllegalStateException("Données insuffisantes après séparation train/test");
+            }
+            LstmTradePredictor.TrainResult tr = trainUnderCpuPermit(series.getSubSeries(0, trainEndBar), config, epochBudget, dataSession);
+            model = tr.model;
+            if (model == null) return Double.NaN;
+            if (!businessMetric) {
+                return tr.bestValLoss != null ? -tr.bestValLoss : Double.NaN;
+            }
+            LstmTradePredictor.WalkForwardResultV2 wf = lstmTradePredictor.walkForwardEvaluateOutOfSample(series, config, model, tr.scalers, trainEndBar);
+            TuningResult result = aggregateWalkForward(wf, config, null, null, -1);
+            return result != null ? adjScore(result) : Double.NaN;
+        } finally {
+            model = null;
+            try {
+                org.nd4j.linalg.factory.Nd4j.getMemoryManager().invokeGc();
+                org.nd4j.linalg.factory.Nd4j.getWorkspaceManager().destroyAllWorkspacesForCurrentThread();
+            } catch (Exception ignore) {}
+            if (permitAcquired) {
+                gpuController.markTrainingFinished();
+                gpuController.releasePermit();
+            }
+            if (memory != null) memory.close();
+        }
+    }
+
+    /**
+     * Agrégation des splits d'un walk-forward out-of-sample : moyennes profit factor / win rate / business score
+     * (et son écart-type), drawdown max, profit et trades cumulés. Partagée par les paliers du successive halving
+     * et l'évaluation complète des phases, pour qu'ils classent les configs sur le même score.
+     * @return null si aucun split valide
+     */
+    private static TuningResult aggregateWalkForward(LstmTradePredictor.WalkForwardResultV2 wf, LstmConfig config,
+                                                     MultiLayerNetwork model, LstmTradePredictor.ScalerSet scalers, int numberGrid) {
+        double sumPF=0,sumWin=0,maxDrawdownPct=0,sumBusiness=0,sumProfit=0,sumBusinessSq=0;
+        int splits=0,trades=0;
+        for (var m : wf.splits) {
+            double bsSplit = Double.isFinite(m.businessScore) ? m.businessScore : 0;
+            sumPF += Double.isFinite(m.profitFactor) ? m.profitFactor : 0;
+            sumWin += m.winRate;
+            if (m.maxDrawdownPct > maxDrawdownPct) maxDrawdownPct = m.maxDrawdownPct;
+            sumBusiness += bsSplit;
+            sumBusinessSq += bsSplit * bsSplit; // accumulation pour variance
+            sumProfit += m.totalProfit;
+            trades += m.numTrades;
+            splits++;
+        }
+        if (splits == 0) return null;
+        double meanMse = wf.meanMse;
+        double meanBusiness = sumBusiness / splits;
+        double variance = Math.max(0, (sumBusinessSq / splits) - meanBusiness * meanBusiness);
+        double rmse = (Double.isFinite(meanMse) && meanMse >= 0) ? Math.sqrt(meanMse) : Double.NaN;
+        return new TuningResult(config, model, scalers, meanMse, sumPF / splits, sumWin / splits, maxDrawdownPct,
+            meanBusiness, Math.sqrt(variance), rmse, sumProfit, trades, wf.totalTestedBars, numberGrid);
+    }
+
     private void persistBest(String symbol, PhaseAggregate pa, JdbcTemplate jdbcTemplate, double ratio){
         if(pa.bestConfig==null||pa.bestModel==null||pa.bestScalers==null){ logger.warn("[TUNING-2PH][PERSIST] Objets null – skip"); return; }
         try { synchronized (modelSaveLock){ lstmTradePredictor.saveModelToDb(symbol, jdbcTemplate, pa.bestModel, pa.bestConfig, pa.bestScalers, pa.bestMse,
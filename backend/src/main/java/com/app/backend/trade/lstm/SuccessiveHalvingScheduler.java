@@ -0,0 +1,141 @@
+package com.app.backend.trade.lstm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Successive halving pour le tuning LSTM : toutes les configurations sont d'abord entraînées avec un petit
+ * budget d'epochs, seule la meilleure fraction (1/eta) passe au palier suivant (budget x eta), et ainsi de
+ * suite jusqu'au budget complet. Le palier complet (entraînement + walk-forward + persistance TuningResult)
+ * reste celui de LstmTuningService : ce scheduler ne fait qu'élaguer la grille.
+ *
+ * Chaque palier ré-entraîne depuis zéro (mêmes seeds) : pas de checkpoint intermédiaire à conserver.
+ * Score d'un palier : plus grand = meilleur ; NaN / infini / exception = configuration éliminée.
+ */
+public final class SuccessiveHalvingScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuccessiveHalvingScheduler.class);
+
+    /** Évaluation d'un candidat pour un budget d'epochs donné (plus grand = meilleur) */
+    @FunctionalInterface
+    public interface RungEvaluator<T> {
+        double score(T candidate, int epochBudget) throws Exception;
+    }
+
+    /** Notification de fin de palier (suivi de progression) */
+    @FunctionalInterface
+    public interface RungListener {
+        void onRung(int rung, int epochBudget, int evaluated, int promoted);
+    }
+
+    private final int minEpochs;
+    private final int maxEpochs;
+    private final int eta;
+    private final int minSurvivors;
+
+    /**
+     * @param minEpochs budget du premier palier
+     * @param maxEpochs budget de l'entraînement complet (non exécuté ici)
+     * @param eta facteur de réduction / d'augmentation du budget entre paliers (>= 2)
+     * @param minSurvivors nombre minimal de configurations promues à l'entraînement complet
+     */
+    public SuccessiveHalvingScheduler(int minEpochs, int maxEpochs, int eta, int minSurvivors) {
+        this.minEpochs = Math.max(1, minEpochs);
+        this.maxEpochs = maxEpochs;
+        this.eta = Math.max(2, eta);
+        this.minSurvivors = Math.max(1, minSurvivors);
+    }
+
+    /** Budgets des paliers d'élagage (strictement inférieurs au budget complet) */
+    public List<Integer> rungBudgets() {
+        List<Integer> budgets = new ArrayList<>();
+        for (long b = minEpochs; b < maxEpochs; b *= eta) {
+            budgets.add((int) b);
+        }
+        return budgets;
+    }
+
+    /** Nombre de candidats conservés après un palier de n configurations évaluées */
+    int keepCount(int n) {
+        return Math.min(n, Math.max(minSurvivors, (n + eta - 1) / eta));
+    }
+
+    /**
+     * Élague les candidats palier par palier.
+     * @param executor pool d'évaluation (null = séquentiel)
+     * @param listener suivi de progression (optionnel)
+     * @return configurations promues au budget complet, dans l'ordre d'origine ; la liste d'entrée si aucune
+     *         configuration n'a pu être évaluée à un palier (repli sur le comportement sans élagage)
+     */
+    public <T> List<T> prune(List<T> candidates, RungEvaluator<T> evaluator, ExecutorService executor, RungListener listener) {
+        List<T> current = new ArrayList<>(candidates);
+        int rung = 0;
+        for (int budget : rungBudgets()) {
+            if (current.size() <= minSurvivors) break;
+            rung++;
+            double[] scores = evaluate(current, evaluator, budget, executor);
+            Integer[] order = new Integer[current.size()];
+            int valid = 0;
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+                if (Double.isFinite(scores[i])) valid++;
+            }
+            if (valid == 0) {
+                logger.warn("[TUNING][SHA] palier {} (epochs={}) : aucune configuration évaluée, arrêt de l'élagage", rung, budget);
+                return current;
+            }
+            // Tri stable : à score égal, l'ordre de la grille est conservé
+            Arrays.sort(order, Comparator.comparingDouble((Integer i) -> Double.isFinite(scores[i]) ? -scores[i] : Double.POSITIVE_INFINITY));
+            int keep = Math.min(valid, keepCount(current.size()));
+            Integer[] kept = Arrays.copyOf(order, keep);
+            Arrays.sort(kept);
+            List<T> next = new ArrayList<>(keep);
+            for (int i : kept) next.add(current.get(i));
+            logger.info("[TUNING][SHA] palier {} epochs={} : {} évaluées, {} valides, {} promues", rung, budget, current.size(), valid, keep);
+            if (listener != null) listener.onRung(rung, budget, current.size(), keep);
+            current = next;
+        }
+        return current;
+    }
+
+    private static <T> double[] evaluate(List<T> candidates, RungEvaluator<T> evaluator, int budget, ExecutorService executor) {
+        double[] scores = new double[candidates.size()];
+        if (executor == null) {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = safeScore(evaluator, candidates.get(i), budget);
+            }
+            return scores;
+        }
+        List<Future<Double>> futures = new ArrayList<>(scores.length);
+        for (T candidate : candidates) {
+            futures.add(executor.submit(() -> safeScore(evaluator, candidate, budget)));
+        }
+        for (int i = 0; i < scores.length; i++) {
+            try {
+                scores[i] = futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                scores[i] = Double.NaN;
+            } catch (Exception e) {
+                scores[i] = Double.NaN;
+            }
+        }
+        return scores;
+    }
+
+    private static <T> double safeScore(RungEvaluator<T> evaluator, T candidate, int budget) {
+        try {
+            return evaluator.score(candidate, budget);
+        } catch (Exception e) {
+            logger.warn("[TUNING][SHA] évaluation échouée (epochs={}) : {}", budget, e.getMessage());
+            return Double.NaN;
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.app.backend.trade.model;
 
 import lombok.*;
 
-@Builder
+@Builder(toBuilder = true)
 @Getter
 @Setter
 public class RiskResult {
@@ -37,4 +37,7 @@ public class RiskResult {
     public double stabilityScore;
 
     public int numFlod;
+
+    /** Backtest interrompu par une borne d'abandon (PruningBound) : métriques partielles, candidat perdant */
+    public boolean partial;
 }
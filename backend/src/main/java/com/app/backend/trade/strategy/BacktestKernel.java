@@ -0,0 +1,278 @@
+package com.app.backend.trade.strategy;
+
+import com.app.backend.trade.model.RiskResult;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moteur de backtest primitif (colonnes double[] + signaux pré-calculés).
+ *
+ * Reproduit exactement la logique de StrategieBackTest.backtestStrategy / backtestStrategyRisk
+ * (money management, stop loss, take profit, clôture forcée en fin de série) mais :
+ *  - aucun accès BarSeries / Num dans la boucle
+ *  - aucune allocation par bougie ni par trade (pas de List<Double> des rendements)
+ *  - moyenne / variance des rendements par trade via l'accumulateur de Welford (une seule passe)
+ *
+ * Utilisé dans les balayages d'optimisation où la même série est backtestée des milliers de fois.
+ * La variante [fromIndex, toIndex[ backteste une fenêtre de la série sur des signaux calculés
+ * sur la série complète (walk-forward sans getSubSeries).
+ *
+ * Une PruningBound optionnelle permet d'abandonner un candidat perdant (borne sur le rendement encore
+ * atteignable ou sur le drawdown) : le résultat est alors partiel (RiskResult.partial = true).
+ */
+public final class BacktestKernel {
+
+    // Fréquence (en bougies) du test de la borne de rendement (partagée avec BatchBacktestKernel)
+    static final int BOUND_CHECK_MASK = 7;
+    // Marge relative contre les erreurs d'arrondi de la borne supérieure
+    static final double BOUND_EPSILON = 1e-12;
+
+    // Compteurs globaux : bougies évaluées / économisées par abandon, nombre de backtests abandonnés
+    private static final LongAdder BARS_EVALUATED = new LongAdder();
+    private static final LongAdder BARS_SAVED = new LongAdder();
+    private static final LongAdder PRUNED_RUNS = new LongAdder();
+    private static final LongAdder RUNS = new LongAdder();
+
+    private BacktestKernel() {
+    }
+
+    public static long getBarsEvaluated() {
+        return BARS_EVALUATED.sum();
+    }
+
+    public static long getBarsSaved() {
+        return BARS_SAVED.sum();
+    }
+
+    public static long getPrunedRuns() {
+        return PRUNED_RUNS.sum();
+    }
+
+    public static long getRuns() {
+        return RUNS.sum();
+    }
+
+    public static void resetCounters() {
+        BARS_EVALUATED.reset();
+        BARS_SAVED.reset();
+        PRUNED_RUNS.reset();
+        RUNS.reset();
+    }
+
+    public static RiskResult run(SeriesColumns columns, TradeSignals signals,
+                                 double initialCapital, double riskPerTrade, double stopLossPct, double takeProfitPct) {
+        return run(columns, signals, 0, Integer.MAX_VALUE, initialCapital, riskPerTrade, stopLossPct, takeProfitPct);
+    }
+
+    public static RiskResult run(SeriesColumns columns, TradeSignals signals, int fromIndex, int toIndex,
+                                 double initialCapital, double riskPerTrade, double stopLossPct, double takeProfitPct) {
+        return run(columns, signals, fromIndex, toIndex, initialCapital, riskPerTrade, stopLossPct, takeProfitPct, PruningBound.NONE);
+    }
+
+    /**
+     * Backtest avec borne d'abandon.
+     * Borne de rendement : chaque trade rapporte au plus positionSize x takeProfitPct (sortie plafonnée au take profit)
+     * et occupe au moins deux bougies, donc le capital final est majoré par
+     * capital x (1 + riskPerTrade x takeProfitPct)^(trades encore possibles). Si ce majorant est strictement
+     * inférieur au capital du meilleur candidat, le backtest est abandonné : il ne peut pas le battre.
+     */
+    public static RiskResult run(SeriesColumns columns, TradeSignals signals, int fromIndex, int toIndex,
+                                 double initialCapital, double riskPerTrade, double stopLossPct, double takeProfitPct,
+                                 PruningBound bound) {
+        final double[] close = columns.close;
+        final int n = Math.min(toIndex, Math.min(close.length, signals.getBarCount()));
+        final int from = Math.max(0, fromIndex);
+        final TradeStats stats = new TradeStats(initialCapital);
+        boolean inPosition = false;
+        double entryPrice = 0.0;
+        double positionSize = 0.0;
+        int tradeStartIndex = 0;
+        // Borne d'abandon
+        final boolean boundActive = bound != null && bound.isActive();
+        final boolean returnBound = boundActive && bound.getIncumbentReturn() > Double.NEGATIVE_INFINITY;
+        final double incumbentCapital = returnBound ? initialCapital * (1.0 + bound.getIncumbentReturn()) : 0.0;
+        final double maxDrawdownBound = boundActive ? bound.getMaxDrawdown() : Double.POSITIVE_INFINITY;
+        final double tradeGrowth = 1.0 + riskPerTrade * takeProfitPct;
+        final double logTradeGrowth = Math.log(tradeGrowth);
+        boolean pruned = false;
+        int stopIndex = n;
+        for (int i = from; i < n; i++) {
+            if (returnBound && ((i - from) & BOUND_CHECK_MASK) == 0
+                    && cannotReach(stats.capital, inPosition, n - i, tradeGrowth, logTradeGrowth, incumbentCapital)) {
+                pruned = true;
+                stopIndex = i;
+                break;
+            }
+            double price = close[i];
+            if (!inPosition && signals.isEntry(i)) {
+                // Entrée en position
+                positionSize = stats.capital * riskPerTrade;
+                entryPrice = price;
+                inPosition = true;
+                tradeStartIndex = i;
+            } else if (inPosition && shouldExit(price, entryPrice, stopLossPct, takeProfitPct, signals.isExit(i))) {
+                inPosition = false;
+                double exitPrice = exitPrice(price, entryPrice, stopLossPct, takeProfitPct);
+                if (stats.exit(positionSize, entryPrice, exitPrice, i - tradeStartIndex + 1) > maxDrawdownBound) {
+                    pruned = true;
+                    stopIndex = i + 1;
+                    break;
+                }
+            }
+        }
+        recordRun(stopIndex - from, n - stopIndex, pruned);
+        // Si une position reste ouverte à la fin, on la clôture au dernier prix (pas de clôture si abandon)
+        if (inPosition && !pruned) {
+            stats.closeAtEnd(positionSize, entryPrice, close[n - 1], n - 1 - tradeStartIndex + 1);
+        }
+        return stats.toResult(pruned);
+    }
+
+    /**
+     * Borne de rendement : true si, même en gagnant le take profit à chaque trade encore possible (deux bougies
+     * au moins par trade), le capital final reste strictement inférieur à celui du meilleur candidat.
+     */
+    static boolean cannotReach(double capital, boolean inPosition, int remaining, double tradeGrowth,
+                               double logTradeGrowth, double incumbentCapital) {
+        int maxTrades = inPosition ? (remaining - 1) / 2 : remaining / 2;
+        double maxCapital = capital * (inPosition ? tradeGrowth : 1.0) * Math.exp(maxTrades * logTradeGrowth);
+        return maxCapital * (1.0 + BOUND_EPSILON) < incumbentCapital;
+    }
+
+    /**
+     * Sortie de position : stop loss, take profit ou signal de sortie.
+     */
+    static boolean shouldExit(double price, double entryPrice, double stopLossPct, double takeProfitPct, boolean exitSignal) {
+        return price <= entryPrice * (1 - stopLossPct) || price >= entryPrice * (1 + takeProfitPct) || exitSignal;
+    }
+
+    /**
+     * Prix de sortie : plafonné au stop loss / take profit s'ils sont atteints, sinon prix de clôture.
+     */
+    static double exitPrice(double price, double entryPrice, double stopLossPct, double takeProfitPct) {
+        double stopLossPrice = entryPrice * (1 - stopLossPct);
+        double takeProfitPrice = entryPrice * (1 + takeProfitPct);
+        double exitPrice = price;
+        if (price <= stopLossPrice) exitPrice = stopLossPrice;
+        if (price >= takeProfitPrice) exitPrice = takeProfitPrice;
+        return exitPrice;
+    }
+
+    /**
+     * Mise à jour des compteurs globaux pour un backtest (simple ou voie d'un BatchBacktestKernel).
+     */
+    static void recordRun(int barsEvaluated, int barsSaved, boolean pruned) {
+        RUNS.increment();
+        BARS_EVALUATED.add(Math.max(0, barsEvaluated));
+        if (pruned) {
+            PRUNED_RUNS.increment();
+            BARS_SAVED.add(barsSaved);
+        }
+    }
+
+    /**
+     * Accumulateurs d'un backtest (capital, drawdown, statistiques des trades, Welford sur les rendements par trade),
+     * partagés avec BatchBacktestKernel (une instance par voie) : les deux moteurs appliquent la même mise à jour.
+     */
+    static final class TradeStats {
+        private final double initialCapital;
+        double capital;
+        double peakCapital;
+        double maxDrawdown;
+        private int tradeCount;
+        private int winCount;
+        private double totalGain;
+        private double totalLoss;
+        private double sumPnL;
+        private double maxGain = Double.NEGATIVE_INFINITY;
+        private double maxLoss = Double.POSITIVE_INFINITY;
+        private int totalTradeBars;
+        private int returnCount;
+        private double returnMean;
+        private double returnM2;
+
+        TradeStats(double initialCapital) {
+            this.initialCapital = initialCapital;
+            this.capital = initialCapital;
+            this.peakCapital = initialCapital;
+        }
+
+        /**
+         * Trade clôturé dans la boucle (signal, stop loss ou take profit) : capital, drawdown et rendement par trade.
+         * @return drawdown maximal après le trade
+         */
+        double exit(double positionSize, double entryPrice, double exitPrice, int tradeBars) {
+            double pnl = positionSize * ((exitPrice - entryPrice) / entryPrice);
+            book(pnl, tradeBars);
+            // Drawdown
+            if (capital > peakCapital) peakCapital = capital;
+            double drawdown = (peakCapital - capital) / peakCapital;
+            if (drawdown > maxDrawdown) maxDrawdown = drawdown;
+            // Rendement par trade (Welford)
+            double r = pnl / initialCapital;
+            returnCount++;
+            double delta = r - returnMean;
+            returnMean += delta / returnCount;
+            returnM2 += delta * (r - returnMean);
+            return maxDrawdown;
+        }
+
+        /**
+         * Clôture forcée en fin de série : comptée dans les trades mais ni dans le drawdown ni dans les rendements
+         * par trade (comme StrategieBackTest).
+         */
+        void closeAtEnd(double positionSize, double entryPrice, double price, int tradeBars) {
+            book(positionSize * ((price - entryPrice) / entryPrice), tradeBars);
+        }
+
+        private void book(double pnl, int tradeBars) {
+            capital += pnl;
+            tradeCount++;
+            sumPnL += pnl;
+            if (pnl > 0) {
+                winCount++;
+                totalGain += pnl;
+                if (pnl > maxGain) maxGain = pnl;
+            } else {
+                totalLoss += Math.abs(pnl);
+                if (pnl < maxLoss) maxLoss = pnl;
+            }
+            totalTradeBars += tradeBars;
+        }
+
+        /**
+         * Métriques finales du backtest.
+         */
+        RiskResult toResult(boolean partial) {
+            double rendement = (capital / initialCapital) - 1.0;
+            double winRate = tradeCount > 0 ? (double) winCount / tradeCount : 0.0;
+            double avgPnL = tradeCount > 0 ? sumPnL / tradeCount : 0.0;
+            double profitFactor = totalLoss > 0 ? totalGain / totalLoss : 0.0;
+            double avgTradeBars = tradeCount > 0 ? (double) totalTradeBars / tradeCount : 0.0;
+            double maxTradeGain = (maxGain == Double.NEGATIVE_INFINITY) ? 0.0 : maxGain;
+            double maxTradeLoss = (maxLoss == Double.POSITIVE_INFINITY) ? 0.0 : maxLoss;
+            // Ratio de Sharpe (écart-type échantillon n-1, comme la version List<Double>)
+            double stdReturn = returnCount > 1 ? Math.sqrt(returnM2 / (returnCount - 1)) : 0.0;
+            double sharpeRatio = stdReturn > 0 ? returnMean / stdReturn : 0.0;
+            // Score de stabilité (inverse de l'écart-type)
+            double stabilityScore = stdReturn > 0 ? 1.0 / stdReturn : 0.0;
+            return RiskResult.builder()
+                    .rendement(rendement)
+                    .tradeCount(tradeCount)
+                    .winRate(winRate)
+                    .maxDrawdown(maxDrawdown)
+                    .avgPnL(avgPnL)
+                    .profitFactor(profitFactor)
+                    .avgTradeBars(avgTradeBars)
+                    .maxTradeGain(maxTradeGain)
+                    .maxTradeLoss(maxTradeLoss)
+                    .scoreSwingTrade(0)
+                    .baseScoreSwingTrade(0)
+                    .tradePenaltyFactor(1.0)
+                    .sharpeRatio(sharpeRatio)
+                    .stabilityScore(stabilityScore)
+                    .partial(partial)
+                    .build();
+        }
+    }
+}
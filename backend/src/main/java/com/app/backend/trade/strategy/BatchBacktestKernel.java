@@ -0,0 +1,134 @@
+package com.app.backend.trade.strategy;
+
+import com.app.backend.trade.model.RiskResult;
+
+import java.util.BitSet;
+
+/**
+ * Moteur de backtest par lot : N paramétrages d'une même famille de stratégie avancent ensemble, bougie par bougie.
+ *
+ * Organisation "struct-of-arrays" : l'état de position de chaque voie (en position, prix et taille d'entrée)
+ * est rangé dans des tableaux primitifs parallèles indexés par voie, et les signaux sont transposés en
+ * masques 64 bits par bougie (bit c = signal de la voie c). Le prix de clôture n'est lu qu'une fois par
+ * bougie pour toutes les voies, et la boucle interne ne touche que des tableaux contigus.
+ *
+ * Chaque voie reproduit exactement BacktestKernel.run : test de borne, sortie de position et mise à jour des
+ * trades (BacktestKernel.TradeStats) sont les mêmes méthodes, les RiskResult sont identiques à ceux d'un backtest
+ * individuel, borne d'abandon comprise.
+ */
+public final class BatchBacktestKernel {
+
+    /** Nombre maximal de voies par lot (un bit par voie dans les masques de signaux) */
+    public static final int MAX_LANES = 64;
+
+    private BatchBacktestKernel() {
+    }
+
+    public static RiskResult[] run(SeriesColumns columns, TradeSignals[] signals, int fromIndex, int toIndex,
+                                   double initialCapital, double riskPerTrade, double stopLossPct, double takeProfitPct) {
+        return run(columns, signals, fromIndex, toIndex, initialCapital, riskPerTrade, stopLossPct, takeProfitPct, PruningBound.NONE);
+    }
+
+    /**
+     * Backtest de toutes les voies sur la plage [fromIndex, toIndex[.
+     * @param signals signaux de chaque voie (au plus MAX_LANES, calculés sur la même série)
+     * @param bound borne d'abandon commune, appliquée voie par voie
+     * @return un RiskResult par voie, dans l'ordre de signals
+     */
+    public static RiskResult[] run(SeriesColumns columns, TradeSignals[] signals, int fromIndex, int toIndex,
+                                   double initialCapital, double riskPerTrade, double stopLossPct, double takeProfitPct,
+                                   PruningBound bound) {
+        final int lanes = signals.length;
+        if (lanes > MAX_LANES) {
+            throw new IllegalArgumentException("Lot de " + lanes + " voies (max " + MAX_LANES + ")");
+        }
+        final double[] close = columns.close;
+        int barCount = close.length;
+        for (TradeSignals s : signals) barCount = Math.min(barCount, s.getBarCount());
+        final int n = Math.min(toIndex, barCount);
+        final int from = Math.max(0, fromIndex);
+        final int span = Math.max(0, n - from);
+
+        // Transposition des signaux : un masque de voies par bougie
+        final long[] entryMask = new long[span];
+        final long[] exitMask = new long[span];
+        for (int c = 0; c < lanes; c++) {
+            transpose(signals[c].getEntry(), from, n, entryMask, 1L << c);
+            transpose(signals[c].getExit(), from, n, exitMask, 1L << c);
+        }
+
+        // État des positions (struct-of-arrays) ; accumulateurs de trades partagés avec BacktestKernel
+        final boolean[] inPosition = new boolean[lanes];
+        final boolean[] stopped = new boolean[lanes];
+        final double[] entryPrice = new double[lanes];
+        final double[] positionSize = new double[lanes];
+        final int[] tradeStartIndex = new int[lanes];
+        final int[] stopIndex = new int[lanes];
+        final BacktestKernel.TradeStats[] stats = new BacktestKernel.TradeStats[lanes];
+        for (int c = 0; c < lanes; c++) {
+            stats[c] = new BacktestKernel.TradeStats(initialCapital);
+            stopIndex[c] = n;
+        }
+
+        // Borne d'abandon (cf. BacktestKernel)
+        final boolean boundActive = bound != null && bound.isActive();
+        final boolean returnBound = boundActive && bound.getIncumbentReturn() > Double.NEGATIVE_INFINITY;
+        final double incumbentCapital = returnBound ? initialCapital * (1.0 + bound.getIncumbentReturn()) : 0.0;
+        final double maxDrawdownBound = boundActive ? bound.getMaxDrawdown() : Double.POSITIVE_INFINITY;
+        final double tradeGrowth = 1.0 + riskPerTrade * takeProfitPct;
+        final double logTradeGrowth = Math.log(tradeGrowth);
+        int active = lanes;
+
+        for (int i = from; i < n && active > 0; i++) {
+            final double price = close[i];
+            final long entries = entryMask[i - from];
+            final long exits = exitMask[i - from];
+            final boolean checkBound = returnBound && ((i - from) & BacktestKernel.BOUND_CHECK_MASK) == 0;
+            final int remaining = n - i;
+            for (int c = 0; c < lanes; c++) {
+                if (stopped[c]) continue;
+                if (checkBound && BacktestKernel.cannotReach(stats[c].capital, inPosition[c], remaining,
+                        tradeGrowth, logTradeGrowth, incumbentCapital)) {
+                    stopped[c] = true;
+                    stopIndex[c] = i;
+                    active--;
+                    continue;
+                }
+                if (!inPosition[c] && (entries >>> c & 1L) != 0) {
+                    // Entrée en position
+                    positionSize[c] = stats[c].capital * riskPerTrade;
+                    entryPrice[c] = price;
+                    inPosition[c] = true;
+                    tradeStartIndex[c] = i;
+                } else if (inPosition[c] && BacktestKernel.shouldExit(price, entryPrice[c], stopLossPct, takeProfitPct,
+                        (exits >>> c & 1L) != 0)) {
+                    inPosition[c] = false;
+                    double exitPrice = BacktestKernel.exitPrice(price, entryPrice[c], stopLossPct, takeProfitPct);
+                    if (stats[c].exit(positionSize[c], entryPrice[c], exitPrice, i - tradeStartIndex[c] + 1) > maxDrawdownBound) {
+                        stopped[c] = true;
+                        stopIndex[c] = i + 1;
+                        active--;
+                    }
+                }
+            }
+        }
+
+        RiskResult[] results = new RiskResult[lanes];
+        for (int c = 0; c < lanes; c++) {
+            boolean pruned = stopped[c];
+            BacktestKernel.recordRun(stopIndex[c] - from, n - stopIndex[c], pruned);
+            // Si une position reste ouverte à la fin, on la clôture au dernier prix (pas de clôture si abandon)
+            if (inPosition[c] && !pruned) {
+                stats[c].closeAtEnd(positionSize[c], entryPrice[c], close[n - 1], n - 1 - tradeStartIndex[c] + 1);
+            }
+            results[c] = stats[c].toResult(pruned);
+        }
+        return results;
+    }
+
+    private static void transpose(BitSet bits, int from, int to, long[] masks, long laneBit) {
+        for (int i = bits.nextSetBit(from); i >= 0 && i < to; i = bits.nextSetBit(i + 1)) {
+            masks[i - from] |= laneBit;
+        }
+    }
+}
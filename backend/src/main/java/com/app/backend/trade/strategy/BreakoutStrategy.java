@@ -2,16 +2,12 @@ package com.app.backend.trade.strategy;
 
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Rule;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-import org.ta4j.core.indicators.helpers.HighPriceIndicator;
-import org.ta4j.core.indicators.helpers.LowPriceIndicator;
-import org.ta4j.core.indicators.helpers.HighestValueIndicator;
-import org.ta4j.core.indicators.helpers.LowestValueIndicator;
+import org.ta4j.core.Indicator;
 import org.ta4j.core.rules.CrossedUpIndicatorRule;
 import org.ta4j.core.rules.CrossedDownIndicatorRule;
 import org.ta4j.core.rules.OverIndicatorRule;
 import org.ta4j.core.rules.UnderIndicatorRule;
-import org.ta4j.core.num.DecimalNum;
+import org.ta4j.core.num.Num;
 import org.ta4j.core.indicators.helpers.TransformIndicator;
 
 public class BreakoutStrategy implements TradeStrategy {
@@ -27,25 +23,39 @@ public class BreakoutStrategy implements TradeStrategy {
 
     @Override
     public Rule getEntryRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
+        return getEntryRule(new IndicatorRegistry(series));
+    }
+
+    @Override
+    public Rule getExitRule(BarSeries series) {
+        return getExitRule(new IndicatorRegistry(series));
+    }
+
+    @Override
+    public Rule getEntryRule(IndicatorRegistry indicators) {
+        BarSeries series = indicators.getSeries();
+        Indicator<Num> close = indicators.close();
 
         // Breakout plus réaliste : prix au-dessus de X% du plus haut récent
-        HighestValueIndicator highestHigh = new HighestValueIndicator(new HighPriceIndicator(series), lookbackPeriod);
+        Indicator<Num> highestHigh = indicators.highest(IndicatorRegistry.Source.HIGH, lookbackPeriod);
+        Num factor = series.numOf(0.998); // 0.2% en dessous du plus haut (même type Num que la série)
         TransformIndicator breakoutLevel = new TransformIndicator(highestHigh,
-            value -> value.multipliedBy(DecimalNum.valueOf(0.998))); // 0.2% en dessous du plus haut
+            value -> value.multipliedBy(factor));
 
         // Signal d'entrée : prix franchit le niveau de breakout
         return new OverIndicatorRule(close, breakoutLevel);
     }
 
     @Override
-    public Rule getExitRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
+    public Rule getExitRule(IndicatorRegistry indicators) {
+        BarSeries series = indicators.getSeries();
+        Indicator<Num> close = indicators.close();
 
         // Sortie symétrique : prix en-dessous du plus bas récent + marge
-        LowestValueIndicator lowestLow = new LowestValueIndicator(new LowPriceIndicator(series), lookbackPeriod);
+        Indicator<Num> lowestLow = indicators.lowest(IndicatorRegistry.Source.LOW, lookbackPeriod);
+        Num factor = series.numOf(1.002); // 0.2% au-dessus du plus bas (même type Num que la série)
         TransformIndicator breakdownLevel = new TransformIndicator(lowestLow,
-            value -> value.multipliedBy(DecimalNum.valueOf(1.002))); // 0.2% au-dessus du plus bas
+            value -> value.multipliedBy(factor));
 
         return new UnderIndicatorRule(close, breakdownLevel);
     }
@@ -54,4 +64,9 @@ public class BreakoutStrategy implements TradeStrategy {
     public String getName() {
         return "Breakout";
     }
+
+    @Override
+    public String getKey() {
+        return getName() + "(" + lookbackPeriod + ")";
+    }
 }
@@ -2,16 +2,14 @@ package com.app.backend.trade.strategy;
 
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Rule;
-import org.ta4j.core.indicators.SMAIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.Indicator;
 import org.ta4j.core.rules.CrossedUpIndicatorRule;
 import org.ta4j.core.rules.CrossedDownIndicatorRule;
 import org.ta4j.core.rules.OverIndicatorRule;
 import org.ta4j.core.rules.UnderIndicatorRule;
 import org.ta4j.core.rules.AndRule;
 import org.ta4j.core.rules.OrRule;
-import org.ta4j.core.num.DecimalNum;
+import org.ta4j.core.num.Num;
 import org.ta4j.core.indicators.helpers.TransformIndicator;
 
 /**
@@ -53,13 +51,25 @@ public class ImprovedTrendFollowingStrategy implements TradeStrategy {
 
     @Override
     public Rule getEntryRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        SMAIndicator shortSma = new SMAIndicator(close, shortMaPeriod);
-        SMAIndicator longSma = new SMAIndicator(close, longMaPeriod);
+        return getEntryRule(new IndicatorRegistry(series));
+    }
+
+    @Override
+    public Rule getExitRule(BarSeries series) {
+        return getExitRule(new IndicatorRegistry(series));
+    }
+
+    @Override
+    public Rule getEntryRule(IndicatorRegistry indicators) {
+        BarSeries series = indicators.getSeries();
+        Indicator<Num> close = indicators.close();
+        Indicator<Num> shortSma = indicators.sma(shortMaPeriod);
+        Indicator<Num> longSma = indicators.sma(longMaPeriod);
 
         // Créer un indicateur avec threshold pour la moyenne mobile longue
+        Num upFactor = series.numOf(1 + breakoutThreshold); // même type Num que la série
         TransformIndicator longSmaWithThreshold = new TransformIndicator(longSma,
-            value -> value.multipliedBy(DecimalNum.valueOf(1 + breakoutThreshold)));
+            value -> value.multipliedBy(upFactor));
 
         // Condition 1: Prix au-dessus de la moyenne mobile longue + threshold
         Rule priceAboveLongSmaRule = new OverIndicatorRule(close, longSmaWithThreshold);
@@ -79,8 +89,8 @@ public class ImprovedTrendFollowingStrategy implements TradeStrategy {
 
         if (useRsiFilter) {
             // Filtre RSI plus permissif : éviter seulement la surachat extrême
-            RSIIndicator rsi = new RSIIndicator(close, rsiPeriod);
-            Rule rsiNotOverboughtRule = new UnderIndicatorRule(rsi, DecimalNum.valueOf(80)); // 80 au lieu de 75
+            Indicator<Num> rsi = indicators.rsi(rsiPeriod);
+            Rule rsiNotOverboughtRule = new UnderIndicatorRule(rsi, series.numOf(80)); // 80 au lieu de 75
             return new AndRule(basicEntryRule, rsiNotOverboughtRule);
         }
 
@@ -88,14 +98,16 @@ public class ImprovedTrendFollowingStrategy implements TradeStrategy {
     }
 
     @Override
-    public Rule getExitRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        SMAIndicator shortSma = new SMAIndicator(close, shortMaPeriod);
-        SMAIndicator longSma = new SMAIndicator(close, longMaPeriod);
+    public Rule getExitRule(IndicatorRegistry indicators) {
+        BarSeries series = indicators.getSeries();
+        Indicator<Num> close = indicators.close();
+        Indicator<Num> shortSma = indicators.sma(shortMaPeriod);
+        Indicator<Num> longSma = indicators.sma(longMaPeriod);
 
         // Créer un indicateur avec threshold pour la moyenne mobile longue
+        Num downFactor = series.numOf(1 - breakoutThreshold);
         TransformIndicator longSmaWithThreshold = new TransformIndicator(longSma,
-            value -> value.multipliedBy(DecimalNum.valueOf(1 - breakoutThreshold)));
+            value -> value.multipliedBy(downFactor));
 
         // Condition 1: Prix en-dessous de la moyenne mobile longue - threshold
         Rule priceBelowLongSmaRule = new UnderIndicatorRule(close, longSmaWithThreshold);
@@ -117,6 +129,11 @@ public class ImprovedTrendFollowingStrategy implements TradeStrategy {
         return "Improved Trend Following";
     }
 
+    @Override
+    public String getKey() {
+        return getName() + "(" + trendPeriod + "," + shortMaPeriod + "," + longMaPeriod + "," + breakoutThreshold + "," + useRsiFilter + "," + rsiPeriod + ")";
+    }
+
     // Getters pour les paramètres
     public int getTrendPeriod() { return trendPeriod; }
     public int getShortMaPeriod() { return shortMaPeriod; }
@@ -0,0 +1,130 @@
+package com.app.backend.trade.strategy;
+
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.indicators.ATRIndicator;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.MACDIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.indicators.helpers.HighPriceIndicator;
+import org.ta4j.core.indicators.helpers.HighestValueIndicator;
+import org.ta4j.core.indicators.helpers.LowPriceIndicator;
+import org.ta4j.core.indicators.helpers.LowestValueIndicator;
+import org.ta4j.core.num.Num;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Registre des indicateurs TA4J pour UNE série donnée, clé = (type, période, source).
+ *
+ * Les indicateurs TA4J étant des CachedIndicator, une même instance partagée ne calcule
+ * chaque valeur qu'une seule fois : SMA(20) sur la clôture est ainsi commune à SmaCrossover,
+ * MeanReversion, TrendFollowing et ImprovedTrendFollowing, à tous les candidats d'un balayage
+ * et à toutes les combinaisons entrée / sortie évaluées sur la même série.
+ */
+public final class IndicatorRegistry {
+
+    /**
+     * Source de prix d'un indicateur.
+     */
+    public enum Source { CLOSE, HIGH, LOW }
+
+    private final BarSeries series;
+    private final Map<String, Indicator<Num>> indicators = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public IndicatorRegistry(BarSeries series) {
+        this.series = series;
+    }
+
+    public BarSeries getSeries() {
+        return series;
+    }
+
+    public Indicator<Num> price(Source source) {
+        return get("PRICE", source.name(), 0, () -> switch (source) {
+            case CLOSE -> new ClosePriceIndicator(series);
+            case HIGH -> new HighPriceIndicator(series);
+            case LOW -> new LowPriceIndicator(series);
+        });
+    }
+
+    public Indicator<Num> close() {
+        return price(Source.CLOSE);
+    }
+
+    public Indicator<Num> sma(int period) {
+        return sma(Source.CLOSE, period);
+    }
+
+    public Indicator<Num> sma(Source source, int period) {
+        return get("SMA", source.name(), period, () -> new SMAIndicator(price(source), period));
+    }
+
+    public Indicator<Num> ema(Source source, int period) {
+        return get("EMA", source.name(), period, () -> new EMAIndicator(price(source), period));
+    }
+
+    public Indicator<Num> rsi(int period) {
+        return get("RSI", Source.CLOSE.name(), period, () -> new RSIIndicator(close(), period));
+    }
+
+    public Indicator<Num> atr(int period) {
+        return get("ATR", "BAR", period, () -> new ATRIndicator(series, period));
+    }
+
+    public Indicator<Num> highest(Source source, int period) {
+        return get("HIGHEST", source.name(), period, () -> new HighestValueIndicator(price(source), period));
+    }
+
+    public Indicator<Num> lowest(Source source, int period) {
+        return get("LOWEST", source.name(), period, () -> new LowestValueIndicator(price(source), period));
+    }
+
+    /**
+     * MACD(short, long) sur la clôture ; la "source" de la clé porte la période longue.
+     */
+    public Indicator<Num> macd(int shortPeriod, int longPeriod) {
+        return get("MACD", "CLOSE/" + longPeriod, shortPeriod, () -> new MACDIndicator(close(), shortPeriod, longPeriod));
+    }
+
+    /**
+     * Ligne de signal du MACD : EMA(signalPeriod) du MACD(short, long).
+     */
+    public Indicator<Num> macdSignal(int shortPeriod, int longPeriod, int signalPeriod) {
+        return get("EMA", "MACD(" + shortPeriod + "," + longPeriod + ")", signalPeriod,
+                () -> new EMAIndicator(macd(shortPeriod, longPeriod), signalPeriod));
+    }
+
+    private Indicator<Num> get(String type, String source, int period, Supplier<Indicator<Num>> factory) {
+        String key = type + "|" + source + "|" + period;
+        Indicator<Num> indicator = indicators.get(key);
+        if (indicator != null) {
+            hits.incrementAndGet();
+            return indicator;
+        }
+        misses.incrementAndGet();
+        // pas de computeIfAbsent : la fabrique peut elle-même enregistrer sa source (appel récursif)
+        Indicator<Num> created = factory.get();
+        Indicator<Num> previous = indicators.putIfAbsent(key, created);
+        return previous != null ? previous : created;
+    }
+
+    public int size() {
+        return indicators.size();
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+}
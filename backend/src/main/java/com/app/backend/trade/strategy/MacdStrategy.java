@@ -2,9 +2,6 @@ package com.app.backend.trade.strategy;
 
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Rule;
-import org.ta4j.core.indicators.MACDIndicator;
-import org.ta4j.core.indicators.EMAIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
 import org.ta4j.core.rules.CrossedUpIndicatorRule;
 import org.ta4j.core.rules.CrossedDownIndicatorRule;
 
@@ -25,22 +22,33 @@ public class MacdStrategy implements TradeStrategy {
 
     @Override
     public Rule getEntryRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        MACDIndicator macd = new MACDIndicator(close, shortPeriod, longPeriod);
-        EMAIndicator signal = new EMAIndicator(macd, signalPeriod);
-        return new CrossedUpIndicatorRule(macd, signal);
+        return getEntryRule(new IndicatorRegistry(series));
     }
 
     @Override
     public Rule getExitRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        MACDIndicator macd = new MACDIndicator(close, shortPeriod, longPeriod);
-        EMAIndicator signal = new EMAIndicator(macd, signalPeriod);
-        return new CrossedDownIndicatorRule(macd, signal);
+        return getExitRule(new IndicatorRegistry(series));
+    }
+
+    @Override
+    public Rule getEntryRule(IndicatorRegistry indicators) {
+        return new CrossedUpIndicatorRule(indicators.macd(shortPeriod, longPeriod),
+                indicators.macdSignal(shortPeriod, longPeriod, signalPeriod));
+    }
+
+    @Override
+    public Rule getExitRule(IndicatorRegistry indicators) {
+        return new CrossedDownIndicatorRule(indicators.macd(shortPeriod, longPeriod),
+                indicators.macdSignal(shortPeriod, longPeriod, signalPeriod));
     }
 
     @Override
     public String getName() {
         return "MACD";
     }
+
+    @Override
+    public String getKey() {
+        return getName() + "(" + shortPeriod + "," + longPeriod + "," + signalPeriod + ")";
+    }
 }
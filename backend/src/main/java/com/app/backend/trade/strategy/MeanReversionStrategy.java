@@ -2,8 +2,6 @@ package com.app.backend.trade.strategy;
 
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Rule;
-import org.ta4j.core.indicators.SMAIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
 import org.ta4j.core.rules.OverIndicatorRule;
 import org.ta4j.core.rules.UnderIndicatorRule;
 import org.ta4j.core.Indicator;
@@ -25,8 +23,19 @@ public class MeanReversionStrategy implements TradeStrategy {
 
     @Override
     public Rule getEntryRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        SMAIndicator sma = new SMAIndicator(close, smaPeriod);
+        return getEntryRule(new IndicatorRegistry(series));
+    }
+
+    @Override
+    public Rule getExitRule(BarSeries series) {
+        return getExitRule(new IndicatorRegistry(series));
+    }
+
+    @Override
+    public Rule getEntryRule(IndicatorRegistry indicators) {
+        BarSeries series = indicators.getSeries();
+        Indicator<Num> close = indicators.close();
+        Indicator<Num> sma = indicators.sma(smaPeriod);
         Indicator<Num> thresholdSma = new AbstractIndicator<Num>(series) {
             @Override
             public Num getValue(int index) {
@@ -38,9 +47,10 @@ public class MeanReversionStrategy implements TradeStrategy {
     }
 
     @Override
-    public Rule getExitRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        SMAIndicator sma = new SMAIndicator(close, smaPeriod);
+    public Rule getExitRule(IndicatorRegistry indicators) {
+        BarSeries series = indicators.getSeries();
+        Indicator<Num> close = indicators.close();
+        Indicator<Num> sma = indicators.sma(smaPeriod);
         Indicator<Num> thresholdSma = new AbstractIndicator<Num>(series) {
             @Override
             public Num getValue(int index) {
@@ -55,4 +65,9 @@ public class MeanReversionStrategy implements TradeStrategy {
     public String getName() {
         return "Mean Reversion";
     }
+
+    @Override
+    public String getKey() {
+        return getName() + "(" + smaPeriod + "," + thresholdPercent + ")";
+    }
 }
@@ -0,0 +1,104 @@
+package com.app.backend.trade.strategy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache mémoire borné (LRU) des résultats d'optimisation : meilleurs paramètres d'un balayage et RiskResult
+ * de backtests, partagé par les pipelines single (calculCroisedStrategies) et mix (calculMixStrategies).
+ *
+ * Clé : version des données (SignalCache.getDataKey : nom, nombre de bougies, dernière date, empreinte des prix)
+ * + bornes de la fenêtre + stratégie + paramètres / bornes du balayage. Une série modifiée (nouvelle bougie)
+ * change la clé : pas d'invalidation explicite, les anciennes entrées sortent par LRU.
+ *
+ * Les valeurs doivent être traitées en lecture seule par les appelants (copie défensive côté StrategieBackTest
+ * pour les RiskResult, modifiés après coup par les helpers).
+ */
+public final class OptimResultCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 20000;
+
+    private final Map<String, Object> entries;
+    private volatile int maxEntries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public OptimResultCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                if (size() > OptimResultCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Valeur en cache pour la clé, sinon calculée par loader puis mise en cache.
+     * Le calcul est fait hors verrou : deux threads peuvent calculer la même clé (résultats identiques).
+     * Taille max <= 0 : cache désactivé.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(String key, Supplier<V> loader) {
+        if (maxEntries <= 0) {
+            misses.incrementAndGet();
+            return loader.get();
+        }
+        Object cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            return (V) cached;
+        }
+        misses.incrementAndGet();
+        V value = loader.get();
+        if (value != null) {
+            synchronized (entries) {
+                entries.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        if (maxEntries <= 0) clear();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+}
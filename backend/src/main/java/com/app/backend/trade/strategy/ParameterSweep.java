@@ -0,0 +1,318 @@
+package com.app.backend.trade.strategy;
+
+import com.app.backend.trade.model.RiskResult;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exécuteur de balayage de paramètres sur un ForkJoinPool, à résultat déterministe.
+ *
+ * Les candidats sont énumérés à l'avance dans l'ordre exact du parcours séquentiel (grille ou tirages
+ * d'un Random initialisé avec une graine), puis évalués en parallèle. La réduction est faite dans l'ordre
+ * des index : le premier candidat au meilleur rendement l'emporte, comme dans la boucle séquentielle.
+ *
+ * Arrêt anticipé : l'index du premier candidat dépassant le seuil est partagé via un AtomicInteger (min).
+ * Les candidats au-delà de cet index ne sont plus évalués et sont exclus de la réduction, ce qui reproduit
+ * exactement le "break" séquentiel, quel que soit le nombre de threads.
+ *
+ * Branch-and-bound : le meilleur rendement connu (partagé entre threads) est transmis à chaque backtest
+ * sous forme de PruningBound, plafonné au seuil d'arrêt anticipé. Un candidat abandonné a un majorant
+ * strictement inférieur à ce rendement : il ne peut être ni le meilleur ni déclencher l'arrêt anticipé,
+ * le candidat retenu est donc identique avec ou sans élagage. Les résultats partiels sont exclus de la réduction.
+ *
+ * Caches : un seul fork() du SignalCache par thread de travail et par balayage (IndicatorRegistry propre au
+ * thread, réutilisé par tous ses segments), libéré à la fin du balayage.
+ *
+ * Configuration par instance (parallélisme, élagage, borne de drawdown) : chaque StrategieBackTest porte la sienne.
+ * Pool : ForkJoinPool.commonPool() par défaut, borné au nombre de coeurs pour tout le processus ; des balayages
+ * lancés en parallèle (pipelines par symbole) se partagent ses threads au lieu de créer chacun un pool.
+ */
+public final class ParameterSweep {
+
+    public static final long DEFAULT_SEED = 42L;
+
+    private final ForkJoinPool pool;
+    private volatile int parallelism = Runtime.getRuntime().availableProcessors();
+    private volatile boolean pruning = true;
+    private volatile double maxDrawdownBound = Double.POSITIVE_INFINITY;
+
+    /** Balayages sur ForkJoinPool.commonPool() */
+    public ParameterSweep() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /** Balayages sur le pool fourni (non arrêté par l'instance) */
+    public ParameterSweep(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Nombre de threads d'un balayage (0 ou négatif = nombre de coeurs), borné par le parallélisme du pool.
+     * 1 = exécution séquentielle.
+     */
+    public void setParallelism(int threads) {
+        parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Active / désactive l'abandon des candidats qui ne peuvent plus battre le meilleur rendement connu.
+     */
+    public void setPruning(boolean enabled) {
+        pruning = enabled;
+    }
+
+    public boolean isPruning() {
+        return pruning;
+    }
+
+    /**
+     * Drawdown maximal toléré pendant un backtest candidat (0 ou négatif = pas de limite).
+     * Contrairement à la borne de rendement, cette borne exclut des candidats : le résultat peut changer.
+     */
+    public void setMaxDrawdownBound(double maxDrawdown) {
+        maxDrawdownBound = maxDrawdown > 0 ? maxDrawdown : Double.POSITIVE_INFINITY;
+    }
+
+    public double getMaxDrawdownBound() {
+        return maxDrawdownBound;
+    }
+
+    /**
+     * Backtest d'un candidat sur un cache, avec la borne d'abandon courante.
+     */
+    @FunctionalInterface
+    public interface Evaluator<P> {
+        RiskResult evaluate(P candidate, SignalCache cache, PruningBound bound);
+    }
+
+    // Threads effectifs : parallélisme demandé, au plus celui du pool
+    private int threads() {
+        return Math.min(parallelism, pool.getParallelism());
+    }
+
+    /**
+     * Résultat du balayage : meilleur candidat (null si aucun), son rendement et nombre de candidats retenus.
+     */
+    public static class Result<P> {
+        public final P best;
+        public final int bestIndex;
+        public final double bestReturn;
+        public final int tested;
+
+        Result(P best, int bestIndex, double bestReturn, int tested) {
+            this.best = best;
+            this.bestIndex = bestIndex;
+            this.bestReturn = bestReturn;
+            this.tested = tested;
+        }
+    }
+
+    /**
+     * Backtest d'un lot de candidats en une passe sur la série (BatchBacktestKernel), avec la borne d'abandon courante.
+     * Retourne un RiskResult par candidat, dans l'ordre du lot.
+     */
+    @FunctionalInterface
+    public interface BatchEvaluator<P> {
+        RiskResult[] evaluate(List<P> batch, SignalCache cache, PruningBound bound);
+    }
+
+    /**
+     * Évalue tous les candidats (dans la limite de l'arrêt anticipé) et retourne le meilleur rendement.
+     * @param candidates candidats dans l'ordre du parcours séquentiel
+     * @param cache cache de la série (chaque thread de travail utilise son propre fork())
+     * @param evaluator backtest d'un candidat sur un cache (borne d'abandon fournie)
+     * @param earlyStopThreshold arrêt dès qu'un rendement dépasse ce seuil (Double.POSITIVE_INFINITY = jamais)
+     */
+    public <P> Result<P> run(List<P> candidates, SignalCache cache,
+                             Evaluator<P> evaluator, double earlyStopThreshold) {
+        final int n = candidates.size();
+        final double[] returns = newReturns(n);
+        final AtomicInteger stopIndex = new AtomicInteger(Integer.MAX_VALUE);
+        final Incumbent incumbent = new Incumbent(pruning, maxDrawdownBound, earlyStopThreshold);
+        execute(n, 1, cache, stopIndex, (from, to, c) -> {
+            for (int i = from; i < to; i++) {
+                if (i > stopIndex.get()) return;
+                RiskResult result = evaluator.evaluate(candidates.get(i), c, incumbent.bound());
+                if (accept(i, result, returns, stopIndex, incumbent, earlyStopThreshold)) return;
+            }
+        });
+        return reduce(candidates, returns, stopIndex);
+    }
+
+    /**
+     * Variante par lots : les candidats sont regroupés par lots contigus (au plus batchSize, dans l'ordre du
+     * parcours séquentiel) évalués chacun en une passe sur la série. Même résultat que run().
+     * @param batchSize taille maximale d'un lot (BatchBacktestKernel.MAX_LANES au plus)
+     */
+    public <P> Result<P> runBatched(List<P> candidates, SignalCache cache, BatchEvaluator<P> evaluator,
+                                    int batchSize, double earlyStopThreshold) {
+        final int n = candidates.size();
+        final double[] returns = newReturns(n);
+        final AtomicInteger stopIndex = new AtomicInteger(Integer.MAX_VALUE);
+        final Incumbent incumbent = new Incumbent(pruning, maxDrawdownBound, earlyStopThreshold);
+        // Lots plus petits si nécessaire pour occuper tous les threads
+        final int threads = threads();
+        final int lanes = Math.max(1, Math.min(Math.min(batchSize, BatchBacktestKernel.MAX_LANES), (n + threads - 1) / Math.max(1, threads)));
+        final int batches = (n + lanes - 1) / lanes;
+        execute(batches, lanes, cache, stopIndex, (from, to, c) -> {
+            for (int b = from; b < to; b++) {
+                int start = b * lanes;
+                if (start > stopIndex.get()) return;
+                RiskResult[] results = evaluator.evaluate(candidates.subList(start, Math.min(n, start + lanes)), c, incumbent.bound());
+                for (int k = 0; k < results.length; k++) {
+                    if (accept(start + k, results[k], returns, stopIndex, incumbent, earlyStopThreshold)) return;
+                }
+            }
+        });
+        return reduce(candidates, returns, stopIndex);
+    }
+
+    private static double[] newReturns(int n) {
+        double[] returns = new double[n];
+        Arrays.fill(returns, Double.NaN);
+        return returns;
+    }
+
+    /**
+     * Enregistre le résultat du candidat i. Retourne true si le seuil d'arrêt anticipé est dépassé.
+     */
+    private static boolean accept(int i, RiskResult result, double[] returns, AtomicInteger stopIndex,
+                                  Incumbent incumbent, double earlyStopThreshold) {
+        if (result.partial) return false;
+        returns[i] = result.rendement;
+        incumbent.offer(result.rendement);
+        if (result.rendement > earlyStopThreshold) {
+            stopIndex.accumulateAndGet(i, Math::min);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Exécute les unités [0, units[ (candidats ou lots de unitSize candidats), en séquentiel ou sur le pool.
+     */
+    private void execute(int units, int unitSize, SignalCache cache, AtomicInteger stopIndex, RangeEvaluator range) {
+        int threads = threads();
+        if (threads <= 1 || units < 2) {
+            range.evaluate(0, units, cache);
+        } else {
+            int chunk = Math.max(1, units / (threads * 4));
+            pool.invoke(new SweepTask(0, units, chunk, unitSize, new WorkerCaches(cache), range, stopIndex));
+        }
+    }
+
+    /**
+     * Réduction ordonnée : même règle que la boucle séquentielle (strictement meilleur => remplace)
+     */
+    private static <P> Result<P> reduce(List<P> candidates, double[] returns, AtomicInteger stopIndex) {
+        int last = Math.min(candidates.size() - 1, stopIndex.get());
+        double bestReturn = Double.NEGATIVE_INFINITY;
+        int bestIndex = -1;
+        for (int i = 0; i <= last; i++) {
+            if (returns[i] > bestReturn) {
+                bestReturn = returns[i];
+                bestIndex = i;
+            }
+        }
+        return new Result<>(bestIndex >= 0 ? candidates.get(bestIndex) : null, bestIndex, bestReturn, last + 1);
+    }
+
+    @FunctionalInterface
+    private interface RangeEvaluator {
+        void evaluate(int from, int to, SignalCache cache);
+    }
+
+    /**
+     * Forks du cache par thread pour un balayage (clé = thread courant) : les CachedIndicator d'un fork ne sont
+     * utilisés que par son thread, et les indicateurs déjà calculés servent à tous les segments de ce thread.
+     * Portée limitée à l'invocation : rien ne reste attaché aux threads du pool après le balayage.
+     */
+    private static final class WorkerCaches {
+        private final SignalCache cache;
+        private final Map<Thread, SignalCache> forks = new ConcurrentHashMap<>();
+
+        WorkerCaches(SignalCache cache) {
+            this.cache = cache;
+        }
+
+        SignalCache get() {
+            return forks.computeIfAbsent(Thread.currentThread(), t -> cache.fork());
+        }
+    }
+
+    private static final class SweepTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final int unitSize;
+        private final WorkerCaches caches;
+        private final RangeEvaluator range;
+        private final AtomicInteger stopIndex;
+
+        SweepTask(int from, int to, int chunk, int unitSize, WorkerCaches caches, RangeEvaluator range, AtomicInteger stopIndex) {
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.unitSize = unitSize;
+            this.caches = caches;
+            this.range = range;
+            this.stopIndex = stopIndex;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) from * unitSize > stopIndex.get()) return;
+            if (to - from <= chunk) {
+                range.evaluate(from, to, caches.get());
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(
+                new SweepTask(from, mid, chunk, unitSize, caches, range, stopIndex),
+                new SweepTask(mid, to, chunk, unitSize, caches, range, stopIndex)
+            );
+        }
+    }
+
+    /**
+     * Meilleur rendement connu (max atomique sur les bits du double), converti en borne d'abandon.
+     * Plafonné au seuil d'arrêt anticipé : un candidat dépassant le seuil n'est jamais abandonné.
+     */
+    private static final class Incumbent {
+        private final boolean enabled;
+        private final double maxDrawdown;
+        private final double cap;
+        private final AtomicLong bestBits = new AtomicLong(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+
+        Incumbent(boolean enabled, double maxDrawdown, double cap) {
+            this.enabled = enabled;
+            this.maxDrawdown = maxDrawdown;
+            this.cap = cap;
+        }
+
+        void offer(double value) {
+            if (!enabled) return;
+            long current = bestBits.get();
+            while (value > Double.longBitsToDouble(current) && !bestBits.compareAndSet(current, Double.doubleToLongBits(value))) {
+                current = bestBits.get();
+            }
+        }
+
+        PruningBound bound() {
+            double best = enabled ? Math.min(Double.longBitsToDouble(bestBits.get()), cap) : Double.NEGATIVE_INFINITY;
+            if (best == Double.NEGATIVE_INFINITY && maxDrawdown == Double.POSITIVE_INFINITY) return PruningBound.NONE;
+            return new PruningBound(best, maxDrawdown);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.app.backend.trade.strategy;
+
+/**
+ * Borne d'abandon d'un backtest candidat (branch-and-bound des balayages d'optimisation).
+ *
+ * - incumbentReturn : rendement du meilleur candidat connu. Le backtest est abandonné dès que le rendement
+ *   maximal encore atteignable (chaque trade restant plafonné à riskPerTrade x takeProfitPct, un trade
+ *   occupant au moins deux bougies) est strictement inférieur à ce rendement.
+ * - maxDrawdown : abandon dès que le drawdown maximal observé dépasse ce seuil.
+ *
+ * Un backtest abandonné retourne un RiskResult partiel (partial = true).
+ */
+public final class PruningBound {
+
+    public static final PruningBound NONE = new PruningBound(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    private final double incumbentReturn;
+    private final double maxDrawdown;
+
+    public PruningBound(double incumbentReturn, double maxDrawdown) {
+        this.incumbentReturn = incumbentReturn;
+        this.maxDrawdown = maxDrawdown;
+    }
+
+    public static PruningBound incumbent(double incumbentReturn) {
+        return new PruningBound(incumbentReturn, Double.POSITIVE_INFINITY);
+    }
+
+    public double getIncumbentReturn() {
+        return incumbentReturn;
+    }
+
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    public boolean isActive() {
+        return incumbentReturn > Double.NEGATIVE_INFINITY || maxDrawdown < Double.POSITIVE_INFINITY;
+    }
+}
@@ -2,8 +2,6 @@ package com.app.backend.trade.strategy;
 
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Rule;
-import org.ta4j.core.indicators.RSIIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
 import org.ta4j.core.rules.OverIndicatorRule;
 import org.ta4j.core.rules.UnderIndicatorRule;
 
@@ -24,20 +22,31 @@ public class RsiStrategy implements TradeStrategy {
 
     @Override
     public Rule getEntryRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        RSIIndicator rsi = new RSIIndicator(close, rsiPeriod);
-        return new UnderIndicatorRule(rsi, oversoldThreshold);
+        return getEntryRule(new IndicatorRegistry(series));
     }
 
     @Override
     public Rule getExitRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        RSIIndicator rsi = new RSIIndicator(close, rsiPeriod);
-        return new OverIndicatorRule(rsi, overboughtThreshold);
+        return getExitRule(new IndicatorRegistry(series));
+    }
+
+    @Override
+    public Rule getEntryRule(IndicatorRegistry indicators) {
+        return new UnderIndicatorRule(indicators.rsi(rsiPeriod), oversoldThreshold);
+    }
+
+    @Override
+    public Rule getExitRule(IndicatorRegistry indicators) {
+        return new OverIndicatorRule(indicators.rsi(rsiPeriod), overboughtThreshold);
     }
 
     @Override
     public String getName() {
         return "RSI";
     }
+
+    @Override
+    public String getKey() {
+        return getName() + "(" + rsiPeriod + "," + oversoldThreshold + "," + overboughtThreshold + ")";
+    }
 }
@@ -0,0 +1,43 @@
+package com.app.backend.trade.strategy;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+
+/**
+ * Vue colonnaire primitive d'une BarSeries (close/high/low/volume en double[]).
+ * Extraite une seule fois par série puis partagée par tous les backtests d'un balayage
+ * d'optimisation, pour éviter les getBar(i).getClosePrice().doubleValue() répétés.
+ */
+public final class SeriesColumns {
+    public final double[] close;
+    public final double[] high;
+    public final double[] low;
+    public final double[] volume;
+
+    private SeriesColumns(double[] close, double[] high, double[] low, double[] volume) {
+        this.close = close;
+        this.high = high;
+        this.low = low;
+        this.volume = volume;
+    }
+
+    public static SeriesColumns of(BarSeries series) {
+        int n = series.getBarCount();
+        double[] close = new double[n];
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] volume = new double[n];
+        for (int i = 0; i < n; i++) {
+            Bar bar = series.getBar(i);
+            close[i] = bar.getClosePrice().doubleValue();
+            high[i] = bar.getHighPrice().doubleValue();
+            low[i] = bar.getLowPrice().doubleValue();
+            volume[i] = bar.getVolume().doubleValue();
+        }
+        return new SeriesColumns(close, high, low, volume);
+    }
+
+    public int length() {
+        return close.length;
+    }
+}
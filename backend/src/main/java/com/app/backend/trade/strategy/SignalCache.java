@@ -0,0 +1,164 @@
+package com.app.backend.trade.strategy;
+
+import org.ta4j.core.BarSeries;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cache des signaux d'entrée / sortie pour UNE série donnée.
+ *
+ * Chaque couple (stratégie, paramètres) identifié par TradeStrategy.getKey() est évalué une seule fois
+ * sur la série ; les combinaisons entrée x sortie relisent ensuite les BitSet déjà calculés
+ * au lieu de ré-évaluer les arbres de règles TA4J bougie par bougie.
+ * Les colonnes de prix (SeriesColumns) sont extraites paresseusement une seule fois et les
+ * indicateurs TA4J sont partagés entre toutes les stratégies via l'IndicatorRegistry de la série.
+ *
+ * Fenêtres : window(from, to) retourne une vue [from, to[ sur la même série. Indicateurs et signaux
+ * restent calculés sur la série complète (pas de getSubSeries, pas de redémarrage à froid des indicateurs
+ * en début de fenêtre) ; seul le backtest est restreint à la plage d'index de la vue.
+ */
+public final class SignalCache {
+    private final BarSeries series;
+    private final IndicatorRegistry indicators;
+    private final Map<String, TradeSignals> signals;
+    private volatile SeriesColumns columns;
+    private final AtomicInteger hits;
+    private final AtomicInteger misses;
+    private final int fromIndex;
+    private final int toIndex;
+    // Version des données de la série (clé des résultats mémorisés), calculée une fois et partagée par les vues
+    private final AtomicReference<String> dataKey;
+
+    public SignalCache(BarSeries series) {
+        this.series = series;
+        this.indicators = new IndicatorRegistry(series);
+        this.signals = new ConcurrentHashMap<>();
+        this.hits = new AtomicInteger();
+        this.misses = new AtomicInteger();
+        this.fromIndex = 0;
+        this.toIndex = series.getBarCount();
+        this.dataKey = new AtomicReference<>();
+    }
+
+    private SignalCache(SignalCache parent, IndicatorRegistry indicators, int fromIndex, int toIndex) {
+        this.series = parent.series;
+        this.indicators = indicators;
+        this.signals = parent.signals;
+        this.columns = parent.getColumns();
+        this.hits = parent.hits;
+        this.misses = parent.misses;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+        this.dataKey = parent.dataKey;
+    }
+
+    /**
+     * Vue pour un thread de travail : partage les signaux déjà calculés (BitSet immuables), les colonnes
+     * et les compteurs, mais avec son propre IndicatorRegistry (les CachedIndicator TA4J ne sont pas thread-safe).
+     */
+    public SignalCache fork() {
+        return new SignalCache(this, new IndicatorRegistry(series), fromIndex, toIndex);
+    }
+
+    /**
+     * Vue [fromIndex, toIndex[ (index de la série complète) partageant indicateurs, signaux et colonnes.
+     * Même contrainte de thread que le cache parent (utiliser fork() pour un autre thread).
+     */
+    public SignalCache window(int fromIndex, int toIndex) {
+        int from = Math.max(0, fromIndex);
+        int to = Math.min(series.getBarCount(), toIndex);
+        if (from > to) throw new IllegalArgumentException("Fenêtre invalide [" + fromIndex + ", " + toIndex + "[");
+        return new SignalCache(this, indicators, from, to);
+    }
+
+    public int getFromIndex() {
+        return fromIndex;
+    }
+
+    public int getToIndex() {
+        return toIndex;
+    }
+
+    public IndicatorRegistry getIndicators() {
+        return indicators;
+    }
+
+    public BarSeries getSeries() {
+        return series;
+    }
+
+    /**
+     * Version des données de la série : nom, type numérique, nombre de bougies, date de la dernière bougie et
+     * empreinte 64 bits des colonnes de prix. Deux séries de même clé donnent les mêmes backtests.
+     */
+    public String getDataKey() {
+        String key = dataKey.get();
+        if (key == null) {
+            SeriesColumns c = getColumns();
+            long h = 0xcbf29ce484222325L;
+            for (double[] column : new double[][]{c.close, c.high, c.low, c.volume}) {
+                for (double v : column) {
+                    h ^= Double.doubleToLongBits(v);
+                    h *= 0x100000001b3L;
+                }
+            }
+            int n = series.getBarCount();
+            key = series.getName() + "|" + series.numOf(0).getClass().getSimpleName() + "|" + n
+                    + "|" + (n > 0 ? series.getLastBar().getEndTime().toLocalDate() : "-") + "|" + Long.toHexString(h);
+            dataKey.compareAndSet(null, key);
+        }
+        return dataKey.get();
+    }
+
+    public SeriesColumns getColumns() {
+        SeriesColumns c = columns;
+        if (c == null) {
+            synchronized (this) {
+                if (columns == null) columns = SeriesColumns.of(series);
+                c = columns;
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Signaux d'une stratégie (entrée ET sortie de cette stratégie).
+     * Stratégie sans clé => calcul direct sans mise en cache.
+     */
+    public TradeSignals get(TradeStrategy strategy) {
+        String key = strategy.getKey();
+        if (key == null) {
+            misses.incrementAndGet();
+            return TradeSignals.of(strategy, indicators);
+        }
+        TradeSignals cached = signals.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        return signals.computeIfAbsent(key, k -> TradeSignals.of(strategy, indicators));
+    }
+
+    /**
+     * Signaux d'une combinaison entrée / sortie (entrée de entryStrategy, sortie de exitStrategy).
+     */
+    public TradeSignals get(TradeStrategy entryStrategy, TradeStrategy exitStrategy) {
+        return TradeSignals.combine(get(entryStrategy), get(exitStrategy));
+    }
+
+    public int size() {
+        return signals.size();
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+}
@@ -2,8 +2,6 @@ package com.app.backend.trade.strategy;
 
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Rule;
-import org.ta4j.core.indicators.SMAIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
 import org.ta4j.core.rules.CrossedUpIndicatorRule;
 import org.ta4j.core.rules.CrossedDownIndicatorRule;
 
@@ -22,23 +20,32 @@ public class SmaCrossoverStrategy implements TradeStrategy {
 
     @Override
     public Rule getEntryRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        SMAIndicator shortSma = new SMAIndicator(close, shortPeriod);
-        SMAIndicator longSma = new SMAIndicator(close, longPeriod);
-        return new CrossedUpIndicatorRule(shortSma, longSma);
+        return getEntryRule(new IndicatorRegistry(series));
     }
 
     @Override
     public Rule getExitRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        SMAIndicator shortSma = new SMAIndicator(close, shortPeriod);
-        SMAIndicator longSma = new SMAIndicator(close, longPeriod);
-        return new CrossedDownIndicatorRule(shortSma, longSma);
+        return getExitRule(new IndicatorRegistry(series));
+    }
+
+    @Override
+    public Rule getEntryRule(IndicatorRegistry indicators) {
+        return new CrossedUpIndicatorRule(indicators.sma(shortPeriod), indicators.sma(longPeriod));
+    }
+
+    @Override
+    public Rule getExitRule(IndicatorRegistry indicators) {
+        return new CrossedDownIndicatorRule(indicators.sma(shortPeriod), indicators.sma(longPeriod));
     }
 
     @Override
     public String getName() {
         return "SMA Crossover";
     }
+
+    @Override
+    public String getKey() {
+        return getName() + "(" + shortPeriod + "," + longPeriod + ")";
+    }
 }
 
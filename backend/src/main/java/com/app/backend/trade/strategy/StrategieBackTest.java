@@ -5,6 +5,7 @@ import com.app.backend.trade.model.ComboResult;
 import com.app.backend.trade.model.MarketPhase;
 import com.app.backend.trade.model.RiskResult;
 import com.app.backend.trade.util.TradeConstant;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Rule;
@@ -24,6 +25,83 @@ public class StrategieBackTest {
     public final static double FEE_PCT = 0.0001;
     public final static double SLIP_PAGE_PCT = 0.0001;
 
+    // Graine des tirages aléatoires des optimisations (mêmes paramètres retenus d'un run à l'autre)
+    private long sweepSeed = ParameterSweep.DEFAULT_SEED;
+
+    // Exécuteur des balayages de paramètres (configuration propre à cette instance, pool commun du processus)
+    private final ParameterSweep parameterSweep = new ParameterSweep();
+
+    @Value("${trade.optim.seed:42}")
+    public void setSweepSeed(long sweepSeed) {
+        this.sweepSeed = sweepSeed;
+    }
+
+    /**
+     * Nombre de threads des balayages de paramètres (0 = nombre de coeurs, 1 = séquentiel).
+     */
+    @Value("${trade.optim.parallelism:0}")
+    public void setSweepParallelism(int parallelism) {
+        parameterSweep.setParallelism(parallelism);
+    }
+
+    /**
+     * Abandon des candidats perdants pendant les balayages (borne sur le rendement encore atteignable).
+     */
+    @Value("${trade.optim.pruning:true}")
+    public void setSweepPruning(boolean pruning) {
+        parameterSweep.setPruning(pruning);
+    }
+
+    /**
+     * Drawdown maximal toléré pendant le backtest d'un candidat (0 = pas de limite).
+     */
+    @Value("${trade.optim.maxDrawdownBound:0}")
+    public void setSweepMaxDrawdownBound(double maxDrawdown) {
+        parameterSweep.setMaxDrawdownBound(maxDrawdown);
+    }
+
+    public ParameterSweep getParameterSweep() {
+        return parameterSweep;
+    }
+
+    // Meilleurs paramètres et RiskResult mémorisés (partagés par les pipelines single et mix)
+    private final OptimResultCache resultCache = new OptimResultCache(OptimResultCache.DEFAULT_MAX_ENTRIES);
+
+    /**
+     * Nombre maximal d'entrées du cache de résultats (0 = désactivé).
+     */
+    @Value("${trade.optim.cache.size:20000}")
+    public void setResultCacheSize(int maxEntries) {
+        resultCache.setMaxEntries(maxEntries);
+    }
+
+    public OptimResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Clé d'un résultat mémorisé : version des données, fenêtre, stratégie, graine / borne de drawdown des balayages
+     * et paramètres (ou bornes du balayage).
+     */
+    private String optimKey(SignalCache cache, String strategy, Object... params) {
+        StringBuilder key = new StringBuilder(cache.getDataKey())
+                .append('|').append(cache.getFromIndex()).append('-').append(cache.getToIndex())
+                .append('|').append(strategy)
+                .append('|').append(sweepSeed).append('|').append(parameterSweep.getMaxDrawdownBound());
+        for (Object p : params) {
+            key.append('|').append(p);
+        }
+        return key.toString();
+    }
+
+    /**
+     * RiskResult mémorisé (copie : les helpers modifient les résultats après coup, ex: setNumFlod).
+     */
+    private RiskResult cachedRisk(String key, java.util.function.Supplier<RiskResult> loader) {
+        RiskResult result = resultCache.get(key, loader);
+        return result.toBuilder().build();
+    }
+
     // Backtest générique pour une stratégie TradeStrategy (rendement simple)
     private double backtestStrategySimple(TradeStrategy strategy, BarSeries series) {
         Rule entryRule = strategy.getEntryRule(series);
@@ -401,6 +479,72 @@ public class StrategieBackTest {
         return results;
     }
 
+    /**
+     * Backtest via le moteur colonnaire (BacktestKernel) : mêmes métriques que backtestStrategyRisk,
+     * mais les colonnes de prix sont extraites une seule fois par l'appelant et partagées.
+     */
+    public RiskResult backtestStrategyColumnar(TradeStrategy strategy, BarSeries series, SeriesColumns columns) {
+        return BacktestKernel.run(columns, TradeSignals.of(strategy, series), INITIAL_CAPITAL, RISK_PER_TRADE, STOP_LOSS_PCT, TAKE_PROFIL_PCT);
+    }
+
+    /**
+     * Backtest d'une combinaison entrée / sortie à partir des signaux mis en cache, sur la fenêtre du cache.
+     * Sur un cache non fenêtré : résultat identique à backtestStrategy(new CombinedTradeStrategy(entry, exit), cache.getSeries()).
+     */
+    public RiskResult backtestStrategy(TradeStrategy entryStrategy, TradeStrategy exitStrategy, SignalCache cache) {
+        java.util.function.Supplier<RiskResult> backtest = () -> BacktestKernel.run(cache.getColumns(), cache.get(entryStrategy, exitStrategy),
+                cache.getFromIndex(), cache.getToIndex(), INITIAL_CAPITAL, RISK_PER_TRADE, STOP_LOSS_PCT, TAKE_PROFIL_PCT);
+        if (entryStrategy.getKey() == null || exitStrategy.getKey() == null) return backtest.get();
+        return cachedRisk(optimKey(cache, "Backtest", entryStrategy.getKey(), exitStrategy.getKey()), backtest);
+    }
+
+    /**
+     * Backtest d'une stratégie sur la fenêtre du cache (indicateurs et signaux partagés).
+     * Sur un cache non fenêtré : résultat identique à backtestStrategyRisk(strategy, cache.getSeries()).
+     */
+    public RiskResult backtestStrategy(TradeStrategy strategy, SignalCache cache) {
+        if (strategy.getKey() == null) return backtestStrategy(strategy, cache, PruningBound.NONE);
+        return cachedRisk(optimKey(cache, "Backtest", strategy.getKey()), () -> backtestStrategy(strategy, cache, PruningBound.NONE));
+    }
+
+    /**
+     * Backtest sur la fenêtre du cache avec borne d'abandon : résultat partiel (partial = true)
+     * si la borne est atteinte avant la fin de la fenêtre.
+     */
+    public RiskResult backtestStrategy(TradeStrategy strategy, SignalCache cache, PruningBound bound) {
+        return BacktestKernel.run(cache.getColumns(), cache.get(strategy), cache.getFromIndex(), cache.getToIndex(),
+                INITIAL_CAPITAL, RISK_PER_TRADE, STOP_LOSS_PCT, TAKE_PROFIL_PCT, bound);
+    }
+
+    /**
+     * Backtest par lot de plusieurs paramétrages (même famille de stratégie) en une passe sur la fenêtre du cache.
+     * Résultats identiques à backtestStrategy(strategy, cache, bound) appelé pour chaque stratégie.
+     */
+    public RiskResult[] backtestBatch(List<? extends TradeStrategy> strategies, SignalCache cache, PruningBound bound) {
+        TradeSignals[] signals = new TradeSignals[strategies.size()];
+        for (int i = 0; i < signals.length; i++) {
+            signals[i] = cache.get(strategies.get(i));
+        }
+        return BatchBacktestKernel.run(cache.getColumns(), signals, cache.getFromIndex(), cache.getToIndex(),
+                INITIAL_CAPITAL, RISK_PER_TRADE, STOP_LOSS_PCT, TAKE_PROFIL_PCT, bound);
+    }
+
+    /**
+     * Backtest de signaux déjà calculés (ex: règles combinées en OU) sur la fenêtre du cache.
+     */
+    public RiskResult backtestSignals(TradeSignals signals, SignalCache window) {
+        return BacktestKernel.run(window.getColumns(), signals, window.getFromIndex(), window.getToIndex(),
+                INITIAL_CAPITAL, RISK_PER_TRADE, STOP_LOSS_PCT, TAKE_PROFIL_PCT);
+    }
+
+    /**
+     * Backtest sur la plage d'index [fromIndex, toIndex[ de la série, avec des indicateurs calculés
+     * sur la série complète (pas de getSubSeries : indicateurs déjà "chauds" en début de plage).
+     */
+    public RiskResult backtestStrategyRisk(TradeStrategy strategy, BarSeries series, int fromIndex, int toIndex) {
+        return backtestStrategy(strategy, new SignalCache(series).window(fromIndex, toIndex));
+    }
+
     // Backtest pour BreakoutStrategy
     public RiskResult backtestBreakoutStrategy(BarSeries series, int lookbackPeriod) {
         BreakoutStrategy strategy = new BreakoutStrategy(lookbackPeriod);
@@ -453,8 +597,18 @@ public class StrategieBackTest {
      * Optimisation des paramètres pour MacdStrategy
      */
     public MacdParams optimiseMacdParameters(BarSeries series, int shortMin, int shortMax, int longMin, int longMax, int signalMin, int signalMax) {
-        double bestReturn = Double.NEGATIVE_INFINITY;
-        int bestShort = shortMin, bestLong = longMin, bestSignal = signalMin;
+        return optimiseMacdParameters(new SignalCache(series), shortMin, shortMax, longMin, longMax, signalMin, signalMax);
+    }
+
+    /**
+     * Optimisation MACD sur la série du cache : EMA / MACD partagés entre candidats via l'IndicatorRegistry.
+     */
+    public MacdParams optimiseMacdParameters(SignalCache cache, int shortMin, int shortMax, int longMin, int longMax, int signalMin, int signalMax) {
+        return resultCache.get(optimKey(cache, "Macd", shortMin, shortMax, longMin, longMax, signalMin, signalMax),
+                () -> sweepMacdParameters(cache, shortMin, shortMax, longMin, longMax, signalMin, signalMax));
+    }
+
+    private MacdParams sweepMacdParameters(SignalCache cache, int shortMin, int shortMax, int longMin, int longMax, int signalMin, int signalMax) {
         double earlyStopThreshold = 0.3; // Arrêt anticipé si rendement > 30%
         // Pas adaptatifs
         int shortStep = (shortMax - shortMin > 20) ? 4 : 2;
@@ -464,100 +618,88 @@ public class StrategieBackTest {
         int longCount = (longMax - longMin) / longStep + 1;
         int signalCount = (signalMax - signalMin) / signalStep + 1;
         int totalCombinaisons = shortCount * longCount * signalCount;
-        java.util.Random rand = new java.util.Random();
+        java.util.Random rand = new java.util.Random(sweepSeed);
         int maxRandomTests = 80;
         boolean useRandomSearch = totalCombinaisons > TradeConstant.RANDO_COUNT;
-        int tested = 0;
+        List<MacdParams> candidates = new ArrayList<>();
         if (useRandomSearch) {
             // Random Search
             for (int i = 0; i < maxRandomTests; i++) {
                 int shortPeriod = shortMin + rand.nextInt(shortCount) * shortStep;
                 int longPeriod = longMin + rand.nextInt(longCount) * longStep;
                 int signalPeriod = signalMin + rand.nextInt(signalCount) * signalStep;
-                RiskResult result = backtestMacdStrategy(series, shortPeriod, longPeriod, signalPeriod);
-                tested++;
-                if (result.rendement > bestReturn) {
-                    bestReturn = result.rendement;
-                    bestShort = shortPeriod;
-                    bestLong = longPeriod;
-                    bestSignal = signalPeriod;
-                }
-                if (bestReturn > earlyStopThreshold) break;
+                candidates.add(new MacdParams(shortPeriod, longPeriod, signalPeriod, 0));
             }
         } else {
             // Recherche exhaustive mais avec pas adaptatifs
             for (int shortPeriod = shortMin; shortPeriod <= shortMax; shortPeriod += shortStep) {
                 for (int longPeriod = longMin; longPeriod <= longMax; longPeriod += longStep) {
                     for (int signalPeriod = signalMin; signalPeriod <= signalMax; signalPeriod += signalStep) {
-                        RiskResult result = backtestMacdStrategy(series, shortPeriod, longPeriod, signalPeriod);
-                        tested++;
-                        if (result.rendement > bestReturn) {
-                            bestReturn = result.rendement;
-                            bestShort = shortPeriod;
-                            bestLong = longPeriod;
-                            bestSignal = signalPeriod;
-                        }
-                        if (bestReturn > earlyStopThreshold) break;
+                        candidates.add(new MacdParams(shortPeriod, longPeriod, signalPeriod, 0));
                     }
-                    if (bestReturn > earlyStopThreshold) break;
                 }
-                if (bestReturn > earlyStopThreshold) break;
             }
         }
+        ParameterSweep.Result<MacdParams> sweep = parameterSweep.run(candidates, cache,
+                (p, c, b) -> backtestStrategy(new MacdStrategy(p.shortPeriod, p.longPeriod, p.signalPeriod), c, b), earlyStopThreshold);
         // Optionnel : log du nombre de tests
-        // System.out.println("Paramètres testés: " + tested + ", randomSearch: " + useRandomSearch);
-        return new MacdParams(bestShort, bestLong, bestSignal, bestReturn);
+        // System.out.println("Paramètres testés: " + sweep.tested + ", randomSearch: " + useRandomSearch);
+        if (sweep.best == null) return new MacdParams(shortMin, longMin, signalMin, Double.NEGATIVE_INFINITY);
+        return new MacdParams(sweep.best.shortPeriod, sweep.best.longPeriod, sweep.best.signalPeriod, sweep.bestReturn);
     }
 
     /**
      * Optimisation des paramètres pour BreakoutStrategy
      */
     public BreakoutParams optimiseBreakoutParameters(BarSeries series, int lookbackMin, int lookbackMax) {
-        double bestReturn = Double.NEGATIVE_INFINITY;
-        int bestLookback = lookbackMin;
+        return optimiseBreakoutParameters(new SignalCache(series), lookbackMin, lookbackMax);
+    }
+
+    public BreakoutParams optimiseBreakoutParameters(SignalCache cache, int lookbackMin, int lookbackMax) {
+        return resultCache.get(optimKey(cache, "Breakout", lookbackMin, lookbackMax),
+                () -> sweepBreakoutParameters(cache, lookbackMin, lookbackMax));
+    }
+
+    private BreakoutParams sweepBreakoutParameters(SignalCache cache, int lookbackMin, int lookbackMax) {
         double earlyStopThreshold = 0.3; // Arrêt anticipé si rendement > 30%
         int lookbackStep = (lookbackMax - lookbackMin > 20) ? 4 : 2;
         int totalCombinaisons = ((lookbackMax - lookbackMin) / lookbackStep) + 1;
-        java.util.Random rand = new java.util.Random();
+        java.util.Random rand = new java.util.Random(sweepSeed);
         int maxRandomTests = 50;
         boolean useRandomSearch = totalCombinaisons > TradeConstant.RANDO_COUNT;
-        int tested = 0;
+        List<Integer> candidates = new ArrayList<>();
         if (useRandomSearch) {
             // Random Search
             for (int i = 0; i < maxRandomTests; i++) {
-                int lookback = lookbackMin + rand.nextInt((lookbackMax - lookbackMin) / lookbackStep + 1) * lookbackStep;
-                RiskResult result = backtestBreakoutStrategy(series, lookback);
-                tested++;
-                if (result.rendement > bestReturn) {
-                    bestReturn = result.rendement;
-                    bestLookback = lookback;
-                }
-                if (bestReturn > earlyStopThreshold) break;
+                candidates.add(lookbackMin + rand.nextInt((lookbackMax - lookbackMin) / lookbackStep + 1) * lookbackStep);
             }
         } else {
             // Recherche exhaustive mais avec pas adaptatif
             for (int lookback = lookbackMin; lookback <= lookbackMax; lookback += lookbackStep) {
-                RiskResult result = backtestBreakoutStrategy(series, lookback);
-                tested++;
-                if (result.rendement > bestReturn) {
-                    bestReturn = result.rendement;
-                    bestLookback = lookback;
-                }
-                if (bestReturn > earlyStopThreshold) break;
+                candidates.add(lookback);
             }
         }
+        ParameterSweep.Result<Integer> sweep = parameterSweep.run(candidates, cache,
+                (lookback, c, b) -> backtestStrategy(new BreakoutStrategy(lookback), c, b), earlyStopThreshold);
         // Optionnel : log du nombre de tests
-        // System.out.println("Paramètres testés: " + tested + ", randomSearch: " + useRandomSearch);
-        return new BreakoutParams(bestLookback, bestReturn);
+        // System.out.println("Paramètres testés: " + sweep.tested + ", randomSearch: " + useRandomSearch);
+        if (sweep.best == null) return new BreakoutParams(lookbackMin, Double.NEGATIVE_INFINITY);
+        return new BreakoutParams(sweep.best, sweep.bestReturn);
     }
 
     /**
      * Optimisation des paramètres pour MeanReversionStrategy
      */
     public MeanReversionParams optimiseMeanReversionParameters(BarSeries series, int smaMin, int smaMax, double thresholdMin, double thresholdMax, double thresholdStep) {
-        double bestReturn = Double.NEGATIVE_INFINITY;
-        int bestSma = smaMin;
-        double bestThreshold = thresholdMin;
+        return optimiseMeanReversionParameters(new SignalCache(series), smaMin, smaMax, thresholdMin, thresholdMax, thresholdStep);
+    }
+
+    public MeanReversionParams optimiseMeanReversionParameters(SignalCache cache, int smaMin, int smaMax, double thresholdMin, double thresholdMax, double thresholdStep) {
+        return resultCache.get(optimKey(cache, "MeanReversion", smaMin, smaMax, thresholdMin, thresholdMax, thresholdStep),
+                () -> sweepMeanReversionParameters(cache, smaMin, smaMax, thresholdMin, thresholdMax, thresholdStep));
+    }
+
+    private MeanReversionParams sweepMeanReversionParameters(SignalCache cache, int smaMin, int smaMax, double thresholdMin, double thresholdMax, double thresholdStep) {
         double earlyStopThreshold = 0.3; // Arrêt anticipé si rendement > 30%
         // Pas adaptatifs
         int smaStep = (smaMax - smaMin > 20) ? 4 : 2;
@@ -565,53 +707,46 @@ public class StrategieBackTest {
         int smaCount = (smaMax - smaMin) / smaStep + 1;
         int thresholdCount = (int) ((thresholdMax - thresholdMin) / thresholdStepAdapt) + 1;
         int totalCombinaisons = smaCount * thresholdCount;
-        java.util.Random rand = new java.util.Random();
+        java.util.Random rand = new java.util.Random(sweepSeed);
         int maxRandomTests = 80;
         boolean useRandomSearch = totalCombinaisons > TradeConstant.RANDO_COUNT;
-        int tested = 0;
+        List<MeanReversionParams> candidates = new ArrayList<>();
         if (useRandomSearch) {
             // Random Search
             for (int i = 0; i < maxRandomTests; i++) {
                 int sma = smaMin + rand.nextInt(smaCount) * smaStep;
                 double threshold = thresholdMin + rand.nextInt(thresholdCount) * thresholdStepAdapt;
-                RiskResult result = backtestMeanReversionStrategy(series, sma, threshold);
-                tested++;
-                if (result.rendement > bestReturn) {
-                    bestReturn = result.rendement;
-                    bestSma = sma;
-                    bestThreshold = threshold;
-                }
-                if (bestReturn > earlyStopThreshold) break;
+                candidates.add(new MeanReversionParams(sma, threshold, 0));
             }
         } else {
             // Recherche exhaustive mais avec pas adaptatifs
             for (int sma = smaMin; sma <= smaMax; sma += smaStep) {
                 for (double threshold = thresholdMin; threshold <= thresholdMax; threshold += thresholdStepAdapt) {
-                    RiskResult result = backtestMeanReversionStrategy(series, sma, threshold);
-                    tested++;
-                    if (result.rendement > bestReturn) {
-                        bestReturn = result.rendement;
-                        bestSma = sma;
-                        bestThreshold = threshold;
-                    }
-                    if (bestReturn > earlyStopThreshold) break;
+                    candidates.add(new MeanReversionParams(sma, threshold, 0));
                 }
-                if (bestReturn > earlyStopThreshold) break;
             }
         }
+        ParameterSweep.Result<MeanReversionParams> sweep = parameterSweep.run(candidates, cache,
+                (p, c, b) -> backtestStrategy(new MeanReversionStrategy(p.smaPeriod, p.threshold), c, b), earlyStopThreshold);
         // Optionnel : log du nombre de tests
-        // System.out.println("Paramètres testés: " + tested + ", randomSearch: " + useRandomSearch);
-        return new MeanReversionParams(bestSma, bestThreshold, bestReturn);
+        // System.out.println("Paramètres testés: " + sweep.tested + ", randomSearch: " + useRandomSearch);
+        if (sweep.best == null) return new MeanReversionParams(smaMin, thresholdMin, Double.NEGATIVE_INFINITY);
+        return new MeanReversionParams(sweep.best.smaPeriod, sweep.best.threshold, sweep.bestReturn);
     }
 
     /**
      * Optimisation des paramètres pour RsiStrategy (version optimisée)
      */
     public RsiParams optimiseRsiParameters(BarSeries series, int rsiMin, int rsiMax, double oversoldMin, double oversoldMax, double oversoldStep, double overboughtMin, double overboughtMax, double overboughtStep) {
-        double bestReturn = Double.NEGATIVE_INFINITY;
-        int bestRsi = rsiMin;
-        double bestOversold = oversoldMin;
-        double bestOverbought = overboughtMin;
+        return optimiseRsiParameters(new SignalCache(series), rsiMin, rsiMax, oversoldMin, oversoldMax, oversoldStep, overboughtMin, overboughtMax, overboughtStep);
+    }
+
+    public RsiParams optimiseRsiParameters(SignalCache cache, int rsiMin, int rsiMax, double oversoldMin, double oversoldMax, double oversoldStep, double overboughtMin, double overboughtMax, double overboughtStep) {
+        return resultCache.get(optimKey(cache, "Rsi", rsiMin, rsiMax, oversoldMin, oversoldMax, oversoldStep, overboughtMin, overboughtMax, overboughtStep),
+                () -> sweepRsiParameters(cache, rsiMin, rsiMax, oversoldMin, oversoldMax, oversoldStep, overboughtMin, overboughtMax, overboughtStep));
+    }
+
+    private RsiParams sweepRsiParameters(SignalCache cache, int rsiMin, int rsiMax, double oversoldMin, double oversoldMax, double oversoldStep, double overboughtMin, double overboughtMax, double overboughtStep) {
         double earlyStopThreshold = 0.3; // Arrêt anticipé si rendement > 30%
         // Pas adaptatifs
         int rsiStep = (rsiMax - rsiMin > 20) ? 4 : 2;
@@ -622,121 +757,107 @@ public class StrategieBackTest {
         int oversoldCount = (int) ((oversoldMax - oversoldMin) / oversoldStepAdapt) + 1;
         int overboughtCount = (int) ((overboughtMax - overboughtMin) / overboughtStepAdapt) + 1;
         int totalCombinaisons = rsiCount * oversoldCount * overboughtCount;
-        java.util.Random rand = new java.util.Random();
+        java.util.Random rand = new java.util.Random(sweepSeed);
         int maxRandomTests = 80;
         boolean useRandomSearch = totalCombinaisons > TradeConstant.RANDO_COUNT;
-        int tested = 0;
+        List<RsiParams> candidates = new ArrayList<>();
         if (useRandomSearch) {
             // Random Search
             for (int i = 0; i < maxRandomTests; i++) {
                 int rsi = rsiMin + rand.nextInt(rsiCount) * rsiStep;
                 double oversold = oversoldMin + rand.nextInt(oversoldCount) * oversoldStepAdapt;
                 double overbought = overboughtMin + rand.nextInt(overboughtCount) * overboughtStepAdapt;
-                RiskResult result = backtestRsiStrategy(series, rsi, oversold, overbought);
-                tested++;
-                if (result.rendement > bestReturn) {
-                    bestReturn = result.rendement;
-                    bestRsi = rsi;
-                    bestOversold = oversold;
-                    bestOverbought = overbought;
-                }
-                if (bestReturn > earlyStopThreshold) break;
+                candidates.add(new RsiParams(rsi, oversold, overbought, 0));
             }
         } else {
             // Recherche exhaustive mais avec pas adaptatifs
             for (int rsi = rsiMin; rsi <= rsiMax; rsi += rsiStep) {
                 for (double oversold = oversoldMin; oversold <= oversoldMax; oversold += oversoldStepAdapt) {
                     for (double overbought = overboughtMin; overbought <= overboughtMax; overbought += overboughtStepAdapt) {
-                        RiskResult result = backtestRsiStrategy(series, rsi, oversold, overbought);
-                        tested++;
-                        if (result.rendement > bestReturn) {
-                            bestReturn = result.rendement;
-                            bestRsi = rsi;
-                            bestOversold = oversold;
-                            bestOverbought = overbought;
-                        }
-                        if (bestReturn > earlyStopThreshold) break;
+                        candidates.add(new RsiParams(rsi, oversold, overbought, 0));
                     }
-                    if (bestReturn > earlyStopThreshold) break;
                 }
-                if (bestReturn > earlyStopThreshold) break;
             }
         }
+        // Grille la plus large : candidats backtestés par lots en une passe sur la série
+        ParameterSweep.Result<RsiParams> sweep = parameterSweep.runBatched(candidates, cache,
+                (batch, c, b) -> backtestBatch(batch.stream().map(p -> new RsiStrategy(p.rsiPeriod, p.oversold, p.overbought)).toList(), c, b),
+                BatchBacktestKernel.MAX_LANES, earlyStopThreshold);
         // Optionnel : log du nombre de tests
-        // System.out.println("Paramètres testés: " + tested + ", randomSearch: " + useRandomSearch);
-        return new RsiParams(bestRsi, bestOversold, bestOverbought, bestReturn);
+        // System.out.println("Paramètres testés: " + sweep.tested + ", randomSearch: " + useRandomSearch);
+        if (sweep.best == null) return new RsiParams(rsiMin, oversoldMin, overboughtMin, Double.NEGATIVE_INFINITY);
+        return new RsiParams(sweep.best.rsiPeriod, sweep.best.oversold, sweep.best.overbought, sweep.bestReturn);
     }
 
     /**
      * Optimisation des paramètres pour SmaCrossoverStrategy
      */
     public SmaCrossoverParams optimiseSmaCrossoverParameters(BarSeries series, int shortMin, int shortMax, int longMin, int longMax) {
-        double bestReturn = Double.NEGATIVE_INFINITY;
-        int bestShort = shortMin;
-        int bestLong = longMin;
+        return optimiseSmaCrossoverParameters(new SignalCache(series), shortMin, shortMax, longMin, longMax);
+    }
+
+    public SmaCrossoverParams optimiseSmaCrossoverParameters(SignalCache cache, int shortMin, int shortMax, int longMin, int longMax) {
+        return resultCache.get(optimKey(cache, "SmaCrossover", shortMin, shortMax, longMin, longMax),
+                () -> sweepSmaCrossoverParameters(cache, shortMin, shortMax, longMin, longMax));
+    }
+
+    private SmaCrossoverParams sweepSmaCrossoverParameters(SignalCache cache, int shortMin, int shortMax, int longMin, int longMax) {
         double earlyStopThreshold = 0.3; // Arrêt anticipé si rendement > 30%
         // Pas adaptatifs
         int shortStep = (shortMax - shortMin > 20) ? 4 : 2;
         int longStep = (longMax - longMin > 20) ? 4 : 2;
-        int totalCombinaisons = 0;
-        for (int shortPeriod = shortMin; shortPeriod <= shortMax; shortPeriod += shortStep) {
-            for (int longPeriod = longMin; longPeriod <= longMax; longPeriod += longStep) {
-                totalCombinaisons++;
-            }
-        }
-        java.util.Random rand = new java.util.Random();
+        int totalCombinaisons = ((shortMax - shortMin) / shortStep + 1) * ((longMax - longMin) / longStep + 1);
+        java.util.Random rand = new java.util.Random(sweepSeed);
         int maxRandomTests = 100;
         boolean useRandomSearch = totalCombinaisons > TradeConstant.RANDO_COUNT;
-        int tested = 0;
+        List<SmaCrossoverParams> candidates = new ArrayList<>();
         if (useRandomSearch) {
             // Random Search
             for (int i = 0; i < maxRandomTests; i++) {
                 int shortPeriod = shortMin + rand.nextInt((shortMax - shortMin) / shortStep + 1) * shortStep;
                 int longPeriod = longMin + rand.nextInt((longMax - longMin) / longStep + 1) * longStep;
-                RiskResult result = backtestSmaCrossoverStrategy(series, shortPeriod, longPeriod);
-                tested++;
-                if (result.rendement > bestReturn) {
-                    bestReturn = result.rendement;
-                    bestShort = shortPeriod;
-                    bestLong = longPeriod;
-                }
-                if (bestReturn > earlyStopThreshold) break;
+                candidates.add(new SmaCrossoverParams(shortPeriod, longPeriod, 0));
             }
         } else {
             // Recherche exhaustive mais avec pas adaptatifs
             for (int shortPeriod = shortMin; shortPeriod <= shortMax; shortPeriod += shortStep) {
                 for (int longPeriod = longMin; longPeriod <= longMax; longPeriod += longStep) {
-                    RiskResult result = backtestSmaCrossoverStrategy(series, shortPeriod, longPeriod);
-                    tested++;
-                    if (result.rendement > bestReturn) {
-                        bestReturn = result.rendement;
-                        bestShort = shortPeriod;
-                        bestLong = longPeriod;
-                    }
-                    if (bestReturn > earlyStopThreshold) break;
+                    candidates.add(new SmaCrossoverParams(shortPeriod, longPeriod, 0));
                 }
-                if (bestReturn > earlyStopThreshold) break;
             }
         }
-        // Optionnel : log du nombre de tests
-        // System.out.println("Paramètres testés: " + tested + ", randomSearch: " + useRandomSearch);
-        return new SmaCrossoverParams(bestShort, bestLong, bestReturn);
+        // Grille la plus large : candidats backtestés par lots en une passe sur la série
+        ParameterSweep.Result<SmaCrossoverParams> sweep = parameterSweep.runBatched(candidates, cache,
+                (batch, c, b) -> backtestBatch(batch.stream().map(p -> new SmaCrossoverStrategy(p.shortPeriod, p.longPeriod)).toList(), c, b),
+                BatchBacktestKernel.MAX_LANES, earlyStopThreshold);
+        // Optionnel : log du nombre de tests
+        // System.out.println("Paramètres testés: " + sweep.tested + ", randomSearch: " + useRandomSearch);
+        if (sweep.best == null) return new SmaCrossoverParams(shortMin, longMin, Double.NEGATIVE_INFINITY);
+        return new SmaCrossoverParams(sweep.best.shortPeriod, sweep.best.longPeriod, sweep.bestReturn);
     }
 
     /**
      * Optimisation des paramètres pour TrendFollowingStrategy
      */
     public TrendFollowingParams optimiseTrendFollowingParameters(BarSeries series, int trendMin, int trendMax) {
-        double bestReturn = Double.NEGATIVE_INFINITY;
-        int bestTrend = trendMin;
+        return optimiseTrendFollowingParameters(new SignalCache(series), trendMin, trendMax);
+    }
+
+    public TrendFollowingParams optimiseTrendFollowingParameters(SignalCache cache, int trendMin, int trendMax) {
+        return resultCache.get(optimKey(cache, "TrendFollowing", trendMin, trendMax),
+                () -> sweepTrendFollowingParameters(cache, trendMin, trendMax));
+    }
+
+    private TrendFollowingParams sweepTrendFollowingParameters(SignalCache cache, int trendMin, int trendMax) {
+        List<Integer> candidates = new ArrayList<>();
         for (int trendPeriod = trendMin; trendPeriod <= trendMax; trendPeriod++) {
-            RiskResult result = backtestTrendFollowingStrategy(series, trendPeriod);
-            if (result.rendement > bestReturn) {
-                bestReturn = result.rendement;
-                bestTrend = trendPeriod;
-            }
+            candidates.add(trendPeriod);
         }
-        return new TrendFollowingParams(bestTrend, bestReturn);
+        // Pas d'arrêt anticipé pour cette stratégie
+        ParameterSweep.Result<Integer> sweep = parameterSweep.run(candidates, cache,
+                (trendPeriod, c, b) -> backtestStrategy(new TrendFollowingStrategy(trendPeriod), c, b), Double.POSITIVE_INFINITY);
+        if (sweep.best == null) return new TrendFollowingParams(trendMin, Double.NEGATIVE_INFINITY);
+        return new TrendFollowingParams(sweep.best, sweep.bestReturn);
     }
 
     /**
@@ -750,13 +871,25 @@ public class StrategieBackTest {
     public ImprovedTrendFollowingParams optimiseImprovedTrendFollowingParameters(BarSeries series,
             int trendMin, int trendMax, int shortMaMin, int shortMaMax, int longMaMin, int longMaMax,
             double thresholdMin, double thresholdMax, double thresholdStep, Integer maxCombos) {
-        double bestReturn = Double.NEGATIVE_INFINITY;
-        int bestTrend = trendMin;
-        int bestShortMa = shortMaMin;
-        int bestLongMa = longMaMin;
-        double bestThreshold = thresholdMin;
-        boolean bestUseRsi = true;
-        int bestRsiPeriod = 14;
+        return this.optimiseImprovedTrendFollowingParameters(new SignalCache(series), trendMin, trendMax, shortMaMin, shortMaMax, longMaMin, longMaMax, thresholdMin, thresholdMax, thresholdStep, maxCombos);
+    }
+    public ImprovedTrendFollowingParams optimiseImprovedTrendFollowingParameters(SignalCache cache,
+                                                                                 int trendMin, int trendMax, int shortMaMin, int shortMaMax, int longMaMin, int longMaMax,
+                                                                                 double thresholdMin, double thresholdMax, double thresholdStep) {
+        return this.optimiseImprovedTrendFollowingParameters(cache, trendMin, trendMax, shortMaMin, shortMaMax, longMaMin, longMaMax, thresholdMin, thresholdMax, thresholdStep, null);
+    }
+    public ImprovedTrendFollowingParams optimiseImprovedTrendFollowingParameters(SignalCache cache,
+            int trendMin, int trendMax, int shortMaMin, int shortMaMax, int longMaMin, int longMaMax,
+            double thresholdMin, double thresholdMax, double thresholdStep, Integer maxCombos) {
+        return resultCache.get(optimKey(cache, "ImprovedTrendFollowing", trendMin, trendMax, shortMaMin, shortMaMax, longMaMin, longMaMax,
+                        thresholdMin, thresholdMax, thresholdStep, maxCombos),
+                () -> sweepImprovedTrendFollowingParameters(cache, trendMin, trendMax, shortMaMin, shortMaMax, longMaMin, longMaMax,
+                        thresholdMin, thresholdMax, thresholdStep, maxCombos));
+    }
+
+    private ImprovedTrendFollowingParams sweepImprovedTrendFollowingParameters(SignalCache cache,
+            int trendMin, int trendMax, int shortMaMin, int shortMaMax, int longMaMin, int longMaMax,
+            double thresholdMin, double thresholdMax, double thresholdStep, Integer maxCombos) {
         double earlyStopThreshold = 0.3; // Arrêt anticipé si rendement > 30%
         int rsiPeriod = 14;
 
@@ -775,7 +908,7 @@ public class StrategieBackTest {
             }
         }
 
-        java.util.Random rand = new java.util.Random();
+        java.util.Random rand = new java.util.Random(sweepSeed);
 
         int maxRandomTests = Math.min(totalCombinaisons, Math.max(TradeConstant.RANDO_COUNT, ((totalCombinaisons > TradeConstant.RANDO_COUNT * 10) ? (totalCombinaisons / 4) : TradeConstant.RANDO_COUNT)));
         boolean useRandomSearch = (totalCombinaisons > TradeConstant.RANDO_COUNT);
@@ -783,10 +916,10 @@ public class StrategieBackTest {
             useRandomSearch = (totalCombinaisons > maxCombos);
             maxRandomTests = 1000;
         }
-        int tested = 0;
+        List<ImprovedTrendFollowingParams> candidates = new ArrayList<>();
         if (useRandomSearch) {
             System.out.println("[Optimisation] ImprovedTrendFollowing: totalCombinaisons=" + totalCombinaisons + ", randomTests=" + maxRandomTests + " (" + (100.0 * maxRandomTests / totalCombinaisons) + "%)");
-            // Random Search
+            // Random Search (tirages dans le même ordre que la version séquentielle)
             for (int i = 0; i < maxRandomTests; i++) {
                 int trendPeriod = trendMin + rand.nextInt((trendMax - trendMin) / trendStep + 1) * trendStep;
                 int shortMa = shortMaMin + rand.nextInt((shortMaMax - shortMaMin) / shortMaStep + 1) * shortMaStep;
@@ -794,17 +927,7 @@ public class StrategieBackTest {
                 if (shortMa >= longMa) continue;
                 double threshold = thresholdMin + rand.nextInt(thresholdCount) * thresholdStep;
                 boolean useRsi = rand.nextBoolean();
-                RiskResult result = backtestImprovedTrendFollowingStrategy(series, trendPeriod, shortMa, longMa, threshold, useRsi, rsiPeriod);
-                tested++;
-                if (result.rendement > bestReturn) {
-                    bestReturn = result.rendement;
-                    bestTrend = trendPeriod;
-                    bestShortMa = shortMa;
-                    bestLongMa = longMa;
-                    bestThreshold = threshold;
-                    bestUseRsi = useRsi;
-                }
-                if (bestReturn > earlyStopThreshold) break;
+                candidates.add(new ImprovedTrendFollowingParams(trendPeriod, shortMa, longMa, threshold, useRsi, rsiPeriod, 0));
             }
         } else {
             // Recherche exhaustive mais avec pas adaptatifs
@@ -814,30 +937,23 @@ public class StrategieBackTest {
                         if (shortMa >= longMa) continue;
                         for (double threshold = thresholdMin; threshold <= thresholdMax; threshold += thresholdStep) {
                             for (boolean useRsi : new boolean[]{true, false}) {
-                                RiskResult result = backtestImprovedTrendFollowingStrategy(series, trendPeriod, shortMa, longMa, threshold, useRsi, rsiPeriod);
-                                tested++;
-                                if (result.rendement > bestReturn) {
-                                    bestReturn = result.rendement;
-                                    bestTrend = trendPeriod;
-                                    bestShortMa = shortMa;
-                                    bestLongMa = longMa;
-                                    bestThreshold = threshold;
-                                    bestUseRsi = useRsi;
-                                }
-                                if (bestReturn > earlyStopThreshold) break;
+                                candidates.add(new ImprovedTrendFollowingParams(trendPeriod, shortMa, longMa, threshold, useRsi, rsiPeriod, 0));
                             }
-                            if (bestReturn > earlyStopThreshold) break;
                         }
-                        if (bestReturn > earlyStopThreshold) break;
                     }
-                    if (bestReturn > earlyStopThreshold) break;
                 }
-                if (bestReturn > earlyStopThreshold) break;
             }
         }
-        // Optionnel : log du nombre de tests
-        // System.out.println("Paramètres testés: " + tested + ", randomSearch: " + useRandomSearch);
-        return new ImprovedTrendFollowingParams(bestTrend, bestShortMa, bestLongMa, bestThreshold, bestUseRsi, rsiPeriod, bestReturn);
+        ParameterSweep.Result<ImprovedTrendFollowingParams> sweep = parameterSweep.run(candidates, cache,
+                (p, c, b) -> backtestStrategy(new ImprovedTrendFollowingStrategy(p.trendPeriod, p.shortMaPeriod, p.longMaPeriod, p.breakoutThreshold, p.useRsiFilter, p.rsiPeriod), c, b),
+                earlyStopThreshold);
+        // Optionnel : log du nombre de tests
+        // System.out.println("Paramètres testés: " + sweep.tested + ", randomSearch: " + useRandomSearch);
+        if (sweep.best == null) {
+            return new ImprovedTrendFollowingParams(trendMin, shortMaMin, longMaMin, thresholdMin, true, rsiPeriod, Double.NEGATIVE_INFINITY);
+        }
+        ImprovedTrendFollowingParams best = sweep.best;
+        return new ImprovedTrendFollowingParams(best.trendPeriod, best.shortMaPeriod, best.longMaPeriod, best.breakoutThreshold, best.useRsiFilter, rsiPeriod, sweep.bestReturn);
     }
 
     /**
@@ -845,7 +961,10 @@ public class StrategieBackTest {
      */
     @FunctionalInterface
     public interface Optimizer {
-        Object optimise(BarSeries series);
+        /**
+         * @param window fenêtre d'optimisation (vue sur la série complète)
+         */
+        Object optimise(SignalCache window);
     }
 
     /**
@@ -853,7 +972,10 @@ public class StrategieBackTest {
      */
     @FunctionalInterface
     public interface ParamBacktest {
-        RiskResult backtest(BarSeries series, Object params);
+        /**
+         * @param window fenêtre de test (vue sur la série complète)
+         */
+        RiskResult backtest(SignalCache window, Object params);
     }
 
     /**
@@ -895,14 +1017,14 @@ public class StrategieBackTest {
     ) {
         java.util.List<RollingWindowResult> results = new java.util.ArrayList<>();
         int totalBars = series.getBarCount();
+        // Indicateurs / signaux calculés une fois sur la série complète, les fenêtres ne sont que des vues
+        SignalCache fullCache = new SignalCache(series);
         for (int startOpt = 0; startOpt + windowOptSize + windowTestSize <= totalBars; startOpt += stepSize) {
             int endOpt = startOpt + windowOptSize - 1;
             int startTest = endOpt + 1;
             int endTest = startTest + windowTestSize - 1;
-            BarSeries optSeries = series.getSubSeries(startOpt, endOpt + 1);
-            BarSeries testSeries = series.getSubSeries(startTest, endTest + 1);
-            Object params = optimizer.optimise(optSeries);
-            RiskResult result = backtestFunc.backtest(testSeries, params);
+            Object params = optimizer.optimise(fullCache.window(startOpt, endOpt + 1));
+            RiskResult result = backtestFunc.backtest(fullCache.window(startTest, endTest + 1), params);
             results.add(new RollingWindowResult(startOpt, endOpt, startTest, endTest, params, result));
         }
         return results;
@@ -946,15 +1068,15 @@ public class StrategieBackTest {
     ) {
         java.util.List<WalkForwardResult> results = new java.util.ArrayList<>();
         int totalBars = series.getBarCount();
+        // Indicateurs / signaux calculés une fois sur la série complète, les fenêtres ne sont que des vues
+        SignalCache fullCache = new SignalCache(series);
         int startOpt = 0;
         while (startOpt + windowOptSize + windowTestSize <= totalBars) {
             int endOpt = startOpt + windowOptSize - 1;
             int startTest = endOpt + 1;
             int endTest = startTest + windowTestSize - 1;
-            BarSeries optSeries = series.getSubSeries(startOpt, endOpt + 1);
-            BarSeries testSeries = series.getSubSeries(startTest, endTest + 1);
-            Object params = optimizer.optimise(optSeries);
-            RiskResult result = backtestFunc.backtest(testSeries, params);
+            Object params = optimizer.optimise(fullCache.window(startOpt, endOpt + 1));
+            RiskResult result = backtestFunc.backtest(fullCache.window(startTest, endTest + 1), params);
             results.add(new WalkForwardResult(startOpt, endOpt, startTest, endTest, params, result));
             startOpt = startTest; // Avance la fenêtre
         }
@@ -971,10 +1093,10 @@ public class StrategieBackTest {
             int longMin, int longMax,
             int signalMin, int signalMax
     ) {
-        Optimizer optimizer = (BarSeries optSeries) -> optimiseMacdParameters(optSeries, shortMin, shortMax, longMin, longMax, signalMin, signalMax);
-        ParamBacktest backtestFunc = (BarSeries testSeries, Object params) -> {
+        Optimizer optimizer = (SignalCache optWindow) -> optimiseMacdParameters(optWindow, shortMin, shortMax, longMin, longMax, signalMin, signalMax);
+        ParamBacktest backtestFunc = (SignalCache testWindow, Object params) -> {
             MacdParams p = (MacdParams) params;
-            return backtestMacdStrategy(testSeries, p.shortPeriod, p.longPeriod, p.signalPeriod);
+            return backtestStrategy(new MacdStrategy(p.shortPeriod, p.longPeriod, p.signalPeriod), testWindow);
         };
         return runRollingWindowBacktest(series, windowOptSize, windowTestSize, stepSize, optimizer, backtestFunc);
     }
@@ -987,10 +1109,10 @@ public class StrategieBackTest {
             int longMin, int longMax,
             int signalMin, int signalMax
     ) {
-        Optimizer optimizer = (BarSeries optSeries) -> optimiseMacdParameters(optSeries, shortMin, shortMax, longMin, longMax, signalMin, signalMax);
-        ParamBacktest backtestFunc = (BarSeries testSeries, Object params) -> {
+        Optimizer optimizer = (SignalCache optWindow) -> optimiseMacdParameters(optWindow, shortMin, shortMax, longMin, longMax, signalMin, signalMax);
+        ParamBacktest backtestFunc = (SignalCache testWindow, Object params) -> {
             MacdParams p = (MacdParams) params;
-            return backtestMacdStrategy(testSeries, p.shortPeriod, p.longPeriod, p.signalPeriod);
+            return backtestStrategy(new MacdStrategy(p.shortPeriod, p.longPeriod, p.signalPeriod), testWindow);
         };
         return runWalkForwardBacktest(series, windowOptSize, windowTestSize, optimizer, backtestFunc);
     }
@@ -1003,10 +1125,10 @@ public class StrategieBackTest {
             int stepSize,
             int lookbackMin, int lookbackMax
     ) {
-        Optimizer optimizer = (BarSeries optSeries) -> optimiseBreakoutParameters(optSeries, lookbackMin, lookbackMax);
-        ParamBacktest backtestFunc = (BarSeries testSeries, Object params) -> {
+        Optimizer optimizer = (SignalCache optWindow) -> optimiseBreakoutParameters(optWindow, lookbackMin, lookbackMax);
+        ParamBacktest backtestFunc = (SignalCache testWindow, Object params) -> {
             BreakoutParams p = (BreakoutParams) params;
-            return backtestBreakoutStrategy(testSeries, p.lookbackPeriod);
+            return backtestStrategy(new BreakoutStrategy(p.lookbackPeriod), testWindow);
         };
         return runRollingWindowBacktest(series, windowOptSize, windowTestSize, stepSize, optimizer, backtestFunc);
     }
@@ -1017,10 +1139,10 @@ public class StrategieBackTest {
             int windowTestSize,
             int lookbackMin, int lookbackMax
     ) {
-        Optimizer optimizer = (BarSeries optSeries) -> optimiseBreakoutParameters(optSeries, lookbackMin, lookbackMax);
-        ParamBacktest backtestFunc = (BarSeries testSeries, Object params) -> {
+        Optimizer optimizer = (SignalCache optWindow) -> optimiseBreakoutParameters(optWindow, lookbackMin, lookbackMax);
+        ParamBacktest backtestFunc = (SignalCache testWindow, Object params) -> {
             BreakoutParams p = (BreakoutParams) params;
-            return backtestBreakoutStrategy(testSeries, p.lookbackPeriod);
+            return backtestStrategy(new BreakoutStrategy(p.lookbackPeriod), testWindow);
         };
         return runWalkForwardBacktest(series, windowOptSize, windowTestSize, optimizer, backtestFunc);
     }
@@ -1034,10 +1156,10 @@ public class StrategieBackTest {
             int smaMin, int smaMax,
             double thresholdMin, double thresholdMax, double thresholdStep
     ) {
-        Optimizer optimizer = (BarSeries optSeries) -> optimiseMeanReversionParameters(optSeries, smaMin, smaMax, thresholdMin, thresholdMax, thresholdStep);
-        ParamBacktest backtestFunc = (BarSeries testSeries, Object params) -> {
+        Optimizer optimizer = (SignalCache optWindow) -> optimiseMeanReversionParameters(optWindow, smaMin, smaMax, thresholdMin, thresholdMax, thresholdStep);
+        ParamBacktest backtestFunc = (SignalCache testWindow, Object params) -> {
             MeanReversionParams p = (MeanReversionParams) params;
-            return backtestMeanReversionStrategy(testSeries, p.smaPeriod, p.threshold);
+            return backtestStrategy(new MeanReversionStrategy(p.smaPeriod, p.threshold), testWindow);
         };
         return runRollingWindowBacktest(series, windowOptSize, windowTestSize, stepSize, optimizer, backtestFunc);
     }
@@ -1049,10 +1171,10 @@ public class StrategieBackTest {
             int smaMin, int smaMax,
             double thresholdMin, double thresholdMax, double thresholdStep
     ) {
-        Optimizer optimizer = (BarSeries optSeries) -> optimiseMeanReversionParameters(optSeries, smaMin, smaMax, thresholdMin, thresholdMax, thresholdStep);
-        ParamBacktest backtestFunc = (BarSeries testSeries, Object params) -> {
+        Optimizer optimizer = (SignalCache optWindow) -> optimiseMeanReversionParameters(optWindow, smaMin, smaMax, thresholdMin, thresholdMax, thresholdStep);
+        ParamBacktest backtestFunc = (SignalCache testWindow, Object params) -> {
             MeanReversionParams p = (MeanReversionParams) params;
-            return backtestMeanReversionStrategy(testSeries, p.smaPeriod, p.threshold);
+            return backtestStrategy(new MeanReversionStrategy(p.smaPeriod, p.threshold), testWindow);
         };
         return runWalkForwardBacktest(series, windowOptSize, windowTestSize, optimizer, backtestFunc);
     }
@@ -1067,10 +1189,10 @@ public class StrategieBackTest {
             double oversoldMin, double oversoldMax, double oversoldStep,
             double overboughtMin, double overboughtMax, double overboughtStep
     ) {
-        Optimizer optimizer = (BarSeries optSeries) -> optimiseRsiParameters(optSeries, rsiMin, rsiMax, oversoldMin, oversoldMax, oversoldStep, overboughtMin, overboughtMax, overboughtStep);
-        ParamBacktest backtestFunc = (BarSeries testSeries, Object params) -> {
+        Optimizer optimizer = (SignalCache optWindow) -> optimiseRsiParameters(optWindow, rsiMin, rsiMax, oversoldMin, oversoldMax, oversoldStep, overboughtMin, overboughtMax, overboughtStep);
+        ParamBacktest backtestFunc = (SignalCache testWindow, Object params) -> {
             RsiParams p = (RsiParams) params;
-            return backtestRsiStrategy(testSeries, p.rsiPeriod, p.oversold, p.overbought);
+            return backtestStrategy(new RsiStrategy(p.rsiPeriod, p.oversold, p.overbought), testWindow);
         };
         return runRollingWindowBacktest(series, windowOptSize, windowTestSize, stepSize, optimizer, backtestFunc);
     }
@@ -1083,10 +1205,10 @@ public class StrategieBackTest {
             double oversoldMin, double oversoldMax, double oversoldStep,
             double overboughtMin, double overboughtMax, double overboughtStep
     ) {
-        Optimizer optimizer = (BarSeries optSeries) -> optimiseRsiParameters(optSeries, rsiMin, rsiMax, oversoldMin, oversoldMax, oversoldStep, overboughtMin, overboughtMax, overboughtStep);
-        ParamBacktest backtestFunc = (BarSeries testSeries, Object params) -> {
+        Optimizer optimizer = (SignalCache optWindow) -> optimiseRsiParameters(optWindow, rsiMin, rsiMax, oversoldMin, oversoldMax, oversoldStep, overboughtMin, overboughtMax, overboughtStep);
+        ParamBacktest backtestFunc = (SignalCache testWindow, Object params) -> {
             RsiParams p = (RsiParams) params;
-            return backtestRsiStrategy(testSeries, p.rsiPeriod, p.oversold, p.overbought);
+            return backtestStrategy(new RsiStrategy(p.rsiPeriod, p.oversold, p.overbought), testWindow);
         };
         return runWalkForwardBacktest(series, windowOptSize, windowTestSize, optimizer, backtestFunc);
     }
@@ -1100,10 +1222,10 @@ public class StrategieBackTest {
             int shortMin, int shortMax,
             int longMin, int longMax
     ) {
-        Optimizer optimizer = (BarSeries optSeries) -> optimiseSmaCrossoverParameters(optSeries, shortMin, shortMax, longMin, longMax);
-        ParamBacktest backtestFunc = (BarSeries testSeries, Object params) -> {
+        Optimizer optimizer = (SignalCache optWindow) -> optimiseSmaCrossoverParameters(optWindow, shortMin, shortMax, longMin, longMax);
+        ParamBacktest backtestFunc = (SignalCache testWindow, Object params) -> {
             SmaCrossoverParams p = (SmaCrossoverParams) params;
-            return backtestSmaCrossoverStrategy(testSeries, p.shortPeriod, p.longPeriod);
+            return backtestStrategy(new SmaCrossoverStrategy(p.shortPeriod, p.longPeriod), testWindow);
         };
         return runRollingWindowBacktest(series, windowOptSize, windowTestSize, stepSize, optimizer, backtestFunc);
     }
@@ -1115,10 +1237,10 @@ public class StrategieBackTest {
             int shortMin, int shortMax,
             int longMin, int longMax
     ) {
-        Optimizer optimizer = (BarSeries optSeries) -> optimiseSmaCrossoverParameters(optSeries, shortMin, shortMax, longMin, longMax);
-        ParamBacktest backtestFunc = (BarSeries testSeries, Object params) -> {
+        Optimizer optimizer = (SignalCache optWindow) -> optimiseSmaCrossoverParameters(optWindow, shortMin, shortMax, longMin, longMax);
+        ParamBacktest backtestFunc = (SignalCache testWindow, Object params) -> {
             SmaCrossoverParams p = (SmaCrossoverParams) params;
-            return backtestSmaCrossoverStrategy(testSeries, p.shortPeriod, p.longPeriod);
+            return backtestStrategy(new SmaCrossoverStrategy(p.shortPeriod, p.longPeriod), testWindow);
         };
         return runWalkForwardBacktest(series, windowOptSize, windowTestSize, optimizer, backtestFunc);
     }
@@ -1134,11 +1256,11 @@ public class StrategieBackTest {
             int longMaMin, int longMaMax,
             double thresholdMin, double thresholdMax, double thresholdStep
     ) {
-        Optimizer optimizer = (BarSeries optSeries) -> optimiseImprovedTrendFollowingParameters(optSeries,
+        Optimizer optimizer = (SignalCache optWindow) -> optimiseImprovedTrendFollowingParameters(optWindow,
             trendMin, trendMax, shortMaMin, shortMaMax, longMaMin, longMaMax, thresholdMin, thresholdMax, thresholdStep);
-        ParamBacktest backtestFunc = (BarSeries testSeries, Object params) -> {
+        ParamBacktest backtestFunc = (SignalCache testWindow, Object params) -> {
             ImprovedTrendFollowingParams p = (ImprovedTrendFollowingParams) params;
-            return backtestImprovedTrendFollowingStrategy(testSeries, p.trendPeriod, p.shortMaPeriod, p.longMaPeriod, p.breakoutThreshold, p.useRsiFilter, p.rsiPeriod);
+            return backtestStrategy(new ImprovedTrendFollowingStrategy(p.trendPeriod, p.shortMaPeriod, p.longMaPeriod, p.breakoutThreshold, p.useRsiFilter, p.rsiPeriod), testWindow);
         };
         return runRollingWindowBacktest(series, windowOptSize, windowTestSize, stepSize, optimizer, backtestFunc);
     }
@@ -1152,11 +1274,11 @@ public class StrategieBackTest {
             int longMaMin, int longMaMax,
             double thresholdMin, double thresholdMax, double thresholdStep
     ) {
-        Optimizer optimizer = (BarSeries optSeries) -> optimiseImprovedTrendFollowingParameters(optSeries,
+        Optimizer optimizer = (SignalCache optWindow) -> optimiseImprovedTrendFollowingParameters(optWindow,
             trendMin, trendMax, shortMaMin, shortMaMax, longMaMin, longMaMax, thresholdMin, thresholdMax, thresholdStep);
-        ParamBacktest backtestFunc = (BarSeries testSeries, Object params) -> {
+        ParamBacktest backtestFunc = (SignalCache testWindow, Object params) -> {
             ImprovedTrendFollowingParams p = (ImprovedTrendFollowingParams) params;
-            return backtestImprovedTrendFollowingStrategy(testSeries, p.trendPeriod, p.shortMaPeriod, p.longMaPeriod, p.breakoutThreshold, p.useRsiFilter, p.rsiPeriod);
+            return backtestStrategy(new ImprovedTrendFollowingStrategy(p.trendPeriod, p.shortMaPeriod, p.longMaPeriod, p.breakoutThreshold, p.useRsiFilter, p.rsiPeriod), testWindow);
         };
         return runWalkForwardBacktest(series, windowOptSize, windowTestSize, optimizer, backtestFunc);
     }
@@ -1536,10 +1658,35 @@ public class StrategieBackTest {
             return exitStrategy.getExitRule(series);
         }
 
+        @Override
+        public org.ta4j.core.Rule getEntryRule(IndicatorRegistry indicators) {
+            return entryStrategy.getEntryRule(indicators);
+        }
+
+        @Override
+        public org.ta4j.core.Rule getExitRule(IndicatorRegistry indicators) {
+            return exitStrategy.getExitRule(indicators);
+        }
+
         @Override
         public String getName() {
             return "Combined(" + entryStrategy.getName() + " / " + exitStrategy.getName() + ")";
         }
+
+        @Override
+        public String getKey() {
+            String entryKey = entryStrategy.getKey();
+            String exitKey = exitStrategy.getKey();
+            return (entryKey == null || exitKey == null) ? null : "Combined(" + entryKey + " / " + exitKey + ")";
+        }
+
+        public TradeStrategy getEntryStrategy() {
+            return entryStrategy;
+        }
+
+        public TradeStrategy getExitStrategy() {
+            return exitStrategy;
+        }
     }
 
     /**
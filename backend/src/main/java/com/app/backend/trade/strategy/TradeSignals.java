@@ -0,0 +1,73 @@
+package com.app.backend.trade.strategy;
+
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.Rule;
+
+import java.util.BitSet;
+
+/**
+ * Signaux d'entrée / sortie pré-calculés d'une stratégie sur une série (un bit par bougie).
+ * Les règles TA4J sont évaluées une seule fois par index, le moteur de backtest
+ * ne lit ensuite que des bits.
+ */
+public final class TradeSignals {
+    private final BitSet entry;
+    private final BitSet exit;
+    private final int barCount;
+
+    public TradeSignals(BitSet entry, BitSet exit, int barCount) {
+        this.entry = entry;
+        this.exit = exit;
+        this.barCount = barCount;
+    }
+
+    public static TradeSignals of(TradeStrategy strategy, BarSeries series) {
+        return of(strategy.getEntryRule(series), strategy.getExitRule(series), series.getBarCount());
+    }
+
+    /**
+     * Signaux d'une stratégie construits sur les indicateurs partagés du registre.
+     */
+    public static TradeSignals of(TradeStrategy strategy, IndicatorRegistry indicators) {
+        return of(strategy.getEntryRule(indicators), strategy.getExitRule(indicators), indicators.getSeries().getBarCount());
+    }
+
+    public static TradeSignals of(Rule entryRule, Rule exitRule, int barCount) {
+        BitSet entry = new BitSet(barCount);
+        BitSet exit = new BitSet(barCount);
+        for (int i = 0; i < barCount; i++) {
+            if (entryRule.isSatisfied(i)) entry.set(i);
+            if (exitRule.isSatisfied(i)) exit.set(i);
+        }
+        return new TradeSignals(entry, exit, barCount);
+    }
+
+    /**
+     * Combine les entrées d'une stratégie avec les sorties d'une autre (équivalent CombinedTradeStrategy).
+     * Les BitSet sont partagés, pas copiés.
+     */
+    public static TradeSignals combine(TradeSignals entrySignals, TradeSignals exitSignals) {
+        return new TradeSignals(entrySignals.entry, exitSignals.exit, Math.min(entrySignals.barCount, exitSignals.barCount));
+    }
+
+    public boolean isEntry(int index) {
+        return entry.get(index);
+    }
+
+    public boolean isExit(int index) {
+        return exit.get(index);
+    }
+
+    public int getBarCount() {
+        return barCount;
+    }
+
+    // Accès direct aux bits (sans copie) pour la transposition par lot de BatchBacktestKernel
+    BitSet getEntry() {
+        return entry;
+    }
+
+    BitSet getExit() {
+        return exit;
+    }
+}
@@ -8,5 +8,28 @@ public interface TradeStrategy {
     Rule getEntryRule(BarSeries series);
     Rule getExitRule(BarSeries series);
     String getName();
+
+    /**
+     * Règle d'entrée construite à partir des indicateurs partagés du registre de la série.
+     * Par défaut (stratégies sans registre, ex: classes anonymes) : getEntryRule(series).
+     */
+    default Rule getEntryRule(IndicatorRegistry indicators) {
+        return getEntryRule(indicators.getSeries());
+    }
+
+    /**
+     * Règle de sortie construite à partir des indicateurs partagés du registre de la série.
+     */
+    default Rule getExitRule(IndicatorRegistry indicators) {
+        return getExitRule(indicators.getSeries());
+    }
+
+    /**
+     * Clé identifiant la stratégie ET ses paramètres (ex: "RSI(14,30.0,70.0)").
+     * Sert de clé aux caches de signaux ; null = stratégie non cachable (ex: classes anonymes).
+     */
+    default String getKey() {
+        return null;
+    }
 }
 
@@ -2,17 +2,12 @@ package com.app.backend.trade.strategy;
 
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Rule;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-import org.ta4j.core.indicators.helpers.HighPriceIndicator;
-import org.ta4j.core.indicators.helpers.LowPriceIndicator;
-import org.ta4j.core.indicators.helpers.HighestValueIndicator;
-import org.ta4j.core.indicators.helpers.LowestValueIndicator;
+import org.ta4j.core.Indicator;
 import org.ta4j.core.rules.CrossedUpIndicatorRule;
 import org.ta4j.core.rules.CrossedDownIndicatorRule;
 import org.ta4j.core.rules.OverIndicatorRule;
 import org.ta4j.core.rules.UnderIndicatorRule;
-import org.ta4j.core.indicators.SMAIndicator;
-import org.ta4j.core.num.DecimalNum;
+import org.ta4j.core.num.Num;
 import org.ta4j.core.indicators.helpers.TransformIndicator;
 
 public class TrendFollowingStrategy implements TradeStrategy {
@@ -28,15 +23,27 @@ public class TrendFollowingStrategy implements TradeStrategy {
 
     @Override
     public Rule getEntryRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
+        return getEntryRule(new IndicatorRegistry(series));
+    }
+
+    @Override
+    public Rule getExitRule(BarSeries series) {
+        return getExitRule(new IndicatorRegistry(series));
+    }
+
+    @Override
+    public Rule getEntryRule(IndicatorRegistry indicators) {
+        BarSeries series = indicators.getSeries();
+        Indicator<Num> close = indicators.close();
 
         // Version plus réaliste : prix au-dessus du plus haut des N dernières périodes avec un seuil
-        HighestValueIndicator highestHigh = new HighestValueIndicator(new HighPriceIndicator(series), trendPeriod);
+        Indicator<Num> highestHigh = indicators.highest(IndicatorRegistry.Source.HIGH, trendPeriod);
+        Num factor = series.numOf(0.995); // 0.5% en dessous du plus haut (même type Num que la série)
         TransformIndicator highestWithThreshold = new TransformIndicator(highestHigh,
-            value -> value.multipliedBy(DecimalNum.valueOf(0.995))); // 0.5% en dessous du plus haut
+            value -> value.multipliedBy(factor));
 
         // Alternative : utiliser une moyenne mobile pour plus de signaux
-        SMAIndicator sma = new SMAIndicator(close, trendPeriod);
+        Indicator<Num> sma = indicators.sma(trendPeriod);
 
         // Condition : prix au-dessus de 99.5% du plus haut OU au-dessus de la SMA
         return new org.ta4j.core.rules.OrRule(
@@ -46,16 +53,18 @@ public class TrendFollowingStrategy implements TradeStrategy {
     }
 
     @Override
-    public Rule getExitRule(BarSeries series) {
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
+    public Rule getExitRule(IndicatorRegistry indicators) {
+        BarSeries series = indicators.getSeries();
+        Indicator<Num> close = indicators.close();
 
         // Version plus réaliste : prix en-dessous du plus bas avec seuil
-        LowestValueIndicator lowestLow = new LowestValueIndicator(new LowPriceIndicator(series), trendPeriod);
+        Indicator<Num> lowestLow = indicators.lowest(IndicatorRegistry.Source.LOW, trendPeriod);
+        Num factor = series.numOf(1.005); // 0.5% au-dessus du plus bas (même type Num que la série)
         TransformIndicator lowestWithThreshold = new TransformIndicator(lowestLow,
-            value -> value.multipliedBy(DecimalNum.valueOf(1.005))); // 0.5% au-dessus du plus bas
+            value -> value.multipliedBy(factor));
 
         // Alternative : moyenne mobile pour sortie
-        SMAIndicator sma = new SMAIndicator(close, trendPeriod);
+        Indicator<Num> sma = indicators.sma(trendPeriod);
 
         return new org.ta4j.core.rules.OrRule(
             new UnderIndicatorRule(close, lowestWithThreshold),
@@ -67,4 +76,9 @@ public class TrendFollowingStrategy implements TradeStrategy {
     public String getName() {
         return "Trend Following";
     }
+
+    @Override
+    public String getKey() {
+        return getName() + "(" + trendPeriod + ")";
+    }
 }
@@ -0,0 +1,79 @@
+package com.app.backend.trade.util;
+
+import com.app.backend.trade.model.DailyValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeriesBuilder;
+import org.ta4j.core.num.DecimalNum;
+import org.ta4j.core.num.DoubleNum;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Fabrique centralisée des BarSeries.
+ *
+ * Le type numérique TA4J est configurable (propriété trade.series.num = decimal | double) :
+ *  - DECIMAL : DecimalNum (précision arbitraire, comportement historique, défaut)
+ *  - DOUBLE  : DoubleNum (double primitif, beaucoup plus rapide pour SMA/RSI/ATR/MACD)
+ * Avant de basculer en DOUBLE, valider l'écart avec NumParityChecker.
+ *
+ * Le mode configuré est porté par le bean (injecté là où les séries sont construites) ; les méthodes statiques
+ * prennent un mode explicite.
+ */
+@Component
+public class BarSeriesFactory {
+
+    public enum NumMode { DECIMAL, DOUBLE }
+
+    private final NumMode mode;
+
+    public BarSeriesFactory(@Value("${trade.series.num:decimal}") String mode) {
+        this.mode = parseMode(mode);
+        TradeUtils.log("BarSeriesFactory mode numérique=" + this.mode);
+    }
+
+    public static NumMode parseMode(String mode) {
+        if (mode == null) return NumMode.DECIMAL;
+        return "double".equals(mode.trim().toLowerCase(Locale.ROOT)) ? NumMode.DOUBLE : NumMode.DECIMAL;
+    }
+
+    public NumMode getMode() {
+        return mode;
+    }
+
+    /** Nouvelle série vide selon le mode configuré. */
+    public BarSeries newSeries() {
+        return newSeries(null, mode);
+    }
+
+    /** Conversion DailyValue -> BarSeries selon le mode configuré. */
+    public BarSeries mapping(List<DailyValue> values) {
+        return TradeUtils.mapping(values, mode);
+    }
+
+    public static BarSeries newSeries(NumMode mode) {
+        return newSeries(null, mode);
+    }
+
+    public static BarSeries newSeries(String name, NumMode mode) {
+        BaseBarSeriesBuilder builder = new BaseBarSeriesBuilder();
+        if (name != null) builder.withName(name);
+        if (mode == NumMode.DOUBLE) {
+            builder.withNumTypeOf(DoubleNum.class);
+        } else {
+            builder.withNumTypeOf(DecimalNum.class);
+        }
+        return builder.build();
+    }
+
+    /** Nouvelle série vide de même type numérique que la série modèle (pour recopier ses barres). */
+    public static BarSeries newSeriesLike(BarSeries template) {
+        return new BaseBarSeriesBuilder().withNumTypeOf(template).build();
+    }
+
+    public static NumMode modeOf(BarSeries series) {
+        return series.numOf(0) instanceof DoubleNum ? NumMode.DOUBLE : NumMode.DECIMAL;
+    }
+}
@@ -0,0 +1,198 @@
+package com.app.backend.trade.util;
+
+import com.app.backend.trade.lstm.LstmTradePredictor;
+import com.app.backend.trade.model.DailyValue;
+import com.app.backend.trade.model.RiskResult;
+import com.app.backend.trade.strategy.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.ta4j.core.BarSeries;
+
+import java.util.*;
+
+/**
+ * Vérifie la parité DecimalNum / DoubleNum avant de basculer trade.series.num=double.
+ *
+ * Pour chaque symbole de l'échantillon, la même liste de DailyValue est convertie dans les deux modes puis :
+ *  - chaque stratégie (paramètres par défaut) est backtestée dans les deux modes : écart max par métrique RiskResult
+ *  - les bits de signaux entrée/sortie sont comparés (un signal qui bascule = divergence discrète)
+ *  - la matrice de features LSTM (extractFeatureMatrix) est comparée colonne par colonne
+ *
+ * Tolérance combinée : a et b concordent si |a - b| <= absolue + relative * max(|a|, |b|). La part relative couvre
+ * les valeurs < 1 (ratios, rendements, win rates), la part absolue les valeurs proches de zéro (momentum, MACD...)
+ * où un arrondi inoffensif donne un écart relatif énorme. Les écarts relatif et absolu max sont rapportés à part.
+ */
+@Service
+public class NumParityChecker {
+    private static final Logger logger = LoggerFactory.getLogger(NumParityChecker.class);
+
+    /** Tolérance relative par défaut */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+    /** Tolérance absolue par défaut (valeurs proches de zéro) */
+    public static final double DEFAULT_ABSOLUTE_TOLERANCE = 1e-9;
+    static final double RELATIVE_FLOOR = 1e-300;
+
+    public static final List<String> ALL_FEATURES = List.of(
+            "close", "high", "low", "open", "volume",
+            "rsi", "rsi_14", "rsi_21", "sma", "sma_20", "sma_50",
+            "ema", "ema_12", "ema_26", "ema_50", "macd", "macd_signal", "macd_histogram",
+            "atr", "atr_14", "atr_21", "bollinger_high", "bollinger_low", "bollinger_width",
+            "stochastic", "stochastic_d", "williams_r", "cci", "roc", "momentum",
+            "trend_strength", "price_gap", "range_expansion", "breakout_momentum",
+            "momentum_acceleration", "momentum_volatility", "bollinger_position",
+            "cross_momentum", "momentum_divergence", "realized_vol"
+    );
+
+    /**
+     * Rapport de parité (agrégé sur tous les symboles contrôlés).
+     */
+    public static class ParityReport {
+        /** Tolérance relative */
+        public double tolerance;
+        public double absoluteTolerance;
+        public int symbolsChecked = 0;
+        /** Écart relatif max par métrique RiskResult (clé "Stratégie.métrique") */
+        public Map<String, Double> maxMetricDeviation = new TreeMap<>();
+        /** Écart relatif max par feature */
+        public Map<String, Double> maxFeatureDeviation = new TreeMap<>();
+        /** Nombre de bits de signaux différents par stratégie */
+        public Map<String, Integer> signalMismatches = new TreeMap<>();
+        public double maxDeviation = 0.0;
+        public String worstItem;
+        /** Écart absolu max |a - b| (toutes métriques et features) */
+        public double maxAbsoluteDeviation = 0.0;
+        public String worstAbsoluteItem;
+        /** Nombre de valeurs hors tolérance combinée par métrique / feature */
+        public Map<String, Integer> toleranceFailures = new TreeMap<>();
+        public boolean withinTolerance;
+        public List<String> errors = new ArrayList<>();
+    }
+
+    private final StrategieBackTest strategieBackTest;
+    private final LstmTradePredictor lstmTradePredictor;
+
+    public NumParityChecker(StrategieBackTest strategieBackTest, LstmTradePredictor lstmTradePredictor) {
+        this.strategieBackTest = strategieBackTest;
+        this.lstmTradePredictor = lstmTradePredictor;
+    }
+
+    public static List<TradeStrategy> defaultStrategies() {
+        return List.of(
+                new ImprovedTrendFollowingStrategy(),
+                new SmaCrossoverStrategy(),
+                new RsiStrategy(),
+                new BreakoutStrategy(),
+                new MacdStrategy(),
+                new MeanReversionStrategy(),
+                new TrendFollowingStrategy()
+        );
+    }
+
+    public ParityReport check(Map<String, List<DailyValue>> valuesBySymbol, double tolerance) {
+        return check(valuesBySymbol, DEFAULT_ABSOLUTE_TOLERANCE, tolerance);
+    }
+
+    public ParityReport check(Map<String, List<DailyValue>> valuesBySymbol, double absoluteTolerance, double tolerance) {
+        ParityReport report = new ParityReport();
+        report.tolerance = tolerance;
+        report.absoluteTolerance = absoluteTolerance;
+        for (Map.Entry<String, List<DailyValue>> e : valuesBySymbol.entrySet()) {
+            String symbol = e.getKey();
+            try {
+                BarSeries decimalSeries = TradeUtils.mapping(e.getValue(), BarSeriesFactory.NumMode.DECIMAL);
+                BarSeries doubleSeries = TradeUtils.mapping(e.getValue(), BarSeriesFactory.NumMode.DOUBLE);
+                if (decimalSeries.getBarCount() == 0) continue;
+                checkStrategies(decimalSeries, doubleSeries, report);
+                checkFeatures(decimalSeries, doubleSeries, report);
+                report.symbolsChecked++;
+            } catch (Exception ex) {
+                logger.warn("[PARITY] Échec contrôle symbole {} : {}", symbol, ex.getMessage());
+                report.errors.add(symbol + ": " + ex.getMessage());
+            }
+        }
+        int totalMismatches = report.signalMismatches.values().stream().mapToInt(Integer::intValue).sum();
+        int totalFailures = report.toleranceFailures.values().stream().mapToInt(Integer::intValue).sum();
+        report.withinTolerance = report.errors.isEmpty() && totalMismatches == 0 && totalFailures == 0;
+        logger.info("[PARITY] symboles={} maxDeviation={} ({}) maxAbsoluteDeviation={} ({}) horsTolérance={} signalMismatches={} => {}",
+                report.symbolsChecked, report.maxDeviation, report.worstItem, report.maxAbsoluteDeviation, report.worstAbsoluteItem,
+                totalFailures, totalMismatches, report.withinTolerance ? "OK" : "KO");
+        return report;
+    }
+
+    private void checkStrategies(BarSeries decimalSeries, BarSeries doubleSeries, ParityReport report) {
+        for (TradeStrategy strategy : defaultStrategies()) {
+            String name = strategy.getName();
+            TradeSignals sigDec = TradeSignals.of(strategy, decimalSeries);
+            TradeSignals sigDbl = TradeSignals.of(strategy, doubleSeries);
+            int mismatches = 0;
+            for (int i = 0; i < sigDec.getBarCount(); i++) {
+                if (sigDec.isEntry(i) != sigDbl.isEntry(i)) mismatches++;
+                if (sigDec.isExit(i) != sigDbl.isExit(i)) mismatches++;
+            }
+            report.signalMismatches.merge(name, mismatches, Integer::sum);
+
+            RiskResult a = strategieBackTest.backtestStrategyRisk(strategy, decimalSeries);
+            RiskResult b = strategieBackTest.backtestStrategyRisk(strategy, doubleSeries);
+            record(report, report.maxMetricDeviation, name + ".rendement", a.rendement, b.rendement);
+            record(report, report.maxMetricDeviation, name + ".maxDrawdown", a.maxDrawdown, b.maxDrawdown);
+            record(report, report.maxMetricDeviation, name + ".tradeCount", a.tradeCount, b.tradeCount);
+            record(report, report.maxMetricDeviation, name + ".winRate", a.winRate, b.winRate);
+            record(report, report.maxMetricDeviation, name + ".avgPnL", a.avgPnL, b.avgPnL);
+            record(report, report.maxMetricDeviation, name + ".profitFactor", a.profitFactor, b.profitFactor);
+            record(report, report.maxMetricDeviation, name + ".avgTradeBars", a.avgTradeBars, b.avgTradeBars);
+            record(report, report.maxMetricDeviation, name + ".sharpeRatio", a.sharpeRatio, b.sharpeRatio);
+            record(report, report.maxMetricDeviation, name + ".stabilityScore", a.stabilityScore, b.stabilityScore);
+        }
+    }
+
+    private void checkFeatures(BarSeries decimalSeries, BarSeries doubleSeries, ParityReport report) {
+        double[][] a = lstmTradePredictor.extractFeatureMatrix(decimalSeries, ALL_FEATURES);
+        double[][] b = lstmTradePredictor.extractFeatureMatrix(doubleSeries, ALL_FEATURES);
+        for (int f = 0; f < ALL_FEATURES.size(); f++) {
+            String feature = ALL_FEATURES.get(f);
+            for (int i = 0; i < a.length; i++) {
+                record(report, report.maxFeatureDeviation, feature, a[i][f], b[i][f]);
+            }
+        }
+    }
+
+    private static void record(ParityReport report, Map<String, Double> target, String key, double a, double b) {
+        double dev = relativeDeviation(a, b);
+        target.merge(key, dev, Math::max);
+        if (dev > report.maxDeviation) {
+            report.maxDeviation = dev;
+            report.worstItem = key;
+        }
+        double abs = absoluteDeviation(a, b);
+        if (abs > report.maxAbsoluteDeviation) {
+            report.maxAbsoluteDeviation = abs;
+            report.worstAbsoluteItem = key;
+        }
+        if (!withinTolerance(a, b, report.absoluteTolerance, report.tolerance)) {
+            report.toleranceFailures.merge(key, 1, Integer::sum);
+        }
+    }
+
+    /** Vrai si |a - b| <= absoluteTolerance + relativeTolerance * max(|a|, |b|) (NaN des deux côtés = concordance) */
+    static boolean withinTolerance(double a, double b, double absoluteTolerance, double relativeTolerance) {
+        double abs = absoluteDeviation(a, b);
+        if (!Double.isFinite(abs)) return false;
+        return abs <= absoluteTolerance + relativeTolerance * Math.max(Math.abs(a), Math.abs(b));
+    }
+
+    static double absoluteDeviation(double a, double b) {
+        if (Double.isNaN(a) && Double.isNaN(b)) return 0.0;
+        if (a == b) return 0.0;
+        double diff = Math.abs(a - b);
+        return Double.isFinite(diff) ? diff : Double.POSITIVE_INFINITY;
+    }
+
+    static double relativeDeviation(double a, double b) {
+        if (Double.isNaN(a) && Double.isNaN(b)) return 0.0;
+        if (a == b) return 0.0;
+        double diff = Math.abs(a - b);
+        if (!Double.isFinite(diff)) return Double.POSITIVE_INFINITY;
+        return diff / Math.max(RELATIVE_FLOOR, Math.max(Math.abs(a), Math.abs(b)));
+    }
+}
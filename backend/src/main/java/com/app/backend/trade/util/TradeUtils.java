@@ -6,7 +6,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.ta4j.core.BarSeries;
-import org.ta4j.core.BaseBarSeries;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
@@ -76,8 +75,8 @@ public class TradeUtils {
         int total = series.getBarCount();
         int nOptim = (int) Math.round(total * TradeConstant.PC_OPTIM);
         if (nOptim < 1) throw new IllegalArgumentException("Découpage walk-forward impossible : pas assez de données");
-        BarSeries optimSeries = new BaseBarSeries();
-        BarSeries testSeries = new BaseBarSeries();
+        BarSeries optimSeries = BarSeriesFactory.newSeriesLike(series);
+        BarSeries testSeries = BarSeriesFactory.newSeriesLike(series);
         for (int i = 0; i < nOptim; i++) {
             optimSeries.addBar(series.getBar(i));
         }
@@ -171,10 +170,17 @@ public class TradeUtils {
     }
 
     /**
-     * Convertit une liste de DailyValue en BarSeries.
+     * Convertit une liste de DailyValue en BarSeries (DecimalNum ; mode configuré : BarSeriesFactory#mapping).
      */
     public static org.ta4j.core.BarSeries mapping(java.util.List<com.app.backend.trade.model.DailyValue> listeValues) {
-        org.ta4j.core.BarSeries series = new org.ta4j.core.BaseBarSeries();
+        return mapping(listeValues, BarSeriesFactory.NumMode.DECIMAL);
+    }
+
+    /**
+     * Convertit une liste de DailyValue en BarSeries avec un type numérique explicite (DecimalNum / DoubleNum).
+     */
+    public static org.ta4j.core.BarSeries mapping(java.util.List<com.app.backend.trade.model.DailyValue> listeValues, BarSeriesFactory.NumMode mode) {
+        org.ta4j.core.BarSeries series = BarSeriesFactory.newSeries(mode);
         java.time.ZonedDateTime lastDate = null;
         java.util.Set<java.time.ZonedDateTime> seenDates = new java.util.HashSet<>();
         for (com.app.backend.trade.model.DailyValue dailyValue : listeValues) {
@@ -214,7 +220,7 @@ public class TradeUtils {
      * Convertit une liste de DailyValue en BarSeries (version alternative).
      */
     public static org.ta4j.core.BarSeries toBarSeries(java.util.List<com.app.backend.trade.model.DailyValue> values) {
-        org.ta4j.core.BarSeries series = new org.ta4j.core.BaseBarSeries();
+        org.ta4j.core.BarSeries series = BarSeriesFactory.newSeries(BarSeriesFactory.NumMode.DECIMAL);
         for (com.app.backend.trade.model.DailyValue v : values) {
             try {
                 series.addBar(
@@ -369,7 +375,7 @@ public class TradeUtils {
      * @return nouvelle série sans l'intervalle exclu
      */
     public static BarSeries concatSubSeriesExcept(BarSeries series, int excludeStart, int excludeEnd) {
-        BaseBarSeries result = new BaseBarSeries();
+        BarSeries result = BarSeriesFactory.newSeriesLike(series);
         int n = series.getBarCount();
         for (int i = 0; i < n; i++) {
             if (i < excludeStart || i >= excludeEnd) {
@@ -0,0 +1,26 @@
+-- Migration V4: store adressé par contenu des binaires de modèles LSTM
+-- Table lstm_model_blobs (clé SHA-256), colonne lstm_models.model_sha256 (référence) et index de classement.
+-- Reprise des binaires existants : trade/sql/migrate_lstm_model_blobs.sql (après cette migration).
+
+CREATE TABLE IF NOT EXISTS lstm_model_blobs (
+  sha256 CHAR(64) PRIMARY KEY,
+  model_blob LONGBLOB NOT NULL,
+  size_bytes INT,
+  created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- model_sha256
+SET @col := (SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
+             WHERE TABLE_SCHEMA = DATABASE()
+               AND TABLE_NAME='lstm_models'
+               AND COLUMN_NAME='model_sha256');
+SET @sql := IF(@col=0, 'ALTER TABLE lstm_models ADD COLUMN model_sha256 CHAR(64) AFTER scalers_json', 'SELECT 1');
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- idx_lstm_models_symbol_score (getBestModel, leaderboard)
+SET @idx := (SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS
+             WHERE TABLE_SCHEMA = DATABASE()
+               AND TABLE_NAME='lstm_models'
+               AND INDEX_NAME='idx_lstm_models_symbol_score');
+SET @sql := IF(@idx=0, 'CREATE INDEX idx_lstm_models_symbol_score ON lstm_models(symbol, business_score)', 'SELECT 1');
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
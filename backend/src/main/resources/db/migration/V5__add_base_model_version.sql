@@ -0,0 +1,24 @@
+-- Migration V5: transfer learning (modèles de base mutualisés)
+-- Table des modèles de base + colonne lstm_models.base_model_version (version utilisée pour le fine-tuning).
+
+CREATE TABLE IF NOT EXISTS lstm_base_models (
+  id INT AUTO_INCREMENT PRIMARY KEY,
+  arch_key CHAR(64) NOT NULL,
+  architecture TEXT,
+  hyperparams_json TEXT,
+  model_sha256 CHAR(64) NOT NULL,
+  symbols_json TEXT,
+  num_sequences INT,
+  val_loss DOUBLE,
+  epochs INT,
+  created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  INDEX idx_lstm_base_models_arch (arch_key, id)
+);
+
+-- base_model_version
+SET @col := (SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
+             WHERE TABLE_SCHEMA = DATABASE()
+               AND TABLE_NAME='lstm_models'
+               AND COLUMN_NAME='base_model_version');
+SET @sql := IF(@col=0, 'ALTER TABLE lstm_models ADD COLUMN base_model_version INT NULL AFTER normalization_scope', 'SELECT 1');
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
@@ -0,0 +1,9 @@
+-- Migration V6: coupure d'entraînement des modèles de base (transfer learning)
+-- Fin de la dernière barre vue par le pré-entraînement ; NULL pour les versions antérieures (plus utilisées).
+
+SET @col := (SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
+             WHERE TABLE_SCHEMA = DATABASE()
+               AND TABLE_NAME='lstm_base_models'
+               AND COLUMN_NAME='train_cutoff');
+SET @sql := IF(@col=0, 'ALTER TABLE lstm_base_models ADD COLUMN train_cutoff DATETIME NULL AFTER epochs', 'SELECT 1');
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
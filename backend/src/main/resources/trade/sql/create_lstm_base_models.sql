@@ -0,0 +1,16 @@
+-- Modèles de base mutualisés (transfer learning) : une version (id) par pré-entraînement, par architecture.
+-- Binaire dans lstm_model_blobs (model_sha256) ; lstm_models.base_model_version référence id.
+CREATE TABLE trade_ai.lstm_base_models (
+  id INT AUTO_INCREMENT PRIMARY KEY,
+  arch_key CHAR(64) NOT NULL,
+  architecture TEXT,
+  hyperparams_json TEXT,
+  model_sha256 CHAR(64) NOT NULL,
+  symbols_json TEXT,
+  num_sequences INT,
+  val_loss DOUBLE,
+  epochs INT,
+  train_cutoff DATETIME NULL, -- fin de la dernière barre vue par le pré-entraînement
+  created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_lstm_base_models_arch ON trade_ai.lstm_base_models(arch_key, id);
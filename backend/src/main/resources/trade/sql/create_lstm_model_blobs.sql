@@ -0,0 +1,6 @@
+CREATE TABLE trade_ai.lstm_model_blobs (
+  sha256 CHAR(64) PRIMARY KEY,
+  model_blob LONGBLOB NOT NULL,
+  size_bytes INT,
+  created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
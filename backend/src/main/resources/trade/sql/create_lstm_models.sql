@@ -4,7 +4,8 @@ CREATE TABLE trade_ai.lstm_models (
     updated_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     hyperparams_json TEXT,
     scalers_json TEXT,
-    model_blob LONGBLOB,
+    model_sha256 CHAR(64),
+    model_blob LONGBLOB, -- historique : binaire dans lstm_model_blobs (model_sha256)
     mse DOUBLE, profit_factor DOUBLE, win_rate DOUBLE, max_drawdown DOUBLE, rmse DOUBLE,
     sum_profit DOUBLE, total_trades INT, business_score DOUBLE,
     total_series_tested INT,
@@ -17,6 +18,8 @@ CREATE TABLE trade_ai.lstm_models (
       tuning_result_json TEXT,
     ratio DOUBLE,
     eligible BOOLEAN DEFAULT TRUE,
-    normalization_scope VARCHAR(16) DEFAULT 'window'
+    normalization_scope VARCHAR(16) DEFAULT 'window',
+    base_model_version INT NULL -- lstm_base_models.id si fine-tuné depuis un modèle de base
 );
-CREATE INDEX idx_signal_lstm_symbol ON trade_ai.lstm_models(symbol);
\ No newline at end of file
+CREATE INDEX idx_signal_lstm_symbol ON trade_ai.lstm_models(symbol);
+CREATE INDEX idx_lstm_models_symbol_score ON trade_ai.lstm_models(symbol, business_score);
@@ -0,0 +1,14 @@
+-- Reprise des binaires de lstm_models vers le store adressé par contenu (lstm_model_blobs).
+-- À exécuter après db/migration/V4__add_lstm_model_blobs.sql (table, colonne model_sha256, index) ; rejouable.
+INSERT IGNORE INTO trade_ai.lstm_model_blobs (sha256, model_blob, size_bytes)
+SELECT SHA2(model_blob, 256), model_blob, LENGTH(model_blob)
+FROM trade_ai.lstm_models
+WHERE model_blob IS NOT NULL AND model_sha256 IS NULL;
+
+UPDATE trade_ai.lstm_models
+SET model_sha256 = SHA2(model_blob, 256)
+WHERE model_blob IS NOT NULL AND model_sha256 IS NULL;
+
+-- Libère les pages du LONGBLOB une fois la référence posée
+UPDATE trade_ai.lstm_models SET model_blob = NULL WHERE model_sha256 IS NOT NULL;
+OPTIMIZE TABLE trade_ai.lstm_models;
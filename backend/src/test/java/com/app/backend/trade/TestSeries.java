@@ -0,0 +1,42 @@
+package com.app.backend.trade;
+
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseBarSeriesBuilder;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+/**
+ * Séries de test : marche aléatoire journalière reproductible (même graine = mêmes barres, mêmes dates).
+ * Départ au 01/01/2021 UTC, ouverture bruitée autour de la clôture précédente, extrêmes à 1 % au plus,
+ * volume aléatoire.
+ */
+public final class TestSeries {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
+
+    private TestSeries() {
+    }
+
+    public static BarSeries randomWalk(int n, long seed) {
+        return randomWalk("TEST", n, seed);
+    }
+
+    public static BarSeries randomWalk(String name, int n, long seed) {
+        BarSeries series = new BaseBarSeriesBuilder().withName(name).build();
+        Random rnd = new Random(seed);
+        double price = 100.0;
+        for (int i = 0; i < n; i++) {
+            double open = price * (1.0 + rnd.nextGaussian() * 0.003);
+            price = Math.max(1.0, price * (1.0 + rnd.nextGaussian() * 0.02));
+            double high = Math.max(open, price) * (1.0 + rnd.nextDouble() * 0.01);
+            double low = Math.min(open, price) * (1.0 - rnd.nextDouble() * 0.01);
+            series.addBar(new BaseBar(Duration.ofDays(1), START.plusDays(i),
+                String.valueOf(open), String.valueOf(high), String.valueOf(low), String.valueOf(price), String.valueOf(1000 + rnd.nextInt(5000))));
+        }
+        return series;
+    }
+}
@@ -0,0 +1,142 @@
+package com.app.backend.trade.lstm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CpuConcurrencyControllerTest {
+
+    @Test
+    void permitSplitsCoresAcrossConcurrentTrainings() throws Exception {
+        AtomicInteger applied = new AtomicInteger();
+        CpuConcurrencyController controller = new CpuConcurrencyController(8, applied::set);
+        controller.configure(1, 4, 3, 0.05);
+        try (CpuConcurrencyController.Permit permit = controller.acquire()) {
+            assertEquals(2, permit.getThreads());
+            assertEquals(2, applied.get());
+            assertEquals(1, controller.getActiveTrainings());
+        }
+        assertEquals(0, controller.getActiveTrainings());
+    }
+
+    @Test
+    void processWideThreadBudgetHasASingleWriter() throws Exception {
+        List<Integer> applied = new ArrayList<>();
+        CpuConcurrencyController controller = new CpuConcurrencyController(8, applied::add);
+        controller.configure(1, 2, 1, 0.05);
+        // Rien n'est appliqué tant qu'aucun entraînement n'est admis
+        assertTrue(applied.isEmpty());
+        CpuConcurrencyController.Permit a = controller.acquire();
+        CpuConcurrencyController.Permit b = controller.acquire();
+        // Deux entraînements concurrents : un seul réglage, identique pour les deux
+        assertEquals(List.of(4), applied);
+        assertEquals(a.getThreads(), b.getThreads());
+        // Niveau ramené à 1 : le budget reste partagé tant que les deux entraînements tournent
+        a.recordTraining(1000, 1.0, 1000);
+        assertEquals(1, controller.getTargetConcurrency());
+        assertEquals(List.of(4), applied);
+        a.close();
+        assertEquals(List.of(4, 8), applied);
+        b.close();
+        assertEquals(List.of(4, 8), applied);
+        assertEquals(8, controller.getStats().get("appliedThreads"));
+    }
+
+    @Test
+    void permitsBoundConcurrentTrainings() throws Exception {
+        CpuConcurrencyController controller = new CpuConcurrencyController(4, t -> {});
+        controller.configure(1, 1, 3, 0.05);
+        CpuConcurrencyController.Permit first = controller.acquire();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch acquired = new CountDownLatch(1);
+            Future<?> second = executor.submit(() -> {
+                try (CpuConcurrencyController.Permit p = controller.acquire()) {
+                    acquired.countDown();
+                }
+                return null;
+            });
+            assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+            first.close();
+            // close idempotent : pas de permis supplémentaire
+            first.close();
+            second.get(2, TimeUnit.SECONDS);
+            assertEquals(1, controller.getStats().get("availablePermits"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrencyMovesTowardHigherAggregateThroughput() throws Exception {
+        CpuConcurrencyController controller = new CpuConcurrencyController(8, t -> {});
+        controller.configure(1, 4, 1, 0.05);
+        assertEquals(4, controller.getTargetConcurrency());
+        // Au niveau 4 le débit agrégé est de 400, puis 3 x 200 = 600 : on continue à descendre
+        train(controller, 100);
+        assertEquals(3, controller.getTargetConcurrency());
+        train(controller, 200);
+        assertEquals(2, controller.getTargetConcurrency());
+        // 2 x 250 = 500 < 600 : demi-tour
+        train(controller, 250);
+        assertEquals(3, controller.getTargetConcurrency());
+
+        // Décisions : CONF (8 coeurs -> max 4), DOWN, DOWN, UP
+        List<?> decisions = (List<?>) controller.getStats().get("decisions");
+        assertEquals(4, decisions.size());
+        assertEquals("CONF", ((Map<?, ?>) decisions.get(0)).get("reason"));
+        assertEquals("UP", ((Map<?, ?>) decisions.get(3)).get("reason"));
+        assertEquals(3, ((List<?>) controller.getStats().get("throughputHistory")).size());
+    }
+
+    @Test
+    void reductionIsDeferredWhileAllPermitsAreHeld() throws Exception {
+        CpuConcurrencyController controller = new CpuConcurrencyController(4, t -> {});
+        controller.configure(1, 2, 1, 0.05);
+        CpuConcurrencyController.Permit a = controller.acquire();
+        CpuConcurrencyController.Permit b = controller.acquire();
+        a.recordTraining(1000, 1.0, 1000);
+        assertEquals(1, controller.getTargetConcurrency());
+        a.close();
+        assertEquals(0, controller.getStats().get("availablePermits"));
+        b.close();
+        assertEquals(1, controller.getStats().get("availablePermits"));
+        try (CpuConcurrencyController.Permit c = controller.acquire()) {
+            assertEquals(4, c.getThreads());
+        }
+    }
+
+    @Test
+    void costPerSampleGrowsWithModelSize() {
+        LstmConfig config = new LstmConfig();
+        config.setFeatures(List.of("close", "rsi", "volume"));
+        config.setWindowSize(20);
+        config.setLstmNeurons(32);
+        config.setNumLstmLayers(1);
+        config.setBidirectional(false);
+        double base = CpuConcurrencyController.costPerSample(config);
+        assertTrue(base > 0);
+        config.setLstmNeurons(64);
+        double wider = CpuConcurrencyController.costPerSample(config);
+        assertTrue(wider > base);
+        config.setBidirectional(true);
+        assertTrue(CpuConcurrencyController.costPerSample(config) > wider);
+    }
+
+    // Entraînement d'une seconde à samplesPerSec séquences/s (coût unitaire)
+    private static void train(CpuConcurrencyController controller, long samplesPerSec) throws InterruptedException {
+        try (CpuConcurrencyController.Permit permit = controller.acquire()) {
+            permit.recordTraining(samplesPerSec, 1.0, 1000);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.app.backend.trade.lstm;
+
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.LSTM;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.conf.layers.recurrent.LastTimeStep;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LstmBaseModelRegistryTest {
+
+    private static MultiLayerNetwork network(int neurons, long seed) {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+            .seed(seed)
+            .dataType(DataType.FLOAT)
+            .list()
+            .layer(new LastTimeStep(new LSTM.Builder().nIn(3).nOut(neurons).activation(Activation.TANH).build()))
+            .layer(new OutputLayer.Builder(LossFunctions.LossFunction.MSE).nIn(neurons).nOut(1).activation(Activation.IDENTITY).build())
+            .setInputType(InputType.recurrent(3))
+            .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
+    private static LstmConfig config() {
+        LstmConfig config = new LstmConfig();
+        config.setFeatures(List.of("close", "rsi", "volume"));
+        config.setWindowSize(20);
+        config.setHorizonBars(5);
+        config.setLstmNeurons(64);
+        config.setNumLstmLayers(2);
+        config.setBidirectional(false);
+        config.setAttention(false);
+        return config;
+    }
+
+    @Test
+    void architectureIgnoresWindowAndHorizonButNotShape() {
+        LstmConfig a = config();
+        LstmConfig b = config();
+        b.setWindowSize(45);
+        b.setHorizonBars(12);
+        b.setLearningRate(a.getLearningRate() * 3);
+        assertEquals(LstmBaseModelRegistry.architectureKey(a), LstmBaseModelRegistry.architectureKey(b));
+
+        b.setLstmNeurons(96);
+        assertNotEquals(LstmBaseModelRegistry.architectureKey(a), LstmBaseModelRegistry.architectureKey(b));
+        LstmConfig c = config();
+        c.setFeatures(List.of("close", "volume", "rsi"));
+        assertNotEquals(LstmBaseModelRegistry.architectureKey(a), LstmBaseModelRegistry.architectureKey(c));
+        LstmConfig d = config();
+        d.setBidirectional(true);
+        assertNotEquals(LstmBaseModelRegistry.architectureKey(a), LstmBaseModelRegistry.architectureKey(d));
+    }
+
+    @Test
+    void copyParamsRequiresSameShape() {
+        MultiLayerNetwork base = network(8, 1);
+        MultiLayerNetwork target = network(8, 2);
+        assertNotEquals(base.params(), target.params());
+        assertTrue(LstmBaseModelRegistry.copyParams(target, base));
+        assertEquals(base.params(), target.params());
+        // Copie indépendante : le fine-tuning ne modifie pas le modèle de base
+        target.params().addi(1.0);
+        assertNotEquals(base.params(), target.params());
+
+        MultiLayerNetwork other = network(6, 3);
+        org.nd4j.linalg.api.ndarray.INDArray before = other.params().dup();
+        assertFalse(LstmBaseModelRegistry.copyParams(other, base));
+        assertEquals(before, other.params());
+    }
+
+    @Test
+    void warmStartedModelsCarryTheirBaseVersion() {
+        LstmBaseModelRegistry registry = new LstmBaseModelRegistry();
+        MultiLayerNetwork warm = network(8, 1);
+        MultiLayerNetwork cold = network(8, 1);
+        registry.markWarmStarted(warm, 7L);
+        assertEquals(7L, registry.versionOf(warm));
+        assertNull(registry.versionOf(cold));
+        assertNull(registry.versionOf(null));
+        assertEquals(1, registry.getWarmStarts());
+        // Sans base de données : aucun modèle de base
+        assertNull(registry.find(null, config()));
+    }
+
+    @Test
+    void warmStartOnlyWhenBaseStopsBeforeTrainingEnd() {
+        ZonedDateTime trainEnd = ZonedDateTime.of(2023, 6, 30, 0, 0, 0, 0, ZoneId.of("UTC"));
+        MultiLayerNetwork net = network(8, 1);
+        LstmBaseModelRegistry.BaseModel before = new LstmBaseModelRegistry.BaseModel(1, "a", net, 10, 0.1, trainEnd.minusDays(30).toInstant());
+        LstmBaseModelRegistry.BaseModel same = new LstmBaseModelRegistry.BaseModel(2, "a", net, 10, 0.1, trainEnd.toInstant());
+        LstmBaseModelRegistry.BaseModel after = new LstmBaseModelRegistry.BaseModel(3, "a", net, 10, 0.1, trainEnd.plusDays(1).toInstant());
+        LstmBaseModelRegistry.BaseModel legacy = new LstmBaseModelRegistry.BaseModel(4, "a", net, 10, 0.1, null);
+        assertTrue(LstmBaseModelRegistry.usableFor(before, trainEnd));
+        assertTrue(LstmBaseModelRegistry.usableFor(same, trainEnd));
+        // Pré-entraînement ayant vu des barres de la période d'évaluation du symbole
+        assertFalse(LstmBaseModelRegistry.usableFor(after, trainEnd));
+        // Version sans coupure connue (pré-entraînée sur l'historique complet)
+        assertFalse(LstmBaseModelRegistry.usableFor(legacy, trainEnd));
+        assertFalse(LstmBaseModelRegistry.usableFor(null, trainEnd));
+        // Même instant dans un autre fuseau
+        assertTrue(LstmBaseModelRegistry.usableFor(same, trainEnd.withZoneSameInstant(ZoneId.of("Europe/Paris"))));
+        assertEquals(Instant.parse("2023-06-30T00:00:00Z"), same.trainCutoff);
+    }
+}
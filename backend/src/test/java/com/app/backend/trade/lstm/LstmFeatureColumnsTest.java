@@ -0,0 +1,105 @@
+package com.app.backend.trade.lstm;
+
+import com.app.backend.trade.TestSeries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LstmFeatureColumnsTest {
+
+    private static final List<String> FEATURES = List.of(
+        "close", "high", "low", "open", "volume", "rsi", "rsi_14", "rsi_21", "sma", "sma_20", "sma_50",
+        "ema", "ema_12", "ema_26", "ema_50", "macd", "macd_signal", "macd_histogram", "atr", "atr_14", "atr_21",
+        "bollinger_high", "bollinger_low", "bollinger_width", "bollinger_position", "stochastic", "stochastic_d",
+        "williams_r", "cci", "roc", "momentum", "trend_strength", "price_gap", "range_expansion", "breakout_momentum",
+        "momentum_acceleration", "momentum_volatility", "cross_momentum", "momentum_divergence", "realized_vol", "adx", "obv");
+
+    private final int previousParallelism = LstmFeatureColumns.getParallelism();
+
+    @AfterEach
+    void tearDown() {
+        LstmFeatureColumns.setParallelism(previousParallelism);
+    }
+
+    private double[][] fill(int n, List<String> features, int threads) {
+        LstmFeatureColumns.setParallelism(threads);
+        return fill(n, features);
+    }
+
+    private double[][] fill(int n, List<String> features) {
+        BarSeries series = TestSeries.randomWalk(n, 21L);
+        double[] open = new double[n], high = new double[n], low = new double[n], close = new double[n], volume = new double[n], vol = new double[n];
+        for (int i = 0; i < n; i++) {
+            Bar bar = series.getBar(i);
+            open[i] = bar.getOpenPrice().doubleValue();
+            high[i] = bar.getHighPrice().doubleValue();
+            low[i] = bar.getLowPrice().doubleValue();
+            close[i] = bar.getClosePrice().doubleValue();
+            volume[i] = bar.getVolume().doubleValue();
+            // Colonne realized_vol pré-calculée : range relatif de la barre
+            vol[i] = (high[i] - low[i]) / close[i];
+        }
+        double[][] M = new double[n][features.size()];
+        LstmFeatureColumns.fill(M, open, high, low, close, volume, vol, features);
+        return M;
+    }
+
+    @Test
+    void parallelColumnsMatchSequential() {
+        int n = 3000;
+        assertTrue((long) n * FEATURES.size() >= LstmFeatureColumns.MIN_PARALLEL_CELLS);
+        double[][] sequential = fill(n, FEATURES, 1);
+        double[][] parallel = fill(n, FEATURES, 4);
+        for (int i = 0; i < n; i++) {
+            assertArrayEquals(sequential[i], parallel[i], 0.0);
+        }
+    }
+
+    @Test
+    void resizingThePoolDoesNotFailRunningExtractions() throws Exception {
+        int n = 3000;
+        double[][] reference = fill(n, FEATURES, 1);
+        LstmFeatureColumns.setParallelism(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<double[][]>> results = new ArrayList<>();
+            for (int k = 0; k < 8; k++) results.add(executor.submit(() -> fill(n, FEATURES)));
+            for (int k = 0; k < 20; k++) LstmFeatureColumns.setParallelism(2 + k % 3);
+            for (Future<double[][]> result : results) {
+                double[][] M = result.get(30, TimeUnit.SECONDS);
+                for (int i = 0; i < n; i++) assertArrayEquals(reference[i], M[i], 0.0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sharedIntermediatesFeedEveryDependentColumn() {
+        double[][] M = fill(500, FEATURES, 1);
+        int macd = FEATURES.indexOf("macd");
+        for (double[] row : M) {
+            assertEquals(row[FEATURES.indexOf("rsi")], row[FEATURES.indexOf("rsi_14")], 0.0);
+            assertEquals(row[FEATURES.indexOf("ema_12")] - row[FEATURES.indexOf("ema_26")], row[macd], 0.0);
+            assertEquals(row[macd] - row[FEATURES.indexOf("macd_signal")], row[FEATURES.indexOf("macd_histogram")], 0.0);
+            assertEquals(row[FEATURES.indexOf("bollinger_high")] + row[FEATURES.indexOf("bollinger_low")],
+                2 * row[FEATURES.indexOf("sma_20")], 1e-9 * row[FEATURES.indexOf("sma_20")]);
+            assertEquals(0.0, row[FEATURES.indexOf("adx")], 0.0);
+        }
+        // MACD seul : EMA12/26 calculées comme dépendances sans être demandées
+        double[][] macdOnly = fill(500, List.of("macd"), 1);
+        for (int i = 0; i < M.length; i++) {
+            assertEquals(M[i][macd], macdOnly[i][0], 0.0);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.app.backend.trade.lstm;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LstmFeatureMatrixCacheTest {
+
+    @TempDir
+    Path dir;
+    private Path previousDir;
+
+    @BeforeEach
+    void setUp() {
+        previousDir = LstmFeatureMatrixCache.getCacheDir();
+        LstmFeatureMatrixCache.setCacheDir(dir);
+        LstmFeatureMatrixCache.resetStats();
+    }
+
+    @AfterEach
+    void tearDown() {
+        LstmFeatureMatrixCache.setCacheDir(previousDir);
+        LstmFeatureMatrixCache.setMaxDiskBytes(LstmFeatureMatrixCache.DEFAULT_MAX_DISK_BYTES);
+        LstmFeatureMatrixCache.setMaxAgeHours(LstmFeatureMatrixCache.DEFAULT_MAX_AGE_HOURS);
+    }
+
+    private double[][] matrix(int n, int m, double offset) {
+        double[][] matrix = new double[n][m];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < m; j++)
+                matrix[i][j] = offset + i * 0.5 - j * 1e-3;
+        return matrix;
+    }
+
+    @Test
+    void roundTripThroughMappedFormat() {
+        double[][] expected = matrix(120, 7, 3.0);
+        expected[5][2] = Double.NaN;
+        LstmFeatureMatrixCache.save("k1", expected);
+        double[][] loaded = LstmFeatureMatrixCache.load("k1");
+        assertNotNull(loaded);
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], loaded[i], 0.0);
+        }
+        assertNull(LstmFeatureMatrixCache.load("absent"));
+        LstmFeatureMatrixCache.CacheStats stats = LstmFeatureMatrixCache.getStats();
+        assertEquals(1, stats.diskHits());
+        assertEquals(1, stats.misses());
+        // Aucun fichier temporaire laissé par l'écriture atomique
+        assertTrue(Files.exists(dir.resolve("k1.bin")));
+        assertFalse(Files.exists(dir.resolve("k1.tmp")));
+    }
+
+    @Test
+    void corruptedOrLegacyFileIsMissAndDeleted() throws Exception {
+        LstmFeatureMatrixCache.save("k2", matrix(10, 3, 1.0));
+        Path file = dir.resolve("k2.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x01;
+        Files.write(file, bytes);
+        assertNull(LstmFeatureMatrixCache.load("k2"));
+        assertFalse(Files.exists(file));
+        // Ancien format (n, m, doubles big-endian sans en-tête)
+        Files.write(dir.resolve("k3.bin"), new byte[]{0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0});
+        assertNull(LstmFeatureMatrixCache.load("k3"));
+        assertFalse(Files.exists(dir.resolve("k3.bin")));
+    }
+
+    @Test
+    void janitorEnforcesAgeAndDiskBudget() throws Exception {
+        long now = System.currentTimeMillis();
+        for (int k = 0; k < 4; k++) {
+            LstmFeatureMatrixCache.save("f" + k, matrix(50, 4, k));
+            // f0 le moins récemment utilisé, f3 le plus récent
+            Files.setLastModifiedTime(dir.resolve("f" + k + ".bin"), FileTime.fromMillis(now - TimeUnit.MINUTES.toMillis(40 - k)));
+        }
+        long fileSize = Files.size(dir.resolve("f0.bin"));
+        Path old = dir.resolve("old.bin");
+        Files.copy(dir.resolve("f0.bin"), old);
+        Files.setLastModifiedTime(old, FileTime.fromMillis(now - TimeUnit.HOURS.toMillis(10)));
+        Path staleTmp = dir.resolve("f9.1.2.tmp");
+        Files.write(staleTmp, new byte[8]);
+        Files.setLastModifiedTime(staleTmp, FileTime.fromMillis(now - TimeUnit.HOURS.toMillis(2)));
+
+        LstmFeatureMatrixCache.setMaxAgeHours(5);
+        LstmFeatureMatrixCache.setMaxDiskBytes(2 * fileSize);
+        assertEquals(3, LstmFeatureMatrixCache.enforceBudget());
+        assertFalse(Files.exists(old));
+        assertFalse(Files.exists(staleTmp));
+        assertFalse(Files.exists(dir.resolve("f0.bin")));
+        assertFalse(Files.exists(dir.resolve("f1.bin")));
+        assertTrue(Files.exists(dir.resolve("f2.bin")));
+        assertTrue(Files.exists(dir.resolve("f3.bin")));
+        assertEquals(3, LstmFeatureMatrixCache.getStats().diskEvictions());
+        // Un hit rafraîchit la date d'accès : f2 devient le plus récent
+        assertNotNull(LstmFeatureMatrixCache.load("f2"));
+        LstmFeatureMatrixCache.setMaxDiskBytes(fileSize);
+        LstmFeatureMatrixCache.enforceBudget();
+        assertTrue(Files.exists(dir.resolve("f2.bin")));
+        assertFalse(Files.exists(dir.resolve("f3.bin")));
+    }
+}
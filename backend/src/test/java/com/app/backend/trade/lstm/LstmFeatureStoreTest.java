@@ -0,0 +1,156 @@
+package com.app.backend.trade.lstm;
+
+import com.app.backend.trade.TestSeries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseBarSeriesBuilder;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LstmFeatureStoreTest {
+
+    private static final List<String> FEATURES = List.of("close", "volume", "rsi_14", "sma_20", "macd", "atr_14", "realized_vol", "momentum");
+
+    @BeforeEach
+    void setUp() {
+        LstmFeatureStore.clear();
+        LstmFeatureStore.resetStats();
+    }
+
+    @AfterEach
+    void tearDown() {
+        LstmFeatureStore.setMaxBytes(LstmFeatureStore.DEFAULT_MAX_BYTES);
+        LstmFeatureStore.clear();
+    }
+
+    @Test
+    void prefixIsServedFromFullSeriesMatrix() {
+        LstmTradePredictor predictor = new LstmTradePredictor(null, null);
+        BarSeries series = TestSeries.randomWalk("STORE_PREFIX", 300, 5L);
+        double[][] full = predictor.extractFeatureMatrix(series, FEATURES);
+        assertEquals(1, LstmFeatureStore.size());
+        long hits = LstmFeatureStore.getHits();
+        double[][] prefix = predictor.extractFeatureMatrix(series.getSubSeries(0, 200), FEATURES);
+        assertEquals(hits + 1, LstmFeatureStore.getHits());
+        assertEquals(200, prefix.length);
+        // Vue : lignes partagées avec la matrice complète
+        assertSame(full[199], prefix[199]);
+        // Features causales : identiques à un calcul direct sur le préfixe
+        LstmFeatureStore.setMaxBytes(0);
+        double[][] direct = predictor.extractFeatureMatrix(series.getSubSeries(0, 200), FEATURES);
+        for (int i = 0; i < 200; i++) {
+            assertArrayEquals(direct[i], prefix[i], 0.0);
+        }
+    }
+
+    @Test
+    void secondDailyCallOnAnchoredSeriesExtendsStoredMatrix(@TempDir Path dir) {
+        Path previousDir = LstmFeatureMatrixCache.getCacheDir();
+        LstmFeatureMatrixCache.setCacheDir(dir);
+        try {
+            LstmTradePredictor predictor = new LstmTradePredictor(null, null);
+            List<String> features = List.of("close", "volume", "rsi_14", "rsi_21", "sma_50", "ema_50", "macd", "macd_signal",
+                "atr_21", "bollinger_width", "stochastic_d", "cci", "realized_vol", "momentum_divergence", "breakout_momentum");
+            // Même première barre, une bougie de plus le lendemain
+            BarSeries history = TestSeries.randomWalk("STORE_DAILY", 402, 8L);
+            double[][] day1 = predictor.extractFeatureMatrix(history.getSubSeries(0, 400), features);
+            double[][] day2 = predictor.extractFeatureMatrix(history.getSubSeries(0, 401), features);
+            assertEquals(1, LstmFeatureStore.getExtensions());
+            assertEquals(2, LstmFeatureStore.getMisses() + LstmFeatureStore.getExtensions());
+            assertEquals(401, day2.length);
+            // Lignes de la veille reprises telles quelles
+            assertSame(day1[399], day2[399]);
+            double[][] day3 = predictor.extractFeatureMatrix(history, features);
+            assertEquals(2, LstmFeatureStore.getExtensions());
+            assertEquals(2, LstmFeatureMatrixCache.getStats().memoryExtensions());
+            assertSame(day2[400], day3[400]);
+
+            // Identique à un calcul complet (sommes glissantes : au dernier bit près)
+            LstmFeatureStore.setMaxBytes(0);
+            LstmFeatureMatrixCache.setCacheDir(dir.resolve("full"));
+            double[][] full = predictor.extractFeatureMatrix(history, features);
+            for (int i = 0; i < full.length; i++) {
+                for (int f = 0; f < features.size(); f++) {
+                    assertEquals(full[i][f], day3[i][f], 1e-9 * Math.max(1.0, Math.abs(full[i][f])), features.get(f) + " barre " + i);
+                }
+            }
+        } finally {
+            LstmFeatureMatrixCache.setCacheDir(previousDir);
+        }
+    }
+
+    @Test
+    void windowAndDataVersion() {
+        BarSeries series = TestSeries.randomWalk("STORE_WINDOW", 50, 1L);
+        double[][] matrix = new double[50][2];
+        for (int i = 0; i < 50; i++) matrix[i][0] = i;
+        String key = LstmFeatureStore.computeKey("STORE_WINDOW", "default", "v1", List.of("a", "b"));
+        LstmFeatureStore.put(key, series, matrix);
+        double[][] window = LstmFeatureStore.window(key, series.getSubSeries(0, 40), 10, 20);
+        assertEquals(10, window.length);
+        assertEquals(10.0, window[0][0], 0.0);
+        // Mêmes dates mais autres clôtures : autre version des données, pas de hit
+        BarSeries other = TestSeries.randomWalk("STORE_WINDOW", 40, 2L);
+        assertNull(LstmFeatureStore.prefix(key, other));
+        // Série plus longue que l'entrée : pas couverte
+        assertNull(LstmFeatureStore.prefix(key, TestSeries.randomWalk("STORE_WINDOW", 60, 1L)));
+    }
+
+    @Test
+    void correctedBarInsidePrefixIsNotServed() {
+        BarSeries series = TestSeries.randomWalk("STORE_FINGERPRINT", 50, 4L);
+        String key = LstmFeatureStore.computeKey("STORE_FINGERPRINT", "default", "v1", List.of("a"));
+        LstmFeatureStore.put(key, series, new double[50][1]);
+        assertNotNull(LstmFeatureStore.prefix(key, series.getSubSeries(0, 30)));
+        // Mêmes première et dernière bougies, clôture puis volume corrigés au milieu du préfixe
+        for (boolean volume : new boolean[]{false, true}) {
+            BarSeries corrected = new BaseBarSeriesBuilder().withName("STORE_FINGERPRINT").build();
+            for (int i = 0; i < 30; i++) {
+                Bar bar = series.getBar(i);
+                String close = bar.getClosePrice().toString();
+                String vol = bar.getVolume().toString();
+                if (i == 15) {
+                    if (volume) vol = bar.getVolume().plus(bar.getVolume().numOf(1)).toString();
+                    else close = bar.getClosePrice().multipliedBy(bar.getClosePrice().numOf(1.001)).toString();
+                }
+                corrected.addBar(new BaseBar(Duration.ofDays(1), bar.getEndTime(), bar.getOpenPrice().toString(),
+                    bar.getHighPrice().toString(), bar.getLowPrice().toString(), close, vol));
+            }
+            assertNull(LstmFeatureStore.prefix(key, corrected), "volume=" + volume);
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedOverBudget() {
+        BarSeries series = TestSeries.randomWalk("STORE_LRU", 100, 3L);
+        double[][] matrix = new double[100][4];
+        String a = LstmFeatureStore.computeKey("A", "default", "v1", List.of("f"));
+        String b = LstmFeatureStore.computeKey("B", "default", "v1", List.of("f"));
+        String c = LstmFeatureStore.computeKey("C", "default", "v1", List.of("f"));
+        LstmFeatureStore.put(a, series, matrix);
+        long entryBytes = LstmFeatureStore.getBytes();
+        LstmFeatureStore.setMaxBytes(2 * entryBytes);
+        LstmFeatureStore.put(b, series, matrix);
+        assertNotNull(LstmFeatureStore.prefix(a, series));
+        LstmFeatureStore.put(c, series, matrix);
+        assertEquals(2, LstmFeatureStore.size());
+        assertEquals(2 * entryBytes, LstmFeatureStore.getBytes());
+        assertEquals(1, LstmFeatureStore.getEvictions());
+        assertNull(LstmFeatureStore.prefix(b, series));
+        assertNotNull(LstmFeatureStore.prefix(a, series));
+        // Compteurs exposés par la surface CacheStats existante
+        LstmFeatureMatrixCache.CacheStats stats = LstmFeatureMatrixCache.getStats();
+        assertEquals(2, stats.memoryEntries());
+        assertEquals(2 * entryBytes, stats.memoryBytes());
+        assertEquals(LstmFeatureStore.getHits(), stats.memoryHits());
+    }
+}
@@ -0,0 +1,234 @@
+package com.app.backend.trade.lstm;
+
+import com.app.backend.trade.TestSeries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.indicators.ATRIndicator;
+import org.ta4j.core.indicators.CCIIndicator;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.MACDIndicator;
+import org.ta4j.core.indicators.ROCIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.StochasticOscillatorDIndicator;
+import org.ta4j.core.indicators.StochasticOscillatorKIndicator;
+import org.ta4j.core.indicators.WilliamsRIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.indicators.statistics.StandardDeviationIndicator;
+import org.ta4j.core.num.Num;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Golden test : chaque feature de extractFeatureMatrix (noyaux primitifs) comparée aux indicateurs ta4j
+ * et aux formules composites d'origine évaluées sur les valeurs ta4j.
+ */
+class LstmIndicatorKernelsTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    @TempDir
+    Path dir;
+    private Path previousDir;
+
+    @BeforeEach
+    void setUp() {
+        previousDir = LstmFeatureMatrixCache.getCacheDir();
+        LstmFeatureMatrixCache.setCacheDir(dir);
+        LstmFeatureStore.setMaxBytes(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        LstmFeatureMatrixCache.setCacheDir(previousDir);
+        LstmFeatureStore.setMaxBytes(LstmFeatureStore.DEFAULT_MAX_BYTES);
+    }
+
+    private static IntToDoubleFunction of(Indicator<Num> indicator) {
+        return i -> indicator.getValue(i).doubleValue();
+    }
+
+    /** Valeurs de référence par feature, calculées avec ta4j comme l'ancienne implémentation */
+    private Map<String, IntToDoubleFunction> reference(BarSeries series) {
+        ClosePriceIndicator close = new ClosePriceIndicator(series);
+        IntToDoubleFunction c = of(close);
+        IntToDoubleFunction h = i -> series.getBar(i).getHighPrice().doubleValue();
+        IntToDoubleFunction l = i -> series.getBar(i).getLowPrice().doubleValue();
+        IntToDoubleFunction o = i -> series.getBar(i).getOpenPrice().doubleValue();
+        IntToDoubleFunction rsi14 = of(new RSIIndicator(close, 14));
+        IntToDoubleFunction sma20 = of(new SMAIndicator(close, 20));
+        IntToDoubleFunction sd20 = of(new StandardDeviationIndicator(close, 20));
+        MACDIndicator macd = new MACDIndicator(close, 12, 26);
+        EMAIndicator macdSignal = new EMAIndicator(macd, 9);
+        StochasticOscillatorKIndicator stochK = new StochasticOscillatorKIndicator(series, 14);
+
+        Map<String, IntToDoubleFunction> ref = new LinkedHashMap<>();
+        ref.put("close", c);
+        ref.put("high", h);
+        ref.put("low", l);
+        ref.put("open", o);
+        ref.put("volume", i -> Math.log1p(series.getBar(i).getVolume().doubleValue()));
+        ref.put("rsi", rsi14);
+        ref.put("rsi_14", rsi14);
+        ref.put("rsi_21", of(new RSIIndicator(close, 21)));
+        ref.put("sma", of(new SMAIndicator(close, 14)));
+        ref.put("sma_20", sma20);
+        ref.put("sma_50", of(new SMAIndicator(close, 50)));
+        ref.put("ema", of(new EMAIndicator(close, 14)));
+        ref.put("ema_12", of(new EMAIndicator(close, 12)));
+        ref.put("ema_26", of(new EMAIndicator(close, 26)));
+        ref.put("ema_50", of(new EMAIndicator(close, 50)));
+        ref.put("macd", of(macd));
+        ref.put("macd_signal", of(macdSignal));
+        ref.put("macd_histogram", i -> macd.getValue(i).doubleValue() - macdSignal.getValue(i).doubleValue());
+        ref.put("atr", of(new ATRIndicator(series, 14)));
+        ref.put("atr_14", of(new ATRIndicator(series, 14)));
+        ref.put("atr_21", of(new ATRIndicator(series, 21)));
+        ref.put("bollinger_high", i -> sma20.applyAsDouble(i) + 2 * sd20.applyAsDouble(i));
+        ref.put("bollinger_low", i -> sma20.applyAsDouble(i) - 2 * sd20.applyAsDouble(i));
+        ref.put("bollinger_width", i -> 4 * sd20.applyAsDouble(i));
+        ref.put("stochastic", of(stochK));
+        ref.put("stochastic_d", of(new StochasticOscillatorDIndicator(stochK)));
+        ref.put("williams_r", of(new WilliamsRIndicator(series, 14)));
+        ref.put("cci", of(new CCIIndicator(series, 20)));
+        ref.put("roc", of(new ROCIndicator(close, 12)));
+        ref.put("momentum", i -> i < 10 ? 0.0
+            : ((c.applyAsDouble(i) - c.applyAsDouble(i - 3)) / c.applyAsDouble(i - 3)
+            + (c.applyAsDouble(i) - c.applyAsDouble(i - 10)) / c.applyAsDouble(i - 10)) / 2);
+        ref.put("trend_strength", i -> {
+            if (i < 20) return 0.0;
+            double roc5 = (c.applyAsDouble(i) - c.applyAsDouble(i - 5)) / c.applyAsDouble(i - 5);
+            double roc10 = (c.applyAsDouble(i) - c.applyAsDouble(i - 10)) / c.applyAsDouble(i - 10);
+            double roc20 = (c.applyAsDouble(i) - c.applyAsDouble(i - 20)) / c.applyAsDouble(i - 20);
+            return roc5 * 0.5 + roc10 * 0.3 + roc20 * 0.2;
+        });
+        ref.put("price_gap", i -> i == 0 ? 0.0 : (o.applyAsDouble(i) - c.applyAsDouble(i - 1)) / c.applyAsDouble(i - 1));
+        ref.put("range_expansion", i -> {
+            if (i < 10) return 0.0;
+            double avgRange = 0;
+            for (int j = 1; j <= 10; j++) avgRange += (h.applyAsDouble(i - j) - l.applyAsDouble(i - j)) / c.applyAsDouble(i - j);
+            avgRange /= 10;
+            double currentRange = (h.applyAsDouble(i) - l.applyAsDouble(i)) / c.applyAsDouble(i);
+            return avgRange > 0 ? currentRange / avgRange - 1 : 0;
+        });
+        ref.put("breakout_momentum", i -> {
+            if (i < 20) return 0.0;
+            double highestHigh = c.applyAsDouble(i);
+            double lowestLow = c.applyAsDouble(i);
+            for (int j = 1; j <= 20; j++) {
+                highestHigh = Math.max(highestHigh, h.applyAsDouble(i - j));
+                lowestLow = Math.min(lowestLow, l.applyAsDouble(i - j));
+            }
+            double up = c.applyAsDouble(i) > highestHigh ? (c.applyAsDouble(i) - highestHigh) / highestHigh : 0;
+            double down = c.applyAsDouble(i) < lowestLow ? (lowestLow - c.applyAsDouble(i)) / lowestLow : 0;
+            return up - down;
+        });
+        ref.put("momentum_acceleration", i -> {
+            if (i < 15) return 0.0;
+            double mom1 = (c.applyAsDouble(i) - c.applyAsDouble(i - 5)) / c.applyAsDouble(i - 5);
+            double mom2 = (c.applyAsDouble(i - 5) - c.applyAsDouble(i - 10)) / c.applyAsDouble(i - 10);
+            double mom3 = (c.applyAsDouble(i - 10) - c.applyAsDouble(i - 15)) / c.applyAsDouble(i - 15);
+            return (mom1 - mom2) + (mom2 - mom3);
+        });
+        ref.put("momentum_volatility", i -> {
+            if (i < 15) return 0.0;
+            double[] returns = new double[10];
+            for (int j = 0; j < 10; j++) returns[j] = (c.applyAsDouble(i - j) - c.applyAsDouble(i - j - 1)) / c.applyAsDouble(i - j - 1);
+            double mean = java.util.Arrays.stream(returns).average().orElse(0.0);
+            return Math.sqrt(java.util.Arrays.stream(returns).map(r -> Math.pow(r - mean, 2)).average().orElse(0.0)) * 100;
+        });
+        ref.put("bollinger_position", i -> {
+            double upper = sma20.applyAsDouble(i) + 2 * sd20.applyAsDouble(i);
+            double lower = sma20.applyAsDouble(i) - 2 * sd20.applyAsDouble(i);
+            double val = upper > lower ? (c.applyAsDouble(i) - lower) / (upper - lower) : 0.5;
+            if (val > 0.8) val = 0.8 + (val - 0.8) * 2;
+            if (val < 0.2) val = 0.2 - (0.2 - val) * 2;
+            return val;
+        });
+        ref.put("cross_momentum", i -> {
+            if (i < 5) return 0.0;
+            double mom = (c.applyAsDouble(i) - c.applyAsDouble(i - 5)) / c.applyAsDouble(i - 5);
+            return mom * Math.signum((c.applyAsDouble(i) - sma20.applyAsDouble(i)) / sma20.applyAsDouble(i)) * 2;
+        });
+        ref.put("momentum_divergence", i -> {
+            if (i < 20) return 0.0;
+            double meanPrice = 0, meanRsi = 0;
+            for (int j = 0; j < 10; j++) {
+                meanPrice += c.applyAsDouble(i - j) / 10;
+                meanRsi += rsi14.applyAsDouble(i - j) / 10;
+            }
+            double numerator = 0, denomPrice = 0, denomRsi = 0;
+            for (int j = 0; j < 10; j++) {
+                double dp = c.applyAsDouble(i - j) - meanPrice;
+                double dr = rsi14.applyAsDouble(i - j) - meanRsi;
+                numerator += dp * dr;
+                denomPrice += dp * dp;
+                denomRsi += dr * dr;
+            }
+            double correlation = denomPrice * denomRsi > 0 ? numerator / Math.sqrt(denomPrice * denomRsi) : 0.0;
+            return (1.0 - Math.abs(correlation)) * 2;
+        });
+        // Features reconnues sans calcul (valeur nulle, comme avant)
+        for (String unused : List.of("adx", "di_plus", "di_minus", "obv")) ref.put(unused, i -> 0.0);
+        return ref;
+    }
+
+    @Test
+    void everyFeatureMatchesTa4jReference() {
+        BarSeries series = TestSeries.randomWalk(400, 11L);
+        Map<String, IntToDoubleFunction> ref = reference(series);
+        List<String> features = List.copyOf(ref.keySet());
+        double[][] matrix = new LstmTradePredictor(null, null).extractFeatureMatrix(series, features);
+        assertEquals(series.getBarCount(), matrix.length);
+        for (int f = 0; f < features.size(); f++) {
+            IntToDoubleFunction expected = ref.get(features.get(f));
+            for (int i = 0; i < matrix.length; i++) {
+                double e = expected.applyAsDouble(i);
+                if (!Double.isFinite(e)) e = 0.0;
+                assertEquals(e, matrix[i][f], TOLERANCE * Math.max(1.0, Math.abs(e)), features.get(f) + " @" + i);
+            }
+        }
+    }
+
+    @Test
+    void singleFeatureRequestsUseSameConditionsAsBefore() {
+        BarSeries series = TestSeries.randomWalk(120, 12L);
+        LstmTradePredictor predictor = new LstmTradePredictor(null, null);
+        // Sans bande de Bollinger demandée, la position reste neutre ; sans sma_20, pas de momentum croisé
+        double[][] m = predictor.extractFeatureMatrix(series, List.of("bollinger_position", "cross_momentum", "momentum_divergence"));
+        for (double[] row : m) {
+            assertEquals(0.5, row[0], 0.0);
+            assertEquals(0.0, row[1], 0.0);
+            assertEquals(0.0, row[2], 0.0);
+        }
+    }
+
+    @Test
+    void rollingExtremaMatchNaiveScan() {
+        double[] x = new double[200];
+        Random rnd = new Random(3L);
+        for (int i = 0; i < x.length; i++) x[i] = rnd.nextInt(20);
+        double[] hh = LstmIndicatorKernels.highest(x, 14);
+        double[] ll = LstmIndicatorKernels.lowest(x, 14);
+        for (int i = 0; i < x.length; i++) {
+            double max = Double.NEGATIVE_INFINITY, min = Double.POSITIVE_INFINITY;
+            for (int j = Math.max(0, i - 13); j <= i; j++) {
+                max = Math.max(max, x[j]);
+                min = Math.min(min, x[j]);
+            }
+            assertEquals(max, hh[i], 0.0);
+            assertEquals(min, ll[i], 0.0);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.app.backend.trade.lstm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LstmMemoryAdmissionControllerTest {
+
+    private static final long MB = 1024L * 1024;
+
+    @Test
+    void parksUntilReservationIsReleased() throws Exception {
+        AtomicLong used = new AtomicLong(100 * MB);
+        LstmMemoryAdmissionController controller = new LstmMemoryAdmissionController(used::get, 1000 * MB, 50);
+        LstmMemoryAdmissionController.Reservation first = controller.acquire("A", 600 * MB);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch granted = new CountDownLatch(1);
+            Future<?> second = executor.submit(() -> {
+                try (LstmMemoryAdmissionController.Reservation r = controller.acquire("B", 600 * MB)) {
+                    granted.countDown();
+                }
+                return null;
+            });
+            assertFalse(granted.await(200, TimeUnit.MILLISECONDS));
+            assertEquals(1, controller.getParkedTasks());
+            first.close();
+            second.get(2, TimeUnit.SECONDS);
+            assertEquals(0, controller.getReservedBytes());
+            assertEquals(0, controller.getParkedTasks());
+            assertEquals(1L, controller.getStats().get("parkedTotal"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void measuredOffHeapGrowthBlocksAdmission() throws Exception {
+        AtomicLong used = new AtomicLong(100 * MB);
+        LstmMemoryAdmissionController controller = new LstmMemoryAdmissionController(used::get, 1000 * MB, 20);
+        LstmMemoryAdmissionController.Reservation first = controller.acquire("A", 100 * MB);
+        // Mesure au-delà des réservations (tenseurs hors heap non estimés)
+        used.set(850 * MB);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> second = executor.submit(() -> controller.awaitCapacity("B", 200 * MB));
+            assertThrows(TimeoutException.class, () -> second.get(150, TimeUnit.MILLISECONDS));
+            // Libération hors heap observée à la prochaine relecture, sans notification
+            used.set(300 * MB);
+            assertTrue(second.get(2, TimeUnit.SECONDS));
+        } finally {
+            first.close();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void singleTaskIsAlwaysAdmittedAndNestedDoesNotWait() throws Exception {
+        LstmMemoryAdmissionController controller = new LstmMemoryAdmissionController(() -> 900 * MB, 1000 * MB, 20);
+        try (LstmMemoryAdmissionController.Reservation outer = controller.acquire("A", 500 * MB);
+             LstmMemoryAdmissionController.Reservation inner = controller.acquire("A", 500 * MB)) {
+            assertEquals(2, controller.getActiveReservations());
+            assertEquals(1000 * MB, controller.getReservedBytes());
+        }
+        assertEquals(0, controller.getActiveReservations());
+        assertEquals(1L, controller.getStats().get("overcommits"));
+    }
+
+    @Test
+    void zeroBudgetDisablesControl() throws Exception {
+        LstmMemoryAdmissionController controller = new LstmMemoryAdmissionController(() -> Long.MAX_VALUE, 0, 20);
+        try (LstmMemoryAdmissionController.Reservation a = controller.acquire("A", 500 * MB);
+             LstmMemoryAdmissionController.Reservation b = controller.acquire("B", 500 * MB)) {
+            assertEquals(0, controller.getReservedBytes());
+        }
+    }
+
+    @Test
+    void footprintGrowsWithBatchWindowNeuronsAndDirections() {
+        LstmConfig config = new LstmConfig();
+        config.setFeatures(java.util.List.of("close", "rsi", "volume"));
+        config.setWindowSize(20);
+        config.setLstmNeurons(64);
+        config.setNumLstmLayers(2);
+        config.setBatchSize(64);
+        config.setBidirectional(false);
+        long base = LstmMemoryAdmissionController.estimateConfigBytes(config, 2000);
+        assertTrue(base > LstmMemoryAdmissionController.TASK_OVERHEAD_BYTES);
+
+        config.setBatchSize(128);
+        long biggerBatch = LstmMemoryAdmissionController.estimateConfigBytes(config, 2000);
+        assertTrue(biggerBatch > base);
+        config.setBidirectional(true);
+        assertTrue(LstmMemoryAdmissionController.estimateConfigBytes(config, 2000) > biggerBatch);
+        assertTrue(LstmMemoryAdmissionController.estimateConfigBytes(config, 4000) > LstmMemoryAdmissionController.estimateConfigBytes(config, 2000));
+    }
+}
@@ -0,0 +1,111 @@
+package com.app.backend.trade.lstm;
+
+import org.deeplearning4j.datasets.iterator.AsyncDataSetIterator;
+import org.deeplearning4j.datasets.iterator.utilty.ListDataSetIterator;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LstmMinibatchIteratorTest {
+
+    private static final int N = 37, FEATURES = 3, WINDOW = 5;
+
+    private static INDArray features() {
+        return Nd4j.linspace(1, N * FEATURES * WINDOW, N * FEATURES * WINDOW).reshape('c', N, FEATURES, WINDOW);
+    }
+
+    private static INDArray labels() {
+        return Nd4j.linspace(1, N, N).reshape('c', N, 1);
+    }
+
+    // Identifiants d'exemples d'une epoch (label = index + 1)
+    private static List<Integer> epoch(LstmMinibatchIterator it) {
+        INDArray source = features();
+        List<Integer> ids = new ArrayList<>();
+        it.reset();
+        while (it.hasNext()) {
+            DataSet ds = it.next();
+            for (int i = 0; i < ds.numExamples(); i++) {
+                int id = ds.getLabels().getInt(i, 0) - 1;
+                ids.add(id);
+                assertEquals(source.get(NDArrayIndex.point(id)), ds.getFeatures().slice(i));
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    void sequentialBatchesMatchListDataSetIterator() {
+        INDArray x = features(), y = labels();
+        ListDataSetIterator<DataSet> reference = new ListDataSetIterator<>(new DataSet(x, y).asList(), 8);
+        LstmMinibatchIterator it = new LstmMinibatchIterator(x, y, 8, false, 0L);
+        int batches = 0;
+        while (reference.hasNext()) {
+            assertTrue(it.hasNext());
+            DataSet expected = reference.next();
+            DataSet actual = it.next();
+            assertEquals(expected.getFeatures(), actual.getFeatures());
+            assertEquals(expected.getLabels(), actual.getLabels());
+            // Vue sur le tenseur source, sans copie
+            assertTrue(actual.getFeatures().isView());
+            batches++;
+        }
+        assertFalse(it.hasNext());
+        assertEquals(5, batches);
+        it.reset();
+        assertEquals(8, it.next().numExamples());
+    }
+
+    @Test
+    void shuffleVisitsEveryExampleOncePerEpoch() {
+        LstmMinibatchIterator it = new LstmMinibatchIterator(features(), labels(), 10, true, 7L);
+        List<Integer> first = epoch(it);
+        List<Integer> second = epoch(it);
+        assertEquals(N, first.size());
+        assertEquals(N, new java.util.HashSet<>(first).size());
+        assertEquals(N, new java.util.HashSet<>(second).size());
+        assertNotEquals(first, second);
+        // Même graine => même suite de permutations
+        assertEquals(first, epoch(new LstmMinibatchIterator(features(), labels(), 10, true, 7L)));
+    }
+
+    @Test
+    void preProcessorDoesNotAlterSourceTensor() {
+        INDArray x = features();
+        INDArray before = x.dup();
+        LstmMinibatchIterator it = new LstmMinibatchIterator(x, labels(), 16, false, 0L);
+        it.setPreProcessor(ds -> ds.getFeatures().muli(0));
+        while (it.hasNext()) {
+            assertEquals(0.0, it.next().getFeatures().sumNumber().doubleValue(), 0.0);
+        }
+        assertEquals(before, x);
+    }
+
+    @Test
+    void worksBehindAsyncDataSetIterator() {
+        AsyncDataSetIterator async = new AsyncDataSetIterator(new LstmMinibatchIterator(features(), labels(), 6, true, 3L), 2);
+        try {
+            for (int e = 0; e < 2; e++) {
+                async.reset();
+                double sum = 0;
+                int count = 0;
+                while (async.hasNext()) {
+                    DataSet ds = async.next();
+                    count += ds.numExamples();
+                    sum += ds.getLabels().sumNumber().doubleValue();
+                }
+                assertEquals(N, count);
+                assertEquals(N * (N + 1) / 2.0, sum, 1e-9);
+            }
+        } finally {
+            async.shutdown();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.app.backend.trade.lstm;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LstmModelBlobStoreTest {
+
+    /** JdbcTemplate en mémoire : lstm_model_blobs (sha256 -> binaire) et colonne historique lstm_models.model_blob */
+    private static final class InMemoryJdbc extends JdbcTemplate {
+        final Map<String, byte[]> blobs = new LinkedHashMap<>();
+        final Map<Long, Object> legacyBlobs = new HashMap<>();
+        int inserts;
+        int touches;
+
+        @Override
+        public int update(String sql, Object... args) {
+            if (sql.startsWith("INSERT IGNORE INTO lstm_model_blobs")) {
+                if (blobs.containsKey((String) args[0])) return 0;
+                blobs.put((String) args[0], ((byte[]) args[1]).clone());
+                inserts++;
+                return 1;
+            }
+            if (sql.startsWith("UPDATE lstm_model_blobs SET created_date")) {
+                touches++;
+                return blobs.containsKey((String) args[0]) ? 1 : 0;
+            }
+            throw new UnsupportedOperationException(sql);
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            Object value;
+            if (sql.startsWith("SELECT model_blob FROM lstm_model_blobs")) {
+                value = blobs.get((String) args[0]);
+            } else if (sql.startsWith("SELECT model_blob FROM lstm_models")) {
+                value = legacyBlobs.get(((Number) args[0]).longValue());
+            } else {
+                throw new UnsupportedOperationException(sql);
+            }
+            if (value == null) throw new EmptyResultDataAccessException(1);
+            return requiredType.cast(value);
+        }
+    }
+
+    private static byte[] model(int seed) {
+        byte[] bytes = new byte[4096];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    void keyIsLowercaseHexSha256LikeMysqlSha2() {
+        // Vecteur de test FIPS 180-2 ("abc")
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+            LstmModelBlobStore.sha256("abc".getBytes(StandardCharsets.US_ASCII)));
+        byte[] blob = {1, 2, 3};
+        assertEquals(LstmModelBlobStore.sha256(blob), LstmModelBlobStore.sha256(blob.clone()));
+        assertNotEquals(LstmModelBlobStore.sha256(blob), LstmModelBlobStore.sha256(new byte[]{1, 2, 4}));
+    }
+
+    @Test
+    void saveThenLoadRoundTrips() {
+        InMemoryJdbc jdbc = new InMemoryJdbc();
+        byte[] bytes = model(1);
+        String sha = LstmModelBlobStore.save(jdbc, bytes);
+        assertEquals(LstmModelBlobStore.sha256(bytes), sha);
+        assertArrayEquals(bytes, LstmModelBlobStore.load(jdbc, sha));
+        // Clé inconnue : absent
+        assertNull(LstmModelBlobStore.load(jdbc, LstmModelBlobStore.sha256(model(2))));
+    }
+
+    @Test
+    void sameBytesAreStoredOnce() {
+        InMemoryJdbc jdbc = new InMemoryJdbc();
+        String first = LstmModelBlobStore.save(jdbc, model(3));
+        String second = LstmModelBlobStore.save(jdbc, model(3));
+        assertEquals(first, second);
+        assertEquals(1, jdbc.blobs.size());
+        assertEquals(1, jdbc.inserts);
+        // Binaire déjà présent : date rafraîchie (protège de la purge des orphelins)
+        assertEquals(1, jdbc.touches);
+        LstmModelBlobStore.save(jdbc, model(4));
+        assertEquals(2, jdbc.blobs.size());
+    }
+
+    @Test
+    void blobNotMatchingItsHashIsRejected() {
+        InMemoryJdbc jdbc = new InMemoryJdbc();
+        String sha = LstmModelBlobStore.save(jdbc, model(5));
+        jdbc.blobs.get(sha)[100] ^= 1;
+        assertNull(LstmModelBlobStore.load(jdbc, sha));
+    }
+
+    @Test
+    void legacyRowWithoutHashLoadsFromModelBlobColumn() {
+        InMemoryJdbc jdbc = new InMemoryJdbc();
+        byte[] legacy = model(6);
+        jdbc.legacyBlobs.put(7L, legacy);
+        assertArrayEquals(legacy, (byte[]) LstmModelBlobStore.loadForModel(jdbc, null, 7L));
+        // Ligne migrée : lecture dans le store, pas dans la colonne historique
+        byte[] migrated = model(7);
+        String sha = LstmModelBlobStore.save(jdbc, migrated);
+        assertArrayEquals(migrated, (byte[]) LstmModelBlobStore.loadForModel(jdbc, sha, 7L));
+    }
+}
@@ -0,0 +1,68 @@
+package com.app.backend.trade.lstm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LstmModelRegistryTest {
+
+    private LstmTradePredictor.LoadedModel loaded(double score) {
+        LstmTradePredictor.LoadedModel lm = new LstmTradePredictor.LoadedModel();
+        lm.config = new LstmConfig();
+        lm.businnesScore = score;
+        return lm;
+    }
+
+    @Test
+    void entryIsServedOnlyForSameRowVersion() {
+        LstmModelRegistry registry = new LstmModelRegistry(LstmModelRegistry.DEFAULT_MAX_BYTES);
+        LstmTradePredictor.LoadedModel original = loaded(1.5);
+        LstmTradePredictor.LoadedModel returned = registry.put("AAPL", "business_score", 7, 1000L, original);
+        assertNotSame(original, returned);
+
+        LstmTradePredictor.LoadedModel hit = registry.get("AAPL", "business_score", 7, 1000L);
+        assertNotNull(hit);
+        assertSame(original.config, hit.config);
+        assertEquals(1.5, hit.businnesScore, 0.0);
+        // L'appelant peut vider sa copie sans toucher l'entrée
+        hit.config = null;
+        assertNotNull(registry.get("AAPL", "business_score", 7, 1000L).config);
+
+        // updated_date ou ligne différente : entrée périmée
+        assertNull(registry.get("AAPL", "business_score", 7, 2000L));
+        assertEquals(0, registry.size());
+        assertEquals(2, registry.getHits());
+        assertEquals(1, registry.getInvalidations());
+    }
+
+    @Test
+    void saveInvalidatesAllEntriesOfSymbol() {
+        LstmModelRegistry registry = new LstmModelRegistry(LstmModelRegistry.DEFAULT_MAX_BYTES);
+        registry.put("AAPL", "business_score", 1, 1L, loaded(1));
+        registry.put("AAPL", "rendement", 2, 1L, loaded(2));
+        registry.put("MSFT", "business_score", 3, 1L, loaded(3));
+        registry.invalidate("AAPL");
+        assertEquals(1, registry.size());
+        assertNull(registry.get("AAPL", "rendement", 2, 1L));
+        assertNotNull(registry.get("MSFT", "business_score", 3, 1L));
+    }
+
+    @Test
+    void leastRecentlyUsedModelIsEvictedOverBudget() {
+        long entryBytes = LstmModelRegistry.estimateBytes(null);
+        LstmModelRegistry registry = new LstmModelRegistry(2 * entryBytes);
+        registry.put("A", "business_score", 1, 1L, loaded(1));
+        registry.put("B", "business_score", 2, 1L, loaded(2));
+        assertNotNull(registry.get("A", "business_score", 1, 1L));
+        registry.put("C", "business_score", 3, 1L, loaded(3));
+        assertEquals(2, registry.size());
+        assertEquals(2 * entryBytes, registry.getBytes());
+        assertEquals(1, registry.getEvictions());
+        assertNull(registry.get("B", "business_score", 2, 1L));
+        assertNotNull(registry.get("A", "business_score", 1, 1L));
+        // Budget nul : registre désactivé, le chargement est tout de même retourné
+        registry.setMaxBytes(0);
+        assertNotNull(registry.put("D", "business_score", 4, 1L, loaded(4)));
+        assertEquals(0, registry.size());
+    }
+}
@@ -0,0 +1,198 @@
+package com.app.backend.trade.lstm;
+
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.LSTM;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.conf.layers.recurrent.Bidirectional;
+import org.deeplearning4j.nn.conf.layers.recurrent.LastTimeStep;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseBarSeriesBuilder;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LstmStreamingPredictorTest {
+
+    private static final List<String> FEATURES = List.of("close", "rsi", "volume");
+    private static final int N = 60, WINDOW = 12;
+
+    private static MultiLayerNetwork network(boolean bidirectional) {
+        LSTM first = new LSTM.Builder().nIn(FEATURES.size()).nOut(8).activation(Activation.TANH).build();
+        LSTM last = new LSTM.Builder().nIn(bidirectional ? 16 : 8).nOut(8).activation(Activation.TANH).build();
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+            .seed(42)
+            .dataType(DataType.FLOAT)
+            .list()
+            .layer(bidirectional ? new Bidirectional(first) : first)
+            .layer(new LastTimeStep(last))
+            .layer(new DenseLayer.Builder().nIn(8).nOut(6).activation(Activation.LEAKYRELU).build())
+            .layer(new OutputLayer.Builder(LossFunctions.LossFunction.MSE).nIn(6).nOut(1).activation(Activation.IDENTITY).build())
+            .setInputType(InputType.recurrent(FEATURES.size()))
+            .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
+    private static double[][] matrix() {
+        Random random = new Random(3);
+        double[][] m = new double[N][FEATURES.size()];
+        for (int i = 0; i < N; i++) {
+            for (int f = 0; f < FEATURES.size(); f++) m[i][f] = 10 * f + random.nextGaussian();
+        }
+        return m;
+    }
+
+    private static LstmTradePredictor.ScalerSet scalers(double[][] m) {
+        LstmTradePredictor.ScalerSet scalers = new LstmTradePredictor.ScalerSet();
+        for (int f = 0; f < FEATURES.size(); f++) {
+            double[] col = new double[m.length];
+            for (int i = 0; i < m.length; i++) col[i] = m[i][f];
+            LstmTradePredictor.FeatureScaler scaler = new LstmTradePredictor.FeatureScaler(LstmTradePredictor.FeatureScaler.Type.ZSCORE);
+            scaler.fit(col);
+            scalers.featureScalers.put(FEATURES.get(f), scaler);
+        }
+        return scalers;
+    }
+
+    private static BarSeries series() {
+        BarSeries series = new BaseBarSeriesBuilder().withName("STREAM").build();
+        ZonedDateTime start = ZonedDateTime.of(2023, 1, 2, 0, 0, 0, 0, ZoneId.of("UTC"));
+        for (int i = 0; i < N; i++) {
+            series.addBar(new BaseBar(Duration.ofDays(1), start.plusDays(i), "10", "11", "9", "10", "100"));
+        }
+        return series;
+    }
+
+    private static LstmConfig config() {
+        LstmConfig config = new LstmConfig();
+        config.setFeatures(FEATURES);
+        config.setWindowSize(WINDOW);
+        return config;
+    }
+
+    // Sortie model.output sur les lignes [from, to[ de la matrice (séquence complète depuis un état nul)
+    private static double fullSequence(MultiLayerNetwork net, double[][] m, LstmTradePredictor.ScalerSet scalers, int from, int to) {
+        int steps = to - from;
+        INDArray input = Nd4j.create(DataType.FLOAT, 1, FEATURES.size(), steps);
+        for (int f = 0; f < FEATURES.size(); f++) {
+            LstmTradePredictor.FeatureScaler scaler = scalers.featureScalers.get(FEATURES.get(f));
+            for (int t = 0; t < steps; t++) {
+                input.putScalar(new long[]{0, f, t}, scaler.transform(new double[]{m[from + t][f]})[0]);
+            }
+        }
+        return net.output(input).getDouble(0);
+    }
+
+    // Préfixe de n barres de la série et de la matrice
+    private static double call(LstmStreamingPredictor streaming, MultiLayerNetwork net, BarSeries series, double[][] m,
+                               LstmTradePredictor.ScalerSet scalers, int n) {
+        double[][] prefix = java.util.Arrays.copyOf(m, n);
+        return streaming.output("STREAM", series.getSubSeries(0, n), prefix, config(), net, scalers);
+    }
+
+    @Test
+    void firstCallMatchesFullWindowOutput() {
+        MultiLayerNetwork net = network(false);
+        double[][] m = matrix();
+        LstmTradePredictor.ScalerSet scalers = scalers(m);
+        LstmStreamingPredictor streaming = new LstmStreamingPredictor(4, 5);
+        assertEquals(fullSequence(net, m, scalers, 30 - WINDOW, 30), call(streaming, net, series(), m, scalers, 30), 1e-5);
+        assertEquals(1, streaming.getResyncs());
+        assertEquals(0, streaming.getSteps());
+    }
+
+    @Test
+    void newBarsAdvanceStateUntilResync() {
+        MultiLayerNetwork net = network(false);
+        double[][] m = matrix();
+        LstmTradePredictor.ScalerSet scalers = scalers(m);
+        BarSeries series = series();
+        LstmStreamingPredictor streaming = new LstmStreamingPredictor(4, 5);
+        call(streaming, net, series, m, scalers, 30);
+        // Pas incrémentaux = séquence continue depuis la fenêtre de la dernière resynchronisation
+        assertEquals(fullSequence(net, m, scalers, 30 - WINDOW, 31), call(streaming, net, series, m, scalers, 31), 1e-5);
+        assertEquals(fullSequence(net, m, scalers, 30 - WINDOW, 34), call(streaming, net, series, m, scalers, 34), 1e-5);
+        assertEquals(4, streaming.getSteps());
+        // 4 + 2 > resyncBars : fenêtre complète rejouée
+        assertEquals(fullSequence(net, m, scalers, 36 - WINDOW, 36), call(streaming, net, series, m, scalers, 36), 1e-5);
+        assertEquals(2, streaming.getResyncs());
+    }
+
+    @Test
+    void slidingSeriesOfConstantLengthIsStreamed() {
+        MultiLayerNetwork net = network(false);
+        double[][] m = matrix();
+        LstmTradePredictor.ScalerSet scalers = scalers(m);
+        BarSeries series = series();
+        LstmStreamingPredictor streaming = new LstmStreamingPredictor(4, 5);
+        int length = 20;
+        streaming.output("STREAM", series.getSubSeries(10, 10 + length), java.util.Arrays.copyOfRange(m, 10, 10 + length), config(), net, scalers);
+        double out = streaming.output("STREAM", series.getSubSeries(11, 11 + length), java.util.Arrays.copyOfRange(m, 11, 11 + length), config(), net, scalers);
+        assertEquals(fullSequence(net, m, scalers, 10 + length - WINDOW, 11 + length), out, 1e-5);
+        assertEquals(1, streaming.getSteps());
+    }
+
+    @Test
+    void sameBarReturnsCachedOutputWithoutStepping() {
+        MultiLayerNetwork net = network(false);
+        double[][] m = matrix();
+        LstmTradePredictor.ScalerSet scalers = scalers(m);
+        BarSeries series = series();
+        LstmStreamingPredictor streaming = new LstmStreamingPredictor(4, 5);
+        double first = call(streaming, net, series, m, scalers, 40);
+        assertEquals(first, call(streaming, net, series, m, scalers, 40), 0.0);
+        assertEquals(1, streaming.getResyncs());
+        assertEquals(0, streaming.getSteps());
+    }
+
+    @Test
+    void zeroResyncBarsAlwaysMatchesWindowAndNewModelResetsState() {
+        MultiLayerNetwork net = network(false);
+        double[][] m = matrix();
+        LstmTradePredictor.ScalerSet scalers = scalers(m);
+        BarSeries series = series();
+        LstmStreamingPredictor streaming = new LstmStreamingPredictor(4, 0);
+        for (int n = 20; n < 25; n++) {
+            assertEquals(fullSequence(net, m, scalers, n - WINDOW, n), call(streaming, net, series, m, scalers, n), 1e-5);
+        }
+        assertEquals(0, streaming.getSteps());
+        streaming.setResyncBars(5);
+        MultiLayerNetwork other = network(false);
+        other.setParams(other.params().mul(0.5));
+        assertEquals(fullSequence(other, m, scalers, 26 - WINDOW, 26), call(streaming, other, series, m, scalers, 26), 1e-5);
+        assertEquals(1, streaming.size());
+    }
+
+    @Test
+    void negativeResyncBarsAreClampedLikeTheSetter() {
+        assertEquals(0, new LstmStreamingPredictor(4, -3).getResyncBars());
+        LstmStreamingPredictor streaming = new LstmStreamingPredictor(4, 5);
+        streaming.setResyncBars(-1);
+        assertEquals(0, streaming.getResyncBars());
+        assertEquals(0, LstmStreamingPredictor.DEFAULT_RESYNC_BARS);
+    }
+
+    @Test
+    void bidirectionalNetworkIsNotStreamable() {
+        assertTrue(LstmStreamingPredictor.isStreamable(network(false)));
+        assertFalse(LstmStreamingPredictor.isStreamable(network(true)));
+        assertFalse(LstmStreamingPredictor.isStreamable(null));
+    }
+}
@@ -221,4 +221,73 @@ class LstmTradePredictorTest {
             (comment.contains("reconstruit") || comment.contains("initialisation") || comment.contains("null"))
         );
     }
+
+    @Test
+    void testPrecomputedWalkForwardMatchesPerBar() {
+        int n = 160;
+        double[] closes = new double[n];
+        double[] volumes = new double[n];
+        java.util.Random rnd = new java.util.Random(7L);
+        double price = 100.0;
+        for (int i = 0; i < n; i++) {
+            price = Math.max(1.0, price * (1.0 + rnd.nextGaussian() * 0.02));
+            closes[i] = price;
+            volumes[i] = 1000 + rnd.nextInt(500);
+        }
+        BarSeries series = createSeries(closes, volumes);
+        LstmTradePredictor.ScalerSet fitted = predictor.rebuildScalers(series, config);
+        MultiLayerNetwork net = predictor.initModel(config.getFeatures().size(), 1, config.getLstmNeurons(), config.getDropoutRate(),
+                config.getLearningRate(), config.getOptimizer(), config.getL1(), config.getL2(), config, false);
+        // Dernier split jusqu'à barCount (comme walkForwardEvaluateOutOfSample)
+        for (int[] split : new int[][]{{60, 120}, {120, n}}) {
+            LstmTradePredictor.TradingMetricsV2 perBar = predictor.simulateTradingWalkForwardPerBar(series, split[0], split[1], net, fitted, config);
+            LstmTradePredictor.TradingMetricsV2 precomputed = predictor.simulateTradingWalkForwardPrecomputed(series, split[0], split[1], net, fitted, config);
+            assertEquals(perBar.numTrades, precomputed.numTrades);
+            assertEquals(perBar.totalProfit, precomputed.totalProfit, 1e-6 * Math.max(1.0, Math.abs(perBar.totalProfit)));
+            assertEquals(perBar.maxDrawdownPct, precomputed.maxDrawdownPct, 1e-6);
+            assertEquals(perBar.meanAbsPredDelta, precomputed.meanAbsPredDelta, 1e-6);
+        }
+    }
+
+    /** Référence : sous-série [0, t-1] et prédiction unitaire pour chaque barre du split [testStartBar, testEndBar[ */
+    private LstmTradePredictor.SplitMseResult splitMsePerBar(BarSeries series, int testStartBar, int testEndBar,
+                                                             MultiLayerNetwork net, LstmTradePredictor.ScalerSet scalers) {
+        double[] closes = predictor.extractCloseValues(series);
+        int first = Math.max(testStartBar, config.getWindowSize() + 1);
+        int last = Math.min(testEndBar, closes.length) - 1;
+        double[] preds = new double[last - first + 1];
+        for (int t = first; t <= last; t++) {
+            preds[t - first] = predictor.predictNextCloseScalarFast(series.getSubSeries(0, t), config, net, scalers);
+        }
+        return LstmTradePredictor.splitErrors(preds, closes, first);
+    }
+
+    @Test
+    void testBatchedSplitMseMatchesPerBar() {
+        int n = 140;
+        double[] closes = new double[n];
+        double[] volumes = new double[n];
+        java.util.Random rnd = new java.util.Random(11L);
+        double price = 50.0;
+        for (int i = 0; i < n; i++) {
+            price = Math.max(1.0, price * (1.0 + rnd.nextGaussian() * 0.015));
+            closes[i] = price;
+            volumes[i] = 2000 + rnd.nextInt(800);
+        }
+        BarSeries series = createSeries(closes, volumes);
+        LstmTradePredictor.ScalerSet fitted = predictor.rebuildScalers(series, config);
+        MultiLayerNetwork net = predictor.initModel(config.getFeatures().size(), 1, config.getLstmNeurons(), config.getDropoutRate(),
+                config.getLearningRate(), config.getOptimizer(), config.getL1(), config.getL2(), config, false);
+        // Lots plus petits que le split pour couvrir plusieurs appels model.output
+        predictor.setWalkForwardPredictBatchSize(16);
+        LstmTradePredictor.SplitMseResult perBar = splitMsePerBar(series, 3, n, net, fitted);
+        LstmTradePredictor.SplitMseResult batched = predictor.computeSplitMseResult(series, 3, n, net, fitted, config);
+        assertEquals(perBar.count, batched.count);
+        assertEquals(n - config.getWindowSize() - 1, batched.count);
+        assertEquals(perBar.mse, batched.mse, 1e-6 * Math.max(1.0, perBar.mse));
+        assertEquals(perBar.meanAbsPredDelta, batched.meanAbsPredDelta, 1e-6);
+        assertEquals(batched.mse, predictor.computeSplitMse(series, 3, n, net, fitted, config), 0.0);
+        // Split sans point exploitable
+        assertTrue(Double.isNaN(predictor.computeSplitMseResult(series, 0, config.getWindowSize(), net, fitted, config).mse));
+    }
 }
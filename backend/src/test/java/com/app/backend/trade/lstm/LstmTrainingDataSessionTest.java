@@ -0,0 +1,125 @@
+package com.app.backend.trade.lstm;
+
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.factory.Nd4j;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseBarSeriesBuilder;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LstmTrainingDataSessionTest {
+
+    private static LstmTrainingDataSession.Prepared prepared(int numSeq) {
+        LstmTradePredictor.ScalerSet scalers = new LstmTradePredictor.ScalerSet();
+        scalers.labelScaler = new LstmTradePredictor.FeatureScaler(LstmTradePredictor.FeatureScaler.Type.ZSCORE);
+        scalers.featureScalers.put("close", new LstmTradePredictor.FeatureScaler(LstmTradePredictor.FeatureScaler.Type.MINMAX));
+        return new LstmTrainingDataSession.Prepared(Nd4j.zeros(numSeq, 2, 10), Nd4j.zeros(numSeq, 1), scalers, new double[numSeq]);
+    }
+
+    private static BarSeries series(int n) {
+        BarSeries series = new BaseBarSeriesBuilder().withName("SESSION").build();
+        ZonedDateTime start = ZonedDateTime.of(2022, 1, 1, 0, 0, 0, 0, java.time.ZoneId.of("UTC"));
+        for (int i = 0; i < n; i++) {
+            series.addBar(new BaseBar(Duration.ofDays(1), start.plusDays(i), "10", "11", "9", "10", "100"));
+        }
+        return series;
+    }
+
+    @Test
+    void concurrentConfigsPrepareEachKeyOnce() throws Exception {
+        LstmTrainingDataSession session = new LstmTrainingDataSession("TEST", LstmTrainingDataSession.DEFAULT_MAX_BYTES);
+        AtomicInteger preparations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<LstmTrainingDataSession.Prepared>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return session.getOrPrepare("k", () -> {
+                        preparations.incrementAndGet();
+                        return prepared(50);
+                    });
+                }));
+            }
+            start.countDown();
+            LstmTrainingDataSession.Prepared first = futures.get(0).get();
+            for (Future<LstmTrainingDataSession.Prepared> f : futures) {
+                assertSame(first, f.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, preparations.get());
+        assertEquals(1, session.getMisses());
+        assertEquals(7, session.getHits());
+    }
+
+    @Test
+    void scalersCopyDoesNotShareMap() {
+        LstmTrainingDataSession.Prepared p = prepared(5);
+        LstmTradePredictor.ScalerSet copy = p.scalersCopy();
+        copy.featureScalers.clear();
+        assertEquals(1, p.scalers.featureScalers.size());
+        assertSame(p.scalers.labelScaler, copy.labelScaler);
+    }
+
+    @Test
+    void budgetEvictsLeastRecentlyUsedAndCloseReleases() {
+        long entryBytes = prepared(100).bytes;
+        LstmTrainingDataSession session = new LstmTrainingDataSession("TEST", entryBytes * 2);
+        session.getOrPrepare("a", () -> prepared(100));
+        session.getOrPrepare("b", () -> prepared(100));
+        session.getOrPrepare("a", () -> prepared(100));
+        session.getOrPrepare("c", () -> prepared(100));
+        assertEquals(2, session.size());
+        assertEquals(1, session.getEvictions());
+        // "b" évincée (moins récemment utilisée) : nouvelle préparation
+        AtomicInteger preparations = new AtomicInteger();
+        session.getOrPrepare("a", () -> { preparations.incrementAndGet(); return prepared(100); });
+        assertEquals(0, preparations.get());
+
+        session.close();
+        assertEquals(0, session.size());
+        assertEquals(0, session.getBytes());
+        session.getOrPrepare("a", () -> { preparations.incrementAndGet(); return prepared(100); });
+        assertEquals(1, preparations.get());
+        assertEquals(0, session.size());
+    }
+
+    @Test
+    void zeroBudgetDisablesSharing() {
+        LstmTrainingDataSession session = new LstmTrainingDataSession("TEST", 0);
+        assertNotSame(session.getOrPrepare("k", () -> prepared(3)), session.getOrPrepare("k", () -> prepared(3)));
+        assertEquals(0, session.size());
+    }
+
+    @Test
+    void keyDependsOnWindowHorizonLabelModeAndSeries() {
+        BarSeries s = series(120);
+        List<String> features = List.of("close", "rsi");
+        LstmConfig config = new LstmConfig();
+        config.setWindowSize(20);
+        config.setHorizonBars(3);
+        String key = LstmTrainingDataSession.keyOf(s, config, features);
+        assertEquals(key, LstmTrainingDataSession.keyOf(s, config, List.of("close", "rsi")));
+        config.setWindowSize(30);
+        assertNotEquals(key, LstmTrainingDataSession.keyOf(s, config, features));
+        config.setWindowSize(20);
+        config.setUseMultiHorizonAvg(!config.isUseMultiHorizonAvg());
+        assertNotEquals(key, LstmTrainingDataSession.keyOf(s, config, features));
+        config.setUseMultiHorizonAvg(!config.isUseMultiHorizonAvg());
+        assertNotEquals(key, LstmTrainingDataSession.keyOf(s.getSubSeries(0, 100), config, features));
+    }
+}
@@ -0,0 +1,91 @@
+package com.app.backend.trade.lstm;
+
+import com.app.backend.trade.TestSeries;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BarSeries;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LstmTuningServiceTest {
+
+    private static Map<String, BarSeries> pool() {
+        Map<String, BarSeries> pool = new LinkedHashMap<>();
+        pool.put("AAA", TestSeries.randomWalk("AAA", 1500, 1));
+        pool.put("BBB", TestSeries.randomWalk("BBB", 900, 2));
+        pool.put("CCC", TestSeries.randomWalk("CCC", 2400, 3));
+        return pool;
+    }
+
+    @Test
+    void outOfSampleStartIsBeforeEveryTuningSplit() {
+        for (int bars : new int[]{300, 900, 2400}) {
+            int start = LstmTuningService.earliestOutOfSampleStart(bars, false);
+            assertTrue(start < bars * 80 / 100);
+            assertTrue(start <= bars * 75 / 100 - 5);
+            // Deux phases : avant le hold-out et avant le split de phase 2 de la série réduite
+            int twoPhase = LstmTuningService.earliestOutOfSampleStart(bars, true);
+            assertTrue(twoPhase <= start);
+            assertTrue(twoPhase < bars - Math.min(Math.max((int) (bars * 0.10), 200), bars / 3));
+        }
+        assertEquals(0, LstmTuningService.earliestOutOfSampleStart(4, true));
+    }
+
+    @Test
+    void poolSequencesNeverReachPastTheCutoff() {
+        for (boolean twoPhase : new boolean[]{false, true}) {
+            Map<String, BarSeries> pool = pool();
+            ZonedDateTime cutoff = LstmTuningService.pretrainCutoff(pool.values(), twoPhase);
+            assertNotNull(cutoff);
+            Map<String, BarSeries> cut = LstmTuningService.cutPoolAt(pool, cutoff);
+            assertEquals(pool.keySet(), cut.keySet());
+            for (Map.Entry<String, BarSeries> e : cut.entrySet()) {
+                BarSeries full = pool.get(e.getKey());
+                BarSeries series = e.getValue();
+                assertFalse(series.getLastBar().getEndTime().isAfter(cutoff));
+                // Début identique, aucune barre <= cutoff perdue
+                assertEquals(full.getFirstBar().getEndTime(), series.getFirstBar().getEndTime());
+                if (series.getBarCount() < full.getBarCount()) {
+                    assertTrue(full.getBar(series.getBarCount()).getEndTime().isAfter(cutoff));
+                }
+                // Coupure antérieure au début out-of-sample de chaque série du pool
+                int oosStart = LstmTuningService.earliestOutOfSampleStart(full.getBarCount(), twoPhase);
+                assertTrue(full.getBar(oosStart).getEndTime().isAfter(cutoff));
+                assertTrue(series.getBarCount() <= oosStart);
+            }
+        }
+    }
+
+    @Test
+    void tooShortSeriesDoNotSetTheCutoff() {
+        Map<String, BarSeries> pool = pool();
+        ZonedDateTime cutoff = LstmTuningService.pretrainCutoff(pool.values(), true);
+        pool.put("NEW", TestSeries.randomWalk("NEW", 3, 4));
+        assertEquals(cutoff, LstmTuningService.pretrainCutoff(pool.values(), true));
+        assertNull(LstmTuningService.pretrainCutoff(Map.of("NEW", TestSeries.randomWalk("NEW", 3, 4)).values(), true));
+    }
+
+    @Test
+    void valLossIsOnlyComparedWithinTheSameLabelSettings() {
+        LstmConfig a = new LstmConfig();
+        LstmConfig b = new LstmConfig();
+        // Architecture, fenêtre et optimisation n'influent pas sur l'échelle de la val_loss
+        b.setLstmNeurons(a.getLstmNeurons() * 2);
+        b.setWindowSize(a.getWindowSize() + 10);
+        b.setLearningRate(a.getLearningRate() * 3);
+        assertEquals(LstmTuningService.labelKey(a), LstmTuningService.labelKey(b));
+
+        LstmConfig horizon = new LstmConfig();
+        horizon.setHorizonBars(a.getHorizonBars() + 5);
+        assertNotEquals(LstmTuningService.labelKey(a), LstmTuningService.labelKey(horizon));
+        LstmConfig target = new LstmConfig();
+        target.setUseLogReturnTarget(!a.isUseLogReturnTarget());
+        assertNotEquals(LstmTuningService.labelKey(a), LstmTuningService.labelKey(target));
+        LstmConfig norm = new LstmConfig();
+        norm.setNormalizationMethod("zscore".equals(a.getNormalizationMethod()) ? "minmax" : "zscore");
+        assertNotEquals(LstmTuningService.labelKey(a), LstmTuningService.labelKey(norm));
+    }
+}
@@ -0,0 +1,75 @@
+package com.app.backend.trade.lstm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuccessiveHalvingSchedulerTest {
+
+    private static List<Integer> candidates(int n) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) list.add(i);
+        return list;
+    }
+
+    @Test
+    void budgetsGrowByEtaBelowFullBudget() {
+        assertEquals(List.of(10, 30, 90), new SuccessiveHalvingScheduler(10, 100, 3, 2).rungBudgets());
+        assertEquals(List.of(), new SuccessiveHalvingScheduler(100, 100, 3, 2).rungBudgets());
+    }
+
+    @Test
+    void promotesTopFractionUntilMinSurvivors() {
+        SuccessiveHalvingScheduler scheduler = new SuccessiveHalvingScheduler(10, 100, 3, 2);
+        List<int[]> rungs = new ArrayList<>();
+        List<Integer> budgetsSeen = Collections.synchronizedList(new ArrayList<>());
+        // Score = identifiant : les plus grands identifiants doivent survivre
+        List<Integer> survivors = scheduler.prune(candidates(27), (c, budget) -> {
+            budgetsSeen.add(budget);
+            return c;
+        }, null, (rung, budget, evaluated, kept) -> rungs.add(new int[]{rung, budget, evaluated, kept}));
+
+        assertEquals(List.of(25, 26), survivors);
+        assertEquals(3, rungs.size());
+        assertArrayEquals(new int[]{1, 10, 27, 9}, rungs.get(0));
+        assertArrayEquals(new int[]{2, 30, 9, 3}, rungs.get(1));
+        assertArrayEquals(new int[]{3, 90, 3, 2}, rungs.get(2));
+        assertEquals(27 + 9 + 3, budgetsSeen.size());
+    }
+
+    @Test
+    void failedCandidatesAreEliminated() {
+        SuccessiveHalvingScheduler scheduler = new SuccessiveHalvingScheduler(5, 20, 2, 1);
+        List<Integer> survivors = scheduler.prune(candidates(8), (c, budget) -> {
+            if (c % 2 == 0) throw new IllegalStateException("échec");
+            return c == 7 ? Double.NaN : -c;
+        }, null, null);
+        assertEquals(List.of(1, 3), survivors);
+    }
+
+    @Test
+    void allFailedRungKeepsCandidates() {
+        SuccessiveHalvingScheduler scheduler = new SuccessiveHalvingScheduler(5, 20, 2, 1);
+        List<Integer> survivors = scheduler.prune(candidates(4), (c, budget) -> Double.NaN, null, null);
+        assertEquals(candidates(4), survivors);
+    }
+
+    @Test
+    void parallelEvaluationMatchesSequential() {
+        SuccessiveHalvingScheduler scheduler = new SuccessiveHalvingScheduler(4, 64, 2, 3);
+        SuccessiveHalvingScheduler.RungEvaluator<Integer> evaluator = (c, budget) -> Math.sin(c * 1.7 + budget);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertEquals(scheduler.prune(candidates(40), evaluator, null, null),
+                scheduler.prune(candidates(40), evaluator, executor, null));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
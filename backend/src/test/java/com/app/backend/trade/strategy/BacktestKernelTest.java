@@ -0,0 +1,103 @@
+package com.app.backend.trade.strategy;
+
+import com.app.backend.trade.TestSeries;
+import com.app.backend.trade.model.RiskResult;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BarSeries;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacktestKernelTest {
+
+    private void assertSameMetrics(RiskResult expected, RiskResult actual) {
+        assertEquals(expected.rendement, actual.rendement, 1e-12);
+        assertEquals(expected.maxDrawdown, actual.maxDrawdown, 1e-12);
+        assertEquals(expected.tradeCount, actual.tradeCount);
+        assertEquals(expected.winRate, actual.winRate, 1e-12);
+        assertEquals(expected.avgPnL, actual.avgPnL, 1e-9);
+        assertEquals(expected.profitFactor, actual.profitFactor, 1e-9);
+        assertEquals(expected.avgTradeBars, actual.avgTradeBars, 1e-12);
+        assertEquals(expected.maxTradeGain, actual.maxTradeGain, 1e-9);
+        assertEquals(expected.maxTradeLoss, actual.maxTradeLoss, 1e-9);
+        assertEquals(expected.sharpeRatio, actual.sharpeRatio, 1e-9);
+        assertEquals(expected.stabilityScore, actual.stabilityScore, 1e-6 * Math.max(1.0, Math.abs(expected.stabilityScore)));
+    }
+
+    @Test
+    void kernelMatchesRuleBasedBacktest() {
+        StrategieBackTest backTest = new StrategieBackTest();
+        BarSeries series = TestSeries.randomWalk(600, 42L);
+        SeriesColumns columns = SeriesColumns.of(series);
+        List<TradeStrategy> strategies = List.of(
+            new RsiStrategy(14, 30, 70),
+            new RsiStrategy(7, 35, 65),
+            new MacdStrategy(12, 26, 9),
+            new SmaCrossoverStrategy(5, 20),
+            new MeanReversionStrategy(20, 2.0)
+        );
+        for (TradeStrategy strategy : strategies) {
+            RiskResult expected = backTest.backtestStrategyRisk(strategy, series);
+            RiskResult actual = backTest.backtestStrategyColumnar(strategy, series, columns);
+            assertSameMetrics(expected, actual);
+        }
+    }
+
+    @Test
+    void windowMatchesSlicedSignals() {
+        StrategieBackTest backTest = new StrategieBackTest();
+        BarSeries series = TestSeries.randomWalk(500, 21L);
+        SignalCache fullCache = new SignalCache(series);
+        TradeStrategy strategy = new SmaCrossoverStrategy(5, 20);
+        TradeSignals full = fullCache.get(strategy);
+        int from = 175, to = 250;
+        // Signaux "chauds" (calculés sur la série complète) recopiés sur une série découpée
+        java.util.BitSet entry = new java.util.BitSet();
+        java.util.BitSet exit = new java.util.BitSet();
+        for (int i = from; i < to; i++) {
+            if (full.isEntry(i)) entry.set(i - from);
+            if (full.isExit(i)) exit.set(i - from);
+        }
+        RiskResult expected = BacktestKernel.run(SeriesColumns.of(series.getSubSeries(from, to)), new TradeSignals(entry, exit, to - from),
+            StrategieBackTest.INITIAL_CAPITAL, StrategieBackTest.RISK_PER_TRADE, StrategieBackTest.STOP_LOSS_PCT, StrategieBackTest.TAKE_PROFIL_PCT);
+        assertSameMetrics(expected, backTest.backtestStrategy(strategy, fullCache.window(from, to)));
+        assertSameMetrics(expected, backTest.backtestStrategyRisk(strategy, series, from, to));
+        // Fenêtre complète = backtest classique
+        assertSameMetrics(backTest.backtestStrategyRisk(strategy, series), backTest.backtestStrategy(strategy, fullCache.window(0, series.getBarCount())));
+    }
+
+    @Test
+    void boundBelowResultDoesNotPrune() {
+        BarSeries series = TestSeries.randomWalk(600, 42L);
+        SignalCache cache = new SignalCache(series);
+        StrategieBackTest backTest = new StrategieBackTest();
+        TradeStrategy strategy = new SmaCrossoverStrategy(5, 20);
+        RiskResult full = backTest.backtestStrategy(strategy, cache);
+        // Borne égale au résultat réel : jamais d'abandon (comparaison stricte), mêmes métriques
+        RiskResult bounded = backTest.backtestStrategy(strategy, cache, PruningBound.incumbent(full.rendement));
+        assertFalse(bounded.partial);
+        assertSameMetrics(full, bounded);
+        // Borne inatteignable : abandon, résultat partiel inférieur à la borne
+        long saved = BacktestKernel.getBarsSaved();
+        RiskResult pruned = backTest.backtestStrategy(strategy, cache, PruningBound.incumbent(full.rendement + 10.0));
+        assertTrue(pruned.partial);
+        assertTrue(pruned.rendement < full.rendement + 10.0);
+        assertTrue(BacktestKernel.getBarsSaved() > saved);
+        // Borne de drawdown
+        if (full.maxDrawdown > 0) {
+            RiskResult ddPruned = backTest.backtestStrategy(strategy, cache, new PruningBound(Double.NEGATIVE_INFINITY, full.maxDrawdown / 2));
+            assertTrue(ddPruned.partial);
+        }
+    }
+
+    @Test
+    void emptySignalsGiveNoTrade() {
+        BarSeries series = TestSeries.randomWalk(50, 7L);
+        TradeSignals none = new TradeSignals(new java.util.BitSet(), new java.util.BitSet(), series.getBarCount());
+        RiskResult r = BacktestKernel.run(SeriesColumns.of(series), none, 10000, 0.15, 0.05, 0.1);
+        assertEquals(0, r.tradeCount);
+        assertEquals(0.0, r.rendement, 0.0);
+        assertEquals(0.0, r.sharpeRatio, 0.0);
+    }
+}
@@ -0,0 +1,62 @@
+package com.app.backend.trade.strategy;
+
+import com.app.backend.trade.TestSeries;
+import com.app.backend.trade.model.RiskResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchBacktestKernelTest {
+
+    private List<TradeStrategy> smaGrid() {
+        List<TradeStrategy> strategies = new ArrayList<>();
+        for (int s = 3; s <= 15; s += 2) {
+            for (int l = 20; l <= 60; l += 8) {
+                strategies.add(new SmaCrossoverStrategy(s, l));
+            }
+        }
+        return strategies;
+    }
+
+    private void assertSameResult(RiskResult expected, RiskResult actual) {
+        // Mêmes opérations dans le même ordre : égalité exacte
+        assertEquals(expected.rendement, actual.rendement, 0.0);
+        assertEquals(expected.maxDrawdown, actual.maxDrawdown, 0.0);
+        assertEquals(expected.tradeCount, actual.tradeCount);
+        assertEquals(expected.winRate, actual.winRate, 0.0);
+        assertEquals(expected.profitFactor, actual.profitFactor, 0.0);
+        assertEquals(expected.avgTradeBars, actual.avgTradeBars, 0.0);
+        assertEquals(expected.sharpeRatio, actual.sharpeRatio, 0.0);
+        assertEquals(expected.partial, actual.partial);
+    }
+
+    @Test
+    void lanesMatchSingleBacktests() {
+        StrategieBackTest backTest = new StrategieBackTest();
+        SignalCache cache = new SignalCache(TestSeries.randomWalk(700, 9L));
+        List<TradeStrategy> strategies = smaGrid();
+        for (SignalCache window : List.of(cache, cache.window(150, 520))) {
+            for (PruningBound bound : List.of(PruningBound.NONE, PruningBound.incumbent(0.05), new PruningBound(Double.NEGATIVE_INFINITY, 0.02))) {
+                RiskResult[] batch = backTest.backtestBatch(strategies, window, bound);
+                assertEquals(strategies.size(), batch.length);
+                for (int i = 0; i < strategies.size(); i++) {
+                    assertSameResult(backTest.backtestStrategy(strategies.get(i), window, bound), batch[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void tooManyLanesRejected() {
+        StrategieBackTest backTest = new StrategieBackTest();
+        SignalCache cache = new SignalCache(TestSeries.randomWalk(100, 1L));
+        List<TradeStrategy> strategies = new ArrayList<>();
+        for (int i = 0; i <= BatchBacktestKernel.MAX_LANES; i++) {
+            strategies.add(new SmaCrossoverStrategy(2, 10 + i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> backTest.backtestBatch(strategies, cache, PruningBound.NONE));
+    }
+}
@@ -0,0 +1,47 @@
+package com.app.backend.trade.strategy;
+
+import com.app.backend.trade.TestSeries;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BarSeries;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndicatorRegistryTest {
+
+    @Test
+    void sameKeyReturnsSameIndicator() {
+        IndicatorRegistry registry = new IndicatorRegistry(TestSeries.randomWalk(100, 1L));
+        assertSame(registry.sma(20), registry.sma(IndicatorRegistry.Source.CLOSE, 20));
+        assertNotSame(registry.sma(20), registry.sma(IndicatorRegistry.Source.HIGH, 20));
+        assertNotSame(registry.sma(20), registry.ema(IndicatorRegistry.Source.CLOSE, 20));
+        assertSame(registry.macdSignal(12, 26, 9), registry.macdSignal(12, 26, 9));
+        assertTrue(registry.getHits() > 0);
+    }
+
+    @Test
+    void sharedIndicatorsGiveSameSignals() {
+        BarSeries series = TestSeries.randomWalk(400, 3L);
+        SignalCache cache = new SignalCache(series);
+        List<TradeStrategy> strategies = List.of(
+            new SmaCrossoverStrategy(5, 20),
+            new MeanReversionStrategy(20, 2.0),
+            new TrendFollowingStrategy(20),
+            new ImprovedTrendFollowingStrategy(20, 10, 20, 0.005, true, 14),
+            new BreakoutStrategy(15),
+            new RsiStrategy(14, 30, 70),
+            new MacdStrategy(12, 26, 9)
+        );
+        for (TradeStrategy strategy : strategies) {
+            TradeSignals shared = cache.get(strategy);
+            TradeSignals fresh = TradeSignals.of(strategy.getEntryRule(series), strategy.getExitRule(series), series.getBarCount());
+            for (int i = 0; i < series.getBarCount(); i++) {
+                assertEquals(fresh.isEntry(i), shared.isEntry(i), strategy.getKey() + " entry@" + i);
+                assertEquals(fresh.isExit(i), shared.isExit(i), strategy.getKey() + " exit@" + i);
+            }
+        }
+        // SMA(20) sur la clôture commune aux quatre premières stratégies
+        assertTrue(cache.getIndicators().getHits() > 0);
+    }
+}
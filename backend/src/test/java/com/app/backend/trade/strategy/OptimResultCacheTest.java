@@ -0,0 +1,55 @@
+package com.app.backend.trade.strategy;
+
+import com.app.backend.trade.TestSeries;
+import com.app.backend.trade.model.RiskResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimResultCacheTest {
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        OptimResultCache cache = new OptimResultCache(2);
+        assertEquals("a", cache.get("A", () -> "a"));
+        assertEquals("b", cache.get("B", () -> "b"));
+        assertEquals("a", cache.get("A", () -> "x"));
+        cache.get("C", () -> "c");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        // B (le moins récemment utilisé) a été évincé, A est toujours présent
+        assertEquals("b2", cache.get("B", () -> "b2"));
+        assertEquals(1, cache.getHits());
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    void sameDataAndWindowHitTheCache() {
+        StrategieBackTest backTest = new StrategieBackTest();
+        // Deux séries construites séparément avec les mêmes bougies (ex: pipelines single puis mix)
+        SignalCache first = new SignalCache(TestSeries.randomWalk(400, 3L)).window(0, 140);
+        SignalCache second = new SignalCache(TestSeries.randomWalk(400, 3L)).window(0, 140);
+        assertEquals(first.getDataKey(), second.getDataKey());
+        StrategieBackTest.SmaCrossoverParams a = backTest.optimiseSmaCrossoverParameters(first, 5, 20, 20, 60);
+        long misses = backTest.getResultCache().getMisses();
+        StrategieBackTest.SmaCrossoverParams b = backTest.optimiseSmaCrossoverParameters(second, 5, 20, 20, 60);
+        assertSame(a, b);
+        assertEquals(misses, backTest.getResultCache().getMisses());
+        // Autre fenêtre ou autres données : pas de hit
+        assertNotEquals(first.getDataKey(), new SignalCache(TestSeries.randomWalk(400, 4L)).getDataKey());
+        backTest.optimiseSmaCrossoverParameters(second.window(140, 200), 5, 20, 20, 60);
+        assertEquals(misses + 1, backTest.getResultCache().getMisses());
+    }
+
+    @Test
+    void cachedRiskResultIsACopy() {
+        StrategieBackTest backTest = new StrategieBackTest();
+        SignalCache cache = new SignalCache(TestSeries.randomWalk(300, 8L));
+        TradeStrategy strategy = new RsiStrategy(14, 30, 70);
+        RiskResult first = backTest.backtestStrategy(strategy, cache);
+        first.setNumFlod(2);
+        RiskResult second = backTest.backtestStrategy(strategy, cache);
+        assertEquals(0, second.numFlod);
+        assertEquals(first.rendement, second.rendement, 0.0);
+    }
+}
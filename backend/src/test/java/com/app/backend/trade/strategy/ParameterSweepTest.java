@@ -0,0 +1,155 @@
+package com.app.backend.trade.strategy;
+
+import com.app.backend.trade.TestSeries;
+import com.app.backend.trade.model.RiskResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeriesBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParameterSweepTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(8);
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    private ParameterSweep sweeper(int threads) {
+        ParameterSweep sweeper = new ParameterSweep(pool);
+        sweeper.setParallelism(threads);
+        return sweeper;
+    }
+
+    private List<Double> randomReturns(int n, long seed) {
+        Random rnd = new Random(seed);
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            // valeurs arrondies pour provoquer des égalités
+            values.add(Math.round(rnd.nextGaussian() * 100) / 1000.0);
+        }
+        return values;
+    }
+
+    /** Boucle séquentielle de référence (même logique que les optimiseurs avant parallélisation). */
+    private int sequentialBest(List<Double> values, double threshold) {
+        double best = Double.NEGATIVE_INFINITY;
+        int bestIndex = -1;
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) > best) {
+                best = values.get(i);
+                bestIndex = i;
+            }
+            if (best > threshold) break;
+        }
+        return bestIndex;
+    }
+
+    private ParameterSweep.Result<Double> sweep(ParameterSweep sweeper, List<Double> values, double threshold) {
+        SignalCache cache = new SignalCache(new BaseBarSeriesBuilder().withName("EMPTY").build());
+        return sweeper.run(values, cache, (v, c, b) -> RiskResult.builder().rendement(v).build(), threshold);
+    }
+
+    @Test
+    void sameBestWhateverTheThreadCount() {
+        List<Double> values = randomReturns(5000, 11L);
+        for (double threshold : new double[]{Double.POSITIVE_INFINITY, 0.3, 0.25}) {
+            int expected = sequentialBest(values, threshold);
+            for (int threads : new int[]{1, 2, 4, 8}) {
+                ParameterSweep.Result<Double> r = sweep(sweeper(threads), values, threshold);
+                assertEquals(expected, r.bestIndex, "threads=" + threads + " threshold=" + threshold);
+                assertEquals(values.get(expected), r.bestReturn, 0.0);
+            }
+        }
+    }
+
+    @Test
+    void pruningKeepsSameBest() {
+        BarSeries series = TestSeries.randomWalk(800, 5L);
+        StrategieBackTest backTest = new StrategieBackTest();
+        List<int[]> candidates = new ArrayList<>();
+        for (int s = 2; s <= 20; s++) {
+            for (int l = s + 5; l <= 60; l += 5) {
+                candidates.add(new int[]{s, l});
+            }
+        }
+        ParameterSweep.Evaluator<int[]> evaluator = (p, c, b) -> backTest.backtestStrategy(new SmaCrossoverStrategy(p[0], p[1]), c, b);
+        for (int threads : new int[]{1, 4}) {
+            ParameterSweep exhaustive = sweeper(threads);
+            exhaustive.setPruning(false);
+            ParameterSweep.Result<int[]> reference = exhaustive.run(candidates, new SignalCache(series), evaluator, Double.POSITIVE_INFINITY);
+            long savedBefore = BacktestKernel.getBarsSaved();
+            ParameterSweep.Result<int[]> pruned = sweeper(threads).run(candidates, new SignalCache(series), evaluator, Double.POSITIVE_INFINITY);
+            assertEquals(reference.bestIndex, pruned.bestIndex, "threads=" + threads);
+            assertEquals(reference.bestReturn, pruned.bestReturn, 0.0);
+            assertTrue(BacktestKernel.getBarsSaved() >= savedBefore);
+        }
+    }
+
+    @Test
+    void oneCacheForkPerWorkerThread() {
+        List<Double> values = randomReturns(5000, 3L);
+        SignalCache cache = new SignalCache(new BaseBarSeriesBuilder().withName("EMPTY").build());
+        Set<SignalCache> seen = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            // 4 threads => 16 segments ; un seul fork par thread (4 du pool, plus l'appelant qui peut exécuter la racine)
+            new ParameterSweep(four).run(values, cache, (v, c, b) -> {
+                seen.add(c);
+                return RiskResult.builder().rendement(v).build();
+            }, Double.POSITIVE_INFINITY);
+        } finally {
+            four.shutdown();
+        }
+        assertFalse(seen.isEmpty());
+        assertTrue(seen.size() <= 5, "forks=" + seen.size());
+        assertFalse(seen.contains(cache));
+    }
+
+    @Test
+    void threadsAreBoundedByThePoolAndConfigurationIsPerInstance() {
+        List<Double> values = randomReturns(5000, 7L);
+        SignalCache cache = new SignalCache(new BaseBarSeriesBuilder().withName("EMPTY").build());
+        Set<Thread> threads = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        ForkJoinPool small = new ForkJoinPool(2);
+        try {
+            ParameterSweep sweeper = new ParameterSweep(small);
+            sweeper.setParallelism(16);
+            ParameterSweep.Result<Double> r = sweeper.run(values, cache, (v, c, b) -> {
+                threads.add(Thread.currentThread());
+                return RiskResult.builder().rendement(v).build();
+            }, Double.POSITIVE_INFINITY);
+            assertEquals(sequentialBest(values, Double.POSITIVE_INFINITY), r.bestIndex);
+            // 2 threads du pool, plus l'appelant
+            assertTrue(threads.size() <= 3, "threads=" + threads.size());
+        } finally {
+            small.shutdown();
+        }
+        ParameterSweep a = new ParameterSweep();
+        ParameterSweep b = new ParameterSweep();
+        a.setPruning(false);
+        a.setParallelism(1);
+        a.setMaxDrawdownBound(0.2);
+        assertTrue(b.isPruning());
+        assertEquals(Runtime.getRuntime().availableProcessors(), b.getParallelism());
+        assertEquals(Double.POSITIVE_INFINITY, b.getMaxDrawdownBound());
+    }
+
+    @Test
+    void emptyCandidatesGiveNoBest() {
+        ParameterSweep.Result<Double> r = sweep(sweeper(4), new ArrayList<>(), 0.3);
+        assertNull(r.best);
+        assertEquals(0, r.tested);
+    }
+}
@@ -0,0 +1,60 @@
+package com.app.backend.trade.util;
+
+import com.app.backend.trade.model.DailyValue;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.num.DecimalNum;
+import org.ta4j.core.num.DoubleNum;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BarSeriesFactoryTest {
+
+    private static List<DailyValue> values() {
+        return List.of(
+            DailyValue.builder().date("2024-01-02").open("10.0").high("11.0").low("9.5").close("10.5").volume("1000").build(),
+            DailyValue.builder().date("2024-01-03").open("10.5").high("10.9").low("10.1").close("10.2").volume("1200").build(),
+            // Doublon de date ignoré
+            DailyValue.builder().date("2024-01-03").open("1").high("1").low("1").close("1").volume("1").build());
+    }
+
+    @Test
+    void modeIsParsedFromTheProperty() {
+        assertEquals(BarSeriesFactory.NumMode.DOUBLE, BarSeriesFactory.parseMode("double"));
+        assertEquals(BarSeriesFactory.NumMode.DOUBLE, BarSeriesFactory.parseMode(" DOUBLE "));
+        assertEquals(BarSeriesFactory.NumMode.DECIMAL, BarSeriesFactory.parseMode("decimal"));
+        // Valeur absente ou inconnue : comportement historique
+        assertEquals(BarSeriesFactory.NumMode.DECIMAL, BarSeriesFactory.parseMode(null));
+        assertEquals(BarSeriesFactory.NumMode.DECIMAL, BarSeriesFactory.parseMode("float"));
+    }
+
+    @Test
+    void configuredModeSelectsTheNumType() {
+        BarSeriesFactory decimal = new BarSeriesFactory("decimal");
+        BarSeriesFactory dbl = new BarSeriesFactory("double");
+        assertInstanceOf(DecimalNum.class, decimal.newSeries().numOf(1));
+        assertInstanceOf(DoubleNum.class, dbl.newSeries().numOf(1));
+
+        BarSeries a = decimal.mapping(values());
+        BarSeries b = dbl.mapping(values());
+        assertEquals(BarSeriesFactory.NumMode.DECIMAL, BarSeriesFactory.modeOf(a));
+        assertEquals(BarSeriesFactory.NumMode.DOUBLE, BarSeriesFactory.modeOf(b));
+        assertEquals(2, a.getBarCount());
+        assertEquals(2, b.getBarCount());
+        for (int i = 0; i < a.getBarCount(); i++) {
+            assertEquals(a.getBar(i).getEndTime(), b.getBar(i).getEndTime());
+            assertEquals(a.getBar(i).getClosePrice().doubleValue(), b.getBar(i).getClosePrice().doubleValue(), 0.0);
+        }
+    }
+
+    @Test
+    void seriesLikeKeepsTheTemplateNumType() {
+        BarSeries template = BarSeriesFactory.newSeries("T", BarSeriesFactory.NumMode.DOUBLE);
+        assertEquals("T", template.getName());
+        assertEquals(BarSeriesFactory.NumMode.DOUBLE, BarSeriesFactory.modeOf(BarSeriesFactory.newSeriesLike(template)));
+        assertEquals(BarSeriesFactory.NumMode.DECIMAL,
+            BarSeriesFactory.modeOf(BarSeriesFactory.newSeriesLike(BarSeriesFactory.newSeries(BarSeriesFactory.NumMode.DECIMAL))));
+    }
+}
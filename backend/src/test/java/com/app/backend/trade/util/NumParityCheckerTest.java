@@ -0,0 +1,53 @@
+package com.app.backend.trade.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumParityCheckerTest {
+
+    private static final double ABS = NumParityChecker.DEFAULT_ABSOLUTE_TOLERANCE;
+    private static final double REL = NumParityChecker.DEFAULT_TOLERANCE;
+
+    @Test
+    void nearZeroRoundingIsWithinTolerance() {
+        // Écart relatif énorme mais écart absolu au niveau de l'arrondi : concordance
+        assertTrue(NumParityChecker.relativeDeviation(1e-17, -2e-17) > REL);
+        assertTrue(NumParityChecker.withinTolerance(1e-17, -2e-17, ABS, REL));
+        assertTrue(NumParityChecker.withinTolerance(0.0, 1e-12, ABS, REL));
+        assertFalse(NumParityChecker.withinTolerance(0.0, 1e-6, ABS, REL));
+    }
+
+    @Test
+    void largeValuesUseTheRelativePart() {
+        assertTrue(NumParityChecker.withinTolerance(1e6, 1e6 * (1 + 1e-12), ABS, REL));
+        // 1e-4 en absolu mais 1e-10 en relatif
+        assertTrue(NumParityChecker.withinTolerance(1e6, 1e6 + 1e-4, ABS, REL));
+        assertFalse(NumParityChecker.withinTolerance(1e6, 1e6 * (1 + 1e-6), ABS, REL));
+        assertFalse(NumParityChecker.withinTolerance(0.5, 0.5 + 1e-6, ABS, REL));
+    }
+
+    @Test
+    void nonFiniteValues() {
+        assertTrue(NumParityChecker.withinTolerance(Double.NaN, Double.NaN, ABS, REL));
+        assertTrue(NumParityChecker.withinTolerance(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, ABS, REL));
+        assertFalse(NumParityChecker.withinTolerance(Double.NaN, 1.0, ABS, REL));
+        assertFalse(NumParityChecker.withinTolerance(Double.POSITIVE_INFINITY, 1.0, ABS, REL));
+        assertEquals(Double.POSITIVE_INFINITY, NumParityChecker.absoluteDeviation(Double.NEGATIVE_INFINITY, 1.0));
+        assertEquals(0.0, NumParityChecker.relativeDeviation(Double.NaN, Double.NaN));
+    }
+
+    @Test
+    void emptySampleReportsTolerances() {
+        NumParityChecker checker = new NumParityChecker(null, null);
+        NumParityChecker.ParityReport report = checker.check(Map.of(), 1e-12, 1e-8);
+        assertEquals(0, report.symbolsChecked);
+        assertEquals(1e-12, report.absoluteTolerance);
+        assertEquals(1e-8, report.tolerance);
+        assertTrue(report.toleranceFailures.isEmpty());
+        assertTrue(report.withinTolerance);
+        assertEquals(ABS, checker.check(Map.of(), REL).absoluteTolerance);
+    }
+}